@@ -0,0 +1,151 @@
+/**
+ */
+package de.uni_paderborn.uppaal.evaluation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.serialization.UppaalTextParser;
+import de.uni_paderborn.uppaal.serialization.UppaalXMLReader;
+import de.uni_paderborn.uppaal.simulation.SystemInstance;
+
+/**
+ * Checks that the bytecode of the {@link ExpressionCompiler} computes the same values and updates as the {@link ExpressionEvaluator},
+ * and fails in the same states.
+ * Each expression is evaluated in states combining small positive and negative values of <code>x</code> and <code>y</code>.
+ */
+public class CompilerParityTest {
+	private static final int[] VALUES = { -7, -2, -1, 0, 1, 2, 3, 5 };
+
+	private UppaalTextParser expressionParser;
+
+	private SlotLayout globalLayout;
+
+	@Before
+	public void setUp() throws IOException {
+		InputStream in = CompilerParityTest.class.getResourceAsStream("parity.xml");
+		NTA nta;
+		try {
+			nta = new UppaalXMLReader() {
+				@Override
+				protected UppaalTextParser createParser(NTA nta) {
+					// keeps the global scope for parsing the expressions
+					expressionParser = super.createParser(nta);
+					return expressionParser;
+				}
+			}.read(in);
+		}
+		finally {
+			in.close();
+		}
+		globalLayout = new SystemInstance(nta).getGlobalLayout();
+	}
+
+	@Test
+	public void agreesOnArithmetic() throws IOException {
+		assertParity("x + y * 3 - -x");
+		assertParity("x / y");
+		assertParity("x % y");
+		assertParity("x << 2 | y >> 1");
+		assertParity("x & y ^ y");
+		assertParity("x <? y");
+		assertParity("x >? y");
+		assertParity("x > y ? x : y");
+	}
+
+	@Test
+	public void agreesOnConditions() throws IOException {
+		assertParity("x == y || x != 0 && !b");
+		assertParity("x > 0 imply y > 0");
+		assertParity("not (x <= y) and y >= 0");
+	}
+
+	@Test
+	public void agreesOnArrays() throws IOException {
+		assertParity("a[x]");
+		assertParity("a[1] += y");
+		assertParity("s.g[y] = x");
+		assertParity("s.f = a[2] * 2");
+	}
+
+	@Test
+	public void agreesOnAssignments() throws IOException {
+		String[] operators = { "=", "+=", "-=", "*=", "/=", "%=", "<<=", ">>=", "|=", "&=", "^=" };
+		for (String operator : operators) {
+			assertParity("x " + operator + " y");
+		}
+		assertParity("x++");
+		assertParity("--y");
+		assertParity("r = x");
+		assertParity("b = x > y");
+	}
+
+	@Test
+	public void agreesOnQuantifications() throws IOException {
+		assertParity("forall (i : int[0,N-1]) a[i] >= x");
+		assertParity("exists (i : int[0,N-1]) a[i] == y");
+	}
+
+	/**
+	 * Compiles an expression to bytecode and compares its results with those of the interpreter.
+	 */
+	private void assertParity(String text) throws IOException {
+		Expression expression = expressionParser.parseExpression(text);
+		// the variables of quantifications are stored in the frame
+		SlotLayout layout = new SlotLayout(globalLayout, globalLayout.getSize(), globalLayout.getChannelCount());
+		layout.addLocals(expression);
+		ExpressionCompiler compiler = new ExpressionCompiler(layout);
+		CompiledExpression compiled = compiler.compile(expression);
+		assertEquals(text + " is compiled", 1, compiler.getCompiledCount());
+		ExpressionEvaluator evaluator = new ExpressionEvaluator(layout);
+		for (int x : VALUES) {
+			for (int y : VALUES) {
+				int[] state = layout.createState();
+				state[getOffset(layout, "x")] = x;
+				state[getOffset(layout, "y")] = y;
+				state[getOffset(layout, "a") + 2] = y;
+				int[] compiledState = state.clone();
+				int[] interpretedState = state.clone();
+				String compiledResult = evaluate(compiled, null, expression, compiledState, layout);
+				String interpretedResult = evaluate(null, evaluator, expression, interpretedState, layout);
+				String message = text + " with x = " + x + ", y = " + y;
+				assertEquals(message, interpretedResult, compiledResult);
+				assertArrayEquals(message, interpretedState, compiledState);
+			}
+		}
+	}
+
+	/**
+	 * Evaluates an expression by its compiled code or by an interpreter and returns the value or the failure.
+	 */
+	private static String evaluate(CompiledExpression compiled, ExpressionEvaluator evaluator, Expression expression, int[] state, SlotLayout layout) {
+		int[] frame = new int[Math.max(1, layout.getFrameSize())];
+		try {
+			return Integer.toString(compiled != null ? compiled.evaluate(state, frame) : evaluator.evaluate(expression, state, frame));
+		}
+		catch (EvaluationException e) {
+			return "failure";
+		}
+	}
+
+	/**
+	 * Returns the first slot of a variable.
+	 */
+	private static int getOffset(SlotLayout layout, String name) {
+		for (int slot = 0; slot < layout.getSize(); slot++) {
+			if (name.equals(layout.getVariable(slot).getName())) {
+				return slot;
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+
+}
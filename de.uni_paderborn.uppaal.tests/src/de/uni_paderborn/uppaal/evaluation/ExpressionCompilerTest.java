@@ -0,0 +1,108 @@
+/**
+ */
+package de.uni_paderborn.uppaal.evaluation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.serialization.UppaalXMLReader;
+import de.uni_paderborn.uppaal.simulation.SystemInstance;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.Template;
+
+/**
+ * Checks that a compiler with an {@link ExpressionInterner} shares one compiled class between structurally equal expressions.
+ * In the model, the first two edges of <code>P</code> have equal guards and updates, the third one differs,
+ * and the invariants of both locations are equal quantifications, whose variables are distinct objects.
+ */
+public class ExpressionCompilerTest {
+	private SystemInstance system;
+
+	private Template template;
+
+	private ExpressionInterner interner;
+
+	private ExpressionCompiler compiler;
+
+	@Before
+	public void setUp() throws IOException {
+		InputStream in = ExpressionCompilerTest.class.getResourceAsStream("sharing.xml");
+		NTA nta;
+		try {
+			nta = new UppaalXMLReader().read(in);
+		}
+		finally {
+			in.close();
+		}
+		system = new SystemInstance(nta);
+		template = nta.getTemplate().get(0);
+		interner = new ExpressionInterner();
+		compiler = new ExpressionCompiler(system.getLayout(0), interner);
+	}
+
+	@Test
+	public void sharesEqualGuardsAndUpdates() {
+		assertSame(compiler.getGuard(getEdge(0)), compiler.getGuard(getEdge(1)));
+		assertSame(compiler.getUpdate(getEdge(0)), compiler.getUpdate(getEdge(1)));
+		assertNotSame(compiler.getGuard(getEdge(0)), compiler.getGuard(getEdge(2)));
+		assertNotSame(compiler.getUpdate(getEdge(0)), compiler.getUpdate(getEdge(2)));
+		assertEquals(4, compiler.getCompiledCount() + compiler.getInterpretedCount());
+		// k++ occurs on all three edges
+		assertEquals(4, interner.getDuplicateCount());
+		assertEquals(5, interner.getCanonicalCount());
+	}
+
+	@Test
+	public void sharesEqualQuantifications() {
+		CompiledExpression invariant = compiler.getInvariant(template.getLocation().get(0));
+		assertSame(invariant, compiler.getInvariant(template.getLocation().get(1)));
+		int[] state = system.createState();
+		int[] frame = new int[Math.max(1, system.getLayout(0).getFrameSize())];
+		assertEquals(1, invariant.evaluate(state, frame));
+		state[getOffset("a") + 1] = 5;
+		assertEquals(0, invariant.evaluate(state, frame));
+	}
+
+	@Test
+	public void evaluatesSharedCode() {
+		int[] state = system.createState();
+		int[] frame = new int[Math.max(1, system.getLayout(0).getFrameSize())];
+		compiler.getUpdate(getEdge(1)).evaluate(state, frame);
+		compiler.getUpdate(getEdge(0)).evaluate(state, frame);
+		assertEquals(2, state[getOffset("a")]);
+		assertEquals(0, compiler.getGuard(getEdge(2)).evaluate(state, frame));
+		assertEquals(1, compiler.getGuard(getEdge(0)).evaluate(state, frame));
+	}
+
+	@Test
+	public void compilesEachExpressionWithoutInterner() {
+		ExpressionCompiler unshared = new ExpressionCompiler(system.getLayout(0));
+		assertNotSame(unshared.getGuard(getEdge(0)), unshared.getGuard(getEdge(1)));
+	}
+
+	private Edge getEdge(int index) {
+		return template.getEdge().get(index);
+	}
+
+	/**
+	 * Returns the first slot of a variable.
+	 */
+	private int getOffset(String name) {
+		SlotLayout layout = system.getLayout(0);
+		for (int slot = 0; slot < layout.getSize(); slot++) {
+			if (name.equals(layout.getVariable(slot).getName())) {
+				return slot;
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+
+}
@@ -0,0 +1,71 @@
+/**
+ */
+package de.uni_paderborn.uppaal.evaluation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.serialization.UppaalTextPrinter;
+import de.uni_paderborn.uppaal.serialization.UppaalXMLReader;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.Template;
+
+/**
+ * Checks that the simplifier keeps operands which may fail at run time, i.e. divisions by zero and array accesses,
+ * when it shortens logical operations and removes updates.
+ */
+public class ExpressionSimplifierTest {
+	private Template template;
+
+	@Before
+	public void setUp() throws IOException {
+		InputStream in = ExpressionSimplifierTest.class.getResourceAsStream("simplifier.xml");
+		NTA nta;
+		try {
+			nta = new UppaalXMLReader().read(in);
+		}
+		finally {
+			in.close();
+		}
+		template = nta.getTemplate().get(0);
+		new ExpressionSimplifier().simplify(nta);
+	}
+
+	@Test
+	public void keepsDivisionByZero() throws IOException {
+		assertEquals("1 / 0 == 1 || true", print(getEdge(0).getGuard()));
+		assertEquals("c % 0 == 1 || true", print(getEdge(1).getGuard()));
+	}
+
+	@Test
+	public void keepsArrayAccess() throws IOException {
+		assertEquals("a[10] > 0 && false", print(getEdge(2).getGuard()));
+		assertEquals(1, getEdge(5).getUpdate().size());
+		assertEquals("a[10] = a[10]", print(getEdge(5).getUpdate().get(0)));
+	}
+
+	@Test
+	public void shortensDivisionByNonZeroConstant() throws IOException {
+		assertNull(getEdge(3).getGuard());
+		assertEquals("false", print(getEdge(4).getGuard()));
+	}
+
+	private Edge getEdge(int index) {
+		return template.getEdge().get(index);
+	}
+
+	private static String print(Expression expression) throws IOException {
+		StringBuilder text = new StringBuilder();
+		new UppaalTextPrinter(text).printExpression(expression);
+		return text.toString();
+	}
+
+}
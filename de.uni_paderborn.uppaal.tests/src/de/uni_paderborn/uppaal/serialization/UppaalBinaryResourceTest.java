@@ -0,0 +1,82 @@
+/**
+ */
+package de.uni_paderborn.uppaal.serialization;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.Test;
+
+import de.uni_paderborn.uppaal.NTA;
+
+/**
+ * Checks that loading a saved {@link UppaalBinaryResourceImpl} yields an equal NTA, and that it is smaller than EMF's binary encoding.
+ * The visuals model has negative and large coordinates, colors, nails and comments with XML special characters.
+ */
+public class UppaalBinaryResourceTest {
+	private static final URI TEST_URI = URI.createURI("test." + UppaalBinaryResourceFactoryImpl.FILE_EXTENSION);
+
+	@Test
+	public void roundTripsValidationModel() throws IOException {
+		NTA nta = read("/de/uni_paderborn/uppaal/validation/valid.xml");
+		// the channel lists of priorities refer to expressions without containing them, so no resource can store them
+		nta.getGlobalDeclarations().setChannelPriority(null);
+		assertRoundTrip(nta);
+	}
+
+	@Test
+	public void roundTripsBroadcastModel() throws IOException {
+		assertRoundTrip(read("/de/uni_paderborn/uppaal/verification/broadcast.xml"));
+	}
+
+	@Test
+	public void roundTripsVisualsModel() throws IOException {
+		assertRoundTrip(read("/de/uni_paderborn/uppaal/serialization/visuals.xml"));
+	}
+
+	@Test
+	public void isSmallerThanBinaryResource() throws IOException {
+		NTA nta = read("/de/uni_paderborn/uppaal/validation/valid.xml");
+		nta.getGlobalDeclarations().setChannelPriority(null);
+		int compact = save(new UppaalBinaryResourceFactoryImpl().createResource(TEST_URI), nta).length;
+		int plain = save(new BinaryResourceImpl(TEST_URI), nta).length;
+		assertTrue(compact + " < " + plain, compact < plain);
+	}
+
+	private static void assertRoundTrip(NTA nta) throws IOException {
+		byte[] bytes = save(new UppaalBinaryResourceFactoryImpl().createResource(TEST_URI), nta);
+		Resource resource = new UppaalBinaryResourceFactoryImpl().createResource(TEST_URI);
+		resource.load(new ByteArrayInputStream(bytes), Collections.emptyMap());
+		assertTrue(EcoreUtil.equals(nta, resource.getContents().get(0)));
+	}
+
+	/**
+	 * Saves a copy of an NTA, so that the original is not moved to the resource.
+	 */
+	private static byte[] save(Resource resource, NTA nta) throws IOException {
+		resource.getContents().add(EcoreUtil.copy(nta));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		resource.save(out, Collections.emptyMap());
+		return out.toByteArray();
+	}
+
+	private static NTA read(String path) throws IOException {
+		InputStream in = UppaalBinaryResourceTest.class.getResourceAsStream(path);
+		try {
+			return new UppaalXMLReader().read(in);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+}
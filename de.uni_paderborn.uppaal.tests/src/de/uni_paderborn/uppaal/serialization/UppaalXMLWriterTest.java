@@ -0,0 +1,67 @@
+/**
+ */
+package de.uni_paderborn.uppaal.serialization;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.Test;
+
+import de.uni_paderborn.uppaal.NTA;
+
+/**
+ * Checks that reading a written NTA yields an equal NTA, and that unset names are written as empty elements.
+ */
+public class UppaalXMLWriterTest {
+
+	@Test
+	public void roundTripsValidationModel() throws IOException {
+		assertRoundTrip("/de/uni_paderborn/uppaal/validation/valid.xml");
+	}
+
+	@Test
+	public void roundTripsBroadcastModel() throws IOException {
+		assertRoundTrip("/de/uni_paderborn/uppaal/verification/broadcast.xml");
+	}
+
+	@Test
+	public void roundTripsSimplifierModel() throws IOException {
+		assertRoundTrip("/de/uni_paderborn/uppaal/evaluation/simplifier.xml");
+	}
+
+	@Test
+	public void writesTemplateWithoutName() throws IOException {
+		NTA nta = read("/de/uni_paderborn/uppaal/verification/broadcast.xml");
+		nta.getTemplate().get(0).setName(null);
+		assertTrue(write(nta).contains("<template>\n\t\t<name></name>\n"));
+	}
+
+	private static void assertRoundTrip(String path) throws IOException {
+		NTA nta = read(path);
+		String text = write(nta);
+		NTA copy = new UppaalXMLReader().read(new StringReader(text));
+		assertTrue(text, EcoreUtil.equals(nta, copy));
+	}
+
+	private static NTA read(String path) throws IOException {
+		InputStream in = UppaalXMLWriterTest.class.getResourceAsStream(path);
+		try {
+			return new UppaalXMLReader().read(in);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	private static String write(NTA nta) throws IOException {
+		StringWriter text = new StringWriter();
+		new UppaalXMLWriter(text).write(nta);
+		return text.toString();
+	}
+
+}
@@ -0,0 +1,89 @@
+/**
+ */
+package de.uni_paderborn.uppaal.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.declarations.Declaration;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.declarations.VariableContainer;
+import de.uni_paderborn.uppaal.serialization.UppaalXMLReader;
+import de.uni_paderborn.uppaal.templates.Template;
+
+/**
+ * Checks that the scheduler chooses the receiving edges of a broadcast.
+ * The model is the one of the broadcast test of the checker: the sender of <code>c</code> is received by two edges of <code>P</code> and <code>Q</code> each,
+ * which set <code>a</code> and <code>b</code> to 1 or 2, and by one edge of <code>R</code> selecting the value of <code>s</code>.
+ */
+public class SimulatorTest {
+	private NTA nta;
+
+	private SystemInstance system;
+
+	@Before
+	public void setUp() throws IOException {
+		InputStream in = SimulatorTest.class.getResourceAsStream("/de/uni_paderborn/uppaal/verification/broadcast.xml");
+		try {
+			nta = new UppaalXMLReader().read(in);
+		}
+		finally {
+			in.close();
+		}
+		system = new SystemInstance(nta);
+	}
+
+	@Test
+	public void offersAllCombinationsOfReceivers() {
+		final Set<String> combinations = new HashSet<String>();
+		Simulator simulator = new Simulator(system, new Scheduler() {
+			@Override
+			public int choose(Simulator simulator) {
+				for (int transition = 0; transition < simulator.getTransitionCount(); transition++) {
+					StringBuilder combination = new StringBuilder();
+					for (int participant = 0; participant < simulator.getParticipantCount(transition); participant++) {
+						ProcessEdge edge = simulator.getParticipant(transition, participant);
+						combination.append(system.getProcessName(edge.getProcess())).append(' ')
+								.append(((Template)edge.getEdge().eContainer()).getEdge().indexOf(edge.getEdge()));
+						for (int selection = 0; selection < edge.getSelectionCount(); selection++) {
+							combination.append(' ').append(simulator.getSelectionValue(transition, participant, selection));
+						}
+						combination.append(", ");
+					}
+					combinations.add(combination.toString());
+				}
+				return simulator.getTransitionCount() - 1;
+			}
+		});
+		assertTrue(simulator.step());
+		assertEquals(8, combinations.size());
+		assertTrue(combinations.contains("Sender 0, P 1, Q 0, R 0 2, "));
+		// The last combination takes the second edges and selects 2
+		assertEquals(2, getValue(simulator, "a"));
+		assertEquals(2, getValue(simulator, "b"));
+		assertEquals(2, getValue(simulator, "s"));
+	}
+
+	private int getValue(Simulator simulator, String name) {
+		for (Declaration declaration : nta.getGlobalDeclarations().getDeclaration()) {
+			if (declaration instanceof VariableContainer) {
+				for (Variable variable : ((VariableContainer)declaration).getVariable()) {
+					if (name.equals(variable.getName())) {
+						return simulator.getState()[system.getGlobalLayout().getSlot(variable).getOffset()];
+					}
+				}
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+
+}
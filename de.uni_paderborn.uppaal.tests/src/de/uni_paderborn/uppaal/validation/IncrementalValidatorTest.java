@@ -0,0 +1,145 @@
+/**
+ */
+package de.uni_paderborn.uppaal.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.Diagnostician;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.declarations.Function;
+import de.uni_paderborn.uppaal.declarations.Parameter;
+import de.uni_paderborn.uppaal.expressions.FunctionCallExpression;
+import de.uni_paderborn.uppaal.serialization.UppaalXMLReader;
+import de.uni_paderborn.uppaal.templates.Template;
+
+/**
+ * Checks that the {@link IncrementalValidator} reports the same diagnostics as a full validation after each edit.
+ */
+public class IncrementalValidatorTest {
+	private NTA nta;
+
+	private Template template;
+
+	private IncrementalValidator validator;
+
+	@Before
+	public void setUp() throws IOException {
+		OCLDelegates.register();
+		InputStream in = IncrementalValidatorTest.class.getResourceAsStream("valid.xml");
+		try {
+			nta = new UppaalXMLReader().read(in);
+		}
+		finally {
+			in.close();
+		}
+		template = nta.getTemplate().get(0);
+		validator = IncrementalValidator.attach(nta, ValidationMode.COMPILED.put(new HashMap<Object, Object>()));
+		assertMatchesFullValidation();
+	}
+
+	@After
+	public void tearDown() {
+		validator.detach();
+	}
+
+	@Test
+	public void tracksFunctionParameters() {
+		Function function = getCall().getFunction();
+		Parameter parameter = EcoreUtil.copy(function.getParameter().get(1));
+		parameter.getVariableDeclaration().getVariable().get(0).setName("z");
+		function.getParameter().add(parameter);
+		assertMatchesFullValidation(true);
+		function.getParameter().remove(parameter);
+		assertMatchesFullValidation(false);
+		function.getParameter().remove(0);
+		assertMatchesFullValidation(true);
+	}
+
+	@Test
+	public void tracksTemplateParameters() {
+		Parameter parameter = template.getParameter().remove(0);
+		assertMatchesFullValidation(true);
+		template.getParameter().add(parameter);
+		assertMatchesFullValidation(false);
+	}
+
+	@Test
+	public void tracksArguments() {
+		FunctionCallExpression call = getCall();
+		call.getArgument().add(EcoreUtil.copy(call.getArgument().get(1)));
+		assertMatchesFullValidation(true);
+		call.getArgument().remove(2);
+		assertMatchesFullValidation(false);
+	}
+
+	@Test
+	public void tracksNames() {
+		template.getLocation().get(1).setName("A");
+		assertMatchesFullValidation(true);
+		nta.getTemplate().get(1).setName("P");
+		assertMatchesFullValidation(true);
+		template.getLocation().get(1).setName("B");
+		nta.getTemplate().get(1).setName("S");
+		assertMatchesFullValidation(false);
+	}
+
+	private FunctionCallExpression getCall() {
+		for (Iterator<EObject> iterator = template.eAllContents(); iterator.hasNext();) {
+			EObject object = iterator.next();
+			if (object instanceof FunctionCallExpression) {
+				return (FunctionCallExpression)object;
+			}
+		}
+		throw new AssertionError("no function call");
+	}
+
+	/**
+	 * Asserts that the incremental validation matches a full validation and whether it reports errors.
+	 */
+	private void assertMatchesFullValidation(boolean errors) {
+		assertEquals(errors, assertMatchesFullValidation().getSeverity() == Diagnostic.ERROR);
+	}
+
+	/**
+	 * Asserts that the incremental validation reports the same diagnostics on the same objects, in the same order, as a full validation.
+	 */
+	private Diagnostic assertMatchesFullValidation() {
+		Diagnostic full = Diagnostician.INSTANCE.validate(nta, ValidationMode.COMPILED.put(new HashMap<Object, Object>()));
+		Diagnostic incremental = validator.validate();
+		assertEquals(describe(full), describe(incremental));
+		assertEquals(full.getSeverity(), incremental.getSeverity());
+		assertTrue(validator.getAffectedObjects().isEmpty());
+		return incremental;
+	}
+
+	/**
+	 * Describes the children of a diagnostic by their severity, code and objects;
+	 * the messages are not compared, because cached diagnostics keep the labels from the time they were created.
+	 */
+	private static List<List<Object>> describe(Diagnostic diagnostic) {
+		List<List<Object>> descriptions = new ArrayList<List<Object>>();
+		for (Diagnostic child : diagnostic.getChildren()) {
+			List<Object> description = new ArrayList<Object>(Arrays.<Object>asList(child.getSeverity(), child.getSource(), child.getCode()));
+			description.addAll(child.getData());
+			descriptions.add(description);
+		}
+		return descriptions;
+	}
+
+}
@@ -0,0 +1,39 @@
+/**
+ */
+package de.uni_paderborn.uppaal.validation;
+
+import org.eclipse.emf.ecore.EOperation;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.EValidator;
+import org.eclipse.ocl.ecore.delegate.OCLDelegateDomain;
+import org.eclipse.ocl.ecore.delegate.OCLInvocationDelegateFactory;
+import org.eclipse.ocl.ecore.delegate.OCLSettingDelegateFactory;
+import org.eclipse.ocl.ecore.delegate.OCLValidationDelegateFactory;
+
+/**
+ * Registers the OCL delegates of the metamodel, which the plug-in registry provides when running in Eclipse.
+ * The derived features are computed by OCL, and {@link org.eclipse.emf.ecore.util.EObjectValidator} reads them in every validation mode.
+ */
+final class OCLDelegates {
+
+	private OCLDelegates() {
+	}
+
+	/**
+	 * Registers the delegates in the global registries, unless they are registered.
+	 * Must be called before the first derived feature is read.
+	 */
+	static void register() {
+		String uri = OCLDelegateDomain.OCL_DELEGATE_URI;
+		if (!EOperation.Internal.InvocationDelegate.Factory.Registry.INSTANCE.containsKey(uri)) {
+			EOperation.Internal.InvocationDelegate.Factory.Registry.INSTANCE.put(uri, new OCLInvocationDelegateFactory.Global());
+		}
+		if (!EStructuralFeature.Internal.SettingDelegate.Factory.Registry.INSTANCE.containsKey(uri)) {
+			EStructuralFeature.Internal.SettingDelegate.Factory.Registry.INSTANCE.put(uri, new OCLSettingDelegateFactory.Global());
+		}
+		if (!EValidator.ValidationDelegate.Registry.INSTANCE.containsKey(uri)) {
+			EValidator.ValidationDelegate.Registry.INSTANCE.put(uri, new OCLValidationDelegateFactory.Global());
+		}
+	}
+
+}
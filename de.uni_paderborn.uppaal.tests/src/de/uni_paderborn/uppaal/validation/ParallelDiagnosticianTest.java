@@ -0,0 +1,122 @@
+/**
+ */
+package de.uni_paderborn.uppaal.validation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.ecore.EValidator;
+import org.eclipse.emf.ecore.util.Diagnostician;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.declarations.global.ChannelList;
+import de.uni_paderborn.uppaal.declarations.global.ChannelPriority;
+import de.uni_paderborn.uppaal.serialization.UppaalXMLReader;
+import de.uni_paderborn.uppaal.templates.Template;
+
+/**
+ * Checks that the {@link ParallelDiagnostician} reports the same diagnostics in the same order as a sequential {@link Diagnostician},
+ * on the valid NTA and on variants with violations in several partitions.
+ */
+public class ParallelDiagnosticianTest {
+	private NTA nta;
+
+	private Template template;
+
+	private ParallelDiagnostician diagnostician;
+
+	@Before
+	public void setUp() throws IOException {
+		OCLDelegates.register();
+		InputStream in = ParallelDiagnosticianTest.class.getResourceAsStream("valid.xml");
+		try {
+			nta = new UppaalXMLReader().read(in);
+		}
+		finally {
+			in.close();
+		}
+		template = nta.getTemplate().get(0);
+		diagnostician = new ParallelDiagnostician(EValidator.Registry.INSTANCE, 4);
+	}
+
+	@After
+	public void tearDown() {
+		diagnostician.close();
+	}
+
+	@Test
+	public void agreesOnValidNTA() {
+		assertEquals(Diagnostic.OK, assertSameDiagnostics().getSeverity());
+	}
+
+	@Test
+	public void agreesOnViolationsInTemplates() {
+		template.getLocation().get(1).setName("A");
+		nta.getTemplate().get(1).getLocation().get(0).setName("A B");
+		assertEquals(Diagnostic.ERROR, assertSameDiagnostics().getSeverity());
+	}
+
+	@Test
+	public void agreesOnViolationsInAllPartitions() {
+		template.setName("1P");
+		nta.getTemplate().get(1).setName("P");
+		ChannelPriority priority = nta.getGlobalDeclarations().getChannelPriority();
+		ChannelList channels = (ChannelList)priority.getItem().get(0);
+		channels.getChannelExpression().add(EcoreUtil.copy(channels.getChannelExpression().get(0)));
+		priority.getItem().add(EcoreUtil.copy(priority.getItem().get(1)));
+		assertEquals(Diagnostic.ERROR, assertSameDiagnostics().getSeverity());
+	}
+
+	@Test
+	public void agreesWithSharedInstance() {
+		template.getLocation().get(0).setName(null);
+		Diagnostic expected = Diagnostician.INSTANCE.validate(nta, ValidationMode.COMPILED.put(new HashMap<Object, Object>()));
+		Diagnostic actual = ParallelDiagnostician.INSTANCE.validate(nta, ValidationMode.COMPILED.put(new HashMap<Object, Object>()));
+		assertEquals(describe(expected), describe(actual));
+	}
+
+	@Test(expected = RejectedExecutionException.class)
+	public void rejectsValidationsWhenClosed() {
+		diagnostician.close();
+		diagnostician.validate(nta);
+	}
+
+	/**
+	 * Asserts that the parallel and the sequential validation report the same diagnostics, in the same order.
+	 */
+	private Diagnostic assertSameDiagnostics() {
+		Diagnostic expected = Diagnostician.INSTANCE.validate(nta, ValidationMode.COMPILED.put(new HashMap<Object, Object>()));
+		for (int i = 0; i < 10; i++) {
+			Diagnostic actual = diagnostician.validate(nta, ValidationMode.COMPILED.put(new HashMap<Object, Object>()));
+			assertEquals(describe(expected), describe(actual));
+			assertEquals(expected.getSeverity(), actual.getSeverity());
+		}
+		return expected;
+	}
+
+	/**
+	 * Describes the children of a diagnostic by their severity, code, message and objects.
+	 */
+	private static List<List<Object>> describe(Diagnostic diagnostic) {
+		List<List<Object>> descriptions = new ArrayList<List<Object>>();
+		for (Diagnostic child : diagnostic.getChildren()) {
+			List<Object> description = new ArrayList<Object>(Arrays.<Object>asList(child.getSeverity(), child.getSource(), child.getCode(), child.getMessage()));
+			description.addAll(child.getData());
+			descriptions.add(description);
+		}
+		return descriptions;
+	}
+
+}
@@ -0,0 +1,160 @@
+/**
+ */
+package de.uni_paderborn.uppaal.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.Diagnostician;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.declarations.global.ChannelList;
+import de.uni_paderborn.uppaal.declarations.global.ChannelPriority;
+import de.uni_paderborn.uppaal.expressions.FunctionCallExpression;
+import de.uni_paderborn.uppaal.serialization.UppaalXMLReader;
+import de.uni_paderborn.uppaal.templates.Template;
+
+/**
+ * Checks that the compiled constraints agree with the OCL versions, i.e. that {@link ValidationMode#PARITY} reports no disagreement.
+ * The corpus consists of a valid NTA and variants violating one constraint each.
+ * There are no known divergences: PARITY compares the OCL expressions with the <code>check</code> methods of {@link UppaalConstraints}.
+ * {@link ValidationMode#COMPILED} confirms that each variant violates the intended constraint.
+ */
+public class ValidationParityTest {
+	private NTA nta;
+
+	private Template template;
+
+	@Before
+	public void setUp() throws IOException {
+		OCLDelegates.register();
+		InputStream in = ValidationParityTest.class.getResourceAsStream("valid.xml");
+		try {
+			nta = new UppaalXMLReader().read(in);
+		}
+		finally {
+			in.close();
+		}
+		template = nta.getTemplate().get(0);
+	}
+
+	@Test
+	public void agreesOnValidNTA() {
+		assertEquals(Diagnostic.OK, validate(ValidationMode.COMPILED).getSeverity());
+		assertParity();
+	}
+
+	@Test
+	public void agreesOnLeadingDigit() {
+		template.setName("1P");
+		template.getLocation().get(0).setName("0");
+		assertViolated("NoDigitStart");
+		assertParity();
+	}
+
+	@Test
+	public void agreesOnEmptyName() {
+		template.getLocation().get(0).setName("");
+		assertViolated("NoDigitStart");
+		assertParity();
+	}
+
+	@Test
+	public void agreesOnMissingName() {
+		template.getLocation().get(0).setName(null);
+		assertViolated("NoWhitespace");
+		assertParity();
+	}
+
+	@Test
+	public void agreesOnWhitespace() {
+		template.getLocation().get(0).setName("A B");
+		assertViolated("NoWhitespace");
+		assertParity();
+	}
+
+	@Test
+	public void agreesOnDuplicateLocationNames() {
+		template.getLocation().get(1).setName("A");
+		assertViolated("UniqueLocationNames");
+		assertParity();
+	}
+
+	@Test
+	public void agreesOnDuplicateTemplateNames() {
+		nta.getTemplate().get(1).setName("P");
+		assertViolated("UniqueTemplateNames");
+		assertParity();
+	}
+
+	@Test
+	public void agreesOnDuplicateChannel() {
+		ChannelList channels = (ChannelList)getChannelPriority().getItem().get(0);
+		channels.getChannelExpression().add(EcoreUtil.copy(channels.getChannelExpression().get(0)));
+		assertViolated("EachChannelContainedAtMostOnce");
+		assertParity();
+	}
+
+	@Test
+	public void agreesOnSecondDefaultPriority() {
+		ChannelPriority priority = getChannelPriority();
+		priority.getItem().add(EcoreUtil.copy(priority.getItem().get(1)));
+		assertViolated("AtMostOneDefaultItem");
+		assertParity();
+	}
+
+	@Test
+	public void agreesOnWrongNumberOfArguments() {
+		FunctionCallExpression call = null;
+		for (Iterator<EObject> iterator = template.eAllContents(); iterator.hasNext() && call == null;) {
+			EObject object = iterator.next();
+			if (object instanceof FunctionCallExpression) {
+				call = (FunctionCallExpression)object;
+			}
+		}
+		call.getArgument().add(EcoreUtil.copy(call.getArgument().get(1)));
+		assertViolated("NumberOfArgumentsMatchesDeclaration");
+		assertParity();
+	}
+
+	private ChannelPriority getChannelPriority() {
+		return nta.getGlobalDeclarations().getChannelPriority();
+	}
+
+	private Diagnostic validate(ValidationMode mode) {
+		return Diagnostician.INSTANCE.validate(nta, mode.put(new HashMap<Object, Object>()));
+	}
+
+	/**
+	 * Asserts that the compiled constraints report a violation of a constraint.
+	 */
+	private void assertViolated(String constraint) {
+		boolean reported = false;
+		for (Diagnostic child : validate(ValidationMode.COMPILED).getChildren()) {
+			reported |= child.getSeverity() == Diagnostic.ERROR && child.getMessage().contains("'" + constraint + "'");
+		}
+		assertTrue(constraint, reported);
+	}
+
+	/**
+	 * Asserts that validating in parity mode reports no disagreement, which is the only kind of warning of the validators.
+	 */
+	private void assertParity() {
+		Map<Object, Object> context = ValidationMode.PARITY.put(new HashMap<Object, Object>());
+		for (Diagnostic child : Diagnostician.INSTANCE.validate(nta, context).getChildren()) {
+			assertTrue(child.getMessage(), child.getSeverity() != Diagnostic.WARNING);
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.declarations.Declaration;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.declarations.VariableContainer;
+import de.uni_paderborn.uppaal.expressions.CompareExpression;
+import de.uni_paderborn.uppaal.expressions.CompareOperator;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.expressions.ExpressionsFactory;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.LiteralExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalOperator;
+import de.uni_paderborn.uppaal.expressions.NegationExpression;
+import de.uni_paderborn.uppaal.serialization.PathQuantifier;
+import de.uni_paderborn.uppaal.serialization.UppaalXMLReader;
+import de.uni_paderborn.uppaal.simulation.SystemInstance;
+
+/**
+ * Checks that a broadcast synchronizes the sender with every combination of one enabled receiving edge of each receiving process.
+ * In the model, the sender of <code>c</code> is received by two edges of <code>P</code> and <code>Q</code> each,
+ * which set <code>a</code> and <code>b</code> to 1 or 2, and by one edge of <code>R</code> selecting the value of <code>s</code>.
+ */
+public class BroadcastTest {
+	private static final ExpressionsFactory FACTORY = ExpressionsFactory.eINSTANCE;
+
+	private NTA nta;
+
+	private ReachabilityChecker checker;
+
+	@Before
+	public void setUp() throws IOException {
+		InputStream in = BroadcastTest.class.getResourceAsStream("broadcast.xml");
+		try {
+			nta = new UppaalXMLReader().read(in);
+		}
+		finally {
+			in.close();
+		}
+		checker = new ReachabilityChecker(new SystemInstance(nta));
+	}
+
+	@Test
+	public void reachesAllCombinationsOfReceivers() {
+		assertAllCombinationsReachable();
+	}
+
+	@Test
+	public void reachesAllCombinationsOfReceiversInParallel() {
+		checker.setThreadCount(2);
+		assertAllCombinationsReachable();
+	}
+
+	@Test
+	public void receivesInAllProcesses() {
+		// a, b and s are set by the same transition
+		VerificationResult result = checker.check(PathQuantifier.EXISTS_EVENTUALLY, and(equal("a", 0), not(equal("b", 0))));
+		assertFalse(result.isSatisfied());
+		result = checker.check(PathQuantifier.EXISTS_EVENTUALLY, and(equal("a", 0), not(equal("s", 0))));
+		assertFalse(result.isSatisfied());
+	}
+
+	private void assertAllCombinationsReachable() {
+		for (int a = 1; a <= 2; a++) {
+			for (int b = 1; b <= 2; b++) {
+				for (int s = 1; s <= 2; s++) {
+					VerificationResult result = checker.check(PathQuantifier.EXISTS_EVENTUALLY, and(equal("a", a), and(equal("b", b), equal("s", s))));
+					assertTrue("a == " + a + " && b == " + b + " && s == " + s, result.isSatisfied());
+				}
+			}
+		}
+		// The initial state and the eight successors of the broadcast
+		VerificationResult result = checker.check(PathQuantifier.EXISTS_EVENTUALLY, equal("a", 3));
+		assertFalse(result.isSatisfied());
+		assertEquals(9, result.getStoredStateCount());
+	}
+
+	private Expression equal(String name, int value) {
+		IdentifierExpression identifier = FACTORY.createIdentifierExpression();
+		identifier.setIdentifier(getVariable(name));
+		LiteralExpression literal = FACTORY.createLiteralExpression();
+		literal.setText(Integer.toString(value));
+		CompareExpression compare = FACTORY.createCompareExpression();
+		compare.setFirstExpr(identifier);
+		compare.setOperator(CompareOperator.EQUAL);
+		compare.setSecondExpr(literal);
+		return compare;
+	}
+
+	private Expression not(Expression expression) {
+		NegationExpression negation = FACTORY.createNegationExpression();
+		negation.setNegatedExpression(expression);
+		return negation;
+	}
+
+	private Expression and(Expression first, Expression second) {
+		LogicalExpression and = FACTORY.createLogicalExpression();
+		and.setFirstExpr(first);
+		and.setOperator(LogicalOperator.AND);
+		and.setSecondExpr(second);
+		return and;
+	}
+
+	private Variable getVariable(String name) {
+		for (Declaration declaration : nta.getGlobalDeclarations().getDeclaration()) {
+			if (declaration instanceof VariableContainer) {
+				for (Variable variable : ((VariableContainer)declaration).getVariable()) {
+					if (name.equals(variable.getName())) {
+						return variable;
+					}
+				}
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+
+}
@@ -0,0 +1,34 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.evaluation.EvaluationException;
+import de.uni_paderborn.uppaal.serialization.UppaalXMLReader;
+import de.uni_paderborn.uppaal.simulation.SystemInstance;
+
+/**
+ * Checks that constraints on differences of clocks are rejected, since the extrapolation of the zones is unsound with them.
+ * In the model, <code>y - x</code> grows beyond the maximal constants of both clocks before it is compared.
+ */
+public class ClockDifferenceTest {
+
+	@Test(expected = EvaluationException.class)
+	public void rejectsDifferenceOfClocks() throws IOException {
+		InputStream in = ClockDifferenceTest.class.getResourceAsStream("difference.xml");
+		NTA nta;
+		try {
+			nta = new UppaalXMLReader().read(in);
+		}
+		finally {
+			in.close();
+		}
+		new ReachabilityChecker(new SystemInstance(nta));
+	}
+
+}
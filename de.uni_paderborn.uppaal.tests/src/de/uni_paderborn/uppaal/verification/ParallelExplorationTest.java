@@ -0,0 +1,100 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.serialization.PathQuantifier;
+import de.uni_paderborn.uppaal.serialization.UppaalParseException;
+import de.uni_paderborn.uppaal.serialization.UppaalTextParser;
+import de.uni_paderborn.uppaal.serialization.UppaalXMLReader;
+import de.uni_paderborn.uppaal.simulation.SystemInstance;
+
+/**
+ * Checks that the parallel exploration decides properties as the sequential one does, and stores as many states when it explores the whole zone graph.
+ * In the model, each process <code>P(id)</code> counts <code>c[id]</code> up to 4 and <code>T</code> counts <code>t</code> modulo 3 once per time unit,
+ * so that each of the 1875 discrete parts is reached with one zone and the number of stored states does not depend on the order of exploration.
+ */
+public class ParallelExplorationTest {
+	private static final int[] THREAD_COUNTS = { 2, 4 };
+
+	private UppaalTextParser propertyParser;
+
+	private ReachabilityChecker checker;
+
+	@Before
+	public void setUp() throws IOException {
+		InputStream in = ParallelExplorationTest.class.getResourceAsStream("parallel.xml");
+		NTA nta;
+		try {
+			nta = new UppaalXMLReader() {
+				@Override
+				protected UppaalTextParser createParser(NTA nta) {
+					// keeps the global scope for parsing the properties
+					propertyParser = super.createParser(nta);
+					return propertyParser;
+				}
+			}.read(in);
+		}
+		finally {
+			in.close();
+		}
+		checker = new ReachabilityChecker(new SystemInstance(nta));
+	}
+
+	@Test
+	public void exploresAllStates() throws UppaalParseException {
+		VerificationResult result = assertSameResults(PathQuantifier.EXISTS_EVENTUALLY, "c[0] == 5");
+		assertFalse(result.isSatisfied());
+		assertEquals(1875, result.getStoredStateCount());
+		assertSameResults(PathQuantifier.ALWAYS_GLOBALLY, "forall (i : int[0,3]) c[i] <= 4");
+		assertSameResults(PathQuantifier.EXISTS_EVENTUALLY, "x > 1");
+	}
+
+	@Test
+	public void findsWitnesses() throws UppaalParseException {
+		assertSameResults(PathQuantifier.EXISTS_EVENTUALLY, "c[0] == 4 && c[3] == 4 && t == 2");
+		assertSameResults(PathQuantifier.EXISTS_EVENTUALLY, "x == 1 && t == 2 && c[1] == 3");
+		assertSameResults(PathQuantifier.ALWAYS_GLOBALLY, "c[0] + c[1] + c[2] < 12");
+		assertSameResults(PathQuantifier.ALWAYS_GLOBALLY, "exists (i : int[0,3]) c[i] < 4");
+	}
+
+	@Test
+	public void exploresAllStatesDepthFirst() throws UppaalParseException {
+		checker.setSearchOrder(ReachabilityChecker.SearchOrder.DEPTH_FIRST);
+		VerificationResult result = assertSameResults(PathQuantifier.EXISTS_EVENTUALLY, "c[0] == 5");
+		assertEquals(1875, result.getStoredStateCount());
+	}
+
+	/**
+	 * Checks a property sequentially and with each number of threads, and asserts that the results agree.
+	 * @return the sequential result.
+	 */
+	private VerificationResult assertSameResults(PathQuantifier quantifier, String property) throws UppaalParseException {
+		Expression expression = propertyParser.parseExpression(property);
+		checker.setThreadCount(1);
+		VerificationResult expected = checker.check(quantifier, expression);
+		for (int threadCount : THREAD_COUNTS) {
+			checker.setThreadCount(threadCount);
+			VerificationResult result = checker.check(quantifier, expression);
+			String message = property + " with " + threadCount + " threads";
+			assertEquals(message, expected.isSatisfied(), result.isSatisfied());
+			assertEquals(message, expected.hasWitness(), result.hasWitness());
+			if (!result.hasWitness()) {
+				assertEquals(message, expected.getStoredStateCount(), result.getStoredStateCount());
+			}
+		}
+		checker.setThreadCount(1);
+		return expected;
+	}
+
+}
@@ -0,0 +1,75 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.serialization.PathQuantifier;
+import de.uni_paderborn.uppaal.serialization.UppaalParseException;
+import de.uni_paderborn.uppaal.serialization.UppaalTextParser;
+import de.uni_paderborn.uppaal.serialization.UppaalXMLReader;
+import de.uni_paderborn.uppaal.simulation.SystemInstance;
+
+/**
+ * Checks properties with quantifiers, whose variables are stored in the frame of the property.
+ * In the model, <code>P</code> sets <code>a[0]</code> and then <code>a[1]</code> to 1.
+ */
+public class QuantifiedPropertyTest {
+	private UppaalTextParser propertyParser;
+
+	private ReachabilityChecker checker;
+
+	@Before
+	public void setUp() throws IOException {
+		InputStream in = QuantifiedPropertyTest.class.getResourceAsStream("quantified.xml");
+		NTA nta;
+		try {
+			nta = new UppaalXMLReader() {
+				@Override
+				protected UppaalTextParser createParser(NTA nta) {
+					// keeps the global scope for parsing the properties
+					propertyParser = super.createParser(nta);
+					return propertyParser;
+				}
+			}.read(in);
+		}
+		finally {
+			in.close();
+		}
+		checker = new ReachabilityChecker(new SystemInstance(nta));
+	}
+
+	@Test
+	public void checksUniversalQuantification() throws UppaalParseException {
+		assertTrue(check(PathQuantifier.EXISTS_EVENTUALLY, "forall (i : int[0,1]) a[i] == 1"));
+		assertFalse(check(PathQuantifier.EXISTS_EVENTUALLY, "forall (i : int[0,1]) a[i] == 2"));
+	}
+
+	@Test
+	public void checksExistentialQuantification() throws UppaalParseException {
+		assertTrue(check(PathQuantifier.ALWAYS_GLOBALLY, "exists (i : int[0,1]) a[i] == 0 || a[1] == 1"));
+		assertFalse(check(PathQuantifier.ALWAYS_GLOBALLY, "exists (i : int[0,1]) a[i] == 0"));
+	}
+
+	@Test
+	public void checksQuantificationInParallel() throws UppaalParseException {
+		checker.setThreadCount(2);
+		assertTrue(check(PathQuantifier.EXISTS_EVENTUALLY, "forall (i : int[0,1]) a[i] == 1"));
+		assertFalse(check(PathQuantifier.ALWAYS_GLOBALLY, "exists (i : int[0,1]) a[i] == 0"));
+	}
+
+	private boolean check(PathQuantifier quantifier, String property) throws UppaalParseException {
+		Expression expression = propertyParser.parseExpression(property);
+		return checker.check(quantifier, expression).isSatisfied();
+	}
+
+}
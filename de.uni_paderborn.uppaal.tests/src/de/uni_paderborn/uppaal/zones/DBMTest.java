@@ -0,0 +1,270 @@
+/**
+ */
+package de.uni_paderborn.uppaal.zones;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that the operations of {@link DBM} keep matrices in canonical form and represent the intended zones,
+ * and that the extrapolation only enlarges zones.
+ * The zones are compared with the constraints they were built from on the valuations of a grid of quarter time units,
+ * which is fine enough to find a valuation in every non-empty zone of three clocks with integer constants.
+ */
+public class DBMTest {
+	private static final int DIM = 4;
+
+	/**
+	 * The number of grid points per time unit.
+	 */
+	private static final int SCALE = 4;
+
+	/**
+	 * The largest value of a clock on the grid, in time units.
+	 */
+	private static final int LIMIT = 7;
+
+	@Test
+	public void closesToShortestPaths() {
+		Random random = new Random(42);
+		for (int trial = 0; trial < 100; trial++) {
+			int[] dbm = new int[DIM * DIM];
+			DBM.initUniversal(dbm, DIM);
+			List<int[]> constraints = randomConstraints(random);
+			for (int[] constraint : constraints) {
+				int index = constraint[0] * DIM + constraint[1];
+				dbm[index] = Math.min(dbm[index], constraint[2]);
+			}
+			boolean nonEmpty = DBM.close(dbm, DIM);
+			assertEquals(nonEmpty, !DBM.isEmpty(dbm, DIM));
+			assertZone(dbm, constraints);
+		}
+	}
+
+	@Test
+	public void constrainsIncrementally() {
+		Random random = new Random(7);
+		for (int trial = 0; trial < 100; trial++) {
+			int[] dbm = new int[DIM * DIM];
+			DBM.initUniversal(dbm, DIM);
+			List<int[]> constraints = randomConstraints(random);
+			for (int i = 0; i < constraints.size(); i++) {
+				int[] constraint = constraints.get(i);
+				if (!DBM.constrain(dbm, DIM, constraint[0], constraint[1], constraint[2])) {
+					constraints = constraints.subList(0, i + 1);
+					break;
+				}
+			}
+			assertZone(dbm, constraints);
+			if (!DBM.isEmpty(dbm, DIM)) {
+				// a closed matrix is its own closure
+				int[] closed = dbm.clone();
+				assertTrue(DBM.close(closed, DIM));
+				assertArrayEquals(dbm, closed);
+			}
+		}
+	}
+
+	@Test
+	public void keepsCanonicalFormOnDelayAndReset() {
+		Random random = new Random(3);
+		for (int trial = 0; trial < 100; trial++) {
+			int[] dbm = new int[DIM * DIM];
+			DBM.init(dbm, DIM);
+			for (int step = 0; step < 6 && !DBM.isEmpty(dbm, DIM); step++) {
+				switch (random.nextInt(4)) {
+				case 0:
+					DBM.up(dbm, DIM);
+					break;
+				case 1:
+					DBM.reset(dbm, DIM, 1 + random.nextInt(DIM - 1), random.nextInt(3));
+					break;
+				case 2:
+					DBM.free(dbm, DIM, 1 + random.nextInt(DIM - 1));
+					break;
+				default:
+					int clock = 1 + random.nextInt(DIM - 1);
+					DBM.constrain(dbm, DIM, clock, 0, DBM.bound(1 + random.nextInt(4), random.nextBoolean()));
+					break;
+				}
+				if (!DBM.isEmpty(dbm, DIM)) {
+					assertClosed(dbm);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void resetsAndDelays() {
+		int[] dbm = new int[DIM * DIM];
+		DBM.init(dbm, DIM);
+		DBM.up(dbm, DIM);
+		assertTrue(DBM.constrain(dbm, DIM, 1, 0, DBM.bound(2, false)));
+		DBM.reset(dbm, DIM, 2, 0);
+		DBM.up(dbm, DIM);
+		// x1 - x2 lies in [0, 2] and x3 equals x1
+		assertTrue(contains(dbm, 3, 1, 3));
+		assertTrue(contains(dbm, 10, 8, 10));
+		assertFalse(contains(dbm, 12, 2, 12));
+		assertFalse(contains(dbm, 4, 4, 5));
+	}
+
+	@Test
+	public void extrapolatesBeyondMaximalConstants() {
+		int[] maxConstants = { 0, 3, 10, -1 };
+		int[] dbm = new int[DIM * DIM];
+		DBM.init(dbm, DIM);
+		DBM.up(dbm, DIM);
+		assertTrue(DBM.constrain(dbm, DIM, 0, 1, DBM.bound(-5, false)));
+		assertTrue(DBM.constrain(dbm, DIM, 1, 0, DBM.bound(6, false)));
+		int[] original = dbm.clone();
+		DBM.extrapolate(dbm, DIM, maxConstants);
+		assertClosed(dbm);
+		assertTrue(DBM.isSubset(original, dbm, DIM));
+		// x1 is beyond its maximal constant: only x1 > 3 remains
+		assertEquals(DBM.bound(-3, true), dbm[1]);
+		assertEquals(DBM.INFINITY, dbm[1 * DIM]);
+		// x2 still equals x1 up to x1's maximal constant, x3 is never compared and free
+		assertEquals(DBM.bound(-5, false), dbm[2]);
+		assertEquals(DBM.INFINITY, dbm[3 * DIM]);
+		assertEquals(DBM.LE_ZERO, dbm[3]);
+		int[] again = dbm.clone();
+		DBM.extrapolate(again, DIM, maxConstants);
+		assertArrayEquals(dbm, again);
+	}
+
+	@Test
+	public void keepsZonesWithinMaximalConstants() {
+		Random random = new Random(11);
+		int[] maxConstants = { 0, 6, 6, 6 };
+		for (int trial = 0; trial < 100; trial++) {
+			int[] dbm = new int[DIM * DIM];
+			DBM.initUniversal(dbm, DIM);
+			for (int clock = 1; clock < DIM; clock++) {
+				DBM.constrain(dbm, DIM, clock, 0, DBM.bound(5, false));
+			}
+			for (int[] constraint : randomConstraints(random)) {
+				if (!DBM.constrain(dbm, DIM, constraint[0], constraint[1], constraint[2])) {
+					break;
+				}
+			}
+			if (DBM.isEmpty(dbm, DIM)) {
+				continue;
+			}
+			int[] extrapolated = dbm.clone();
+			DBM.extrapolate(extrapolated, DIM, maxConstants);
+			assertArrayEquals(dbm, extrapolated);
+		}
+	}
+
+	@Test
+	public void enlargesZonesByExtrapolation() {
+		Random random = new Random(5);
+		for (int trial = 0; trial < 100; trial++) {
+			int[] maxConstants = { 0, random.nextInt(4) - 1, random.nextInt(4) - 1, random.nextInt(4) - 1 };
+			int[] dbm = new int[DIM * DIM];
+			DBM.initUniversal(dbm, DIM);
+			for (int[] constraint : randomConstraints(random)) {
+				if (!DBM.constrain(dbm, DIM, constraint[0], constraint[1], constraint[2])) {
+					break;
+				}
+			}
+			if (DBM.isEmpty(dbm, DIM)) {
+				continue;
+			}
+			int[] extrapolated = dbm.clone();
+			DBM.extrapolate(extrapolated, DIM, maxConstants);
+			assertClosed(extrapolated);
+			assertTrue(DBM.isSubset(dbm, extrapolated, DIM));
+		}
+	}
+
+	/**
+	 * Creates constraints <code>x_i - x_j &lt;(=) c</code> with small constants, as triples of the clocks and the encoded bound.
+	 */
+	private static List<int[]> randomConstraints(Random random) {
+		List<int[]> constraints = new ArrayList<int[]>();
+		for (int k = random.nextInt(6); k >= 0; k--) {
+			int i = random.nextInt(DIM);
+			int j = random.nextInt(DIM - 1);
+			if (j >= i) {
+				j++;
+			}
+			constraints.add(new int[] { i, j, DBM.bound(random.nextInt(11) - 5, random.nextBoolean()) });
+		}
+		return constraints;
+	}
+
+	/**
+	 * Asserts that a matrix contains exactly the grid valuations that satisfy the constraints.
+	 */
+	private static void assertZone(int[] dbm, List<int[]> constraints) {
+		int max = LIMIT * SCALE;
+		for (int x1 = 0; x1 <= max; x1++) {
+			for (int x2 = 0; x2 <= max; x2++) {
+				for (int x3 = 0; x3 <= max; x3++) {
+					int[] valuation = { 0, x1, x2, x3 };
+					boolean satisfied = true;
+					for (int[] constraint : constraints) {
+						satisfied &= satisfies(valuation, constraint[0], constraint[1], constraint[2]);
+					}
+					assertEquals(DBM.toString(dbm, DIM) + " at " + x1 + ", " + x2 + ", " + x3 + " quarters",
+							satisfied, !DBM.isEmpty(dbm, DIM) && contains(dbm, valuation));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Asserts that no bound of a matrix can be tightened by a path through another clock.
+	 */
+	private static void assertClosed(int[] dbm) {
+		for (int i = 0; i < DIM; i++) {
+			assertEquals(DBM.LE_ZERO, dbm[i * DIM + i]);
+			for (int j = 0; j < DIM; j++) {
+				for (int k = 0; k < DIM; k++) {
+					assertTrue(DBM.toString(dbm, DIM), dbm[i * DIM + j] <= DBM.add(dbm[i * DIM + k], dbm[k * DIM + j]));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns whether a zone contains the valuation of the clocks, given in time units.
+	 */
+	private static boolean contains(int[] dbm, int x1, int x2, int x3) {
+		return contains(dbm, new int[] { 0, x1 * SCALE, x2 * SCALE, x3 * SCALE });
+	}
+
+	/**
+	 * Returns whether a zone contains a valuation, given in grid points and starting with the reference clock.
+	 */
+	private static boolean contains(int[] dbm, int[] valuation) {
+		for (int i = 0; i < DIM; i++) {
+			for (int j = 0; j < DIM; j++) {
+				if (i != j && !satisfies(valuation, i, j, dbm[i * DIM + j])) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static boolean satisfies(int[] valuation, int i, int j, int bound) {
+		if (bound == DBM.INFINITY) {
+			return true;
+		}
+		int difference = valuation[i] - valuation[j];
+		int constant = DBM.getConstant(bound) * SCALE;
+		return DBM.isStrict(bound) ? difference < constant : difference <= constant;
+	}
+
+}
@@ -0,0 +1,512 @@
+/**
+ */
+package de.uni_paderborn.uppaal.yakindu;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.yakindu.base.types.Type;
+import org.yakindu.sct.model.sgraph.Declaration;
+import org.yakindu.sct.model.sgraph.Region;
+import org.yakindu.sct.model.sgraph.Scope;
+import org.yakindu.sct.model.sgraph.State;
+import org.yakindu.sct.model.sgraph.Statechart;
+import org.yakindu.sct.model.sgraph.Transition;
+import org.yakindu.sct.model.sgraph.Vertex;
+import org.yakindu.sct.model.stext.stext.Direction;
+import org.yakindu.sct.model.stext.stext.EventDefinition;
+import org.yakindu.sct.model.stext.stext.InterfaceScope;
+import org.yakindu.sct.model.stext.stext.OperationDefinition;
+import org.yakindu.sct.model.stext.stext.VariableDefinition;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.UppaalFactory;
+import de.uni_paderborn.uppaal.declarations.DataVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.DeclarationsFactory;
+import de.uni_paderborn.uppaal.declarations.GlobalDeclarations;
+import de.uni_paderborn.uppaal.declarations.SystemDeclarations;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.declarations.VariableDeclaration;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.serialization.UppaalParseException;
+import de.uni_paderborn.uppaal.serialization.UppaalTextParser;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.Location;
+import de.uni_paderborn.uppaal.templates.LocationKind;
+import de.uni_paderborn.uppaal.templates.Template;
+import de.uni_paderborn.uppaal.templates.TemplatesFactory;
+import de.uni_paderborn.uppaal.types.BuiltInType;
+import de.uni_paderborn.uppaal.types.PredefinedType;
+import de.uni_paderborn.uppaal.types.TypesFactory;
+
+/**
+ * The transformation of one statechart into an NTA.
+ * <p>
+ * The names of all declarations and templates are allocated first, in the order of the contents of the statechart,
+ * and the global declarations are generated and parsed.
+ * The regions are then transformed into templates by separate tasks,
+ * which only read the statechart and the global declarations,
+ * and the templates are added to the NTA in the order of the regions.
+ * </p>
+ * <p>
+ * The generated elements are recorded in a trace.
+ * Once the transformation is done, changed transitions, local reactions, variables and events can be transformed again,
+ * patching the NTA in place; the names of the NTA are kept.
+ * </p>
+ */
+final class ChartTransformation extends RecursiveTask<NTA> {
+	private static final long serialVersionUID = 1L;
+
+	private final Statechart statechart;
+
+	private final TimeUnit timeUnit;
+
+	/**
+	 * The global names of the NTA.
+	 */
+	private final Names names = new Names();
+
+	/**
+	 * The names of the declarations generated for variables and events.
+	 */
+	private final Map<EObject, String> elementNames = new HashMap<EObject, String>();
+
+	/**
+	 * The names of the variables generated for the values of events.
+	 */
+	private final Map<EObject, String> valueNames = new HashMap<EObject, String>();
+
+	// The broadcast channels entering and exiting the regions of composite states
+
+	private final Map<State, String> enterChannels = new HashMap<State, String>();
+
+	private final Map<State, String> exitChannels = new HashMap<State, String>();
+
+	/**
+	 * The regions of the statechart, each followed by the regions nested in its states.
+	 */
+	private final List<Region> regions = new ArrayList<Region>();
+
+	private final Map<Region, String> templateNames = new HashMap<Region, String>();
+
+	/**
+	 * The events raised by the environment.
+	 */
+	private final List<EventDefinition> inEvents = new ArrayList<EventDefinition>();
+
+	private final ExpressionPrinter printer = new ExpressionPrinter(elementNames, valueNames);
+
+	private final TransformationTrace trace = new TransformationTrace();
+
+	/**
+	 * The transformations of the regions, kept to transform their elements again.
+	 */
+	private final Map<Region, RegionTransformation> regionTransformations = new HashMap<Region, RegionTransformation>();
+
+	private String environmentName;
+
+	private Template environment;
+
+	private NTA nta;
+
+	/**
+	 * The parser of the global and system declarations and the environment.
+	 */
+	private UppaalTextParser parser;
+
+	/**
+	 * Creates the transformation of a statechart, whose proxies must be resolved.
+	 * @param statechart the statechart.
+	 * @param timeUnit the unit of time of the clocks.
+	 */
+	ChartTransformation(Statechart statechart, TimeUnit timeUnit) {
+		this.statechart = statechart;
+		this.timeUnit = timeUnit;
+	}
+
+	@Override
+	protected NTA compute() {
+		nta = createNTA();
+		StringBuilder text = new StringBuilder();
+		for (Scope scope : statechart.getScopes()) {
+			declareScope(scope, text);
+		}
+		if (!inEvents.isEmpty()) {
+			environmentName = names.allocate("Environment");
+		}
+		collectRegions(statechart.getRegions(), null, text);
+		GlobalDeclarations declarations = DeclarationsFactory.eINSTANCE.createGlobalDeclarations();
+		nta.setGlobalDeclarations(declarations);
+		parser = new UppaalTextParser(nta);
+		try {
+			parser.parseDeclarations(text, declarations);
+		}
+		catch (UppaalParseException e) {
+			throw new TransformationException("Invalid declarations generated: " + e.getMessage(), statechart, e);
+		}
+		traceDeclarations(declarations);
+
+		List<RegionTransformation> tasks = new ArrayList<RegionTransformation>();
+		for (Region region : regions) {
+			RegionTransformation task = new RegionTransformation(this, region);
+			tasks.add(task);
+			regionTransformations.put(region, task);
+			task.fork();
+		}
+		List<Template> templates = new ArrayList<Template>();
+		if (environmentName != null) {
+			environment = createEnvironment();
+			templates.add(environment);
+		}
+		for (RegionTransformation task : tasks) {
+			templates.add(task.join());
+			trace.addAll(task.getTrace());
+		}
+
+		StringBuilder system = new StringBuilder("system ");
+		for (Template template : templates) {
+			nta.getTemplate().add(template);
+			parser.endTemplate(template);
+			if (template != templates.get(0)) {
+				system.append(", ");
+			}
+			system.append(template.getName());
+		}
+		system.append(';');
+		SystemDeclarations systemDeclarations = DeclarationsFactory.eINSTANCE.createSystemDeclarations();
+		nta.setSystemDeclarations(systemDeclarations);
+		try {
+			parser.parseDeclarations(system, systemDeclarations);
+		}
+		catch (UppaalParseException e) {
+			throw new TransformationException("Invalid system declarations generated: " + e.getMessage(), statechart, e);
+		}
+		return nta;
+	}
+
+	private NTA createNTA() {
+		NTA result = UppaalFactory.eINSTANCE.createNTA();
+		result.setName(Names.toIdentifier(statechart.getName()));
+		result.setInt(createPredefinedType(BuiltInType.INT));
+		result.setBool(createPredefinedType(BuiltInType.BOOL));
+		result.setClock(createPredefinedType(BuiltInType.CLOCK));
+		result.setChan(createPredefinedType(BuiltInType.CHAN));
+		result.setVoid(createPredefinedType(BuiltInType.VOID));
+		return result;
+	}
+
+	private static PredefinedType createPredefinedType(BuiltInType builtInType) {
+		PredefinedType type = TypesFactory.eINSTANCE.createPredefinedType();
+		type.setName(builtInType.getLiteral());
+		type.setType(builtInType);
+		return type;
+	}
+
+	/**
+	 * Names the variables and events of a scope and appends their declarations.
+	 * Variables of interfaces are prefixed by the name of the interface.
+	 */
+	private void declareScope(Scope scope, StringBuilder text) {
+		String prefix = "";
+		if (scope instanceof InterfaceScope && ((InterfaceScope)scope).getName() != null && !((InterfaceScope)scope).getName().isEmpty()) {
+			prefix = ((InterfaceScope)scope).getName() + "_";
+		}
+		for (Declaration declaration : scope.getDeclarations()) {
+			if (declaration instanceof VariableDefinition) {
+				elementNames.put(declaration, names.allocate(prefix + declaration.getName()));
+			}
+			else if (declaration instanceof EventDefinition) {
+				EventDefinition event = (EventDefinition)declaration;
+				String name = names.allocate(prefix + event.getName());
+				elementNames.put(event, name);
+				if (getTypeName(event.getType(), event) != null) {
+					valueNames.put(event, names.allocate(name + "_value"));
+				}
+				if (event.getDirection() == Direction.IN) {
+					inEvents.add(event);
+				}
+			}
+			else if (!(declaration instanceof OperationDefinition)) {
+				// Calls of operations are rejected where they occur
+				throw new TransformationException("Unsupported declaration " + declaration.eClass().getName(), declaration);
+			}
+		}
+		for (Declaration declaration : scope.getDeclarations()) {
+			appendDeclaration(declaration, text);
+		}
+	}
+
+	/**
+	 * Appends the declarations of a variable or event.
+	 */
+	private void appendDeclaration(Declaration declaration, StringBuilder text) {
+		if (declaration instanceof VariableDefinition) {
+			VariableDefinition variable = (VariableDefinition)declaration;
+			String type = getTypeName(variable.getType(), variable);
+			if (type == null) {
+				throw new TransformationException("Variables must have a type", variable);
+			}
+			if (variable.isConst()) {
+				text.append("const ");
+			}
+			text.append(type).append(' ').append(elementNames.get(variable));
+			if (variable.getInitialValue() != null) {
+				text.append(" = ").append(printer.print(variable.getInitialValue()));
+			}
+			text.append(";\n");
+		}
+		else if (declaration instanceof EventDefinition) {
+			text.append("broadcast chan ").append(elementNames.get(declaration)).append(";\n");
+			if (valueNames.containsKey(declaration)) {
+				text.append(getTypeName(((EventDefinition)declaration).getType(), declaration)).append(' ').append(valueNames.get(declaration))
+						.append(";\n");
+			}
+		}
+	}
+
+	/**
+	 * Links the parsed global declarations to the variables, events and composite states they were generated for.
+	 */
+	private void traceDeclarations(GlobalDeclarations declarations) {
+		Map<String, EObject> sources = new HashMap<String, EObject>();
+		for (Map.Entry<EObject, String> entry : elementNames.entrySet()) {
+			sources.put(entry.getValue(), entry.getKey());
+		}
+		for (Map.Entry<EObject, String> entry : valueNames.entrySet()) {
+			sources.put(entry.getValue(), entry.getKey());
+		}
+		for (Map.Entry<State, String> entry : enterChannels.entrySet()) {
+			sources.put(entry.getValue(), entry.getKey());
+		}
+		for (de.uni_paderborn.uppaal.declarations.Declaration declaration : declarations.getDeclaration()) {
+			if (declaration instanceof VariableDeclaration) {
+				trace.add(sources.get(((VariableDeclaration)declaration).getVariable().get(0).getName()), declaration);
+			}
+		}
+	}
+
+	/**
+	 * Returns the Uppaal type of an SText type.
+	 * @return the name of the type, or <code>null</code> for no type or void.
+	 * @throws TransformationException if the type has no counterpart in Uppaal.
+	 */
+	private static String getTypeName(Type type, EObject element) {
+		if (type == null || "void".equals(type.getName())) {
+			return null;
+		}
+		if ("integer".equals(type.getName())) {
+			return "int";
+		}
+		if ("boolean".equals(type.getName())) {
+			return "bool";
+		}
+		throw new TransformationException("Unsupported type " + type.getName(), element);
+	}
+
+	/**
+	 * Names the templates of regions and the channels of their composite states, and appends the declarations of the channels.
+	 */
+	private void collectRegions(List<Region> list, State parent, StringBuilder text) {
+		for (Region region : list) {
+			regions.add(region);
+			templateNames.put(region, names.allocate(parent == null ? region.getName() : parent.getName() + "_" + region.getName()));
+			for (Vertex vertex : region.getVertices()) {
+				if (vertex instanceof State && !((State)vertex).getRegions().isEmpty()) {
+					State state = (State)vertex;
+					enterChannels.put(state, names.allocate("enter_" + state.getName()));
+					exitChannels.put(state, names.allocate("exit_" + state.getName()));
+					text.append("broadcast chan ").append(enterChannels.get(state)).append(", ").append(exitChannels.get(state)).append(";\n");
+					collectRegions(state.getRegions(), state, text);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates the template raising the in-events at any time.
+	 */
+	private Template createEnvironment() {
+		Template template = TemplatesFactory.eINSTANCE.createTemplate();
+		template.setName(environmentName);
+		parser.beginTemplate(template);
+		Location location = TemplatesFactory.eINSTANCE.createLocation();
+		location.setName("idle");
+		location.setLocationTimeKind(LocationKind.NORMAL);
+		template.getLocation().add(location);
+		template.setInit(location);
+		for (EventDefinition event : inEvents) {
+			trace.add(event, createRaisingEdge(template, event));
+		}
+		return template;
+	}
+
+	private Edge createRaisingEdge(Template template, EventDefinition event) {
+		Edge edge = TemplatesFactory.eINSTANCE.createEdge();
+		edge.setSource(template.getInit());
+		edge.setTarget(template.getInit());
+		template.getEdge().add(edge);
+		try {
+			edge.setSynchronization(parser.parseSynchronization(elementNames.get(event) + "!"));
+		}
+		catch (UppaalParseException e) {
+			throw new TransformationException("Invalid synchronization generated: " + e.getMessage(), event, e);
+		}
+		return edge;
+	}
+
+	/**
+	 * Transforms a transition again after its trigger or effect changed.
+	 * @param transition the transition.
+	 * @return whether the NTA was patched, or the statechart must be transformed again.
+	 */
+	boolean retransform(Transition transition) {
+		RegionTransformation region = regionTransformations.get(transition.getSource().getParentRegion());
+		return region != null && region.retransform(transition, trace);
+	}
+
+	/**
+	 * Transforms the local reactions of a state again after they changed.
+	 * @param state the state.
+	 * @return whether the NTA was patched, or the statechart must be transformed again.
+	 */
+	boolean retransformReactions(State state) {
+		RegionTransformation region = regionTransformations.get(state.getParentRegion());
+		return region != null && region.retransformReactions(state, trace);
+	}
+
+	/**
+	 * Replaces the declaration of a variable after its type, initial value or constness changed,
+	 * redirecting the references to the variable to the new declaration.
+	 * @param variable the variable.
+	 * @return whether the NTA was patched, or the statechart must be transformed again.
+	 */
+	boolean retransform(VariableDefinition variable) {
+		List<DataVariableDeclaration> previous = trace.getTargets(variable, DataVariableDeclaration.class);
+		if (previous.isEmpty()) {
+			return false;
+		}
+		StringBuilder text = new StringBuilder();
+		appendDeclaration(variable, text);
+		GlobalDeclarations declarations = DeclarationsFactory.eINSTANCE.createGlobalDeclarations();
+		TransformationParser variableParser = new TransformationParser(nta);
+		variableParser.declareVariables(nta.getGlobalDeclarations());
+		try {
+			variableParser.parseDeclarations(text, declarations);
+		}
+		catch (UppaalParseException e) {
+			throw new TransformationException("Invalid declarations generated: " + e.getMessage(), variable, e);
+		}
+		DataVariableDeclaration oldDeclaration = previous.get(0);
+		DataVariableDeclaration newDeclaration = (DataVariableDeclaration)declarations.getDeclaration().get(0);
+		Variable oldVariable = oldDeclaration.getVariable().get(0);
+		Variable newVariable = newDeclaration.getVariable().get(0);
+		for (TreeIterator<EObject> i = nta.eAllContents(); i.hasNext();) {
+			EObject object = i.next();
+			if (object instanceof IdentifierExpression && ((IdentifierExpression)object).getIdentifier() == oldVariable) {
+				((IdentifierExpression)object).setIdentifier(newVariable);
+			}
+		}
+		List<de.uni_paderborn.uppaal.declarations.Declaration> list = nta.getGlobalDeclarations().getDeclaration();
+		list.set(list.indexOf(oldDeclaration), newDeclaration);
+		trace.remove(variable);
+		trace.add(variable, newDeclaration);
+		for (RegionTransformation region : regionTransformations.values()) {
+			region.redeclareVariables();
+		}
+		return true;
+	}
+
+	/**
+	 * Updates the environment after the direction of an event changed.
+	 * @param event the event.
+	 * @return whether the NTA was patched, or the statechart must be transformed again, e.g. as the type of the event changed.
+	 */
+	boolean retransform(EventDefinition event) {
+		if (valueNames.containsKey(event) || getTypeName(event.getType(), event) != null) {
+			return false;
+		}
+		for (EObject target : trace.remove(event)) {
+			if (target instanceof Edge) {
+				EcoreUtil.remove(target);
+			}
+			else {
+				trace.add(event, target);
+			}
+		}
+		inEvents.remove(event);
+		if (event.getDirection() == Direction.IN) {
+			if (environment == null) {
+				return false;
+			}
+			inEvents.add(event);
+			trace.add(event, createRaisingEdge(environment, event));
+		}
+		return true;
+	}
+
+	/**
+	 * Moves the contents of the generated NTA into another one, which is patched from then on.
+	 * @param target the NTA replacing the generated one.
+	 */
+	void moveTo(NTA target) {
+		target.setName(nta.getName());
+		target.setInt(nta.getInt());
+		target.setBool(nta.getBool());
+		target.setClock(nta.getClock());
+		target.setChan(nta.getChan());
+		target.setVoid(nta.getVoid());
+		target.setGlobalDeclarations(nta.getGlobalDeclarations());
+		target.getTemplate().clear();
+		target.getTemplate().addAll(nta.getTemplate());
+		target.setSystemDeclarations(nta.getSystemDeclarations());
+		nta = target;
+	}
+
+	TransformationTrace getTrace() {
+		return trace;
+	}
+
+	NTA getNTA() {
+		return nta;
+	}
+
+	TimeUnit getTimeUnit() {
+		return timeUnit;
+	}
+
+	Names getNames() {
+		return names;
+	}
+
+	ExpressionPrinter getPrinter() {
+		return printer;
+	}
+
+	String getTemplateName(Region region) {
+		return templateNames.get(region);
+	}
+
+	/**
+	 * Returns the channel entering the regions of a composite state.
+	 * @return the name of the channel, or <code>null</code> if the state is not composite.
+	 */
+	String getEnterChannel(State state) {
+		return enterChannels.get(state);
+	}
+
+	/**
+	 * Returns the channel exiting the regions of a composite state.
+	 * @return the name of the channel, or <code>null</code> if the state is not composite.
+	 */
+	String getExitChannel(State state) {
+		return exitChannels.get(state);
+	}
+
+}
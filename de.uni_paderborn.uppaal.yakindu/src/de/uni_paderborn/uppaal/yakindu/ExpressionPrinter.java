@@ -0,0 +1,245 @@
+/**
+ */
+package de.uni_paderborn.uppaal.yakindu;
+
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EObject;
+import org.yakindu.base.expressions.expressions.AssignmentExpression;
+import org.yakindu.base.expressions.expressions.BitwiseAndExpression;
+import org.yakindu.base.expressions.expressions.BitwiseOrExpression;
+import org.yakindu.base.expressions.expressions.BitwiseXorExpression;
+import org.yakindu.base.expressions.expressions.BoolLiteral;
+import org.yakindu.base.expressions.expressions.ConditionalExpression;
+import org.yakindu.base.expressions.expressions.ElementReferenceExpression;
+import org.yakindu.base.expressions.expressions.Expression;
+import org.yakindu.base.expressions.expressions.FeatureCall;
+import org.yakindu.base.expressions.expressions.HexLiteral;
+import org.yakindu.base.expressions.expressions.IntLiteral;
+import org.yakindu.base.expressions.expressions.Literal;
+import org.yakindu.base.expressions.expressions.LogicalAndExpression;
+import org.yakindu.base.expressions.expressions.LogicalNotExpression;
+import org.yakindu.base.expressions.expressions.LogicalOrExpression;
+import org.yakindu.base.expressions.expressions.LogicalRelationExpression;
+import org.yakindu.base.expressions.expressions.NumericalAddSubtractExpression;
+import org.yakindu.base.expressions.expressions.NumericalMultiplyDivideExpression;
+import org.yakindu.base.expressions.expressions.NumericalUnaryExpression;
+import org.yakindu.base.expressions.expressions.ParenthesizedExpression;
+import org.yakindu.base.expressions.expressions.PrimitiveValueExpression;
+import org.yakindu.base.expressions.expressions.ShiftExpression;
+import org.yakindu.base.expressions.expressions.TypeCastExpression;
+import org.yakindu.sct.model.stext.stext.EventDefinition;
+import org.yakindu.sct.model.stext.stext.EventValueReferenceExpression;
+
+/**
+ * Prints SText expressions in Uppaal's textual syntax.
+ * <p>
+ * The operators of SText and Uppaal share their symbols and precedences,
+ * and explicit parentheses are kept as parenthesized expressions, so the structure of an expression is printed as is.
+ * References print the names of the declarations generated for the referenced variables and events.
+ * Real and string values, null, operation calls and the use of an event as a condition are not supported.
+ * </p>
+ * <p>
+ * A printer only reads the expressions and its names, so it can be shared by threads.
+ * </p>
+ */
+final class ExpressionPrinter {
+	/**
+	 * The names of the declarations generated for variables and events.
+	 */
+	private final Map<EObject, String> names;
+
+	/**
+	 * The names of the variables generated for the values of events.
+	 */
+	private final Map<EObject, String> valueNames;
+
+	ExpressionPrinter(Map<EObject, String> names, Map<EObject, String> valueNames) {
+		this.names = names;
+		this.valueNames = valueNames;
+	}
+
+	/**
+	 * Prints an expression.
+	 * @param expression the expression.
+	 * @return the text of the expression.
+	 * @throws TransformationException if the expression is not supported.
+	 */
+	String print(Expression expression) {
+		StringBuilder text = new StringBuilder();
+		print(expression, text);
+		return text.toString();
+	}
+
+	private void print(Expression expression, StringBuilder text) {
+		if (expression instanceof AssignmentExpression) {
+			AssignmentExpression assignment = (AssignmentExpression)expression;
+			print(assignment.getVarRef(), text);
+			text.append(' ').append(assignment.getOperator().getLiteral()).append(' ');
+			print(assignment.getExpression(), text);
+		}
+		else if (expression instanceof ConditionalExpression) {
+			ConditionalExpression conditional = (ConditionalExpression)expression;
+			print(conditional.getCondition(), text);
+			text.append(" ? ");
+			print(conditional.getTrueCase(), text);
+			text.append(" : ");
+			print(conditional.getFalseCase(), text);
+		}
+		else if (expression instanceof LogicalOrExpression) {
+			LogicalOrExpression or = (LogicalOrExpression)expression;
+			printBinary(or.getLeftOperand(), "||", or.getRightOperand(), text);
+		}
+		else if (expression instanceof LogicalAndExpression) {
+			LogicalAndExpression and = (LogicalAndExpression)expression;
+			printBinary(and.getLeftOperand(), "&&", and.getRightOperand(), text);
+		}
+		else if (expression instanceof LogicalNotExpression) {
+			text.append('!');
+			print(((LogicalNotExpression)expression).getOperand(), text);
+		}
+		else if (expression instanceof BitwiseOrExpression) {
+			BitwiseOrExpression or = (BitwiseOrExpression)expression;
+			printBinary(or.getLeftOperand(), "|", or.getRightOperand(), text);
+		}
+		else if (expression instanceof BitwiseXorExpression) {
+			BitwiseXorExpression xor = (BitwiseXorExpression)expression;
+			printBinary(xor.getLeftOperand(), "^", xor.getRightOperand(), text);
+		}
+		else if (expression instanceof BitwiseAndExpression) {
+			BitwiseAndExpression and = (BitwiseAndExpression)expression;
+			printBinary(and.getLeftOperand(), "&", and.getRightOperand(), text);
+		}
+		else if (expression instanceof LogicalRelationExpression) {
+			LogicalRelationExpression relation = (LogicalRelationExpression)expression;
+			printBinary(relation.getLeftOperand(), relation.getOperator().getLiteral(), relation.getRightOperand(), text);
+		}
+		else if (expression instanceof ShiftExpression) {
+			ShiftExpression shift = (ShiftExpression)expression;
+			printBinary(shift.getLeftOperand(), shift.getOperator().getLiteral(), shift.getRightOperand(), text);
+		}
+		else if (expression instanceof NumericalAddSubtractExpression) {
+			NumericalAddSubtractExpression sum = (NumericalAddSubtractExpression)expression;
+			printBinary(sum.getLeftOperand(), sum.getOperator().getLiteral(), sum.getRightOperand(), text);
+		}
+		else if (expression instanceof NumericalMultiplyDivideExpression) {
+			NumericalMultiplyDivideExpression product = (NumericalMultiplyDivideExpression)expression;
+			printBinary(product.getLeftOperand(), product.getOperator().getLiteral(), product.getRightOperand(), text);
+		}
+		else if (expression instanceof NumericalUnaryExpression) {
+			NumericalUnaryExpression unary = (NumericalUnaryExpression)expression;
+			text.append(unary.getOperator().getLiteral());
+			print(unary.getOperand(), text);
+		}
+		else if (expression instanceof TypeCastExpression) {
+			// Integers and Booleans need no conversion in Uppaal
+			print(((TypeCastExpression)expression).getOperand(), text);
+		}
+		else if (expression instanceof ParenthesizedExpression) {
+			text.append('(');
+			print(((ParenthesizedExpression)expression).getExpression(), text);
+			text.append(')');
+		}
+		else if (expression instanceof PrimitiveValueExpression) {
+			printLiteral(((PrimitiveValueExpression)expression).getValue(), text);
+		}
+		else if (expression instanceof ElementReferenceExpression) {
+			ElementReferenceExpression reference = (ElementReferenceExpression)expression;
+			if (!reference.getArgs().isEmpty()) {
+				throw new TransformationException("Operation calls are not supported", expression);
+			}
+			text.append(getVariableName(reference.getReference(), expression));
+		}
+		else if (expression instanceof FeatureCall) {
+			FeatureCall call = (FeatureCall)expression;
+			if (!call.getArgs().isEmpty()) {
+				throw new TransformationException("Operation calls are not supported", expression);
+			}
+			text.append(getVariableName(call.getFeature(), expression));
+		}
+		else if (expression instanceof EventValueReferenceExpression) {
+			EObject event = getReferencedElement(((EventValueReferenceExpression)expression).getValue());
+			String name = valueNames.get(event);
+			if (name == null) {
+				throw new TransformationException("The event has no value", expression);
+			}
+			text.append(name);
+		}
+		else {
+			throw new TransformationException("Unsupported expression " + expression.eClass().getName(), expression);
+		}
+	}
+
+	private void printBinary(Expression left, String operator, Expression right, StringBuilder text) {
+		print(left, text);
+		text.append(' ').append(operator).append(' ');
+		print(right, text);
+	}
+
+	private static void printLiteral(Literal literal, StringBuilder text) {
+		if (literal instanceof IntLiteral) {
+			text.append(((IntLiteral)literal).getValue());
+		}
+		else if (literal instanceof HexLiteral) {
+			text.append(((HexLiteral)literal).getValue());
+		}
+		else if (literal instanceof BoolLiteral) {
+			text.append(((BoolLiteral)literal).isValue());
+		}
+		else {
+			throw new TransformationException("Unsupported literal " + literal.eClass().getName(), literal);
+		}
+	}
+
+	private String getVariableName(EObject element, Expression expression) {
+		if (element instanceof EventDefinition) {
+			throw new TransformationException("Events can only be used as triggers, raised or read by valueof", expression);
+		}
+		String name = names.get(element);
+		if (name == null) {
+			throw new TransformationException("Unsupported reference", expression);
+		}
+		return name;
+	}
+
+	/**
+	 * Returns the element referenced by an expression denoting a variable or an event,
+	 * i.e. an element reference or a feature call on an interface.
+	 * @param expression the expression.
+	 * @return the referenced element.
+	 * @throws TransformationException if the expression is no reference.
+	 */
+	static EObject getReferencedElement(Expression expression) {
+		if (expression instanceof ElementReferenceExpression) {
+			return ((ElementReferenceExpression)expression).getReference();
+		}
+		if (expression instanceof FeatureCall) {
+			return ((FeatureCall)expression).getFeature();
+		}
+		throw new TransformationException("Expected a reference", expression);
+	}
+
+	/**
+	 * Returns the name of the channel of an event referenced by an expression.
+	 * @param expression the reference to the event.
+	 * @return the name of the channel.
+	 * @throws TransformationException if the expression does not reference an event.
+	 */
+	String getEventName(Expression expression) {
+		EObject event = getReferencedElement(expression);
+		if (!(event instanceof EventDefinition)) {
+			throw new TransformationException("Expected an event", expression);
+		}
+		return names.get(event);
+	}
+
+	/**
+	 * Returns the name of the variable holding the value of an event.
+	 * @param expression the reference to the event.
+	 * @return the name of the variable, or <code>null</code> if the event has no value.
+	 */
+	String getValueName(Expression expression) {
+		return valueNames.get(getReferencedElement(expression));
+	}
+
+}
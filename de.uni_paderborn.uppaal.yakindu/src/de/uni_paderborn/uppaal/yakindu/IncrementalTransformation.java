@@ -0,0 +1,216 @@
+/**
+ */
+package de.uni_paderborn.uppaal.yakindu;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.yakindu.sct.model.sgraph.Reaction;
+import org.yakindu.sct.model.sgraph.Region;
+import org.yakindu.sct.model.sgraph.Scope;
+import org.yakindu.sct.model.sgraph.State;
+import org.yakindu.sct.model.sgraph.Statechart;
+import org.yakindu.sct.model.sgraph.Transition;
+import org.yakindu.sct.model.sgraph.Vertex;
+import org.yakindu.sct.model.stext.stext.EventDefinition;
+import org.yakindu.sct.model.stext.stext.VariableDefinition;
+
+import de.uni_paderborn.uppaal.NTA;
+
+/**
+ * A transformation of a statechart that keeps the NTA up to date with the changes of the statechart.
+ * <p>
+ * An adapter on the statechart records the changed transitions, local reactions, variables and events.
+ * {@link #update()} transforms only these elements again and patches the NTA in place,
+ * replacing the elements recorded for them in the {@link #getTrace() trace}.
+ * Other changes, e.g. added, removed or renamed vertices, transitions or declarations,
+ * changes of the type of a valued event or the first time event of a region, transform the whole statechart again;
+ * the contents of the NTA are then replaced, so the NTA itself stays the same object.
+ * </p>
+ * <p>
+ * Patched elements keep their generated names, while new committed locations take names not used before,
+ * so an NTA patched after several changes may differ in the names of its committed locations from one transformed at once.
+ * </p>
+ */
+public class IncrementalTransformation {
+	private final StatechartTransformer transformer;
+
+	private final Statechart statechart;
+
+	private final NTA nta;
+
+	private ChartTransformation transformation;
+
+	// The elements changed since the last update
+
+	private final Set<Transition> changedTransitions = new LinkedHashSet<Transition>();
+
+	private final Set<State> changedReactions = new LinkedHashSet<State>();
+
+	private final Set<EObject> changedDeclarations = new LinkedHashSet<EObject>();
+
+	/**
+	 * Whether a change cannot be handled by transforming single elements.
+	 */
+	private boolean structureChanged;
+
+	private final EContentAdapter adapter = new EContentAdapter() {
+		@Override
+		public void notifyChanged(Notification notification) {
+			super.notifyChanged(notification);
+			if (!notification.isTouch() && notification.getNotifier() instanceof EObject) {
+				changed((EObject)notification.getNotifier(), notification.getFeature());
+			}
+		}
+	};
+
+	/**
+	 * Transforms a statechart and starts to record its changes.
+	 * @param transformer the transformer providing the pool and the settings.
+	 * @param statechart the statechart.
+	 * @throws TransformationException if an element of the statechart cannot be transformed.
+	 */
+	public IncrementalTransformation(StatechartTransformer transformer, Statechart statechart) {
+		this.transformer = transformer;
+		this.statechart = statechart;
+		StatechartTransformer.prepare(statechart);
+		this.transformation = new ChartTransformation(statechart, transformer.getTimeUnit());
+		this.nta = transformer.pool.invoke(transformation);
+		statechart.eAdapters().add(adapter);
+	}
+
+	/**
+	 * Returns the NTA, which is patched by {@link #update()}.
+	 * @return the NTA.
+	 */
+	public NTA getNTA() {
+		return nta;
+	}
+
+	/**
+	 * Returns the links between the statechart and the NTA.
+	 * The trace is replaced when the whole statechart is transformed again.
+	 * @return the trace.
+	 */
+	public TransformationTrace getTrace() {
+		return transformation.getTrace();
+	}
+
+	/**
+	 * Returns whether the statechart changed since the last update.
+	 * @return <code>true</code> if {@link #update()} will change the NTA.
+	 */
+	public boolean isChanged() {
+		return structureChanged || !changedTransitions.isEmpty() || !changedReactions.isEmpty() || !changedDeclarations.isEmpty();
+	}
+
+	/**
+	 * Records that an element of the statechart changed, for changes made without notifications.
+	 * The enclosing transition, local reaction, variable or event is transformed again by the next update;
+	 * other elements cause the whole statechart to be transformed again.
+	 * @param element the changed element or an element contained in it.
+	 */
+	public void invalidate(EObject element) {
+		for (EObject current = element; current != null; current = current.eContainer()) {
+			if (current instanceof Transition) {
+				changedTransitions.add((Transition)current);
+				return;
+			}
+			if (current instanceof VariableDefinition || current instanceof EventDefinition) {
+				changedDeclarations.add(current);
+				return;
+			}
+			if ((current instanceof Reaction || current instanceof Scope) && current.eContainer() instanceof State) {
+				changedReactions.add((State)current.eContainer());
+				return;
+			}
+			if (current instanceof Scope || current instanceof Vertex || current instanceof Region || current instanceof Statechart) {
+				break;
+			}
+		}
+		structureChanged = true;
+	}
+
+	private void changed(EObject notifier, Object feature) {
+		if (feature instanceof EAttribute && "specification".equals(((EAttribute)feature).getName())) {
+			// The parsed triggers, effects and declarations replaced for the new specification are notified on their own
+			return;
+		}
+		if (feature instanceof EAttribute && "name".equals(((EAttribute)feature).getName())
+				|| feature instanceof EReference && !((EReference)feature).isContainment()) {
+			if (notifier instanceof Transition || notifier instanceof State || notifier instanceof VariableDefinition
+					|| notifier instanceof EventDefinition) {
+				// Renamed or reconnected elements change names or the structure of a template
+				structureChanged = true;
+				return;
+			}
+		}
+		invalidate(notifier);
+	}
+
+	/**
+	 * Transforms the elements changed since the last update and patches the NTA.
+	 * If an element cannot be transformed, the next update transforms the whole statechart again.
+	 * @throws TransformationException if an element of the statechart cannot be transformed.
+	 */
+	public void update() {
+		if (!structureChanged) {
+			try {
+				structureChanged = !patch();
+			}
+			catch (RuntimeException e) {
+				structureChanged = true;
+				throw e;
+			}
+		}
+		if (structureChanged) {
+			StatechartTransformer.prepare(statechart);
+			ChartTransformation next = new ChartTransformation(statechart, transformer.getTimeUnit());
+			transformer.pool.invoke(next);
+			next.moveTo(nta);
+			transformation = next;
+		}
+		structureChanged = false;
+		changedTransitions.clear();
+		changedReactions.clear();
+		changedDeclarations.clear();
+	}
+
+	/**
+	 * Transforms the changed elements again.
+	 * @return whether the NTA was patched, or the whole statechart must be transformed again.
+	 */
+	private boolean patch() {
+		for (EObject declaration : changedDeclarations) {
+			if (declaration.eContainer() == null
+					|| !(declaration instanceof VariableDefinition ? transformation.retransform((VariableDefinition)declaration)
+							: transformation.retransform((EventDefinition)declaration))) {
+				return false;
+			}
+		}
+		for (State state : changedReactions) {
+			if (state.eContainer() == null || !transformation.retransformReactions(state)) {
+				return false;
+			}
+		}
+		for (Transition transition : changedTransitions) {
+			if (transition.eContainer() == null || !transformation.retransform(transition)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Stops recording the changes of the statechart.
+	 */
+	public void dispose() {
+		statechart.eAdapters().remove(adapter);
+	}
+
+}
@@ -0,0 +1,44 @@
+/**
+ */
+package de.uni_paderborn.uppaal.yakindu;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.yakindu.base.types.InferenceResult;
+import org.yakindu.sct.model.stext.types.STextDefaultTypeInferrer;
+
+import com.google.inject.Singleton;
+
+/**
+ * A type inferrer of SText that infers the type of each element once.
+ * <p>
+ * The types are kept in the {@link TypeTable} attached to the resource of the elements, which is cleared when the resource changes.
+ * The types of the subexpressions are inferred through the same method, so they are kept as well,
+ * and scoping, validation and transformation share the types of an unchanged resource.
+ * Elements outside a resource or in a resource without a table are inferred each time:
+ * the inferrer does not attach tables, since attaching changes every element of the resource
+ * and could race with other threads reading it.
+ * </p>
+ * <p>
+ * The inferrer is bound to <code>ISTextTypeInferrer</code> by the injector of {@link SpecificationParser}.
+ * </p>
+ */
+@Singleton
+public class MemoizingTypeInferrer extends STextDefaultTypeInferrer {
+
+	@Override
+	public InferenceResult doInferType(EObject element) {
+		Resource resource = element == null ? null : element.eResource();
+		TypeTable table = resource == null ? null : TypeTable.find(resource);
+		if (table == null) {
+			return super.doInferType(element);
+		}
+		InferenceResult result = table.get(element);
+		if (result == null) {
+			result = super.doInferType(element);
+			table.put(element, result);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,74 @@
+/**
+ */
+package de.uni_paderborn.uppaal.yakindu;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The names taken in a scope of the generated NTA.
+ * <p>
+ * Names of the statechart are turned into identifiers and made unique by a numeric suffix,
+ * so the same statechart always yields the same names when they are allocated in the same order.
+ * </p>
+ */
+final class Names {
+	/**
+	 * The keywords of Uppaal's textual syntax, which cannot be used as identifiers.
+	 */
+	private static final Set<String> KEYWORDS = new HashSet<String>(Arrays.asList("and", "assign", "bool", "break", "broadcast", "case", "chan",
+			"clock", "commit", "const", "continue", "default", "do", "double", "else", "exists", "false", "for", "forall", "guard", "if", "imply",
+			"init", "int", "meta", "not", "or", "priority", "process", "progress", "return", "scalar", "select", "state", "struct", "sum",
+			"switch", "sync", "system", "trans", "true", "typedef", "urgent", "void", "while"));
+
+	private final Set<String> used;
+
+	/**
+	 * Creates an empty scope.
+	 */
+	Names() {
+		this.used = new HashSet<String>(KEYWORDS);
+	}
+
+	/**
+	 * Creates a scope in which the names of another one are taken as well.
+	 * @param enclosing the enclosing scope.
+	 */
+	Names(Names enclosing) {
+		this.used = new HashSet<String>(enclosing.used);
+	}
+
+	/**
+	 * Takes a new identifier derived from a name.
+	 * @param name the name in the statechart, may be <code>null</code>.
+	 * @return the identifier, not taken before.
+	 */
+	String allocate(String name) {
+		String base = toIdentifier(name);
+		String result = base;
+		for (int i = 2; !used.add(result); i++) {
+			result = base + "_" + i;
+		}
+		return result;
+	}
+
+	/**
+	 * Replaces the characters of a name that are not allowed in identifiers by underscores.
+	 */
+	static String toIdentifier(String name) {
+		if (name == null || name.isEmpty()) {
+			return "_";
+		}
+		StringBuilder result = new StringBuilder(name.length() + 1);
+		if (!Character.isLetter(name.charAt(0)) && name.charAt(0) != '_') {
+			result.append('_');
+		}
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			result.append(c < 128 && (Character.isLetterOrDigit(c) || c == '_') ? c : '_');
+		}
+		return result.toString();
+	}
+
+}
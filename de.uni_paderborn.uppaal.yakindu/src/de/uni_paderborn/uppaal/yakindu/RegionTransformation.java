@@ -0,0 +1,710 @@
+/**
+ */
+package de.uni_paderborn.uppaal.yakindu;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.yakindu.base.expressions.expressions.Expression;
+import org.yakindu.base.expressions.expressions.IntLiteral;
+import org.yakindu.base.expressions.expressions.PrimitiveValueExpression;
+import org.yakindu.sct.model.sgraph.Choice;
+import org.yakindu.sct.model.sgraph.Effect;
+import org.yakindu.sct.model.sgraph.Entry;
+import org.yakindu.sct.model.sgraph.Exit;
+import org.yakindu.sct.model.sgraph.FinalState;
+import org.yakindu.sct.model.sgraph.Reaction;
+import org.yakindu.sct.model.sgraph.Region;
+import org.yakindu.sct.model.sgraph.State;
+import org.yakindu.sct.model.sgraph.Transition;
+import org.yakindu.sct.model.sgraph.Trigger;
+import org.yakindu.sct.model.sgraph.Vertex;
+import org.yakindu.sct.model.stext.stext.AlwaysEvent;
+import org.yakindu.sct.model.stext.stext.DefaultTrigger;
+import org.yakindu.sct.model.stext.stext.EntryEvent;
+import org.yakindu.sct.model.stext.stext.EventRaisingExpression;
+import org.yakindu.sct.model.stext.stext.EventSpec;
+import org.yakindu.sct.model.stext.stext.ExitEvent;
+import org.yakindu.sct.model.stext.stext.ReactionEffect;
+import org.yakindu.sct.model.stext.stext.ReactionTrigger;
+import org.yakindu.sct.model.stext.stext.RegularEventSpec;
+import org.yakindu.sct.model.stext.stext.TimeEventSpec;
+
+import de.uni_paderborn.uppaal.declarations.DeclarationsFactory;
+import de.uni_paderborn.uppaal.declarations.LocalDeclarations;
+import de.uni_paderborn.uppaal.serialization.UppaalParseException;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.Location;
+import de.uni_paderborn.uppaal.templates.LocationKind;
+import de.uni_paderborn.uppaal.templates.Template;
+import de.uni_paderborn.uppaal.templates.TemplatesFactory;
+
+/**
+ * The transformation of a region into a template.
+ * <p>
+ * Each vertex becomes a location, choices and entries committed ones, and each transition becomes an edge
+ * or a chain of edges through committed locations, one for each synchronization:
+ * the trigger, exiting the regions of a composite source, each raised event and entering the regions of a composite target.
+ * Events are broadcast channels, time events compare the clock of the template, which is reset whenever a state is entered,
+ * and the invariant of a state bounds the clock by the time events of its outgoing transitions.
+ * Entry and exit actions become updates of the edges entering and leaving a state, other local reactions self loops.
+ * </p>
+ * <p>
+ * The template of a region nested in a composite state starts in an inactive location.
+ * It is entered on the enter channel of the state and returns to the inactive location from every state on its exit channel.
+ * </p>
+ * <p>
+ * The task creates the template on its own and only reads the statechart and the global declarations,
+ * so the regions of a statechart can be transformed concurrently.
+ * It records the generated elements in its own trace.
+ * Once it is done, it re-transforms changed transitions and local reactions of the region in place on request,
+ * replacing the elements generated for them before.
+ * </p>
+ */
+final class RegionTransformation extends RecursiveTask<Template> {
+	private static final long serialVersionUID = 1L;
+
+	private final ChartTransformation chart;
+
+	private final Region region;
+
+	/**
+	 * The names of the template, including the global names to avoid shadowing.
+	 */
+	private final Names names;
+
+	private final ExpressionPrinter printer;
+
+	private final Map<Vertex, Location> locations = new HashMap<Vertex, Location>();
+
+	private final TransformationTrace trace = new TransformationTrace();
+
+	/**
+	 * The edges and locations returning from the states to the inactive location.
+	 */
+	private final Map<State, List<EObject>> exitChains = new HashMap<State, List<EObject>>();
+
+	/**
+	 * The local reactions of the states when they were last transformed, which are replaced when a specification is parsed again.
+	 */
+	private final Map<State, List<Reaction>> reactions = new HashMap<State, List<Reaction>>();
+
+	/**
+	 * The elements generated for the element being transformed, or <code>null</code> if they are not collected.
+	 */
+	private List<EObject> created;
+
+	private TransformationParser parser;
+
+	private Template template;
+
+	private Location inactive;
+
+	/**
+	 * The name of the clock of the template, or <code>null</code> if the region has no time events.
+	 */
+	private String clock;
+
+	RegionTransformation(ChartTransformation chart, Region region) {
+		this.chart = chart;
+		this.region = region;
+		this.names = new Names(chart.getNames());
+		this.printer = chart.getPrinter();
+	}
+
+	@Override
+	protected Template compute() {
+		template = TemplatesFactory.eINSTANCE.createTemplate();
+		template.setName(chart.getTemplateName(region));
+		trace.add(region, template);
+		parser = new TransformationParser(chart.getNTA());
+		parser.declareVariables(chart.getNTA().getGlobalDeclarations());
+		parser.beginTemplate(template);
+		if (hasTimeEvents()) {
+			clock = names.allocate("t");
+			LocalDeclarations declarations = DeclarationsFactory.eINSTANCE.createLocalDeclarations();
+			template.setDeclarations(declarations);
+			try {
+				parser.parseDeclarations("clock " + clock + ";", declarations);
+			}
+			catch (UppaalParseException e) {
+				throw new TransformationException("Invalid declarations generated: " + e.getMessage(), region, e);
+			}
+		}
+
+		if (region.getComposite() instanceof State) {
+			inactive = createLocation("inactive", LocationKind.NORMAL);
+			trace.add(region, inactive);
+			template.setInit(inactive);
+		}
+		Entry entry = null;
+		for (Vertex vertex : region.getVertices()) {
+			locations.put(vertex, createLocation(vertex));
+			trace.add(vertex, locations.get(vertex));
+			if (vertex instanceof Entry && entry == null) {
+				entry = (Entry)vertex;
+			}
+		}
+		if (entry == null) {
+			throw new TransformationException("The region has no entry", region);
+		}
+		if (inactive == null) {
+			template.setInit(locations.get(entry));
+		}
+		else {
+			State parent = (State)region.getComposite();
+			created = new ArrayList<EObject>();
+			EdgeChain chain = new EdgeChain(inactive, "entering");
+			chain.synchronize(chart.getEnterChannel(parent) + "?");
+			chain.end(locations.get(entry));
+			trace.addAll(region, created);
+			created = null;
+		}
+
+		for (Vertex vertex : region.getVertices()) {
+			for (Transition transition : vertex.getOutgoingTransitions()) {
+				trace.addAll(transition, transformTransition(transition));
+			}
+			if (vertex instanceof State) {
+				State state = (State)vertex;
+				for (Map.Entry<EObject, List<EObject>> targets : transformReactions(state).entrySet()) {
+					trace.addAll(targets.getKey(), targets.getValue());
+				}
+				setInvariant(state);
+				if (inactive != null) {
+					exitChains.put(state, transformExit(state));
+				}
+			}
+		}
+		return template;
+	}
+
+	/**
+	 * Returns the elements generated for the region.
+	 * @return the trace.
+	 */
+	TransformationTrace getTrace() {
+		return trace;
+	}
+
+	/**
+	 * Re-transforms a transition whose trigger or effect changed, together with the default transitions of its source,
+	 * whose guards depend on its guard.
+	 * @param transition the transition.
+	 * @param trace the trace of the NTA, updated for the transformed transitions.
+	 * @return whether the transition was transformed, or the region must be transformed again, as it needs a clock now.
+	 */
+	boolean retransform(Transition transition, TransformationTrace trace) {
+		if (clock == null && hasTimeEvent(transition.getTrigger())) {
+			return false;
+		}
+		retransformTransition(transition, trace);
+		for (Transition other : transition.getSource().getOutgoingTransitions()) {
+			if (other != transition && other.getTrigger() instanceof DefaultTrigger) {
+				retransformTransition(other, trace);
+			}
+		}
+		if (transition.getSource() instanceof State) {
+			setInvariant((State)transition.getSource());
+		}
+		return true;
+	}
+
+	/**
+	 * Re-transforms the local reactions of a state and, if the entry or exit actions may have changed,
+	 * the transitions entering and leaving the state.
+	 * @param state the state.
+	 * @param trace the trace of the NTA, updated for the transformed reactions and transitions.
+	 * @return whether the reactions were transformed, or the region must be transformed again, as it needs a clock now.
+	 */
+	boolean retransformReactions(State state, TransformationTrace trace) {
+		if (clock == null && hasTimeEvents()) {
+			return false;
+		}
+		boolean entryOrExit = false;
+		for (Reaction reaction : reactions.get(state)) {
+			remove(trace.remove(reaction));
+			entryOrExit |= isEntryOrExit(reaction);
+		}
+		for (Map.Entry<EObject, List<EObject>> targets : transformReactions(state).entrySet()) {
+			trace.addAll(targets.getKey(), targets.getValue());
+		}
+		for (Reaction reaction : state.getLocalReactions()) {
+			entryOrExit |= isEntryOrExit(reaction);
+		}
+		if (entryOrExit) {
+			for (Transition transition : state.getIncomingTransitions()) {
+				retransformTransition(transition, trace);
+			}
+			for (Transition transition : state.getOutgoingTransitions()) {
+				retransformTransition(transition, trace);
+			}
+			if (inactive != null) {
+				remove(exitChains.get(state));
+				exitChains.put(state, transformExit(state));
+			}
+		}
+		setInvariant(state);
+		return true;
+	}
+
+	/**
+	 * Declares the global variables again in the parser, after their declarations were replaced.
+	 */
+	void redeclareVariables() {
+		parser.declareVariables(chart.getNTA().getGlobalDeclarations());
+	}
+
+	private void retransformTransition(Transition transition, TransformationTrace trace) {
+		remove(trace.remove(transition));
+		trace.addAll(transition, transformTransition(transition));
+	}
+
+	private void remove(List<EObject> targets) {
+		for (EObject target : targets) {
+			EcoreUtil.remove(target);
+		}
+	}
+
+	private boolean hasTimeEvents() {
+		for (Vertex vertex : region.getVertices()) {
+			for (Transition transition : vertex.getOutgoingTransitions()) {
+				if (hasTimeEvent(transition.getTrigger())) {
+					return true;
+				}
+			}
+			if (vertex instanceof State) {
+				for (Reaction reaction : ((State)vertex).getLocalReactions()) {
+					if (hasTimeEvent(reaction.getTrigger())) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasTimeEvent(Trigger trigger) {
+		for (EventSpec spec : getEventSpecs(trigger)) {
+			if (spec instanceof TimeEventSpec) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<EventSpec> getEventSpecs(Trigger trigger) {
+		if (trigger instanceof ReactionTrigger) {
+			return ((ReactionTrigger)trigger).getTriggers();
+		}
+		return Collections.emptyList();
+	}
+
+	private Location createLocation(Vertex vertex) {
+		if (vertex instanceof State) {
+			return createLocation(vertex.getName(), LocationKind.NORMAL);
+		}
+		if (vertex instanceof Entry) {
+			return createLocation(vertex.getName() == null || vertex.getName().isEmpty() ? "entry" : vertex.getName(), LocationKind.COMMITED);
+		}
+		if (vertex instanceof Choice) {
+			return createLocation(vertex.getName() == null || vertex.getName().isEmpty() ? "choice" : vertex.getName(), LocationKind.COMMITED);
+		}
+		if (vertex instanceof FinalState) {
+			return createLocation("final", LocationKind.NORMAL);
+		}
+		if (vertex instanceof Exit) {
+			return createLocation(vertex.getName() == null || vertex.getName().isEmpty() ? "exit" : vertex.getName(), LocationKind.NORMAL);
+		}
+		throw new TransformationException("Unsupported vertex " + vertex.eClass().getName(), vertex);
+	}
+
+	private Location createLocation(String name, LocationKind kind) {
+		Location location = TemplatesFactory.eINSTANCE.createLocation();
+		location.setName(names.allocate(name));
+		location.setLocationTimeKind(kind);
+		template.getLocation().add(location);
+		if (created != null) {
+			created.add(location);
+		}
+		return location;
+	}
+
+	/**
+	 * Transforms a transition into a chain of edges for each of its events.
+	 * @return the generated edges and locations.
+	 */
+	private List<EObject> transformTransition(Transition transition) {
+		if (!locations.containsKey(transition.getTarget())) {
+			throw new TransformationException("Transitions across regions are not supported", transition);
+		}
+		String guard = null;
+		if (transition.getTrigger() instanceof ReactionTrigger) {
+			guard = getGuard((ReactionTrigger)transition.getTrigger());
+		}
+		else if (transition.getTrigger() instanceof DefaultTrigger) {
+			guard = getDefaultGuard(transition);
+		}
+		List<EObject> result = created = new ArrayList<EObject>();
+		List<EventSpec> specs = getEventSpecs(transition.getTrigger());
+		if (specs.isEmpty()) {
+			transformTransition(transition, null, guard);
+		}
+		for (EventSpec spec : specs) {
+			transformTransition(transition, spec, guard);
+		}
+		created = null;
+		return result;
+	}
+
+	private void transformTransition(Transition transition, EventSpec spec, String guard) {
+		Location source = locations.get(transition.getSource());
+		Location target = locations.get(transition.getTarget());
+		EdgeChain chain = new EdgeChain(source, source.getName() + "_" + target.getName());
+		trigger(chain, spec, guard);
+		leave(chain, transition.getSource());
+		addActions(chain, transition.getEffect());
+		enter(chain, transition.getTarget());
+	}
+
+	/**
+	 * Transforms the local reactions of a state other than entry and exit actions and records them as the current ones.
+	 * @return the generated edges and locations by reaction.
+	 */
+	private Map<EObject, List<EObject>> transformReactions(State state) {
+		Map<EObject, List<EObject>> result = new LinkedHashMap<EObject, List<EObject>>();
+		reactions.put(state, new ArrayList<Reaction>(state.getLocalReactions()));
+		for (Reaction reaction : state.getLocalReactions()) {
+			if (!isEntryOrExit(reaction)) {
+				created = new ArrayList<EObject>();
+				transformLocalReaction(state, reaction);
+				result.put(reaction, created);
+				created = null;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Transforms a local reaction of a state into a self loop for each of its events.
+	 * The loop resets the clock after a time event only.
+	 */
+	private void transformLocalReaction(State state, Reaction reaction) {
+		String guard = reaction.getTrigger() instanceof ReactionTrigger ? getGuard((ReactionTrigger)reaction.getTrigger()) : null;
+		List<EventSpec> specs = getEventSpecs(reaction.getTrigger());
+		if (specs.isEmpty()) {
+			throw new TransformationException("Local reactions need an event", reaction);
+		}
+		Location location = locations.get(state);
+		for (EventSpec spec : specs) {
+			EdgeChain chain = new EdgeChain(location, location.getName() + "_reacting");
+			trigger(chain, spec, guard);
+			addActions(chain, reaction.getEffect());
+			if (spec instanceof TimeEventSpec) {
+				chain.update(clock + " = 0");
+			}
+			chain.end(location);
+		}
+	}
+
+	/**
+	 * Synchronizes the first edge of a chain on an event and adds the guard.
+	 */
+	private void trigger(EdgeChain chain, EventSpec spec, String guard) {
+		if (spec instanceof RegularEventSpec) {
+			chain.synchronize(printer.getEventName(((RegularEventSpec)spec).getEvent()) + "?");
+			chain.guard(guard);
+		}
+		else if (spec instanceof TimeEventSpec) {
+			String time = clock + " >= " + getTime((TimeEventSpec)spec);
+			chain.guard(guard == null ? time : time + " && (" + guard + ")");
+		}
+		else if (spec == null || spec instanceof AlwaysEvent) {
+			chain.guard(guard);
+		}
+		else {
+			throw new TransformationException("Unsupported event " + spec.eClass().getName(), spec);
+		}
+	}
+
+	private String getGuard(ReactionTrigger trigger) {
+		if (trigger.getGuard() == null || trigger.getGuard().getExpression() == null) {
+			return null;
+		}
+		return printer.print(trigger.getGuard().getExpression());
+	}
+
+	/**
+	 * Returns the guard of a default transition, which is taken if no guard of the other transitions of its source holds.
+	 */
+	private String getDefaultGuard(Transition transition) {
+		StringBuilder guard = new StringBuilder();
+		for (Transition other : transition.getSource().getOutgoingTransitions()) {
+			if (other != transition && other.getTrigger() instanceof ReactionTrigger) {
+				String otherGuard = getGuard((ReactionTrigger)other.getTrigger());
+				if (otherGuard != null) {
+					if (guard.length() > 0) {
+						guard.append(" && ");
+					}
+					guard.append("!(").append(otherGuard).append(')');
+				}
+			}
+		}
+		return guard.length() == 0 ? null : guard.toString();
+	}
+
+	/**
+	 * Returns the value of a time event in the unit of the clocks.
+	 */
+	private String getTime(TimeEventSpec spec) {
+		TimeUnit unit;
+		switch (spec.getUnit()) {
+		case MILLISECOND:
+			unit = TimeUnit.MILLISECONDS;
+			break;
+		case MICROSECOND:
+			unit = TimeUnit.MICROSECONDS;
+			break;
+		case NANOSECOND:
+			unit = TimeUnit.NANOSECONDS;
+			break;
+		default:
+			unit = TimeUnit.SECONDS;
+			break;
+		}
+		TimeUnit clockUnit = chart.getTimeUnit();
+		Expression value = spec.getValue();
+		if (value instanceof PrimitiveValueExpression && ((PrimitiveValueExpression)value).getValue() instanceof IntLiteral) {
+			long time = clockUnit.convert(((IntLiteral)((PrimitiveValueExpression)value).getValue()).getValue(), unit);
+			if (time > Integer.MAX_VALUE) {
+				throw new TransformationException("The time is too large for the unit of the clocks", spec);
+			}
+			return String.valueOf(time);
+		}
+		long factor = clockUnit.convert(1, unit);
+		if (factor == 1) {
+			return "(" + printer.print(value) + ")";
+		}
+		if (factor > 1) {
+			return "(" + printer.print(value) + ") * " + factor;
+		}
+		return "(" + printer.print(value) + ") / " + unit.convert(1, clockUnit);
+	}
+
+	/**
+	 * Bounds the clock in a state by the time events of its outgoing transitions and local reactions.
+	 */
+	private void setInvariant(State state) {
+		StringBuilder invariant = new StringBuilder();
+		List<Trigger> triggers = new ArrayList<Trigger>();
+		for (Transition transition : state.getOutgoingTransitions()) {
+			triggers.add(transition.getTrigger());
+		}
+		for (Reaction reaction : state.getLocalReactions()) {
+			triggers.add(reaction.getTrigger());
+		}
+		for (Trigger trigger : triggers) {
+			for (EventSpec spec : getEventSpecs(trigger)) {
+				if (spec instanceof TimeEventSpec) {
+					if (invariant.length() > 0) {
+						invariant.append(" && ");
+					}
+					invariant.append(clock).append(" <= ").append(getTime((TimeEventSpec)spec));
+				}
+			}
+		}
+		locations.get(state).setInvariant(invariant.length() == 0 ? null : parse(invariant.toString(), state));
+	}
+
+	/**
+	 * Transforms the return of a state of a nested region to the inactive location on the exit channel of the parent state.
+	 * @return the generated edges and locations.
+	 */
+	private List<EObject> transformExit(State state) {
+		List<EObject> result = created = new ArrayList<EObject>();
+		EdgeChain chain = new EdgeChain(locations.get(state), locations.get(state).getName() + "_exiting");
+		chain.synchronize(chart.getExitChannel((State)region.getComposite()) + "?");
+		leave(chain, state);
+		chain.end(inactive);
+		created = null;
+		return result;
+	}
+
+	private static boolean isEntryOrExit(Reaction reaction) {
+		for (EventSpec spec : getEventSpecs(reaction.getTrigger())) {
+			if (spec instanceof EntryEvent || spec instanceof ExitEvent) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the actions of the local reactions of a state triggered by the given kind of event.
+	 */
+	private void addReactions(EdgeChain chain, State state, Class<? extends EventSpec> kind) {
+		for (Reaction reaction : state.getLocalReactions()) {
+			for (EventSpec spec : getEventSpecs(reaction.getTrigger())) {
+				if (kind.isInstance(spec)) {
+					addActions(chain, reaction.getEffect());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds exiting the regions of a composite state and the exit actions of a state.
+	 */
+	private void leave(EdgeChain chain, Vertex vertex) {
+		if (vertex instanceof State) {
+			State state = (State)vertex;
+			if (chart.getExitChannel(state) != null) {
+				chain.synchronize(chart.getExitChannel(state) + "!");
+			}
+			addReactions(chain, state, ExitEvent.class);
+		}
+	}
+
+	/**
+	 * Adds the entry actions of a state and entering the regions of a composite state, and ends the chain in its location.
+	 */
+	private void enter(EdgeChain chain, Vertex vertex) {
+		if (vertex instanceof State) {
+			State state = (State)vertex;
+			if (clock != null) {
+				chain.update(clock + " = 0");
+			}
+			addReactions(chain, state, EntryEvent.class);
+			if (chart.getEnterChannel(state) != null) {
+				chain.synchronize(chart.getEnterChannel(state) + "!");
+			}
+		}
+		chain.end(locations.get(vertex));
+	}
+
+	/**
+	 * Adds the actions of an effect: assignments become updates, raising an event a synchronization on its channel,
+	 * preceded by an update of the value of the event.
+	 */
+	private void addActions(EdgeChain chain, Effect effect) {
+		if (!(effect instanceof ReactionEffect)) {
+			return;
+		}
+		for (Expression action : ((ReactionEffect)effect).getActions()) {
+			if (action instanceof EventRaisingExpression) {
+				EventRaisingExpression raising = (EventRaisingExpression)action;
+				if (raising.getValue() != null) {
+					String value = printer.getValueName(raising.getEvent());
+					if (value == null) {
+						throw new TransformationException("The event has no value", raising);
+					}
+					chain.update(value + " = " + printer.print(raising.getValue()));
+				}
+				chain.synchronize(printer.getEventName(raising.getEvent()) + "!");
+			}
+			else {
+				chain.update(printer.print(action));
+			}
+		}
+	}
+
+	private de.uni_paderborn.uppaal.expressions.Expression parse(String text, EObject source) {
+		try {
+			return parser.parseExpression(text);
+		}
+		catch (UppaalParseException e) {
+			throw new TransformationException("Invalid expression generated: " + e.getMessage(), source, e);
+		}
+	}
+
+	/**
+	 * A chain of edges through committed locations, as an edge synchronizes on at most one channel.
+	 * The first edge has the guard, and a new edge is started when a synchronization follows another one or an update.
+	 */
+	private final class EdgeChain {
+		/**
+		 * The name of the committed locations between the edges.
+		 */
+		private final String name;
+
+		private Location source;
+
+		private String guard;
+
+		private String synchronization;
+
+		private final List<String> updates = new ArrayList<String>();
+
+		EdgeChain(Location source, String name) {
+			this.source = source;
+			this.name = name;
+		}
+
+		void guard(String guard) {
+			this.guard = guard;
+		}
+
+		void synchronize(String synchronization) {
+			if (this.synchronization != null || !updates.isEmpty()) {
+				Location location = createLocation(name, LocationKind.COMMITED);
+				createEdge(location);
+				source = location;
+				guard = null;
+				updates.clear();
+			}
+			this.synchronization = synchronization;
+		}
+
+		void update(String update) {
+			updates.add(update);
+		}
+
+		void end(Location target) {
+			createEdge(target);
+		}
+
+		private void createEdge(Location target) {
+			Edge edge = TemplatesFactory.eINSTANCE.createEdge();
+			edge.setSource(source);
+			edge.setTarget(target);
+			template.getEdge().add(edge);
+			if (created != null) {
+				created.add(edge);
+			}
+			parser.beginEdge();
+			try {
+				if (guard != null) {
+					edge.setGuard(parser.parseExpression(guard));
+				}
+				if (synchronization != null) {
+					edge.setSynchronization(parser.parseSynchronization(synchronization));
+				}
+				if (!updates.isEmpty()) {
+					StringBuilder text = new StringBuilder();
+					for (String update : updates) {
+						if (text.length() > 0) {
+							text.append(", ");
+						}
+						text.append(update);
+					}
+					parser.parseExpressions(text, edge.getUpdate());
+				}
+			}
+			catch (UppaalParseException e) {
+				throw new TransformationException("Invalid label generated: " + e.getMessage(), region, e);
+			}
+			finally {
+				parser.endEdge();
+			}
+		}
+	}
+
+}
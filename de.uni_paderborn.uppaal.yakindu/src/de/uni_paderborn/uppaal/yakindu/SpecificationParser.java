@@ -0,0 +1,467 @@
+/**
+ */
+package de.uni_paderborn.uppaal.yakindu;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.AbstractRule;
+import org.eclipse.xtext.GrammarUtil;
+import org.eclipse.xtext.IGrammarAccess;
+import org.eclipse.xtext.ParserRule;
+import org.eclipse.xtext.nodemodel.INode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.eclipse.xtext.parser.IParseResult;
+import org.eclipse.xtext.parser.IParser;
+import org.yakindu.base.base.NamedElement;
+import org.yakindu.base.expressions.expressions.ElementReferenceExpression;
+import org.yakindu.base.expressions.expressions.Expression;
+import org.yakindu.base.expressions.expressions.FeatureCall;
+import org.yakindu.base.expressions.inferrer.IExpressionsTypeInferrer;
+import org.yakindu.sct.model.sgraph.Declaration;
+import org.yakindu.sct.model.sgraph.Region;
+import org.yakindu.sct.model.sgraph.Scope;
+import org.yakindu.sct.model.sgraph.State;
+import org.yakindu.sct.model.sgraph.Statechart;
+import org.yakindu.sct.model.sgraph.Vertex;
+import org.yakindu.sct.model.stext.STextRuntimeModule;
+import org.yakindu.sct.model.stext.STextStandaloneSetup;
+import org.yakindu.sct.model.stext.stext.ActiveStateReferenceExpression;
+import org.yakindu.sct.model.stext.stext.InterfaceScope;
+import org.yakindu.sct.model.stext.types.ISTextTypeInferrer;
+
+import com.google.inject.Binder;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
+/**
+ * A front end of the SText parser for parsing many specifications, e.g. of a batch of statecharts, on several threads.
+ * <p>
+ * All parsers share one injector of the SText runtime module, created and registered once on first use,
+ * which infers types with a {@link MemoizingTypeInferrer}.
+ * The parsers keep state while parsing, so each thread gets its own one.
+ * The results are cached by rule and text, keeping the most recently used ones up to the capacity of the cache,
+ * so recurring snippets such as <code>raise e</code> or <code>after 100 ms</code> are parsed once.
+ * Specifications with syntax errors are cached as well.
+ * </p>
+ * <p>
+ * The cached elements are never handed out: each call returns a copy, which may be added to a statechart.
+ * Copies have no node model, so the lazy linking of an Xtext resource cannot resolve their references later.
+ * Instead, the names of the references are taken from the node model of the cached element,
+ * and {@link #parse(ParserRule, String, Statechart)} links the copy against a statechart:
+ * names of declarations and interfaces are resolved in the scopes of the statechart,
+ * members of an interface in the interface, and states by their qualified names.
+ * Other references, e.g. to types, are not resolved, so declarations should be parsed by the resource of the statechart.
+ * The methods without a statechart return unlinked copies, which are only fit for checking the syntax.
+ * </p>
+ * <p>
+ * The cache counts the calls that found a cached result (hits) and those that had to parse (misses).
+ * </p>
+ */
+public class SpecificationParser {
+	/**
+	 * The number of results cached by {@link #INSTANCE}.
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * The parser shared by the transformations.
+	 */
+	public static final SpecificationParser INSTANCE = new SpecificationParser(DEFAULT_CAPACITY);
+
+	/**
+	 * The injector of the SText runtime module, created on first use.
+	 */
+	private static final class InjectorHolder {
+		static final Injector INJECTOR = new STextStandaloneSetup() {
+			@Override
+			public Injector createInjector() {
+				return Guice.createInjector(Modules.override(new STextRuntimeModule()).with(new Module() {
+					@Override
+					public void configure(Binder binder) {
+						binder.bind(ISTextTypeInferrer.class).to(MemoizingTypeInferrer.class);
+						binder.bind(IExpressionsTypeInferrer.class).to(MemoizingTypeInferrer.class);
+					}
+				}));
+			}
+		}.createInjectorAndDoEMFRegistration();
+	}
+
+	/**
+	 * The injector, or <code>null</code> for the shared one.
+	 */
+	private final Injector injector;
+
+	/**
+	 * The results by rule and text in the order of their use, guarded by itself.
+	 */
+	private final Map<Key, Result> results;
+
+	/**
+	 * The parsers of the threads.
+	 */
+	private final ThreadLocal<IParser> parsers = new ThreadLocal<IParser>() {
+		@Override
+		protected IParser initialValue() {
+			return getInjector().getInstance(IParser.class);
+		}
+	};
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * Creates a parser with the shared injector.
+	 * @param capacity the maximal number of cached results.
+	 */
+	public SpecificationParser(int capacity) {
+		this(null, capacity);
+	}
+
+	/**
+	 * Creates a parser.
+	 * @param injector the injector of the SText runtime module, or <code>null</code> for the shared one.
+	 * @param capacity the maximal number of cached results.
+	 */
+	public SpecificationParser(Injector injector, final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Negative capacity: " + capacity);
+		}
+		this.injector = injector;
+		this.results = new LinkedHashMap<Key, Result>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the injector of the SText runtime module the parsers are created with.
+	 * @return the injector.
+	 */
+	public Injector getInjector() {
+		return injector != null ? injector : InjectorHolder.INJECTOR;
+	}
+
+	/**
+	 * Parses a specification and links it against a statechart.
+	 * @param ruleName the name of the rule of the SText grammar, e.g. <code>TransitionSpecification</code> or <code>Guard</code>.
+	 * @param text the specification.
+	 * @param statechart the statechart declaring the referenced elements.
+	 * @return a linked copy of the parsed element.
+	 * @throws IllegalArgumentException if the grammar has no parser rule of the name.
+	 * @throws TransformationException if the specification has syntax errors or a reference cannot be resolved.
+	 */
+	public EObject parse(String ruleName, String text, Statechart statechart) {
+		return parse(getRule(ruleName), text, statechart);
+	}
+
+	/**
+	 * Parses a specification and links it against a statechart.
+	 * @param rule the rule of the SText grammar.
+	 * @param text the specification.
+	 * @param statechart the statechart declaring the referenced elements.
+	 * @return a linked copy of the parsed element.
+	 * @throws TransformationException if the specification has syntax errors or a reference cannot be resolved.
+	 */
+	public EObject parse(ParserRule rule, String text, Statechart statechart) {
+		Result result = getResult(rule, text);
+		if (result.element == null) {
+			return null;
+		}
+		EcoreUtil.Copier copier = new EcoreUtil.Copier();
+		EObject copy = copier.copy(result.element);
+		copier.copyReferences();
+		// Contained elements precede their containers, so the owner of a feature call is linked before the feature
+		for (int i = result.links.size() - 1; i >= 0; i--) {
+			Link link = result.links.get(i);
+			EObject source = copier.get(link.source);
+			EObject target = resolve(source, link.reference, link.name, statechart);
+			if (target == null) {
+				throw new TransformationException("Cannot resolve '" + link.name + "' in '" + text + "'", statechart);
+			}
+			source.eSet(link.reference, target);
+		}
+		return copy;
+	}
+
+	/**
+	 * Parses a specification without linking it, e.g. to check its syntax.
+	 * @param ruleName the name of the rule of the SText grammar, e.g. <code>TransitionSpecification</code> or <code>Guard</code>.
+	 * @param text the specification.
+	 * @return an unlinked copy of the parsed element.
+	 * @throws IllegalArgumentException if the grammar has no parser rule of the name.
+	 * @throws TransformationException if the specification has syntax errors.
+	 */
+	public EObject parse(String ruleName, String text) {
+		return parse(getRule(ruleName), text);
+	}
+
+	/**
+	 * Parses a specification without linking it, e.g. to check its syntax.
+	 * @param rule the rule of the SText grammar.
+	 * @param text the specification.
+	 * @return an unlinked copy of the parsed element.
+	 * @throws TransformationException if the specification has syntax errors.
+	 */
+	public EObject parse(ParserRule rule, String text) {
+		Result result = getResult(rule, text);
+		// Copying reads the cached element only, so threads may copy it at the same time
+		return result.element == null ? null : EcoreUtil.copy(result.element);
+	}
+
+	private ParserRule getRule(String ruleName) {
+		AbstractRule rule = GrammarUtil.findRuleForName(getInjector().getInstance(IGrammarAccess.class).getGrammar(), ruleName);
+		if (!(rule instanceof ParserRule)) {
+			throw new IllegalArgumentException("No parser rule " + ruleName);
+		}
+		return (ParserRule)rule;
+	}
+
+	/**
+	 * Returns the cached result of a specification, parsing it if it is not cached.
+	 * @throws TransformationException if the specification has syntax errors.
+	 */
+	private Result getResult(ParserRule rule, String text) {
+		Key key = new Key(rule.getName(), text);
+		Result result;
+		synchronized (results) {
+			result = results.get(key);
+		}
+		if (result != null) {
+			hitCount.incrementAndGet();
+		}
+		else {
+			// Threads missing the same text at once parse it each, rather than waiting for each other
+			missCount.incrementAndGet();
+			result = new Result(parsers.get().parse(rule, new StringReader(text)));
+			synchronized (results) {
+				results.put(key, result);
+			}
+		}
+		if (!result.errors.isEmpty()) {
+			throw new TransformationException("Syntax error in '" + text + "': " + result.errors.get(0), null);
+		}
+		return result;
+	}
+
+	/**
+	 * Resolves the name of a reference of a parsed element in a statechart.
+	 * @return the referenced element, or <code>null</code> if it cannot be resolved.
+	 */
+	private static EObject resolve(EObject source, EReference reference, String name, Statechart statechart) {
+		if (source instanceof FeatureCall && "feature".equals(reference.getName())) {
+			Expression owner = ((FeatureCall)source).getOwner();
+			EObject scope = owner instanceof ElementReferenceExpression || owner instanceof FeatureCall ? ExpressionPrinter.getReferencedElement(owner) : null;
+			return scope instanceof Scope ? findDeclaration((Scope)scope, name) : null;
+		}
+		if (source instanceof ActiveStateReferenceExpression) {
+			String[] segments = name.split("\\.");
+			for (Iterator<EObject> i = statechart.eAllContents(); i.hasNext();) {
+				EObject element = i.next();
+				if (element instanceof State && hasQualifiedName(element, segments)) {
+					return element;
+				}
+			}
+			return null;
+		}
+		for (Scope scope : statechart.getScopes()) {
+			if (scope instanceof InterfaceScope && ((InterfaceScope)scope).getName() != null) {
+				if (name.equals(((InterfaceScope)scope).getName())) {
+					return scope;
+				}
+			}
+			else {
+				EObject declaration = findDeclaration(scope, name);
+				if (declaration != null) {
+					return declaration;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static EObject findDeclaration(Scope scope, String name) {
+		for (Declaration declaration : scope.getDeclarations()) {
+			if (name.equals(declaration.getName())) {
+				return declaration;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns whether the names of a state and its enclosing regions and states end with the given segments.
+	 */
+	private static boolean hasQualifiedName(EObject state, String[] segments) {
+		EObject current = state;
+		for (int i = segments.length - 1; i >= 0; i--) {
+			while (current != null && !(current instanceof Vertex || current instanceof Region)) {
+				current = current.eContainer();
+			}
+			if (current == null || !segments[i].equals(((NamedElement)current).getName())) {
+				return false;
+			}
+			current = current.eContainer();
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of calls that found a cached result.
+	 * @return the number of hits.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the number of specifications parsed.
+	 * @return the number of misses.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Returns the ratio of the calls that found a cached result.
+	 * @return the ratio between 0 and 1, or 0 if nothing was parsed yet.
+	 */
+	public double getHitRatio() {
+		long hits = hitCount.get();
+		long total = hits + missCount.get();
+		return total == 0 ? 0 : (double)hits / total;
+	}
+
+	/**
+	 * Returns the number of cached results.
+	 * @return the size of the cache.
+	 */
+	public int getSize() {
+		synchronized (results) {
+			return results.size();
+		}
+	}
+
+	/**
+	 * Removes the cached results.
+	 */
+	public void clear() {
+		synchronized (results) {
+			results.clear();
+		}
+	}
+
+	/**
+	 * Resets the counters, keeping the cached results.
+	 */
+	public void resetStatistics() {
+		hitCount.set(0);
+		missCount.set(0);
+	}
+
+	/**
+	 * The parsed element, the names of its references and the syntax errors of a specification.
+	 */
+	private static final class Result {
+		final EObject element;
+
+		/**
+		 * The references of the element and its contents, in the order of the contents.
+		 */
+		final List<Link> links = new ArrayList<Link>();
+
+		final List<String> errors;
+
+		Result(IParseResult parseResult) {
+			this.element = parseResult.getRootASTElement();
+			if (!parseResult.hasSyntaxErrors()) {
+				this.errors = Collections.emptyList();
+			}
+			else {
+				this.errors = new ArrayList<String>();
+				for (INode node : parseResult.getSyntaxErrors()) {
+					errors.add("line " + node.getStartLine() + ": " + node.getSyntaxErrorMessage().getMessage());
+				}
+			}
+			if (element != null && errors.isEmpty()) {
+				addLinks(element);
+				for (Iterator<EObject> i = element.eAllContents(); i.hasNext();) {
+					addLinks(i.next());
+				}
+			}
+		}
+
+		private void addLinks(EObject source) {
+			for (EReference reference : source.eClass().getEAllReferences()) {
+				if (!reference.isContainment() && !reference.isContainer() && !reference.isDerived() && !reference.isMany()) {
+					List<INode> nodes = NodeModelUtils.findNodesForFeature(source, reference);
+					if (!nodes.isEmpty()) {
+						links.add(new Link(source, reference, NodeModelUtils.getTokenText(nodes.get(0))));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * A reference of a parsed element and the name given in the specification.
+	 */
+	private static final class Link {
+		final EObject source;
+
+		final EReference reference;
+
+		final String name;
+
+		Link(EObject source, EReference reference, String name) {
+			this.source = source;
+			this.reference = reference;
+			this.name = name;
+		}
+	}
+
+	/**
+	 * Identifies a specification by the name of its rule and its text.
+	 */
+	private static final class Key {
+		final String rule;
+
+		final String text;
+
+		Key(String rule, String text) {
+			this.rule = rule;
+			this.text = text;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Key)) {
+				return false;
+			}
+			Key key = (Key)object;
+			return rule.equals(key.rule) && text.equals(key.text);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * rule.hashCode() + text.hashCode();
+		}
+	}
+
+}
@@ -0,0 +1,118 @@
+/**
+ */
+package de.uni_paderborn.uppaal.yakindu;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.yakindu.sct.model.sgraph.Statechart;
+
+import de.uni_paderborn.uppaal.NTA;
+
+/**
+ * A transformation of Yakindu statecharts into NTAs, independent of a workbench.
+ * <p>
+ * Each region of a statechart, including the regions nested in composite states, becomes a template,
+ * and the variables and events of its interfaces and internal scope become global declarations.
+ * An environment template raises the in-events at any time.
+ * The regions are transformed concurrently on a fork-join pool, as are the statecharts of a batch.
+ * Names are allocated before in the order of the contents of the statechart,
+ * so the same statechart always yields the same NTA, whatever the number of threads.
+ * </p>
+ * <p>
+ * The statecharts must be loaded with their specifications parsed into SText triggers, effects and declarations,
+ * e.g. into a resource set prepared by the standalone setup of SText.
+ * Their proxies are resolved and a {@link TypeTable} is attached to their resources before the transformation, which then only reads them;
+ * statecharts transformed at the same time must not be modified.
+ * </p>
+ */
+public class StatechartTransformer {
+	/**
+	 * The pool the statecharts and regions are transformed on.
+	 */
+	protected final ForkJoinPool pool;
+
+	private TimeUnit timeUnit = TimeUnit.MILLISECONDS;
+
+	/**
+	 * Creates a transformer on its own pool with one thread per processor.
+	 */
+	public StatechartTransformer() {
+		this(new ForkJoinPool());
+	}
+
+	/**
+	 * Creates a transformer.
+	 * @param pool the pool the statecharts and regions are transformed on.
+	 */
+	public StatechartTransformer(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Returns the unit of time of the clocks, which the values of time events are converted to.
+	 * @return the unit of time, milliseconds by default.
+	 */
+	public TimeUnit getTimeUnit() {
+		return timeUnit;
+	}
+
+	/**
+	 * Sets the unit of time of the clocks. Values of time events that are not literals are divided if the unit is coarser than theirs.
+	 * @param timeUnit the unit of time.
+	 */
+	public void setTimeUnit(TimeUnit timeUnit) {
+		this.timeUnit = timeUnit;
+	}
+
+	/**
+	 * Transforms a statechart.
+	 * @param statechart the statechart.
+	 * @return the new NTA.
+	 * @throws TransformationException if an element of the statechart cannot be transformed.
+	 */
+	public NTA transform(Statechart statechart) {
+		prepare(statechart);
+		return pool.invoke(new ChartTransformation(statechart, timeUnit));
+	}
+
+	/**
+	 * Transforms statecharts concurrently.
+	 * @param statecharts the statecharts.
+	 * @return the new NTAs, in the order of the statecharts.
+	 * @throws TransformationException if an element of a statechart cannot be transformed.
+	 */
+	public List<NTA> transform(List<? extends Statechart> statecharts) {
+		// Resolving may load resources, which is not thread safe
+		for (Statechart statechart : statecharts) {
+			prepare(statechart);
+		}
+		List<ChartTransformation> tasks = new ArrayList<ChartTransformation>();
+		for (Statechart statechart : statecharts) {
+			ChartTransformation task = new ChartTransformation(statechart, timeUnit);
+			tasks.add(task);
+			pool.execute(task);
+		}
+		List<NTA> result = new ArrayList<NTA>();
+		for (ChartTransformation task : tasks) {
+			result.add(task.join());
+		}
+		return result;
+	}
+
+	/**
+	 * Resolves the proxies of a statechart and attaches a {@link TypeTable} to its resource,
+	 * before threads start to read the statechart.
+	 * @param statechart the statechart.
+	 */
+	static void prepare(Statechart statechart) {
+		EcoreUtil.resolveAll(statechart);
+		if (statechart.eResource() != null) {
+			TypeTable.attach(statechart.eResource());
+		}
+	}
+
+}
@@ -0,0 +1,48 @@
+/**
+ */
+package de.uni_paderborn.uppaal.yakindu;
+
+import org.eclipse.emf.ecore.EObject;
+
+/**
+ * Signals that an element of a statechart cannot be transformed,
+ * e.g. because it uses a type, an expression or a kind of vertex without a counterpart in Uppaal.
+ */
+public class TransformationException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The element of the statechart that could not be transformed.
+	 */
+	private final transient EObject object;
+
+	/**
+	 * Creates an exception for an error in the given element.
+	 * @param message the description of the error.
+	 * @param object the element of the statechart that could not be transformed, may be <code>null</code>.
+	 */
+	public TransformationException(String message, EObject object) {
+		super(message);
+		this.object = object;
+	}
+
+	/**
+	 * Creates an exception for an error in the given element caused by another exception.
+	 * @param message the description of the error.
+	 * @param object the element of the statechart that could not be transformed, may be <code>null</code>.
+	 * @param cause the cause.
+	 */
+	public TransformationException(String message, EObject object, Throwable cause) {
+		super(message, cause);
+		this.object = object;
+	}
+
+	/**
+	 * Returns the element of the statechart that could not be transformed.
+	 * @return the element, may be <code>null</code>.
+	 */
+	public EObject getObject() {
+		return object;
+	}
+
+}
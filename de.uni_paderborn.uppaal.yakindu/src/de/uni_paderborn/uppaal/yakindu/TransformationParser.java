@@ -0,0 +1,36 @@
+/**
+ */
+package de.uni_paderborn.uppaal.yakindu;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.declarations.Declaration;
+import de.uni_paderborn.uppaal.declarations.Declarations;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.declarations.VariableDeclaration;
+import de.uni_paderborn.uppaal.serialization.UppaalTextParser;
+
+/**
+ * A parser for the labels of a template generated on its own thread.
+ * The global variables, parsed before by another parser, are declared in its global scope.
+ */
+final class TransformationParser extends UppaalTextParser {
+
+	TransformationParser(NTA nta) {
+		super(nta);
+	}
+
+	/**
+	 * Declares the variables of already parsed declarations in the global scope.
+	 * @param declarations the declarations.
+	 */
+	void declareVariables(Declarations declarations) {
+		for (Declaration declaration : declarations.getDeclaration()) {
+			if (declaration instanceof VariableDeclaration) {
+				for (Variable variable : ((VariableDeclaration)declaration).getVariable()) {
+					globalScope.declare(variable);
+				}
+			}
+		}
+	}
+
+}
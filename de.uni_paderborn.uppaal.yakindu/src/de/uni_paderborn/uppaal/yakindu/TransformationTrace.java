@@ -0,0 +1,113 @@
+/**
+ */
+package de.uni_paderborn.uppaal.yakindu;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EObject;
+
+/**
+ * The links between the elements of a statechart and the elements of the NTA generated for them.
+ * <p>
+ * A transition is linked to the edges and committed locations of its chains, a local reaction to its self loops,
+ * a vertex to its location, a region to its template and, if nested, to its inactive location and the edges entering it,
+ * a variable to its declaration, an event to the declarations of its channel and value and to the edges of the environment raising it,
+ * and a composite state to the declaration of its enter and exit channels.
+ * Entry and exit actions are part of the edges of the transitions entering and leaving their states.
+ * </p>
+ */
+public class TransformationTrace {
+	/**
+	 * The generated elements by source element, in the order of their generation.
+	 */
+	private final Map<EObject, List<EObject>> targets = new LinkedHashMap<EObject, List<EObject>>();
+
+	private final Map<EObject, EObject> sources = new HashMap<EObject, EObject>();
+
+	/**
+	 * Returns the elements generated for an element of the statechart.
+	 * @param source the element of the statechart.
+	 * @return the generated elements, empty if there are none.
+	 */
+	public List<EObject> getTargets(EObject source) {
+		List<EObject> result = targets.get(source);
+		return result == null ? Collections.<EObject>emptyList() : Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Returns the elements of a type generated for an element of the statechart.
+	 * @param source the element of the statechart.
+	 * @param type the type of the generated elements, e.g. <code>Edge.class</code>.
+	 * @return the generated elements of the type.
+	 */
+	public <T> List<T> getTargets(EObject source, Class<T> type) {
+		List<T> result = new ArrayList<T>();
+		for (EObject target : getTargets(source)) {
+			if (type.isInstance(target)) {
+				result.add(type.cast(target));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the element of the statechart an element of the NTA was generated for.
+	 * @param target the element of the NTA.
+	 * @return the element of the statechart, or <code>null</code> if the element was not generated for a single element.
+	 */
+	public EObject getSource(EObject target) {
+		return sources.get(target);
+	}
+
+	/**
+	 * Returns the elements of the statechart with generated elements.
+	 * @return the elements, in the order of their transformation.
+	 */
+	public Set<EObject> getSources() {
+		return Collections.unmodifiableSet(targets.keySet());
+	}
+
+	void add(EObject source, EObject target) {
+		List<EObject> list = targets.get(source);
+		if (list == null) {
+			list = new ArrayList<EObject>();
+			targets.put(source, list);
+		}
+		list.add(target);
+		sources.put(target, source);
+	}
+
+	void addAll(EObject source, List<? extends EObject> targets) {
+		for (EObject target : targets) {
+			add(source, target);
+		}
+	}
+
+	void addAll(TransformationTrace trace) {
+		for (Map.Entry<EObject, List<EObject>> entry : trace.targets.entrySet()) {
+			addAll(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Removes the links of an element of the statechart.
+	 * @return the elements generated for it.
+	 */
+	List<EObject> remove(EObject source) {
+		List<EObject> result = targets.remove(source);
+		if (result == null) {
+			return Collections.emptyList();
+		}
+		for (EObject target : result) {
+			sources.remove(target);
+		}
+		return result;
+	}
+
+}
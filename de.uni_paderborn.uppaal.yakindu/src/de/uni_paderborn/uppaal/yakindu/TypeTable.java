@@ -0,0 +1,149 @@
+/**
+ */
+package de.uni_paderborn.uppaal.yakindu;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.yakindu.base.types.InferenceResult;
+
+/**
+ * The types inferred for the elements of a resource, attached to the resource as an adapter.
+ * <p>
+ * The table is keyed by the identity of the elements, so structurally equal expressions at different places are inferred each.
+ * The type of an expression depends on the declarations it refers to, so any change of the contents of the resource clears the whole table.
+ * Resolving proxies does not change types and keeps it.
+ * </p>
+ * <p>
+ * The table is attached to a resource before its elements are inferred, e.g. by {@link StatechartTransformer} before transforming,
+ * never by the inferrer itself.
+ * It may then be read and filled by several threads, while the contents of the resource must not be modified at the same time.
+ * The table counts the inferences that found a type (hits) and those that had to infer it (misses).
+ * </p>
+ */
+public class TypeTable extends EContentAdapter {
+	/**
+	 * The types by element, guarded by itself.
+	 */
+	private final Map<EObject, InferenceResult> types = new IdentityHashMap<EObject, InferenceResult>();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * Returns the table attached to a resource.
+	 * @param resource the resource.
+	 * @return the table, or <code>null</code> if none is attached.
+	 */
+	public static TypeTable find(Resource resource) {
+		for (Adapter adapter : resource.eAdapters()) {
+			if (adapter instanceof TypeTable) {
+				return (TypeTable)adapter;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Attaches a table to a resource, unless it has one.
+	 * Attaching adds the table to the adapters of all elements of the resource,
+	 * so it must not run while other threads read the elements.
+	 * @param resource the resource.
+	 * @return the attached table.
+	 */
+	public static TypeTable attach(Resource resource) {
+		TypeTable table = find(resource);
+		if (table == null) {
+			table = new TypeTable();
+			resource.eAdapters().add(table);
+		}
+		return table;
+	}
+
+	/**
+	 * Returns the type inferred for an element.
+	 * @param element the element.
+	 * @return the type, or <code>null</code> if it is not inferred yet.
+	 */
+	public InferenceResult get(EObject element) {
+		InferenceResult result;
+		synchronized (types) {
+			result = types.get(element);
+		}
+		if (result != null) {
+			hitCount.incrementAndGet();
+		}
+		else {
+			missCount.incrementAndGet();
+		}
+		return result;
+	}
+
+	/**
+	 * Records the type inferred for an element.
+	 * @param element the element.
+	 * @param result the type.
+	 */
+	public void put(EObject element, InferenceResult result) {
+		synchronized (types) {
+			types.put(element, result);
+		}
+	}
+
+	/**
+	 * Removes all types.
+	 */
+	public void clear() {
+		synchronized (types) {
+			types.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of elements with a type.
+	 * @return the size of the table.
+	 */
+	public int getSize() {
+		synchronized (types) {
+			return types.size();
+		}
+	}
+
+	/**
+	 * Returns the number of inferences that found a type in the table.
+	 * @return the number of hits.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the number of inferences that did not find a type in the table.
+	 * @return the number of misses.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		super.notifyChanged(notification);
+		if (notification.isTouch() || notification.getEventType() == Notification.RESOLVE
+				|| notification.getEventType() == Notification.REMOVING_ADAPTER) {
+			return;
+		}
+		// Changes of the state of the resource, e.g. its modification flag or errors, leave the types as they are
+		if (notification.getNotifier() instanceof EObject
+				|| notification.getNotifier() instanceof Resource && notification.getFeatureID(Resource.class) == Resource.RESOURCE__CONTENTS) {
+			clear();
+		}
+	}
+
+}
@@ -7,10 +7,15 @@ import java.util.Map;
 import org.eclipse.emf.common.util.Diagnostic;
 import org.eclipse.emf.common.util.DiagnosticChain;
 import org.eclipse.emf.common.util.ResourceLocator;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.ecore.util.EObjectValidator;
 
 import de.uni_paderborn.uppaal.core.*;
+import de.uni_paderborn.uppaal.validation.OCLQueryCache;
+import de.uni_paderborn.uppaal.validation.UppaalConstraints;
+import de.uni_paderborn.uppaal.validation.ValidationMode;
 
 /**
  * <!-- begin-user-doc -->
@@ -124,11 +129,16 @@ public class CoreValidator extends EObjectValidator {
 	/**
 	 * Validates the NoWhitespace constraint of '<em>Named Element</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkNamedElement_NoWhitespace} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateNamedElement_NoWhitespace(NamedElement namedElement, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkNamedElement_NoWhitespace(namedElement), namedElement, "NoWhitespace", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(CorePackage.Literals.NAMED_ELEMENT,
 				 namedElement,
@@ -140,6 +150,10 @@ public class CoreValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkNamedElement_NoWhitespace(namedElement), namedElement, "NoWhitespace", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -148,16 +162,21 @@ public class CoreValidator extends EObjectValidator {
 	 * <!-- end-user-doc -->
 	 * @generated
 	 */
-	protected static final String NAMED_ELEMENT__NO_DIGIT_START__EEXPRESSION = "Set{0..9}->excludes(self.name.characters()->first())";
+	protected static final String NAMED_ELEMENT__NO_DIGIT_START__EEXPRESSION = "self.name.size() > 0 and Set{'0', '1', '2', '3', '4', '5', '6', '7', '8', '9'}->excludes(self.name.substring(1, 1))";
 
 	/**
 	 * Validates the NoDigitStart constraint of '<em>Named Element</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkNamedElement_NoDigitStart} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateNamedElement_NoDigitStart(NamedElement namedElement, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkNamedElement_NoDigitStart(namedElement), namedElement, "NoDigitStart", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(CorePackage.Literals.NAMED_ELEMENT,
 				 namedElement,
@@ -169,6 +188,10 @@ public class CoreValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkNamedElement_NoDigitStart(namedElement), namedElement, "NoDigitStart", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -180,6 +203,19 @@ public class CoreValidator extends EObjectValidator {
 		return validate_EveryDefaultConstraint(commentableElement, diagnostics, context);
 	}
 
+	/**
+	 * Evaluates a constraint.
+	 * <!-- begin-user-doc -->
+	 * OCL constraints are evaluated by the shared {@link OCLQueryCache}, see {@link OCLQueryCache#validate}.
+	 * <!-- end-user-doc -->
+	 * @generated NOT
+	 */
+	@Override
+	public boolean validate(EClass eClass, EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context, String validationDelegate, String constraint, String expression, int severity, String source, int code) {
+		return OCLQueryCache.OCL_DELEGATE_URI.equals(validationDelegate) ? OCLQueryCache.validate(eClass, eObject, diagnostics, context, constraint, expression, severity, source, code)
+				: super.validate(eClass, eObject, diagnostics, context, validationDelegate, constraint, expression, severity, source, code);
+	}
+
 	/**
 	 * Returns the resource locator that will be used to fetch messages for this validator's diagnostics.
 	 * <!-- begin-user-doc -->
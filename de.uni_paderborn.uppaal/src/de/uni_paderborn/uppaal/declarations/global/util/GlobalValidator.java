@@ -7,10 +7,15 @@ import java.util.Map;
 import org.eclipse.emf.common.util.Diagnostic;
 import org.eclipse.emf.common.util.DiagnosticChain;
 import org.eclipse.emf.common.util.ResourceLocator;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.ecore.util.EObjectValidator;
 
 import de.uni_paderborn.uppaal.declarations.global.*;
+import de.uni_paderborn.uppaal.validation.OCLQueryCache;
+import de.uni_paderborn.uppaal.validation.UppaalConstraints;
+import de.uni_paderborn.uppaal.validation.ValidationMode;
 
 /**
  * <!-- begin-user-doc -->
@@ -128,11 +133,16 @@ public class GlobalValidator extends EObjectValidator {
 	/**
 	 * Validates the AtMostOneDefaultItem constraint of '<em>Channel Priority</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkChannelPriority_AtMostOneDefaultItem} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateChannelPriority_AtMostOneDefaultItem(ChannelPriority channelPriority, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkChannelPriority_AtMostOneDefaultItem(channelPriority), channelPriority, "AtMostOneDefaultItem", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(GlobalPackage.Literals.CHANNEL_PRIORITY,
 				 channelPriority,
@@ -144,6 +154,10 @@ public class GlobalValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkChannelPriority_AtMostOneDefaultItem(channelPriority), channelPriority, "AtMostOneDefaultItem", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -152,16 +166,21 @@ public class GlobalValidator extends EObjectValidator {
 	 * <!-- end-user-doc -->
 	 * @generated
 	 */
-	protected static final String CHANNEL_PRIORITY__EACH_CHANNEL_CONTAINED_AT_MOST_ONCE__EEXPRESSION = "self.item->select(oclIsKindOf(ChannelList)).oclAsType(ChannelList)->collect(channelExpression)->isUnique(variable)";
+	protected static final String CHANNEL_PRIORITY__EACH_CHANNEL_CONTAINED_AT_MOST_ONCE__EEXPRESSION = "self.item->select(oclIsKindOf(ChannelList)).oclAsType(ChannelList)->collect(channelExpression)->isUnique(identifier)";
 
 	/**
 	 * Validates the EachChannelContainedAtMostOnce constraint of '<em>Channel Priority</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkChannelPriority_EachChannelContainedAtMostOnce} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateChannelPriority_EachChannelContainedAtMostOnce(ChannelPriority channelPriority, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkChannelPriority_EachChannelContainedAtMostOnce(channelPriority), channelPriority, "EachChannelContainedAtMostOnce", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(GlobalPackage.Literals.CHANNEL_PRIORITY,
 				 channelPriority,
@@ -173,6 +192,10 @@ public class GlobalValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkChannelPriority_EachChannelContainedAtMostOnce(channelPriority), channelPriority, "EachChannelContainedAtMostOnce", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -216,11 +239,16 @@ public class GlobalValidator extends EObjectValidator {
 	/**
 	 * Validates the ChannelVariablesOnly constraint of '<em>Channel List</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkChannelList_ChannelVariablesOnly} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateChannelList_ChannelVariablesOnly(ChannelList channelList, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkChannelList_ChannelVariablesOnly(channelList), channelList, "ChannelVariablesOnly", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(GlobalPackage.Literals.CHANNEL_LIST,
 				 channelList,
@@ -232,6 +260,10 @@ public class GlobalValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkChannelList_ChannelVariablesOnly(channelList), channelList, "ChannelVariablesOnly", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -243,6 +275,19 @@ public class GlobalValidator extends EObjectValidator {
 		return validate_EveryDefaultConstraint(defaultChannelPriority, diagnostics, context);
 	}
 
+	/**
+	 * Evaluates a constraint.
+	 * <!-- begin-user-doc -->
+	 * OCL constraints are evaluated by the shared {@link OCLQueryCache}, see {@link OCLQueryCache#validate}.
+	 * <!-- end-user-doc -->
+	 * @generated NOT
+	 */
+	@Override
+	public boolean validate(EClass eClass, EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context, String validationDelegate, String constraint, String expression, int severity, String source, int code) {
+		return OCLQueryCache.OCL_DELEGATE_URI.equals(validationDelegate) ? OCLQueryCache.validate(eClass, eObject, diagnostics, context, constraint, expression, severity, source, code)
+				: super.validate(eClass, eObject, diagnostics, context, validationDelegate, constraint, expression, severity, source, code);
+	}
+
 	/**
 	 * Returns the resource locator that will be used to fetch messages for this validator's diagnostics.
 	 * <!-- begin-user-doc -->
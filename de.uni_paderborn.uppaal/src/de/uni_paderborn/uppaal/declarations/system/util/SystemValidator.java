@@ -7,6 +7,8 @@ import java.util.Map;
 import org.eclipse.emf.common.util.Diagnostic;
 import org.eclipse.emf.common.util.DiagnosticChain;
 import org.eclipse.emf.common.util.ResourceLocator;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.ecore.util.EObjectValidator;
 
@@ -14,6 +16,9 @@ import de.uni_paderborn.uppaal.declarations.system.InstantiationList;
 import de.uni_paderborn.uppaal.declarations.system.ProgressMeasure;
 import de.uni_paderborn.uppaal.declarations.system.SystemPackage;
 import de.uni_paderborn.uppaal.declarations.system.TemplateDeclaration;
+import de.uni_paderborn.uppaal.validation.OCLQueryCache;
+import de.uni_paderborn.uppaal.validation.UppaalConstraints;
+import de.uni_paderborn.uppaal.validation.ValidationMode;
 
 /**
  * <!-- begin-user-doc -->
@@ -132,11 +137,16 @@ public class SystemValidator extends EObjectValidator {
 	/**
 	 * Validates the NumberOfArgumentsMatchesDeclaration constraint of '<em>Template Declaration</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkTemplateDeclaration_NumberOfArgumentsMatchesDeclaration} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateTemplateDeclaration_NumberOfArgumentsMatchesDeclaration(TemplateDeclaration templateDeclaration, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkTemplateDeclaration_NumberOfArgumentsMatchesDeclaration(templateDeclaration), templateDeclaration, "NumberOfArgumentsMatchesDeclaration", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(SystemPackage.Literals.TEMPLATE_DECLARATION,
 				 templateDeclaration,
@@ -148,6 +158,10 @@ public class SystemValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkTemplateDeclaration_NumberOfArgumentsMatchesDeclaration(templateDeclaration), templateDeclaration, "NumberOfArgumentsMatchesDeclaration", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -180,11 +194,16 @@ public class SystemValidator extends EObjectValidator {
 	/**
 	 * Validates the EachTemplateReferencedAtMostOnce constraint of '<em>System</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkSystem_EachTemplateReferencedAtMostOnce} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateSystem_EachTemplateReferencedAtMostOnce(de.uni_paderborn.uppaal.declarations.system.System system, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkSystem_EachTemplateReferencedAtMostOnce(system), system, "EachTemplateReferencedAtMostOnce", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(SystemPackage.Literals.SYSTEM,
 				 system,
@@ -196,6 +215,10 @@ public class SystemValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkSystem_EachTemplateReferencedAtMostOnce(system), system, "EachTemplateReferencedAtMostOnce", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -237,11 +260,16 @@ public class SystemValidator extends EObjectValidator {
 	/**
 	 * Validates the OnlyLegalParamsForPartialInstantiation constraint of '<em>Instantiation List</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkInstantiationList_OnlyLegalParamsForPartialInstantiation} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateInstantiationList_OnlyLegalParamsForPartialInstantiation(InstantiationList instantiationList, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkInstantiationList_OnlyLegalParamsForPartialInstantiation(instantiationList), instantiationList, "OnlyLegalParamsForPartialInstantiation", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(SystemPackage.Literals.INSTANTIATION_LIST,
 				 instantiationList,
@@ -253,6 +281,10 @@ public class SystemValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkInstantiationList_OnlyLegalParamsForPartialInstantiation(instantiationList), instantiationList, "OnlyLegalParamsForPartialInstantiation", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -264,6 +296,19 @@ public class SystemValidator extends EObjectValidator {
 		return validate_EveryDefaultConstraint(progressMeasure, diagnostics, context);
 	}
 
+	/**
+	 * Evaluates a constraint.
+	 * <!-- begin-user-doc -->
+	 * OCL constraints are evaluated by the shared {@link OCLQueryCache}, see {@link OCLQueryCache#validate}.
+	 * <!-- end-user-doc -->
+	 * @generated NOT
+	 */
+	@Override
+	public boolean validate(EClass eClass, EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context, String validationDelegate, String constraint, String expression, int severity, String source, int code) {
+		return OCLQueryCache.OCL_DELEGATE_URI.equals(validationDelegate) ? OCLQueryCache.validate(eClass, eObject, diagnostics, context, constraint, expression, severity, source, code)
+				: super.validate(eClass, eObject, diagnostics, context, validationDelegate, constraint, expression, severity, source, code);
+	}
+
 	/**
 	 * Returns the resource locator that will be used to fetch messages for this validator's diagnostics.
 	 * <!-- begin-user-doc -->
@@ -7,11 +7,16 @@ import java.util.Map;
 import org.eclipse.emf.common.util.Diagnostic;
 import org.eclipse.emf.common.util.DiagnosticChain;
 import org.eclipse.emf.common.util.ResourceLocator;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.ecore.util.EObjectValidator;
 
 import de.uni_paderborn.uppaal.core.util.CoreValidator;
 import de.uni_paderborn.uppaal.declarations.*;
+import de.uni_paderborn.uppaal.validation.OCLQueryCache;
+import de.uni_paderborn.uppaal.validation.UppaalConstraints;
+import de.uni_paderborn.uppaal.validation.ValidationMode;
 
 /**
  * <!-- begin-user-doc -->
@@ -177,11 +182,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the UniqueFunctionNames constraint of '<em>Declarations</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkDeclarations_UniqueFunctionNames} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateDeclarations_UniqueFunctionNames(Declarations declarations, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkDeclarations_UniqueFunctionNames(declarations), declarations, "UniqueFunctionNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.DECLARATIONS,
 				 declarations,
@@ -193,6 +203,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkDeclarations_UniqueFunctionNames(declarations), declarations, "UniqueFunctionNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -206,11 +220,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the UniqueVariableNames constraint of '<em>Declarations</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkDeclarations_UniqueVariableNames} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateDeclarations_UniqueVariableNames(Declarations declarations, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkDeclarations_UniqueVariableNames(declarations), declarations, "UniqueVariableNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.DECLARATIONS,
 				 declarations,
@@ -222,6 +241,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkDeclarations_UniqueVariableNames(declarations), declarations, "UniqueVariableNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -235,11 +258,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the UniqueTypeNames constraint of '<em>Declarations</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkDeclarations_UniqueTypeNames} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateDeclarations_UniqueTypeNames(Declarations declarations, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkDeclarations_UniqueTypeNames(declarations), declarations, "UniqueTypeNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.DECLARATIONS,
 				 declarations,
@@ -251,6 +279,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkDeclarations_UniqueTypeNames(declarations), declarations, "UniqueTypeNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -286,11 +318,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the NoTemplateDeclarations constraint of '<em>Global Declarations</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkGlobalDeclarations_NoTemplateDeclarations} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateGlobalDeclarations_NoTemplateDeclarations(GlobalDeclarations globalDeclarations, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkGlobalDeclarations_NoTemplateDeclarations(globalDeclarations), globalDeclarations, "NoTemplateDeclarations", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.GLOBAL_DECLARATIONS,
 				 globalDeclarations,
@@ -302,6 +339,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkGlobalDeclarations_NoTemplateDeclarations(globalDeclarations), globalDeclarations, "NoTemplateDeclarations", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -338,11 +379,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the NoTemplateDeclarations constraint of '<em>Local Declarations</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkLocalDeclarations_NoTemplateDeclarations} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateLocalDeclarations_NoTemplateDeclarations(LocalDeclarations localDeclarations, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkLocalDeclarations_NoTemplateDeclarations(localDeclarations), localDeclarations, "NoTemplateDeclarations", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.LOCAL_DECLARATIONS,
 				 localDeclarations,
@@ -354,6 +400,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkLocalDeclarations_NoTemplateDeclarations(localDeclarations), localDeclarations, "NoTemplateDeclarations", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -367,11 +417,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the NoChannelDeclarations constraint of '<em>Local Declarations</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkLocalDeclarations_NoChannelDeclarations} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateLocalDeclarations_NoChannelDeclarations(LocalDeclarations localDeclarations, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkLocalDeclarations_NoChannelDeclarations(localDeclarations), localDeclarations, "NoChannelDeclarations", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.LOCAL_DECLARATIONS,
 				 localDeclarations,
@@ -383,6 +438,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkLocalDeclarations_NoChannelDeclarations(localDeclarations), localDeclarations, "NoChannelDeclarations", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -419,11 +478,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the UniqueTemplateNames constraint of '<em>System Declarations</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkSystemDeclarations_UniqueTemplateNames} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateSystemDeclarations_UniqueTemplateNames(SystemDeclarations systemDeclarations, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkSystemDeclarations_UniqueTemplateNames(systemDeclarations), systemDeclarations, "UniqueTemplateNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.SYSTEM_DECLARATIONS,
 				 systemDeclarations,
@@ -435,6 +499,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkSystemDeclarations_UniqueTemplateNames(systemDeclarations), systemDeclarations, "UniqueTemplateNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -448,11 +516,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the NoChannelDeclarations constraint of '<em>System Declarations</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkSystemDeclarations_NoChannelDeclarations} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateSystemDeclarations_NoChannelDeclarations(SystemDeclarations systemDeclarations, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkSystemDeclarations_NoChannelDeclarations(systemDeclarations), systemDeclarations, "NoChannelDeclarations", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.SYSTEM_DECLARATIONS,
 				 systemDeclarations,
@@ -464,6 +537,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkSystemDeclarations_NoChannelDeclarations(systemDeclarations), systemDeclarations, "NoChannelDeclarations", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -529,11 +606,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the MatchingType constraint of '<em>Channel Variable Declaration</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkChannelVariableDeclaration_MatchingType} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateChannelVariableDeclaration_MatchingType(ChannelVariableDeclaration channelVariableDeclaration, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkChannelVariableDeclaration_MatchingType(channelVariableDeclaration), channelVariableDeclaration, "MatchingType", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.CHANNEL_VARIABLE_DECLARATION,
 				 channelVariableDeclaration,
@@ -545,6 +627,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkChannelVariableDeclaration_MatchingType(channelVariableDeclaration), channelVariableDeclaration, "MatchingType", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -581,11 +667,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the MatchingType constraint of '<em>Clock Variable Declaration</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkClockVariableDeclaration_MatchingType} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateClockVariableDeclaration_MatchingType(ClockVariableDeclaration clockVariableDeclaration, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkClockVariableDeclaration_MatchingType(clockVariableDeclaration), clockVariableDeclaration, "MatchingType", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.CLOCK_VARIABLE_DECLARATION,
 				 clockVariableDeclaration,
@@ -597,6 +688,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkClockVariableDeclaration_MatchingType(clockVariableDeclaration), clockVariableDeclaration, "MatchingType", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -635,11 +730,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the MatchingType constraint of '<em>Data Variable Declaration</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkDataVariableDeclaration_MatchingType} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateDataVariableDeclaration_MatchingType(DataVariableDeclaration dataVariableDeclaration, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkDataVariableDeclaration_MatchingType(dataVariableDeclaration), dataVariableDeclaration, "MatchingType", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.DATA_VARIABLE_DECLARATION,
 				 dataVariableDeclaration,
@@ -651,6 +751,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkDataVariableDeclaration_MatchingType(dataVariableDeclaration), dataVariableDeclaration, "MatchingType", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -699,11 +803,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the ValidReturnType constraint of '<em>Function</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkFunction_ValidReturnType} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateFunction_ValidReturnType(Function function, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkFunction_ValidReturnType(function), function, "ValidReturnType", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.FUNCTION,
 				 function,
@@ -715,6 +824,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkFunction_ValidReturnType(function), function, "ValidReturnType", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -728,11 +841,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the UniqueParameterNames constraint of '<em>Function</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkFunction_UniqueParameterNames} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateFunction_UniqueParameterNames(Function function, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkFunction_UniqueParameterNames(function), function, "UniqueParameterNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.FUNCTION,
 				 function,
@@ -744,6 +862,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkFunction_UniqueParameterNames(function), function, "UniqueParameterNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -776,11 +898,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the UniqueTypeNames constraint of '<em>Type Declaration</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkTypeDeclaration_UniqueTypeNames} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateTypeDeclaration_UniqueTypeNames(TypeDeclaration typeDeclaration, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkTypeDeclaration_UniqueTypeNames(typeDeclaration), typeDeclaration, "UniqueTypeNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.TYPE_DECLARATION,
 				 typeDeclaration,
@@ -792,6 +919,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkTypeDeclaration_UniqueTypeNames(typeDeclaration), typeDeclaration, "UniqueTypeNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -829,11 +960,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the NoInitializerForClockAndChannelVariables constraint of '<em>Variable</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkVariable_NoInitializerForClockAndChannelVariables} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateVariable_NoInitializerForClockAndChannelVariables(Variable variable, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkVariable_NoInitializerForClockAndChannelVariables(variable), variable, "NoInitializerForClockAndChannelVariables", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.VARIABLE,
 				 variable,
@@ -845,6 +981,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkVariable_NoInitializerForClockAndChannelVariables(variable), variable, "NoInitializerForClockAndChannelVariables", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -897,11 +1037,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the IntegerBasedIndex constraint of '<em>Type Index</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkTypeIndex_IntegerBasedIndex} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateTypeIndex_IntegerBasedIndex(TypeIndex typeIndex, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkTypeIndex_IntegerBasedIndex(typeIndex), typeIndex, "IntegerBasedIndex", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.TYPE_INDEX,
 				 typeIndex,
@@ -913,6 +1058,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkTypeIndex_IntegerBasedIndex(typeIndex), typeIndex, "IntegerBasedIndex", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -948,11 +1097,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the NoVoidVariables constraint of '<em>Variable Container</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkVariableContainer_NoVoidVariables} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateVariableContainer_NoVoidVariables(VariableContainer variableContainer, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkVariableContainer_NoVoidVariables(variableContainer), variableContainer, "NoVoidVariables", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.VARIABLE_CONTAINER,
 				 variableContainer,
@@ -964,6 +1118,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkVariableContainer_NoVoidVariables(variableContainer), variableContainer, "NoVoidVariables", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -977,11 +1135,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the UniqueVariableNames constraint of '<em>Variable Container</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkVariableContainer_UniqueVariableNames} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateVariableContainer_UniqueVariableNames(VariableContainer variableContainer, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkVariableContainer_UniqueVariableNames(variableContainer), variableContainer, "UniqueVariableNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.VARIABLE_CONTAINER,
 				 variableContainer,
@@ -993,6 +1156,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkVariableContainer_UniqueVariableNames(variableContainer), variableContainer, "UniqueVariableNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -1027,11 +1194,16 @@ public class DeclarationsValidator extends EObjectValidator {
 	/**
 	 * Validates the SingleVariable constraint of '<em>Parameter</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkParameter_SingleVariable} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateParameter_SingleVariable(Parameter parameter, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkParameter_SingleVariable(parameter), parameter, "SingleVariable", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(DeclarationsPackage.Literals.PARAMETER,
 				 parameter,
@@ -1043,6 +1215,10 @@ public class DeclarationsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkParameter_SingleVariable(parameter), parameter, "SingleVariable", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -1090,6 +1266,19 @@ public class DeclarationsValidator extends EObjectValidator {
 		return true;
 	}
 
+	/**
+	 * Evaluates a constraint.
+	 * <!-- begin-user-doc -->
+	 * OCL constraints are evaluated by the shared {@link OCLQueryCache}, see {@link OCLQueryCache#validate}.
+	 * <!-- end-user-doc -->
+	 * @generated NOT
+	 */
+	@Override
+	public boolean validate(EClass eClass, EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context, String validationDelegate, String constraint, String expression, int severity, String source, int code) {
+		return OCLQueryCache.OCL_DELEGATE_URI.equals(validationDelegate) ? OCLQueryCache.validate(eClass, eObject, diagnostics, context, constraint, expression, severity, source, code)
+				: super.validate(eClass, eObject, diagnostics, context, validationDelegate, constraint, expression, severity, source, code);
+	}
+
 	/**
 	 * Returns the resource locator that will be used to fetch messages for this validator's diagnostics.
 	 * <!-- begin-user-doc -->
@@ -0,0 +1,325 @@
+/**
+ */
+package de.uni_paderborn.uppaal.evaluation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a class file with a default constructor and a single method, as used by the {@link ExpressionCompiler}.
+ * <p>
+ * The class file version is 49, so the virtual machine verifies the code by type inference and no stack map frames are needed.
+ * The builder keeps track of the operand stack depth; after an unconditional jump the depth must be reset with {@link #setStack(int)}.
+ * </p>
+ */
+final class ClassFileBuilder {
+	static final int ICONST_0 = 3;
+	static final int BIPUSH = 16;
+	static final int SIPUSH = 17;
+	static final int LDC_W = 19;
+	static final int ALOAD_0 = 42;
+	static final int ALOAD_1 = 43;
+	static final int ALOAD_2 = 44;
+	static final int IALOAD = 46;
+	static final int IASTORE = 79;
+	static final int POP = 87;
+	static final int POP2 = 88;
+	static final int DUP_X2 = 91;
+	static final int DUP2 = 92;
+	static final int DUP2_X2 = 94;
+	static final int IADD = 96;
+	static final int ISUB = 100;
+	static final int IMUL = 104;
+	static final int INEG = 116;
+	static final int ISHL = 120;
+	static final int ISHR = 122;
+	static final int IAND = 126;
+	static final int IOR = 128;
+	static final int IXOR = 130;
+	static final int IFEQ = 153;
+	static final int IFNE = 154;
+	static final int IF_ICMPEQ = 159;
+	static final int IF_ICMPNE = 160;
+	static final int IF_ICMPLT = 161;
+	static final int IF_ICMPGE = 162;
+	static final int IF_ICMPGT = 163;
+	static final int IF_ICMPLE = 164;
+	static final int GOTO = 167;
+	static final int IRETURN = 172;
+	static final int RETURN = 177;
+	static final int INVOKESPECIAL = 183;
+	static final int INVOKESTATIC = 184;
+
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+	private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+
+	private final DataOutputStream pool = new DataOutputStream(poolBytes);
+
+	private final Map<String, Integer> poolIndices = new HashMap<String, Integer>();
+
+	private int poolSize = 1;
+
+	private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+	private final List<int[]> jumps = new ArrayList<int[]>();
+
+	private final List<Integer> labels = new ArrayList<Integer>();
+
+	private int stack;
+
+	private int maxStack;
+
+	/**
+	 * Appends an instruction without operands.
+	 * @param opcode the opcode.
+	 * @param stackDelta the change of the operand stack depth.
+	 */
+	void op(int opcode, int stackDelta) {
+		code.write(opcode);
+		adjustStack(stackDelta);
+	}
+
+	/**
+	 * Appends an instruction pushing an integer constant.
+	 * @param value the constant.
+	 */
+	void push(int value) {
+		if (value >= -1 && value <= 5) {
+			code.write(ICONST_0 + value);
+		}
+		else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+			code.write(BIPUSH);
+			code.write(value);
+		}
+		else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+			code.write(SIPUSH);
+			writeShort(value);
+		}
+		else {
+			code.write(LDC_W);
+			writeShort(constant(CONSTANT_INTEGER, "I" + value, value, null, null));
+		}
+		adjustStack(1);
+	}
+
+	/**
+	 * Appends a call of a static method.
+	 * @param owner the internal name of the class declaring the method.
+	 * @param name the name of the method.
+	 * @param descriptor the descriptor of the method.
+	 * @param stackDelta the change of the operand stack depth.
+	 */
+	void invokeStatic(String owner, String name, String descriptor, int stackDelta) {
+		code.write(INVOKESTATIC);
+		writeShort(methodRef(owner, name, descriptor));
+		adjustStack(stackDelta);
+	}
+
+	/**
+	 * Creates a label to be placed with {@link #mark(int)}.
+	 * @return the label.
+	 */
+	int newLabel() {
+		labels.add(-1);
+		return labels.size() - 1;
+	}
+
+	/**
+	 * Places a label at the current position.
+	 * @param label the label.
+	 */
+	void mark(int label) {
+		labels.set(label, code.size());
+	}
+
+	/**
+	 * Appends a jump to a label.
+	 * @param opcode the opcode of the jump.
+	 * @param label the label.
+	 * @param stackDelta the change of the operand stack depth.
+	 */
+	void jump(int opcode, int label, int stackDelta) {
+		jumps.add(new int[] { code.size(), label });
+		code.write(opcode);
+		writeShort(0);
+		adjustStack(stackDelta);
+	}
+
+	/**
+	 * Returns the operand stack depth at the current position.
+	 * @return the depth.
+	 */
+	int getStack() {
+		return stack;
+	}
+
+	/**
+	 * Sets the operand stack depth, e.g. at a label after an unconditional jump.
+	 * @param depth the depth.
+	 */
+	void setStack(int depth) {
+		stack = depth;
+	}
+
+	private void adjustStack(int delta) {
+		stack += delta;
+		maxStack = Math.max(maxStack, stack);
+	}
+
+	/**
+	 * Builds the class file.
+	 * @param className the internal name of the class.
+	 * @param interfaceName the internal name of the interface implemented by the class.
+	 * @param methodName the name of the method whose code has been appended.
+	 * @param methodDescriptor the descriptor of the method.
+	 * @param maxLocals the number of local variables of the method, including <code>this</code> and the parameters.
+	 * @return the class file.
+	 * @throws IllegalStateException if the code is too large for a method or for its jumps.
+	 */
+	byte[] build(String className, String interfaceName, String methodName, String methodDescriptor, int maxLocals) {
+		byte[] methodCode = code.toByteArray();
+		if (methodCode.length > 65535) {
+			throw new IllegalStateException("Code too large");
+		}
+		for (int[] jump : jumps) {
+			int offset = labels.get(jump[1]) - jump[0];
+			if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+				throw new IllegalStateException("Code too large");
+			}
+			methodCode[jump[0] + 1] = (byte)(offset >> 8);
+			methodCode[jump[0] + 2] = (byte)offset;
+		}
+		try {
+			int thisClass = classRef(className);
+			int superClass = classRef("java/lang/Object");
+			int implemented = classRef(interfaceName);
+			int objectInit = methodRef("java/lang/Object", "<init>", "()V");
+			int init = utf8("<init>");
+			int initDescriptor = utf8("()V");
+			int method = utf8(methodName);
+			int descriptor = utf8(methodDescriptor);
+			int codeAttribute = utf8("Code");
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(49);
+			out.writeShort(poolSize);
+			pool.flush();
+			poolBytes.writeTo(out);
+			out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+			out.writeShort(thisClass);
+			out.writeShort(superClass);
+			out.writeShort(1);
+			out.writeShort(implemented);
+			out.writeShort(0); // fields
+			out.writeShort(2); // methods
+
+			out.writeShort(0x0001);
+			out.writeShort(init);
+			out.writeShort(initDescriptor);
+			out.writeShort(1);
+			out.writeShort(codeAttribute);
+			out.writeInt(12 + 5);
+			out.writeShort(1);
+			out.writeShort(1);
+			out.writeInt(5);
+			out.writeByte(ALOAD_0);
+			out.writeByte(INVOKESPECIAL);
+			out.writeShort(objectInit);
+			out.writeByte(RETURN);
+			out.writeShort(0);
+			out.writeShort(0);
+
+			out.writeShort(0x0001 | 0x0010);
+			out.writeShort(method);
+			out.writeShort(descriptor);
+			out.writeShort(1);
+			out.writeShort(codeAttribute);
+			out.writeInt(12 + methodCode.length);
+			out.writeShort(maxStack);
+			out.writeShort(maxLocals);
+			out.writeInt(methodCode.length);
+			out.write(methodCode);
+			out.writeShort(0);
+			out.writeShort(0);
+
+			out.writeShort(0); // attributes
+			out.flush();
+			return bytes.toByteArray();
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void writeShort(int value) {
+		code.write(value >> 8);
+		code.write(value);
+	}
+
+	private int utf8(String value) {
+		return constant(CONSTANT_UTF8, "U" + value, 0, value, null);
+	}
+
+	private int classRef(String internalName) {
+		int name = utf8(internalName);
+		return constant(CONSTANT_CLASS, "C" + internalName, name, null, null);
+	}
+
+	private int methodRef(String owner, String name, String descriptor) {
+		int ownerIndex = classRef(owner);
+		int nameIndex = utf8(name);
+		int descriptorIndex = utf8(descriptor);
+		int nameAndType = constant(CONSTANT_NAME_AND_TYPE, "N" + name + descriptor, nameIndex, null, descriptorIndex);
+		return constant(CONSTANT_METHODREF, "M" + owner + "." + name + descriptor, ownerIndex, null, nameAndType);
+	}
+
+	/**
+	 * Returns the index of a constant, adding it to the pool if needed.
+	 * @param tag the tag of the constant.
+	 * @param key identifies the constant in the pool.
+	 * @param value the integer value or the first index.
+	 * @param text the text of an UTF-8 constant.
+	 * @param second the second index, or <code>null</code>.
+	 * @return the index.
+	 */
+	private int constant(int tag, String key, int value, String text, Integer second) {
+		Integer index = poolIndices.get(key);
+		if (index != null) {
+			return index;
+		}
+		try {
+			pool.writeByte(tag);
+			if (tag == CONSTANT_UTF8) {
+				pool.writeUTF(text);
+			}
+			else if (tag == CONSTANT_INTEGER) {
+				pool.writeInt(value);
+			}
+			else {
+				pool.writeShort(value);
+				if (second != null) {
+					pool.writeShort(second);
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		poolIndices.put(key, poolSize);
+		return poolSize++;
+	}
+
+}
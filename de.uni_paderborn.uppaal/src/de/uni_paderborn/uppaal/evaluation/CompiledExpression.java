@@ -0,0 +1,25 @@
+/**
+ */
+package de.uni_paderborn.uppaal.evaluation;
+
+/**
+ * An expression or a list of expressions compiled by an {@link ExpressionCompiler}.
+ * <p>
+ * Compiled expressions keep no state, so they can be evaluated by several threads at once,
+ * as long as each thread uses its own state and frame.
+ * </p>
+ */
+public interface CompiledExpression {
+	/**
+	 * Evaluates the expression. Assignments modify the state.
+	 * @param state the valuation of the state variables, as given by the {@link SlotLayout} the expression was compiled for.
+	 * @param frame the values of the top-level frame, holding at least {@link SlotLayout#getFrameSize()} slots,
+	 * which are the values of selection variables and are used as scratch space for quantifications.
+	 * May be <code>null</code> if the expression uses neither.
+	 * @return the value of the expression, <code>0</code> or <code>1</code> for conditions,
+	 * the value of the last expression for lists.
+	 * @throws EvaluationException if the expression cannot be evaluated.
+	 */
+	int evaluate(int[] state, int[] frame);
+
+}
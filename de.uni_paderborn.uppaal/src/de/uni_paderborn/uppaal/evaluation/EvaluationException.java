@@ -0,0 +1,37 @@
+/**
+ */
+package de.uni_paderborn.uppaal.evaluation;
+
+import org.eclipse.emf.ecore.EObject;
+
+/**
+ * Signals that an expression or statement cannot be evaluated,
+ * e.g. because of a division by zero, an array index out of bounds or an unsupported construct.
+ */
+public class EvaluationException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The expression, statement or declaration that could not be evaluated.
+	 */
+	private final transient EObject object;
+
+	/**
+	 * Creates an exception for an error in the given object.
+	 * @param message the description of the error.
+	 * @param object the expression, statement or declaration that could not be evaluated, may be <code>null</code>.
+	 */
+	public EvaluationException(String message, EObject object) {
+		super(message);
+		this.object = object;
+	}
+
+	/**
+	 * Returns the expression, statement or declaration that could not be evaluated.
+	 * @return the object, may be <code>null</code>.
+	 */
+	public EObject getObject() {
+		return object;
+	}
+
+}
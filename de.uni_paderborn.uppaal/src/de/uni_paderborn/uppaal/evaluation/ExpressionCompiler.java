@@ -0,0 +1,760 @@
+/**
+ */
+package de.uni_paderborn.uppaal.evaluation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.emf.common.util.EList;
+
+import de.uni_paderborn.uppaal.core.NamedElement;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.expressions.ArithmeticExpression;
+import de.uni_paderborn.uppaal.expressions.AssignmentExpression;
+import de.uni_paderborn.uppaal.expressions.AssignmentOperator;
+import de.uni_paderborn.uppaal.expressions.BitShiftExpression;
+import de.uni_paderborn.uppaal.expressions.BitShiftOperator;
+import de.uni_paderborn.uppaal.expressions.BitwiseExpression;
+import de.uni_paderborn.uppaal.expressions.CompareExpression;
+import de.uni_paderborn.uppaal.expressions.ConditionExpression;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.expressions.ExpressionsPackage;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.IncrementDecrementExpression;
+import de.uni_paderborn.uppaal.expressions.IncrementDecrementOperator;
+import de.uni_paderborn.uppaal.expressions.IncrementDecrementPosition;
+import de.uni_paderborn.uppaal.expressions.LiteralExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalOperator;
+import de.uni_paderborn.uppaal.expressions.MinMaxExpression;
+import de.uni_paderborn.uppaal.expressions.MinMaxOperator;
+import de.uni_paderborn.uppaal.expressions.MinusExpression;
+import de.uni_paderborn.uppaal.expressions.NegationExpression;
+import de.uni_paderborn.uppaal.expressions.PlusExpression;
+import de.uni_paderborn.uppaal.expressions.QuantificationExpression;
+import de.uni_paderborn.uppaal.expressions.Quantifier;
+import de.uni_paderborn.uppaal.expressions.ScopedIdentifierExpression;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.Location;
+
+/**
+ * Compiles guards, updates and invariants to JVM bytecode operating on the <code>int[]</code> valuation of a {@link SlotLayout}.
+ * <p>
+ * Each expression, or list of expressions, becomes a class implementing {@link CompiledExpression},
+ * with the offsets of the variables as constants, so the JIT compiler can treat it like hand-written code.
+ * The classes are defined by a class loader of the compiler and can be unloaded with it.
+ * The compiled guards and updates of edges and the invariants of locations are cached until {@link #clear()} is called.
+ * If the compiler has an {@link ExpressionInterner}, structurally equal guards, updates and invariants share one compiled class.
+ * </p>
+ * <p>
+ * Function calls are not compiled. Expressions calling functions, and those the compiler cannot handle otherwise,
+ * are evaluated by an {@link ExpressionEvaluator} per thread instead.
+ * A compiler and its compiled expressions are thread-safe. The layout must not be modified after compiling.
+ * </p>
+ */
+public class ExpressionCompiler {
+	/**
+	 * A compiled expression evaluating to <code>1</code>, used for missing guards and invariants.
+	 */
+	public static final CompiledExpression TRUE = new CompiledExpression() {
+		@Override
+		public int evaluate(int[] state, int[] frame) {
+			return 1;
+		}
+	};
+
+	private static final String INTERFACE = "de/uni_paderborn/uppaal/evaluation/CompiledExpression";
+
+	private static final String RUNTIME = "de/uni_paderborn/uppaal/evaluation/ExpressionCompiler";
+
+	private static final String METHOD_DESCRIPTOR = "([I[I)I";
+
+	/**
+	 * Numbers the generated classes.
+	 */
+	private static final AtomicInteger classNumber = new AtomicInteger();
+
+	/**
+	 * The layout of the variables.
+	 */
+	protected final SlotLayout layout;
+
+	/**
+	 * The class loader defining the generated classes.
+	 */
+	private final CompiledExpressionLoader loader = new CompiledExpressionLoader();
+
+	private final ConcurrentMap<Edge, CompiledExpression> guards = new ConcurrentHashMap<Edge, CompiledExpression>();
+
+	private final ConcurrentMap<Edge, CompiledExpression> updates = new ConcurrentHashMap<Edge, CompiledExpression>();
+
+	private final ConcurrentMap<Location, CompiledExpression> invariants = new ConcurrentHashMap<Location, CompiledExpression>();
+
+	/**
+	 * The interner of the expressions, or <code>null</code>.
+	 */
+	private final ExpressionInterner interner;
+
+	/**
+	 * The compiled expressions by the lists of their canonical instances.
+	 */
+	private final ConcurrentMap<List<Expression>, CompiledExpression> shared = new ConcurrentHashMap<List<Expression>, CompiledExpression>();
+
+	/**
+	 * The evaluators of the expressions that are not compiled.
+	 */
+	private final ThreadLocal<ExpressionEvaluator> evaluators = new ThreadLocal<ExpressionEvaluator>() {
+		@Override
+		protected ExpressionEvaluator initialValue() {
+			return new ExpressionEvaluator(layout);
+		}
+	};
+
+	private final AtomicInteger compiledCount = new AtomicInteger();
+
+	private final AtomicInteger interpretedCount = new AtomicInteger();
+
+	/**
+	 * Creates a compiler.
+	 * @param layout the layout of the variables.
+	 */
+	public ExpressionCompiler(SlotLayout layout) {
+		this(layout, null);
+	}
+
+	/**
+	 * Creates a compiler sharing the compiled code of structurally equal expressions.
+	 * @param layout the layout of the variables.
+	 * @param interner the interner of the expressions, or <code>null</code> to compile each expression on its own.
+	 */
+	public ExpressionCompiler(SlotLayout layout, ExpressionInterner interner) {
+		this.layout = layout;
+		this.interner = interner;
+	}
+
+	/**
+	 * Returns the layout of the variables.
+	 * @return the layout.
+	 */
+	public SlotLayout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * Returns the compiled guard of an edge.
+	 * @param edge the edge.
+	 * @return the compiled guard, {@link #TRUE} if the edge has none.
+	 */
+	public CompiledExpression getGuard(Edge edge) {
+		CompiledExpression guard = guards.get(edge);
+		if (guard == null) {
+			guard = compileShared(edge.getGuard());
+			CompiledExpression previous = guards.putIfAbsent(edge, guard);
+			if (previous != null) {
+				guard = previous;
+			}
+		}
+		return guard;
+	}
+
+	/**
+	 * Returns the compiled updates of an edge.
+	 * @param edge the edge.
+	 * @return the compiled updates, evaluating them in order.
+	 */
+	public CompiledExpression getUpdate(Edge edge) {
+		CompiledExpression update = updates.get(edge);
+		if (update == null) {
+			update = compileShared(edge.getUpdate());
+			CompiledExpression previous = updates.putIfAbsent(edge, update);
+			if (previous != null) {
+				update = previous;
+			}
+		}
+		return update;
+	}
+
+	/**
+	 * Returns the compiled invariant of a location.
+	 * @param location the location.
+	 * @return the compiled invariant, {@link #TRUE} if the location has none.
+	 */
+	public CompiledExpression getInvariant(Location location) {
+		CompiledExpression invariant = invariants.get(location);
+		if (invariant == null) {
+			invariant = compileShared(location.getInvariant());
+			CompiledExpression previous = invariants.putIfAbsent(location, invariant);
+			if (previous != null) {
+				invariant = previous;
+			}
+		}
+		return invariant;
+	}
+
+	/**
+	 * Removes the cached guards, updates and invariants, e.g. after the model has been modified.
+	 */
+	public void clear() {
+		guards.clear();
+		updates.clear();
+		invariants.clear();
+		shared.clear();
+	}
+
+	private CompiledExpression compileShared(Expression expression) {
+		if (expression == null) {
+			return TRUE;
+		}
+		return compileShared(Collections.singletonList(expression));
+	}
+
+	/**
+	 * Compiles a list of expressions, reusing the compiled code of structurally equal lists if the compiler has an interner.
+	 */
+	private CompiledExpression compileShared(List<Expression> expressions) {
+		if (interner == null) {
+			return compile(expressions);
+		}
+		List<Expression> key = new ArrayList<Expression>(expressions.size());
+		for (Expression expression : expressions) {
+			key.add(interner.intern(expression));
+		}
+		CompiledExpression compiled = shared.get(key);
+		if (compiled == null) {
+			compiled = compile(expressions);
+			CompiledExpression previous = shared.putIfAbsent(key, compiled);
+			if (previous != null) {
+				compiled = previous;
+			}
+		}
+		return compiled;
+	}
+
+	/**
+	 * Returns the number of expressions and lists compiled to bytecode.
+	 * @return the number of compiled expressions.
+	 */
+	public int getCompiledCount() {
+		return compiledCount.get();
+	}
+
+	/**
+	 * Returns the number of expressions and lists that are evaluated by an interpreter.
+	 * @return the number of interpreted expressions.
+	 */
+	public int getInterpretedCount() {
+		return interpretedCount.get();
+	}
+
+	/**
+	 * Compiles an expression.
+	 * @param expression the expression, may be <code>null</code>.
+	 * @return the compiled expression, {@link #TRUE} if the expression is <code>null</code>.
+	 */
+	public CompiledExpression compile(Expression expression) {
+		if (expression == null) {
+			return TRUE;
+		}
+		return compile(Collections.singletonList(expression));
+	}
+
+	/**
+	 * Compiles a list of expressions, which are evaluated in order.
+	 * @param expressions the expressions.
+	 * @return the compiled expressions.
+	 */
+	public CompiledExpression compile(List<Expression> expressions) {
+		ClassFileBuilder builder = new ClassFileBuilder();
+		try {
+			for (int i = 0; i < expressions.size(); i++) {
+				if (i > 0) {
+					builder.op(ClassFileBuilder.POP, -1);
+				}
+				emit(builder, expressions.get(i));
+			}
+			if (expressions.isEmpty()) {
+				builder.push(0);
+			}
+			builder.op(ClassFileBuilder.IRETURN, -1);
+			String className = "de/uni_paderborn/uppaal/evaluation/CompiledExpression$" + classNumber.incrementAndGet();
+			byte[] classFile = builder.build(className, INTERFACE, "evaluate", METHOD_DESCRIPTOR, 3);
+			CompiledExpression compiled = (CompiledExpression)loader.define(className.replace('/', '.'), classFile).newInstance();
+			compiledCount.incrementAndGet();
+			return compiled;
+		}
+		catch (UnsupportedExpressionException e) {
+			// Evaluated by the interpreter
+		}
+		catch (IllegalStateException e) {
+			// Code too large
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+		interpretedCount.incrementAndGet();
+		return new InterpretedExpression(expressions);
+	}
+
+	// Code generation, the state is in local variable 1 and the frame in local variable 2
+
+	private void emit(ClassFileBuilder builder, Expression expression) throws UnsupportedExpressionException {
+		switch (expression.eClass().getClassifierID()) {
+		case ExpressionsPackage.LITERAL_EXPRESSION:
+			builder.push(ExpressionEvaluator.evaluateLiteral((LiteralExpression)expression));
+			break;
+		case ExpressionsPackage.IDENTIFIER_EXPRESSION:
+		case ExpressionsPackage.SCOPED_IDENTIFIER_EXPRESSION:
+			emitElementAddress(builder, expression);
+			builder.op(ClassFileBuilder.IALOAD, -1);
+			break;
+		case ExpressionsPackage.NEGATION_EXPRESSION:
+			emit(builder, ((NegationExpression)expression).getNegatedExpression());
+			emitBoolean(builder, ClassFileBuilder.IFEQ, -1);
+			break;
+		case ExpressionsPackage.PLUS_EXPRESSION:
+			emit(builder, ((PlusExpression)expression).getConfirmedExpression());
+			break;
+		case ExpressionsPackage.MINUS_EXPRESSION:
+			emit(builder, ((MinusExpression)expression).getInvertedExpression());
+			builder.op(ClassFileBuilder.INEG, 0);
+			break;
+		case ExpressionsPackage.ARITHMETIC_EXPRESSION:
+			ArithmeticExpression arithmetic = (ArithmeticExpression)expression;
+			emit(builder, arithmetic.getFirstExpr());
+			emit(builder, arithmetic.getSecondExpr());
+			emitArithmetic(builder, arithmetic.getOperator().getValue());
+			break;
+		case ExpressionsPackage.LOGICAL_EXPRESSION:
+			emitLogical(builder, (LogicalExpression)expression);
+			break;
+		case ExpressionsPackage.COMPARE_EXPRESSION:
+			emitCompare(builder, (CompareExpression)expression);
+			break;
+		case ExpressionsPackage.BIT_SHIFT_EXPRESSION:
+			BitShiftExpression bitShift = (BitShiftExpression)expression;
+			emit(builder, bitShift.getFirstExpr());
+			emit(builder, bitShift.getSecondExpr());
+			builder.op(bitShift.getOperator() == BitShiftOperator.LEFT ? ClassFileBuilder.ISHL : ClassFileBuilder.ISHR, -1);
+			break;
+		case ExpressionsPackage.BITWISE_EXPRESSION:
+			BitwiseExpression bitwise = (BitwiseExpression)expression;
+			emit(builder, bitwise.getFirstExpr());
+			emit(builder, bitwise.getSecondExpr());
+			switch (bitwise.getOperator()) {
+			case AND:
+				builder.op(ClassFileBuilder.IAND, -1);
+				break;
+			case OR:
+				builder.op(ClassFileBuilder.IOR, -1);
+				break;
+			default:
+				builder.op(ClassFileBuilder.IXOR, -1);
+				break;
+			}
+			break;
+		case ExpressionsPackage.MIN_MAX_EXPRESSION:
+			MinMaxExpression minMax = (MinMaxExpression)expression;
+			emit(builder, minMax.getFirstExpr());
+			emit(builder, minMax.getSecondExpr());
+			builder.invokeStatic("java/lang/Math", minMax.getOperator() == MinMaxOperator.MIN ? "min" : "max", "(II)I", -1);
+			break;
+		case ExpressionsPackage.CONDITION_EXPRESSION:
+			ConditionExpression condition = (ConditionExpression)expression;
+			int elseLabel = builder.newLabel();
+			int endLabel = builder.newLabel();
+			emit(builder, condition.getIfExpression());
+			builder.jump(ClassFileBuilder.IFEQ, elseLabel, -1);
+			emit(builder, condition.getThenExpression());
+			builder.jump(ClassFileBuilder.GOTO, endLabel, 0);
+			builder.setStack(builder.getStack() - 1);
+			builder.mark(elseLabel);
+			emit(builder, condition.getElseExpression());
+			builder.mark(endLabel);
+			break;
+		case ExpressionsPackage.ASSIGNMENT_EXPRESSION:
+			emitAssignment(builder, (AssignmentExpression)expression);
+			break;
+		case ExpressionsPackage.INCREMENT_DECREMENT_EXPRESSION:
+			IncrementDecrementExpression increment = (IncrementDecrementExpression)expression;
+			boolean pre = increment.getPosition() == IncrementDecrementPosition.PRE;
+			emitElementAddress(builder, increment.getExpression());
+			builder.op(ClassFileBuilder.DUP2, 2);
+			builder.op(ClassFileBuilder.IALOAD, -1);
+			if (!pre) {
+				builder.op(ClassFileBuilder.DUP_X2, 1);
+			}
+			builder.push(increment.getOperator() == IncrementDecrementOperator.INCREMENT ? 1 : -1);
+			builder.op(ClassFileBuilder.IADD, -1);
+			if (pre) {
+				builder.op(ClassFileBuilder.DUP_X2, 1);
+			}
+			builder.op(ClassFileBuilder.IASTORE, -3);
+			break;
+		case ExpressionsPackage.QUANTIFICATION_EXPRESSION:
+			emitQuantification(builder, (QuantificationExpression)expression);
+			break;
+		default:
+			throw new UnsupportedExpressionException();
+		}
+	}
+
+	/**
+	 * Applies an arithmetic operator to the two values on the stack. Divisions check for zero like the interpreter.
+	 */
+	private static void emitArithmetic(ClassFileBuilder builder, int operator) {
+		switch (operator) {
+		case 0:
+			builder.op(ClassFileBuilder.IADD, -1);
+			break;
+		case 1:
+			builder.op(ClassFileBuilder.ISUB, -1);
+			break;
+		case 2:
+			builder.op(ClassFileBuilder.IMUL, -1);
+			break;
+		case 3:
+			builder.invokeStatic(RUNTIME, "divide", "(II)I", -1);
+			break;
+		default:
+			builder.invokeStatic(RUNTIME, "modulo", "(II)I", -1);
+			break;
+		}
+	}
+
+	/**
+	 * Replaces the value or values on the stack by <code>1</code> if the jump is taken and by <code>0</code> otherwise.
+	 */
+	private static void emitBoolean(ClassFileBuilder builder, int jumpOpcode, int stackDelta) {
+		int trueLabel = builder.newLabel();
+		int endLabel = builder.newLabel();
+		builder.jump(jumpOpcode, trueLabel, stackDelta);
+		builder.push(0);
+		builder.jump(ClassFileBuilder.GOTO, endLabel, 0);
+		builder.setStack(builder.getStack() - 1);
+		builder.mark(trueLabel);
+		builder.push(1);
+		builder.mark(endLabel);
+	}
+
+	private void emitCompare(ClassFileBuilder builder, CompareExpression expression) throws UnsupportedExpressionException {
+		emit(builder, expression.getFirstExpr());
+		emit(builder, expression.getSecondExpr());
+		int opcode;
+		switch (expression.getOperator()) {
+		case EQUAL:
+			opcode = ClassFileBuilder.IF_ICMPEQ;
+			break;
+		case UNEQUAL:
+			opcode = ClassFileBuilder.IF_ICMPNE;
+			break;
+		case GREATER:
+			opcode = ClassFileBuilder.IF_ICMPGT;
+			break;
+		case GREATER_OR_EQUAL:
+			opcode = ClassFileBuilder.IF_ICMPGE;
+			break;
+		case LESS:
+			opcode = ClassFileBuilder.IF_ICMPLT;
+			break;
+		default:
+			opcode = ClassFileBuilder.IF_ICMPLE;
+			break;
+		}
+		emitBoolean(builder, opcode, -2);
+	}
+
+	/**
+	 * Emits a short-circuit evaluation: the second operand is skipped if the first one decides the result.
+	 */
+	private void emitLogical(ClassFileBuilder builder, LogicalExpression expression) throws UnsupportedExpressionException {
+		boolean and = expression.getOperator() == LogicalOperator.AND;
+		boolean imply = expression.getOperator() == LogicalOperator.IMPLY;
+		int decidedLabel = builder.newLabel();
+		int endLabel = builder.newLabel();
+		emit(builder, expression.getFirstExpr());
+		builder.jump(and || imply ? ClassFileBuilder.IFEQ : ClassFileBuilder.IFNE, decidedLabel, -1);
+		emit(builder, expression.getSecondExpr());
+		builder.jump(and ? ClassFileBuilder.IFEQ : ClassFileBuilder.IFNE, decidedLabel, -1);
+		builder.push(and ? 1 : 0);
+		builder.jump(ClassFileBuilder.GOTO, endLabel, 0);
+		builder.setStack(builder.getStack() - 1);
+		builder.mark(decidedLabel);
+		builder.push(and ? 0 : 1);
+		builder.mark(endLabel);
+	}
+
+	private void emitAssignment(ClassFileBuilder builder, AssignmentExpression expression) throws UnsupportedExpressionException {
+		int size = emitAddress(builder, expression.getFirstExpr());
+		if (size != 1) {
+			if (expression.getOperator() != AssignmentOperator.EQUAL) {
+				throw new UnsupportedExpressionException();
+			}
+			// System.arraycopy(source, sourceAddress, target, targetAddress, size), the target is already on the stack
+			if (emitAddress(builder, expression.getSecondExpr()) != size) {
+				throw new UnsupportedExpressionException();
+			}
+			builder.op(ClassFileBuilder.DUP2_X2, 2);
+			builder.op(ClassFileBuilder.POP2, -2);
+			builder.push(size);
+			builder.invokeStatic("java/lang/System", "arraycopy", "(Ljava/lang/Object;ILjava/lang/Object;II)V", -5);
+			builder.push(0);
+			return;
+		}
+		if (expression.getOperator() == AssignmentOperator.EQUAL) {
+			emit(builder, expression.getSecondExpr());
+		}
+		else {
+			builder.op(ClassFileBuilder.DUP2, 2);
+			builder.op(ClassFileBuilder.IALOAD, -1);
+			emit(builder, expression.getSecondExpr());
+			switch (expression.getOperator()) {
+			case PLUS_EQUAL:
+				emitArithmetic(builder, 0);
+				break;
+			case MINUS_EQUAL:
+				emitArithmetic(builder, 1);
+				break;
+			case TIMES_EQUAL:
+				emitArithmetic(builder, 2);
+				break;
+			case DIVIDE_EQUAL:
+				emitArithmetic(builder, 3);
+				break;
+			case MODULO_EQUAL:
+				emitArithmetic(builder, 4);
+				break;
+			case BIT_AND_EQUAL:
+				builder.op(ClassFileBuilder.IAND, -1);
+				break;
+			case BIT_OR_EQUAL:
+				builder.op(ClassFileBuilder.IOR, -1);
+				break;
+			case BIT_XOR_EQUAL:
+				builder.op(ClassFileBuilder.IXOR, -1);
+				break;
+			case BIT_LEFT_EQUAL:
+				builder.op(ClassFileBuilder.ISHL, -1);
+				break;
+			case BIT_RIGHT_EQUAL:
+				builder.op(ClassFileBuilder.ISHR, -1);
+				break;
+			default:
+				throw new UnsupportedExpressionException();
+			}
+		}
+		builder.op(ClassFileBuilder.DUP_X2, 1);
+		builder.op(ClassFileBuilder.IASTORE, -3);
+	}
+
+	/**
+	 * Emits a loop over the values of the quantified variable, which is stored in the frame.
+	 */
+	private void emitQuantification(ClassFileBuilder builder, QuantificationExpression expression) throws UnsupportedExpressionException {
+		VariableSlot slot = getSlot(expression.getVariable().get(0));
+		if (slot.kind != VariableSlot.Kind.LOCAL || slot.size != 1) {
+			throw new UnsupportedExpressionException();
+		}
+		boolean existential = expression.getQuantifier() == Quantifier.EXISTENTIAL;
+		int loopLabel = builder.newLabel();
+		int decidedLabel = builder.newLabel();
+		int doneLabel = builder.newLabel();
+		int endLabel = builder.newLabel();
+		builder.op(ClassFileBuilder.ALOAD_2, 1);
+		builder.push(slot.offset);
+		builder.push(slot.lowerBound);
+		builder.op(ClassFileBuilder.IASTORE, -3);
+		builder.mark(loopLabel);
+		builder.op(ClassFileBuilder.ALOAD_2, 1);
+		builder.push(slot.offset);
+		builder.op(ClassFileBuilder.IALOAD, -1);
+		builder.push(slot.upperBound);
+		builder.jump(ClassFileBuilder.IF_ICMPGT, doneLabel, -2);
+		emit(builder, expression.getExpression());
+		builder.jump(existential ? ClassFileBuilder.IFNE : ClassFileBuilder.IFEQ, decidedLabel, -1);
+		builder.op(ClassFileBuilder.ALOAD_2, 1);
+		builder.push(slot.offset);
+		builder.op(ClassFileBuilder.DUP2, 2);
+		builder.op(ClassFileBuilder.IALOAD, -1);
+		builder.push(1);
+		builder.op(ClassFileBuilder.IADD, -1);
+		builder.op(ClassFileBuilder.IASTORE, -3);
+		builder.jump(ClassFileBuilder.GOTO, loopLabel, 0);
+		builder.mark(decidedLabel);
+		builder.push(existential ? 1 : 0);
+		builder.jump(ClassFileBuilder.GOTO, endLabel, 0);
+		builder.setStack(builder.getStack() - 1);
+		builder.mark(doneLabel);
+		builder.push(existential ? 0 : 1);
+		builder.mark(endLabel);
+	}
+
+	/**
+	 * Pushes the array and the index of a single slot.
+	 */
+	private void emitElementAddress(ClassFileBuilder builder, Expression expression) throws UnsupportedExpressionException {
+		if (emitAddress(builder, expression) != 1) {
+			throw new UnsupportedExpressionException();
+		}
+	}
+
+	/**
+	 * Pushes the array holding a variable, array element or structure field and the index of its first slot.
+	 * @return the number of slots.
+	 */
+	private int emitAddress(ClassFileBuilder builder, Expression expression) throws UnsupportedExpressionException {
+		IdentifierExpression identifier;
+		if (expression instanceof ScopedIdentifierExpression) {
+			ScopedIdentifierExpression scoped = (ScopedIdentifierExpression)expression;
+			emitAddress(builder, scoped.getScope());
+			identifier = scoped.getIdentifier();
+			VariableSlot slot = getSlot(identifier.getIdentifier());
+			if (slot.kind != VariableSlot.Kind.FIELD) {
+				throw new UnsupportedExpressionException();
+			}
+			if (slot.offset != 0) {
+				builder.push(slot.offset);
+				builder.op(ClassFileBuilder.IADD, -1);
+			}
+			return emitIndices(builder, slot, identifier.getIndex());
+		}
+		if (!(expression instanceof IdentifierExpression)) {
+			throw new UnsupportedExpressionException();
+		}
+		identifier = (IdentifierExpression)expression;
+		VariableSlot slot = getSlot(identifier.getIdentifier());
+		if (slot.kind == VariableSlot.Kind.GLOBAL) {
+			builder.op(ClassFileBuilder.ALOAD_1, 1);
+		}
+		else if (slot.kind == VariableSlot.Kind.LOCAL) {
+			builder.op(ClassFileBuilder.ALOAD_2, 1);
+		}
+		else {
+			throw new UnsupportedExpressionException();
+		}
+		builder.push(slot.offset);
+		return emitIndices(builder, slot, identifier.getIndex());
+	}
+
+	/**
+	 * Adds the offsets of the indices to the index on the stack.
+	 * @return the number of slots of the indexed element.
+	 */
+	private int emitIndices(ClassFileBuilder builder, VariableSlot slot, EList<Expression> indices) throws UnsupportedExpressionException {
+		int count = indices.size();
+		if (count > slot.dimensions.length) {
+			throw new UnsupportedExpressionException();
+		}
+		for (int i = 0; i < count; i++) {
+			emit(builder, indices.get(i));
+			builder.push(slot.lowerIndices[i]);
+			builder.push(slot.dimensions[i]);
+			builder.invokeStatic(RUNTIME, "checkIndex", "(III)I", -2);
+			if (slot.strides[i] != 1) {
+				builder.push(slot.strides[i]);
+				builder.op(ClassFileBuilder.IMUL, -1);
+			}
+			builder.op(ClassFileBuilder.IADD, -1);
+		}
+		return count == 0 ? slot.size : slot.strides[count - 1];
+	}
+
+	private VariableSlot getSlot(NamedElement element) throws UnsupportedExpressionException {
+		VariableSlot slot = element instanceof Variable ? layout.getSlot((Variable)element) : null;
+		if (slot == null) {
+			throw new UnsupportedExpressionException();
+		}
+		return slot;
+	}
+
+	// Runtime support of the generated classes, which are defined by another class loader
+
+	/**
+	 * Checks an array index of compiled code.
+	 * @param index the index.
+	 * @param lowerIndex the first index of the dimension.
+	 * @param count the number of elements of the dimension.
+	 * @return the position of the element in the dimension.
+	 * @throws EvaluationException if the index is out of bounds.
+	 */
+	public static int checkIndex(int index, int lowerIndex, int count) {
+		int position = index - lowerIndex;
+		if (position < 0 || position >= count) {
+			throw new EvaluationException("Array index out of bounds", null);
+		}
+		return position;
+	}
+
+	/**
+	 * Divides for compiled code.
+	 * @param dividend the dividend.
+	 * @param divisor the divisor.
+	 * @return the quotient.
+	 * @throws EvaluationException if the divisor is <code>0</code>.
+	 */
+	public static int divide(int dividend, int divisor) {
+		if (divisor == 0) {
+			throw new EvaluationException("Division by zero", null);
+		}
+		return dividend / divisor;
+	}
+
+	/**
+	 * Computes the remainder of a division for compiled code.
+	 * @param dividend the dividend.
+	 * @param divisor the divisor.
+	 * @return the remainder.
+	 * @throws EvaluationException if the divisor is <code>0</code>.
+	 */
+	public static int modulo(int dividend, int divisor) {
+		if (divisor == 0) {
+			throw new EvaluationException("Division by zero", null);
+		}
+		return dividend % divisor;
+	}
+
+	/**
+	 * Signals an expression the compiler leaves to the interpreter.
+	 */
+	private static final class UnsupportedExpressionException extends Exception {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * Defines the generated classes.
+	 */
+	private static final class CompiledExpressionLoader extends ClassLoader {
+		CompiledExpressionLoader() {
+			super(CompiledExpression.class.getClassLoader());
+		}
+
+		Class<?> define(String name, byte[] classFile) {
+			return defineClass(name, classFile, 0, classFile.length);
+		}
+	}
+
+	/**
+	 * Evaluates expressions that are not compiled with the evaluator of the current thread.
+	 */
+	private final class InterpretedExpression implements CompiledExpression {
+		private final List<Expression> expressions;
+
+		InterpretedExpression(List<Expression> expressions) {
+			this.expressions = expressions;
+		}
+
+		@Override
+		public int evaluate(int[] state, int[] frame) {
+			ExpressionEvaluator evaluator = evaluators.get();
+			int value = 0;
+			for (int i = 0, size = expressions.size(); i < size; i++) {
+				value = evaluator.evaluate(expressions.get(i), state, frame);
+			}
+			return value;
+		}
+	}
+
+}
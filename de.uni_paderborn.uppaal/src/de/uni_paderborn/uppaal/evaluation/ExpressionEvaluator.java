@@ -0,0 +1,816 @@
+/**
+ */
+package de.uni_paderborn.uppaal.evaluation;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+
+import de.uni_paderborn.uppaal.core.NamedElement;
+import de.uni_paderborn.uppaal.declarations.ArrayInitializer;
+import de.uni_paderborn.uppaal.declarations.Declaration;
+import de.uni_paderborn.uppaal.declarations.ExpressionInitializer;
+import de.uni_paderborn.uppaal.declarations.Function;
+import de.uni_paderborn.uppaal.declarations.Initializer;
+import de.uni_paderborn.uppaal.declarations.LocalDeclarations;
+import de.uni_paderborn.uppaal.declarations.Parameter;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.declarations.VariableDeclaration;
+import de.uni_paderborn.uppaal.expressions.ArithmeticExpression;
+import de.uni_paderborn.uppaal.expressions.AssignmentExpression;
+import de.uni_paderborn.uppaal.expressions.AssignmentOperator;
+import de.uni_paderborn.uppaal.expressions.BitShiftExpression;
+import de.uni_paderborn.uppaal.expressions.BitwiseExpression;
+import de.uni_paderborn.uppaal.expressions.CompareExpression;
+import de.uni_paderborn.uppaal.expressions.ConditionExpression;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.expressions.ExpressionsPackage;
+import de.uni_paderborn.uppaal.expressions.FunctionCallExpression;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.IncrementDecrementExpression;
+import de.uni_paderborn.uppaal.expressions.IncrementDecrementOperator;
+import de.uni_paderborn.uppaal.expressions.IncrementDecrementPosition;
+import de.uni_paderborn.uppaal.expressions.LiteralExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalExpression;
+import de.uni_paderborn.uppaal.expressions.MinMaxExpression;
+import de.uni_paderborn.uppaal.expressions.MinMaxOperator;
+import de.uni_paderborn.uppaal.expressions.MinusExpression;
+import de.uni_paderborn.uppaal.expressions.NegationExpression;
+import de.uni_paderborn.uppaal.expressions.PlusExpression;
+import de.uni_paderborn.uppaal.expressions.QuantificationExpression;
+import de.uni_paderborn.uppaal.expressions.Quantifier;
+import de.uni_paderborn.uppaal.expressions.ScopedIdentifierExpression;
+import de.uni_paderborn.uppaal.statements.Block;
+import de.uni_paderborn.uppaal.statements.DoWhileLoop;
+import de.uni_paderborn.uppaal.statements.ExpressionStatement;
+import de.uni_paderborn.uppaal.statements.ForLoop;
+import de.uni_paderborn.uppaal.statements.IfStatement;
+import de.uni_paderborn.uppaal.statements.Iteration;
+import de.uni_paderborn.uppaal.statements.ReturnStatement;
+import de.uni_paderborn.uppaal.statements.Statement;
+import de.uni_paderborn.uppaal.statements.StatementsPackage;
+import de.uni_paderborn.uppaal.statements.WhileLoop;
+
+/**
+ * Evaluates expressions and executes statements on a valuation held in an <code>int[]</code>.
+ * <p>
+ * The slots of the variables are given by a {@link SlotLayout}.
+ * Booleans are represented by <code>0</code> and <code>1</code>, every value other than <code>0</code> counts as true.
+ * Arithmetic is performed on 32 bit integers, values are not checked against the ranges of their types.
+ * Function calls are executed on a stack of frames allocated once per evaluator, so evaluations do not allocate any objects.
+ * </p>
+ * <p>
+ * An evaluator keeps the state of the running evaluation and must only be used by one thread at a time.
+ * </p>
+ */
+public class ExpressionEvaluator {
+	/**
+	 * The default number of stack slots.
+	 */
+	public static final int DEFAULT_STACK_SIZE = 4096;
+
+	/**
+	 * The flag marking addresses of stack slots. Other addresses denote slots of the state.
+	 */
+	private static final int STACK_ADDRESS = 0x40000000;
+
+	/**
+	 * The layout of the variables.
+	 */
+	protected final SlotLayout layout;
+
+	/**
+	 * The frames of the function calls, starting with the top-level frame.
+	 */
+	private final int[] stack;
+
+	/**
+	 * The state of the running evaluation.
+	 */
+	private int[] state;
+
+	/**
+	 * The start of the current frame.
+	 */
+	private int framePointer;
+
+	/**
+	 * The first free stack slot.
+	 */
+	private int stackPointer;
+
+	/**
+	 * The number of slots denoted by the last address computed.
+	 */
+	private int regionSize;
+
+	/**
+	 * The value of the last return statement executed.
+	 */
+	private int returnValue;
+
+	/**
+	 * Creates an evaluator with a stack of {@link #DEFAULT_STACK_SIZE} slots.
+	 * @param layout the layout of the variables.
+	 */
+	public ExpressionEvaluator(SlotLayout layout) {
+		this(layout, DEFAULT_STACK_SIZE);
+	}
+
+	/**
+	 * Creates an evaluator.
+	 * @param layout the layout of the variables.
+	 * @param stackSize the number of stack slots for the top-level frame and the frames of function calls.
+	 */
+	public ExpressionEvaluator(SlotLayout layout, int stackSize) {
+		this.layout = layout;
+		this.stack = new int[stackSize];
+	}
+
+	/**
+	 * Returns the layout of the variables.
+	 * @return the layout.
+	 */
+	public SlotLayout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * Evaluates an expression. Assignments and function calls may modify the state.
+	 * @param expression the expression.
+	 * @param state the valuation of the state variables.
+	 * @return the value of the expression.
+	 * @throws EvaluationException if the expression cannot be evaluated.
+	 */
+	public int evaluate(Expression expression, int[] state) {
+		enter(state, null);
+		return evaluate(expression);
+	}
+
+	/**
+	 * Evaluates an expression with given values of the top-level frame, such as the values of selection variables.
+	 * @param expression the expression.
+	 * @param state the valuation of the state variables.
+	 * @param frame the values of the top-level frame, see {@link SlotLayout#getFrameSize()}, may be <code>null</code>.
+	 * @return the value of the expression.
+	 * @throws EvaluationException if the expression cannot be evaluated.
+	 */
+	public int evaluate(Expression expression, int[] state, int[] frame) {
+		enter(state, frame);
+		return evaluate(expression);
+	}
+
+	/**
+	 * Evaluates a condition such as a guard or an invariant.
+	 * @param expression the condition, may be <code>null</code>.
+	 * @param state the valuation of the state variables.
+	 * @return whether the condition holds, <code>true</code> if there is no condition.
+	 * @throws EvaluationException if the condition cannot be evaluated.
+	 */
+	public boolean evaluateCondition(Expression expression, int[] state) {
+		if (expression == null) {
+			return true;
+		}
+		enter(state, null);
+		return evaluate(expression) != 0;
+	}
+
+	/**
+	 * Evaluates a list of expressions in order, such as the updates of an edge.
+	 * @param expressions the expressions.
+	 * @param state the valuation of the state variables, modified by the assignments.
+	 * @throws EvaluationException if an expression cannot be evaluated.
+	 */
+	public void evaluateAll(List<Expression> expressions, int[] state) {
+		evaluateAll(expressions, state, null);
+	}
+
+	/**
+	 * Evaluates a list of expressions in order with given values of the top-level frame.
+	 * @param expressions the expressions.
+	 * @param state the valuation of the state variables, modified by the assignments.
+	 * @param frame the values of the top-level frame, see {@link SlotLayout#getFrameSize()}, may be <code>null</code>.
+	 * @throws EvaluationException if an expression cannot be evaluated.
+	 */
+	public void evaluateAll(List<Expression> expressions, int[] state, int[] frame) {
+		enter(state, frame);
+		for (int i = 0, size = expressions.size(); i < size; i++) {
+			evaluate(expressions.get(i));
+		}
+	}
+
+	/**
+	 * Computes where a variable, array element or structure field is stored in the state, or the number of a channel.
+	 * @param expression the identifier, possibly with indices and fields.
+	 * @param state the valuation of the state variables.
+	 * @param frame the values of the top-level frame, see {@link SlotLayout#getFrameSize()}, may be <code>null</code>.
+	 * @return the first slot of the denoted region of the state, or the number of the denoted channel.
+	 * @throws EvaluationException if the expression does not denote a region of the state or a channel, or an index is out of range.
+	 */
+	public int locate(Expression expression, int[] state, int[] frame) {
+		enter(state, frame);
+		int address = address(expression);
+		if ((address & STACK_ADDRESS) != 0) {
+			throw new EvaluationException("Expression does not denote a state variable", expression);
+		}
+		return address;
+	}
+
+	/**
+	 * Returns the number of slots of the region found by the last call of {@link #locate(Expression, int[], int[])}.
+	 */
+	int getRegionSize() {
+		return regionSize;
+	}
+
+	/**
+	 * Sets the value of a variable of the top-level frame, such as a selection variable, for the following evaluations.
+	 * @param variable the variable.
+	 * @param value the value.
+	 * @throws EvaluationException if the variable is not stored in the top-level frame.
+	 */
+	public void bind(Variable variable, int value) {
+		VariableSlot slot = getSlot(variable, variable);
+		if (slot.kind != VariableSlot.Kind.LOCAL || slot.size != 1) {
+			throw new EvaluationException("Variable '" + variable.getName() + "' is not a local integer", variable);
+		}
+		stack[slot.offset] = value;
+	}
+
+	/**
+	 * Writes the initial value of a variable.
+	 * @param variable the variable.
+	 * @param state the state holding the slots.
+	 * @param offset the first slot of the variable.
+	 * @param size the number of slots of the variable.
+	 */
+	void initialize(Variable variable, int[] state, int offset, int size) {
+		enter(state, null);
+		initialize(variable.getInitializer(), offset, size);
+	}
+
+	private void enter(int[] state, int[] frame) {
+		int frameSize = layout.getFrameSize();
+		if (frameSize > stack.length) {
+			throw new EvaluationException("Stack overflow", null);
+		}
+		if (frame != null) {
+			System.arraycopy(frame, 0, stack, 0, Math.min(frame.length, frameSize));
+		}
+		this.state = state;
+		this.framePointer = 0;
+		this.stackPointer = frameSize;
+	}
+
+	// Expressions
+
+	/**
+	 * Evaluates an expression in the current frame.
+	 */
+	private int evaluate(Expression expression) {
+		switch (expression.eClass().getClassifierID()) {
+		case ExpressionsPackage.LITERAL_EXPRESSION:
+			return evaluateLiteral((LiteralExpression)expression);
+		case ExpressionsPackage.IDENTIFIER_EXPRESSION:
+		case ExpressionsPackage.SCOPED_IDENTIFIER_EXPRESSION:
+			return load(addressOfElement(expression));
+		case ExpressionsPackage.NEGATION_EXPRESSION:
+			return evaluate(((NegationExpression)expression).getNegatedExpression()) == 0 ? 1 : 0;
+		case ExpressionsPackage.PLUS_EXPRESSION:
+			return evaluate(((PlusExpression)expression).getConfirmedExpression());
+		case ExpressionsPackage.MINUS_EXPRESSION:
+			return -evaluate(((MinusExpression)expression).getInvertedExpression());
+		case ExpressionsPackage.ARITHMETIC_EXPRESSION:
+			return evaluateArithmetic((ArithmeticExpression)expression);
+		case ExpressionsPackage.LOGICAL_EXPRESSION:
+			return evaluateLogical((LogicalExpression)expression);
+		case ExpressionsPackage.COMPARE_EXPRESSION:
+			return evaluateCompare((CompareExpression)expression);
+		case ExpressionsPackage.BIT_SHIFT_EXPRESSION:
+			return evaluateBitShift((BitShiftExpression)expression);
+		case ExpressionsPackage.BITWISE_EXPRESSION:
+			return evaluateBitwise((BitwiseExpression)expression);
+		case ExpressionsPackage.MIN_MAX_EXPRESSION:
+			return evaluateMinMax((MinMaxExpression)expression);
+		case ExpressionsPackage.CONDITION_EXPRESSION:
+			ConditionExpression condition = (ConditionExpression)expression;
+			return evaluate(condition.getIfExpression()) != 0 ? evaluate(condition.getThenExpression()) : evaluate(condition.getElseExpression());
+		case ExpressionsPackage.ASSIGNMENT_EXPRESSION:
+			return evaluateAssignment((AssignmentExpression)expression);
+		case ExpressionsPackage.INCREMENT_DECREMENT_EXPRESSION:
+			return evaluateIncrementDecrement((IncrementDecrementExpression)expression);
+		case ExpressionsPackage.FUNCTION_CALL_EXPRESSION:
+			return call((FunctionCallExpression)expression);
+		case ExpressionsPackage.QUANTIFICATION_EXPRESSION:
+			return evaluateQuantification((QuantificationExpression)expression);
+		default:
+			throw new EvaluationException("Unsupported expression", expression);
+		}
+	}
+
+	/**
+	 * Returns the value of a literal: <code>1</code> for <code>true</code>, <code>0</code> for <code>false</code>, or the number.
+	 * @param literal the literal.
+	 * @return the value.
+	 * @throws EvaluationException if the literal is neither a boolean nor a decimal number.
+	 */
+	public static int evaluateLiteral(LiteralExpression literal) {
+		String text = literal.getText();
+		if ("true".equals(text)) {
+			return 1;
+		}
+		if ("false".equals(text)) {
+			return 0;
+		}
+		try {
+			return Integer.parseInt(text);
+		}
+		catch (NumberFormatException e) {
+			throw new EvaluationException("Invalid literal '" + text + "'", literal);
+		}
+	}
+
+	private int evaluateArithmetic(ArithmeticExpression expression) {
+		int first = evaluate(expression.getFirstExpr());
+		int second = evaluate(expression.getSecondExpr());
+		switch (expression.getOperator()) {
+		case ADD:
+			return first + second;
+		case SUBTRACT:
+			return first - second;
+		case MULTIPLICATE:
+			return first * second;
+		case DIVIDE:
+			return first / checkDivisor(second, expression);
+		case MODULO:
+			return first % checkDivisor(second, expression);
+		default:
+			throw new EvaluationException("Unsupported operator", expression);
+		}
+	}
+
+	private int evaluateLogical(LogicalExpression expression) {
+		boolean first = evaluate(expression.getFirstExpr()) != 0;
+		switch (expression.getOperator()) {
+		case AND:
+			return first && evaluate(expression.getSecondExpr()) != 0 ? 1 : 0;
+		case OR:
+			return first || evaluate(expression.getSecondExpr()) != 0 ? 1 : 0;
+		case IMPLY:
+			return !first || evaluate(expression.getSecondExpr()) != 0 ? 1 : 0;
+		default:
+			throw new EvaluationException("Unsupported operator", expression);
+		}
+	}
+
+	private int evaluateCompare(CompareExpression expression) {
+		int first = evaluate(expression.getFirstExpr());
+		int second = evaluate(expression.getSecondExpr());
+		switch (expression.getOperator()) {
+		case EQUAL:
+			return first == second ? 1 : 0;
+		case UNEQUAL:
+			return first != second ? 1 : 0;
+		case GREATER:
+			return first > second ? 1 : 0;
+		case GREATER_OR_EQUAL:
+			return first >= second ? 1 : 0;
+		case LESS:
+			return first < second ? 1 : 0;
+		case LESS_OR_EQUAL:
+			return first <= second ? 1 : 0;
+		default:
+			throw new EvaluationException("Unsupported operator", expression);
+		}
+	}
+
+	private int evaluateBitShift(BitShiftExpression expression) {
+		int first = evaluate(expression.getFirstExpr());
+		int second = evaluate(expression.getSecondExpr());
+		switch (expression.getOperator()) {
+		case LEFT:
+			return first << second;
+		case RIGHT:
+			return first >> second;
+		default:
+			throw new EvaluationException("Unsupported operator", expression);
+		}
+	}
+
+	private int evaluateBitwise(BitwiseExpression expression) {
+		int first = evaluate(expression.getFirstExpr());
+		int second = evaluate(expression.getSecondExpr());
+		switch (expression.getOperator()) {
+		case AND:
+			return first & second;
+		case OR:
+			return first | second;
+		case XOR:
+			return first ^ second;
+		default:
+			throw new EvaluationException("Unsupported operator", expression);
+		}
+	}
+
+	private int evaluateMinMax(MinMaxExpression expression) {
+		int first = evaluate(expression.getFirstExpr());
+		int second = evaluate(expression.getSecondExpr());
+		return expression.getOperator() == MinMaxOperator.MIN ? Math.min(first, second) : Math.max(first, second);
+	}
+
+	private int evaluateAssignment(AssignmentExpression expression) {
+		int address = address(expression.getFirstExpr());
+		int size = regionSize;
+		if (size != 1) {
+			if (expression.getOperator() != AssignmentOperator.EQUAL) {
+				throw new EvaluationException("Compound assignment to an array or structure", expression);
+			}
+			int source = address(expression.getSecondExpr());
+			if (regionSize != size) {
+				throw new EvaluationException("Assignment of incompatible arrays or structures", expression);
+			}
+			copy(source, address, size);
+			return 0;
+		}
+		int value = evaluate(expression.getSecondExpr());
+		switch (expression.getOperator()) {
+		case EQUAL:
+			break;
+		case PLUS_EQUAL:
+			value = load(address) + value;
+			break;
+		case MINUS_EQUAL:
+			value = load(address) - value;
+			break;
+		case TIMES_EQUAL:
+			value = load(address) * value;
+			break;
+		case DIVIDE_EQUAL:
+			value = load(address) / checkDivisor(value, expression);
+			break;
+		case MODULO_EQUAL:
+			value = load(address) % checkDivisor(value, expression);
+			break;
+		case BIT_AND_EQUAL:
+			value = load(address) & value;
+			break;
+		case BIT_OR_EQUAL:
+			value = load(address) | value;
+			break;
+		case BIT_XOR_EQUAL:
+			value = load(address) ^ value;
+			break;
+		case BIT_LEFT_EQUAL:
+			value = load(address) << value;
+			break;
+		case BIT_RIGHT_EQUAL:
+			value = load(address) >> value;
+			break;
+		default:
+			throw new EvaluationException("Unsupported operator", expression);
+		}
+		store(address, value);
+		return value;
+	}
+
+	private int evaluateIncrementDecrement(IncrementDecrementExpression expression) {
+		int address = addressOfElement(expression.getExpression());
+		int oldValue = load(address);
+		int newValue = expression.getOperator() == IncrementDecrementOperator.INCREMENT ? oldValue + 1 : oldValue - 1;
+		store(address, newValue);
+		return expression.getPosition() == IncrementDecrementPosition.PRE ? newValue : oldValue;
+	}
+
+	private int evaluateQuantification(QuantificationExpression expression) {
+		VariableSlot slot = getSlot(expression.getVariable().get(0), expression);
+		int address = STACK_ADDRESS | (framePointer + slot.offset);
+		boolean existential = expression.getQuantifier() == Quantifier.EXISTENTIAL;
+		for (int value = slot.lowerBound; value <= slot.upperBound; value++) {
+			store(address, value);
+			if ((evaluate(expression.getExpression()) != 0) == existential) {
+				return existential ? 1 : 0;
+			}
+			if (value == Integer.MAX_VALUE) {
+				break;
+			}
+		}
+		return existential ? 0 : 1;
+	}
+
+	private static int checkDivisor(int divisor, Expression expression) {
+		if (divisor == 0) {
+			throw new EvaluationException("Division by zero", expression);
+		}
+		return divisor;
+	}
+
+	// Functions and statements
+
+	/**
+	 * Calls a function in a new frame.
+	 * Arguments are evaluated in the frame of the caller, parameters passed by reference hold the address of their argument.
+	 */
+	private int call(FunctionCallExpression expression) {
+		Function function = expression.getFunction();
+		if (function == null || function.getBlock() == null) {
+			throw new EvaluationException("Call of an undefined function", expression);
+		}
+		int frame = stackPointer;
+		int end = frame + layout.getFrameSize(function);
+		if (end > stack.length) {
+			throw new EvaluationException("Stack overflow", expression);
+		}
+		stackPointer = end;
+		Arrays.fill(stack, frame, end, 0);
+		EList<Parameter> parameters = function.getParameter();
+		EList<Expression> arguments = expression.getArgument();
+		if (parameters.size() != arguments.size()) {
+			throw new EvaluationException("Wrong number of arguments", expression);
+		}
+		for (int i = 0, size = parameters.size(); i < size; i++) {
+			VariableDeclaration declaration = parameters.get(i).getVariableDeclaration();
+			VariableSlot slot = declaration == null || declaration.getVariable().isEmpty() ? null : layout.getSlot(declaration.getVariable().get(0));
+			if (slot == null) {
+				continue;
+			}
+			Expression argument = arguments.get(i);
+			if (slot.kind == VariableSlot.Kind.REFERENCE) {
+				int address = address(argument);
+				if (regionSize != slot.size) {
+					throw new EvaluationException("Argument does not match the type of the parameter", argument);
+				}
+				stack[frame + slot.offset] = address;
+			}
+			else if (slot.size == 1) {
+				stack[frame + slot.offset] = evaluate(argument);
+			}
+			else {
+				int address = address(argument);
+				if (regionSize != slot.size) {
+					throw new EvaluationException("Argument does not match the type of the parameter", argument);
+				}
+				copy(address, STACK_ADDRESS | (frame + slot.offset), slot.size);
+			}
+		}
+		int callerFramePointer = framePointer;
+		framePointer = frame;
+		int result = execute(function.getBlock()) ? returnValue : 0;
+		framePointer = callerFramePointer;
+		stackPointer = frame;
+		return result;
+	}
+
+	/**
+	 * Executes a statement in the current frame.
+	 * @return whether a return statement has been executed.
+	 */
+	private boolean execute(Statement statement) {
+		switch (statement.eClass().getClassifierID()) {
+		case StatementsPackage.BLOCK:
+			Block block = (Block)statement;
+			if (block.getDeclarations() != null) {
+				initialize(block.getDeclarations());
+			}
+			EList<Statement> statements = block.getStatement();
+			for (int i = 0, size = statements.size(); i < size; i++) {
+				if (execute(statements.get(i))) {
+					return true;
+				}
+			}
+			return false;
+		case StatementsPackage.EMPTY_STATEMENT:
+			return false;
+		case StatementsPackage.EXPRESSION_STATEMENT:
+			evaluate(((ExpressionStatement)statement).getExpression());
+			return false;
+		case StatementsPackage.IF_STATEMENT:
+			IfStatement ifStatement = (IfStatement)statement;
+			if (evaluate(ifStatement.getIfExpression()) != 0) {
+				return execute(ifStatement.getThenStatement());
+			}
+			return ifStatement.getElseStatement() != null && execute(ifStatement.getElseStatement());
+		case StatementsPackage.FOR_LOOP:
+			ForLoop forLoop = (ForLoop)statement;
+			if (forLoop.getInitialization() != null) {
+				evaluate(forLoop.getInitialization());
+			}
+			while (forLoop.getCondition() == null || evaluate(forLoop.getCondition()) != 0) {
+				if (execute(forLoop.getStatement())) {
+					return true;
+				}
+				if (forLoop.getIteration() != null) {
+					evaluate(forLoop.getIteration());
+				}
+			}
+			return false;
+		case StatementsPackage.ITERATION:
+			Iteration iteration = (Iteration)statement;
+			VariableSlot slot = getSlot(iteration.getVariable().get(0), iteration);
+			int address = STACK_ADDRESS | (framePointer + slot.offset);
+			for (int value = slot.lowerBound; value <= slot.upperBound; value++) {
+				store(address, value);
+				if (execute(iteration.getStatement())) {
+					return true;
+				}
+				if (value == Integer.MAX_VALUE) {
+					break;
+				}
+			}
+			return false;
+		case StatementsPackage.WHILE_LOOP:
+			WhileLoop whileLoop = (WhileLoop)statement;
+			while (evaluate(whileLoop.getExpression()) != 0) {
+				if (execute(whileLoop.getStatement())) {
+					return true;
+				}
+			}
+			return false;
+		case StatementsPackage.DO_WHILE_LOOP:
+			DoWhileLoop doWhileLoop = (DoWhileLoop)statement;
+			do {
+				if (execute(doWhileLoop.getStatement())) {
+					return true;
+				}
+			}
+			while (evaluate(doWhileLoop.getExpression()) != 0);
+			return false;
+		case StatementsPackage.RETURN_STATEMENT:
+			Expression returnExpression = ((ReturnStatement)statement).getReturnExpression();
+			returnValue = returnExpression == null ? 0 : evaluate(returnExpression);
+			return true;
+		default:
+			throw new EvaluationException("Unsupported statement", statement);
+		}
+	}
+
+	/**
+	 * Initializes the local variables of a block in the current frame.
+	 */
+	private void initialize(LocalDeclarations declarations) {
+		EList<Declaration> declarationList = declarations.getDeclaration();
+		for (int i = 0, size = declarationList.size(); i < size; i++) {
+			Declaration declaration = declarationList.get(i);
+			if (declaration instanceof VariableDeclaration) {
+				EList<Variable> variables = ((VariableDeclaration)declaration).getVariable();
+				for (int j = 0, count = variables.size(); j < count; j++) {
+					Variable variable = variables.get(j);
+					VariableSlot slot = layout.getSlot(variable);
+					if (slot != null && slot.kind == VariableSlot.Kind.LOCAL) {
+						initialize(variable.getInitializer(), STACK_ADDRESS | (framePointer + slot.offset), slot.size);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes an initial value to a region, <code>0</code> if there is no initializer.
+	 * The leaves of array initializers are written to consecutive slots.
+	 */
+	private void initialize(Initializer initializer, int address, int size) {
+		fill(address, size, 0);
+		if (initializer != null) {
+			write(initializer, address, address + size);
+		}
+	}
+
+	/**
+	 * Writes an initializer to the slots starting at an address.
+	 * @return the address after the last slot written.
+	 */
+	private int write(Initializer initializer, int address, int end) {
+		if (initializer instanceof ArrayInitializer) {
+			EList<Initializer> initializers = ((ArrayInitializer)initializer).getInitializer();
+			for (int i = 0, size = initializers.size(); i < size; i++) {
+				address = write(initializers.get(i), address, end);
+			}
+			return address;
+		}
+		Expression expression = ((ExpressionInitializer)initializer).getExpression();
+		if (end - address > 1 && isRegion(expression)) {
+			int source = address(expression);
+			if (regionSize > end - address) {
+				throw new EvaluationException("Initializer does not match the type of the variable", initializer);
+			}
+			copy(source, address, regionSize);
+			return address + regionSize;
+		}
+		if (address >= end) {
+			throw new EvaluationException("Too many initializers", initializer);
+		}
+		store(address, evaluate(expression));
+		return address + 1;
+	}
+
+	private static boolean isRegion(Expression expression) {
+		return expression instanceof IdentifierExpression || expression instanceof ScopedIdentifierExpression;
+	}
+
+	// Addresses
+
+	/**
+	 * Computes the address of a variable, array element or structure field, and sets the size of the region.
+	 */
+	private int address(Expression expression) {
+		if (expression instanceof IdentifierExpression) {
+			IdentifierExpression identifier = (IdentifierExpression)expression;
+			VariableSlot slot = getSlot(identifier.getIdentifier(), identifier);
+			int base;
+			switch (slot.kind) {
+			case GLOBAL:
+			case CHANNEL:
+				base = slot.offset;
+				break;
+			case LOCAL:
+				base = STACK_ADDRESS | (framePointer + slot.offset);
+				break;
+			case REFERENCE:
+				base = stack[framePointer + slot.offset];
+				break;
+			default:
+				throw new EvaluationException("Field '" + identifier.getIdentifier().getName() + "' used without structure", identifier);
+			}
+			return index(base, slot, identifier);
+		}
+		if (expression instanceof ScopedIdentifierExpression) {
+			ScopedIdentifierExpression scoped = (ScopedIdentifierExpression)expression;
+			int base = address(scoped.getScope());
+			IdentifierExpression identifier = scoped.getIdentifier();
+			VariableSlot slot = getSlot(identifier.getIdentifier(), identifier);
+			if (slot.kind != VariableSlot.Kind.FIELD) {
+				throw new EvaluationException("Unsupported member access", scoped);
+			}
+			return index(base + slot.offset, slot, identifier);
+		}
+		throw new EvaluationException("Expression does not denote a variable", expression);
+	}
+
+	/**
+	 * Computes the address of a single slot.
+	 */
+	private int addressOfElement(Expression expression) {
+		int address = address(expression);
+		if (regionSize != 1) {
+			throw new EvaluationException("Expression does not denote an integer or boolean", expression);
+		}
+		return address;
+	}
+
+	/**
+	 * Adds the offsets of the indices of an identifier to the address of its variable, and sets the size of the region.
+	 */
+	private int index(int base, VariableSlot slot, IdentifierExpression identifier) {
+		EList<Expression> indices = identifier.getIndex();
+		int count = indices.size();
+		if (count > slot.dimensions.length) {
+			throw new EvaluationException("Too many indices", identifier);
+		}
+		for (int i = 0; i < count; i++) {
+			int index = evaluate(indices.get(i)) - slot.lowerIndices[i];
+			if (index < 0 || index >= slot.dimensions[i]) {
+				throw new EvaluationException("Array index out of bounds", indices.get(i));
+			}
+			base += index * slot.strides[i];
+		}
+		regionSize = count == 0 ? slot.size : slot.strides[count - 1];
+		return base;
+	}
+
+	private VariableSlot getSlot(NamedElement element, EObject context) {
+		VariableSlot slot = element instanceof Variable ? layout.getSlot((Variable)element) : null;
+		if (slot == null) {
+			throw new EvaluationException("'" + (element == null ? null : element.getName()) + "' is not a variable of the layout", context);
+		}
+		return slot;
+	}
+
+	private int load(int address) {
+		return (address & STACK_ADDRESS) != 0 ? stack[address ^ STACK_ADDRESS] : state[address];
+	}
+
+	private void store(int address, int value) {
+		if ((address & STACK_ADDRESS) != 0) {
+			stack[address ^ STACK_ADDRESS] = value;
+		}
+		else {
+			state[address] = value;
+		}
+	}
+
+	private void fill(int address, int size, int value) {
+		if ((address & STACK_ADDRESS) != 0) {
+			Arrays.fill(stack, address ^ STACK_ADDRESS, (address ^ STACK_ADDRESS) + size, value);
+		}
+		else {
+			Arrays.fill(state, address, address + size, value);
+		}
+	}
+
+	private void copy(int source, int target, int size) {
+		System.arraycopy((source & STACK_ADDRESS) != 0 ? stack : state, source & ~STACK_ADDRESS,
+				(target & STACK_ADDRESS) != 0 ? stack : state, target & ~STACK_ADDRESS, size);
+	}
+
+}
@@ -0,0 +1,487 @@
+/**
+ */
+package de.uni_paderborn.uppaal.evaluation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import de.uni_paderborn.uppaal.expressions.ArithmeticExpression;
+import de.uni_paderborn.uppaal.expressions.AssignmentExpression;
+import de.uni_paderborn.uppaal.expressions.BinaryExpression;
+import de.uni_paderborn.uppaal.expressions.BitShiftExpression;
+import de.uni_paderborn.uppaal.expressions.BitwiseExpression;
+import de.uni_paderborn.uppaal.expressions.CompareExpression;
+import de.uni_paderborn.uppaal.expressions.ConditionExpression;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.expressions.FunctionCallExpression;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.IncrementDecrementExpression;
+import de.uni_paderborn.uppaal.expressions.LiteralExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalExpression;
+import de.uni_paderborn.uppaal.expressions.MinMaxExpression;
+import de.uni_paderborn.uppaal.expressions.MinusExpression;
+import de.uni_paderborn.uppaal.expressions.NegationExpression;
+import de.uni_paderborn.uppaal.expressions.PlusExpression;
+import de.uni_paderborn.uppaal.expressions.QuantificationExpression;
+import de.uni_paderborn.uppaal.expressions.ScopedIdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.util.ExpressionsSwitch;
+
+/**
+ * Interns expressions: structurally equal expressions are mapped to a single canonical instance.
+ * <p>
+ * Two expressions are structurally equal if they have the same classes, attributes and contents,
+ * and refer to the same variables, functions and types. References to objects contained in the expressions themselves,
+ * such as the variables of quantifications, are compared by their position, so <code>forall (i : id_t) a[i]</code>
+ * on one edge equals the same quantification on another edge.
+ * </p>
+ * <p>
+ * Canonical instances are copies that are not contained in the model, so analyses can use them as keys and share their results.
+ * They must not be modified or added to a model. {@link #copy(Expression)} returns a copy that can be (copy-on-write).
+ * Interning does not remove the interned expressions from the model, it only finds the duplicates:
+ * the interner counts the interned expressions that equal an earlier one, and their nodes, to measure the duplication in a model.
+ * </p>
+ * <p>
+ * The methods of an interner are synchronized, so it can be shared by several threads.
+ * </p>
+ */
+public class ExpressionInterner {
+	/**
+	 * The canonical instances by their keys.
+	 */
+	private final Map<Key, Expression> canonicals = new HashMap<Key, Expression>();
+
+	/**
+	 * The canonical instances, to recognize them.
+	 */
+	private final Map<Expression, Expression> canonicalSet = new IdentityHashMap<Expression, Expression>();
+
+	private long internedCount;
+
+	private long duplicateCount;
+
+	private long nodeCount;
+
+	private long canonicalNodeCount;
+
+	/**
+	 * Returns the canonical instance of an expression, creating it if the expression is the first of its kind.
+	 * @param expression the expression, may be <code>null</code>.
+	 * @return the canonical instance, <code>null</code> if the expression is <code>null</code>.
+	 */
+	public synchronized Expression intern(Expression expression) {
+		if (expression == null || canonicalSet.containsKey(expression)) {
+			return expression;
+		}
+		internedCount++;
+		nodeCount += countNodes(expression);
+		Key key = new Key(expression);
+		Expression canonical = canonicals.get(key);
+		if (canonical == null) {
+			canonical = EcoreUtil.copy(expression);
+			canonicals.put(new Key(canonical, key.hash), canonical);
+			canonicalSet.put(canonical, canonical);
+			canonicalNodeCount += countNodes(canonical);
+		}
+		else {
+			duplicateCount++;
+		}
+		return canonical;
+	}
+
+	/**
+	 * Interns all expressions contained in an object, e.g. to measure the duplication in a model.
+	 * Only the outermost expressions are interned, not their subexpressions.
+	 * @param root the object containing the expressions.
+	 * @return the canonical instances, in the order of the expressions in the object.
+	 */
+	public List<Expression> internAll(EObject root) {
+		List<Expression> result = new ArrayList<Expression>();
+		for (TreeIterator<EObject> iterator = root.eAllContents(); iterator.hasNext();) {
+			EObject object = iterator.next();
+			if (object instanceof Expression) {
+				result.add(intern((Expression)object));
+				iterator.prune();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns whether an expression is a canonical instance of this interner.
+	 * @param expression the expression.
+	 * @return whether the expression is canonical.
+	 */
+	public synchronized boolean isCanonical(Expression expression) {
+		return canonicalSet.containsKey(expression);
+	}
+
+	/**
+	 * Returns a copy of an expression that can be modified and added to a model.
+	 * @param expression the expression, usually a canonical instance.
+	 * @return the copy.
+	 */
+	public Expression copy(Expression expression) {
+		return EcoreUtil.copy(expression);
+	}
+
+	/**
+	 * Removes all canonical instances and resets the counters.
+	 */
+	public synchronized void clear() {
+		canonicals.clear();
+		canonicalSet.clear();
+		internedCount = 0;
+		duplicateCount = 0;
+		nodeCount = 0;
+		canonicalNodeCount = 0;
+	}
+
+	/**
+	 * Returns the number of canonical instances.
+	 * @return the number of distinct expressions interned.
+	 */
+	public synchronized int getCanonicalCount() {
+		return canonicals.size();
+	}
+
+	/**
+	 * Returns the number of expressions interned, without counting canonical instances passed to {@link #intern(Expression)}.
+	 * @return the number of interned expressions.
+	 */
+	public synchronized long getInternedCount() {
+		return internedCount;
+	}
+
+	/**
+	 * Returns the number of interned expressions that are structurally equal to an expression interned before.
+	 * @return the number of duplicates.
+	 */
+	public synchronized long getDuplicateCount() {
+		return duplicateCount;
+	}
+
+	/**
+	 * Returns the number of objects of the interned expressions, including their subexpressions.
+	 * @return the number of interned objects.
+	 */
+	public synchronized long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Returns the number of objects of the canonical instances.
+	 * @return the number of canonical objects.
+	 */
+	public synchronized long getCanonicalNodeCount() {
+		return canonicalNodeCount;
+	}
+
+	/**
+	 * Returns the number of objects of the duplicates, i.e. of the interned expressions minus those of the canonical instances.
+	 * @return the number of duplicate objects.
+	 */
+	public synchronized long getDuplicateNodeCount() {
+		return nodeCount - canonicalNodeCount;
+	}
+
+	/**
+	 * Computes the structural hash code of an expression, which is the same for structurally equal expressions.
+	 * @param expression the expression.
+	 * @return the hash code.
+	 */
+	public static int hashCode(Expression expression) {
+		return new Hasher(expression).doSwitch(expression);
+	}
+
+	/**
+	 * Returns whether two expressions are structurally equal.
+	 * @param first the first expression, may be <code>null</code>.
+	 * @param second the second expression, may be <code>null</code>.
+	 * @return whether the expressions are equal.
+	 */
+	public static boolean equals(Expression first, Expression second) {
+		Map<EObject, EObject> matches = new IdentityHashMap<EObject, EObject>();
+		List<EObject[]> references = new ArrayList<EObject[]>();
+		if (!equalContents(first, second, matches, references)) {
+			return false;
+		}
+		for (EObject[] reference : references) {
+			EObject match = matches.get(reference[0]);
+			if (match == null ? reference[0] != reference[1] : match != reference[1]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compares the classes, attributes and contents of two objects, matching the contents,
+	 * and collects the pairs of referenced objects to be compared once all contents are matched.
+	 */
+	private static boolean equalContents(EObject first, EObject second, Map<EObject, EObject> matches, List<EObject[]> references) {
+		if (first == null || second == null) {
+			return first == second;
+		}
+		if (first.eClass() != second.eClass()) {
+			return false;
+		}
+		matches.put(first, second);
+		for (EStructuralFeature feature : first.eClass().getEAllStructuralFeatures()) {
+			if (feature.isDerived() || feature.isTransient()) {
+				continue;
+			}
+			Object firstValue = first.eGet(feature);
+			Object secondValue = second.eGet(feature);
+			if (feature instanceof EAttribute) {
+				if (firstValue == null ? secondValue != null : !firstValue.equals(secondValue)) {
+					return false;
+				}
+				continue;
+			}
+			boolean containment = ((EReference)feature).isContainment();
+			if (feature.isMany()) {
+				List<?> firstList = (List<?>)firstValue;
+				List<?> secondList = (List<?>)secondValue;
+				if (firstList.size() != secondList.size()) {
+					return false;
+				}
+				for (int i = 0; i < firstList.size(); i++) {
+					if (!equalReference((EObject)firstList.get(i), (EObject)secondList.get(i), containment, matches, references)) {
+						return false;
+					}
+				}
+			}
+			else if (!equalReference((EObject)firstValue, (EObject)secondValue, containment, matches, references)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean equalReference(EObject first, EObject second, boolean containment, Map<EObject, EObject> matches, List<EObject[]> references) {
+		if (containment) {
+			return equalContents(first, second, matches, references);
+		}
+		if (first == null || second == null) {
+			return first == second;
+		}
+		references.add(new EObject[] { first, second });
+		return true;
+	}
+
+	/**
+	 * Counts an object and its contents.
+	 */
+	private static int countNodes(EObject object) {
+		int count = 1;
+		for (TreeIterator<EObject> iterator = object.eAllContents(); iterator.hasNext(); iterator.next()) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Identifies an expression by its structure.
+	 */
+	private static final class Key {
+		final Expression expression;
+
+		final int hash;
+
+		Key(Expression expression) {
+			this(expression, ExpressionInterner.hashCode(expression));
+		}
+
+		Key(Expression expression, int hash) {
+			this.expression = expression;
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			return object instanceof Key && ((Key)object).hash == hash && ExpressionInterner.equals(expression, ((Key)object).expression);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/**
+	 * Computes structural hash codes.
+	 * References to objects outside of the hashed expression contribute their identity,
+	 * references to objects inside contribute their position in the expression.
+	 */
+	private static final class Hasher extends ExpressionsSwitch<Integer> {
+		private final Map<EObject, Integer> positions = new IdentityHashMap<EObject, Integer>();
+
+		Hasher(Expression root) {
+			int position = 0;
+			positions.put(root, position++);
+			for (TreeIterator<EObject> iterator = root.eAllContents(); iterator.hasNext();) {
+				positions.put(iterator.next(), position++);
+			}
+		}
+
+		private int hash(EObject object) {
+			return object == null ? 0 : doSwitch(object);
+		}
+
+		private int hash(List<? extends EObject> objects) {
+			int hash = 1;
+			for (EObject object : objects) {
+				hash = 31 * hash + hash(object);
+			}
+			return hash;
+		}
+
+		private int reference(EObject object) {
+			if (object == null) {
+				return 0;
+			}
+			Integer position = positions.get(object);
+			return position != null ? 0x9E3779B9 * (position + 1) : System.identityHashCode(object);
+		}
+
+		private int binary(BinaryExpression object, int operator) {
+			return ((object.eClass().getClassifierID() * 31 + operator) * 31 + hash(object.getFirstExpr())) * 31 + hash(object.getSecondExpr());
+		}
+
+		@Override
+		public Integer caseLiteralExpression(LiteralExpression object) {
+			return object.eClass().getClassifierID() * 31 + (object.getText() == null ? 0 : object.getText().hashCode());
+		}
+
+		@Override
+		public Integer caseIdentifierExpression(IdentifierExpression object) {
+			return (object.eClass().getClassifierID() * 31 + reference(object.getIdentifier())) * 31 + hash(object.getIndex());
+		}
+
+		@Override
+		public Integer caseScopedIdentifierExpression(ScopedIdentifierExpression object) {
+			return (object.eClass().getClassifierID() * 31 + hash(object.getScope())) * 31 + hash(object.getIdentifier());
+		}
+
+		@Override
+		public Integer caseNegationExpression(NegationExpression object) {
+			return object.eClass().getClassifierID() * 31 + hash(object.getNegatedExpression());
+		}
+
+		@Override
+		public Integer casePlusExpression(PlusExpression object) {
+			return object.eClass().getClassifierID() * 31 + hash(object.getConfirmedExpression());
+		}
+
+		@Override
+		public Integer caseMinusExpression(MinusExpression object) {
+			return object.eClass().getClassifierID() * 31 + hash(object.getInvertedExpression());
+		}
+
+		@Override
+		public Integer caseArithmeticExpression(ArithmeticExpression object) {
+			return binary(object, object.getOperator().getValue());
+		}
+
+		@Override
+		public Integer caseLogicalExpression(LogicalExpression object) {
+			return binary(object, object.getOperator().getValue());
+		}
+
+		@Override
+		public Integer caseCompareExpression(CompareExpression object) {
+			return binary(object, object.getOperator().getValue());
+		}
+
+		@Override
+		public Integer caseBitShiftExpression(BitShiftExpression object) {
+			return binary(object, object.getOperator().getValue());
+		}
+
+		@Override
+		public Integer caseBitwiseExpression(BitwiseExpression object) {
+			return binary(object, object.getOperator().getValue());
+		}
+
+		@Override
+		public Integer caseMinMaxExpression(MinMaxExpression object) {
+			return binary(object, object.getOperator().getValue());
+		}
+
+		@Override
+		public Integer caseAssignmentExpression(AssignmentExpression object) {
+			return binary(object, object.getOperator().getValue());
+		}
+
+		@Override
+		public Integer caseConditionExpression(ConditionExpression object) {
+			return ((object.eClass().getClassifierID() * 31 + hash(object.getIfExpression())) * 31
+					+ hash(object.getThenExpression())) * 31 + hash(object.getElseExpression());
+		}
+
+		@Override
+		public Integer caseFunctionCallExpression(FunctionCallExpression object) {
+			return (object.eClass().getClassifierID() * 31 + reference(object.getFunction())) * 31 + hash(object.getArgument());
+		}
+
+		@Override
+		public Integer caseIncrementDecrementExpression(IncrementDecrementExpression object) {
+			return ((object.eClass().getClassifierID() * 31 + object.getOperator().getValue()) * 31
+					+ object.getPosition().getValue()) * 31 + hash(object.getExpression());
+		}
+
+		@Override
+		public Integer caseQuantificationExpression(QuantificationExpression object) {
+			return (((object.eClass().getClassifierID() * 31 + object.getQuantifier().getValue()) * 31
+					+ defaultCase(object.getTypeDefinition())) * 31 + hash(object.getVariable())) * 31 + hash(object.getExpression());
+		}
+
+		/**
+		 * Hashes other objects, such as the types and variables of quantifications, by their features.
+		 */
+		@Override
+		public Integer defaultCase(EObject object) {
+			if (object == null) {
+				return 0;
+			}
+			int hash = object.eClass().hashCode();
+			for (EStructuralFeature feature : object.eClass().getEAllStructuralFeatures()) {
+				if (feature.isDerived() || feature.isTransient()) {
+					continue;
+				}
+				Object value = object.eGet(feature);
+				if (feature instanceof EAttribute) {
+					hash = 31 * hash + (value == null ? 0 : value.hashCode());
+				}
+				else if (((EReference)feature).isContainment()) {
+					hash = 31 * hash + (feature.isMany() ? hash(castList(value)) : hash((EObject)value));
+				}
+				else if (feature.isMany()) {
+					for (EObject referenced : castList(value)) {
+						hash = 31 * hash + reference(referenced);
+					}
+				}
+				else {
+					hash = 31 * hash + reference((EObject)value);
+				}
+			}
+			return hash;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static List<EObject> castList(Object value) {
+			return (List<EObject>)value;
+		}
+	}
+
+}
@@ -0,0 +1,698 @@
+/**
+ */
+package de.uni_paderborn.uppaal.evaluation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import de.uni_paderborn.uppaal.declarations.CallType;
+import de.uni_paderborn.uppaal.declarations.DataVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.DataVariablePrefix;
+import de.uni_paderborn.uppaal.declarations.ExpressionInitializer;
+import de.uni_paderborn.uppaal.declarations.Function;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.expressions.ArithmeticExpression;
+import de.uni_paderborn.uppaal.expressions.AssignmentExpression;
+import de.uni_paderborn.uppaal.expressions.BinaryExpression;
+import de.uni_paderborn.uppaal.expressions.BitShiftExpression;
+import de.uni_paderborn.uppaal.expressions.BitShiftOperator;
+import de.uni_paderborn.uppaal.expressions.BitwiseExpression;
+import de.uni_paderborn.uppaal.expressions.CompareExpression;
+import de.uni_paderborn.uppaal.expressions.ConditionExpression;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.expressions.ExpressionsFactory;
+import de.uni_paderborn.uppaal.expressions.ExpressionsPackage;
+import de.uni_paderborn.uppaal.expressions.FunctionCallExpression;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.IncrementDecrementExpression;
+import de.uni_paderborn.uppaal.expressions.LiteralExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalExpression;
+import de.uni_paderborn.uppaal.expressions.MinMaxExpression;
+import de.uni_paderborn.uppaal.expressions.MinMaxOperator;
+import de.uni_paderborn.uppaal.expressions.MinusExpression;
+import de.uni_paderborn.uppaal.expressions.NegationExpression;
+import de.uni_paderborn.uppaal.expressions.PlusExpression;
+import de.uni_paderborn.uppaal.expressions.QuantificationExpression;
+import de.uni_paderborn.uppaal.expressions.ScopedIdentifierExpression;
+import de.uni_paderborn.uppaal.statements.StatementsPackage;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.Location;
+import de.uni_paderborn.uppaal.templates.TemplatesPackage;
+
+/**
+ * Simplifies the expressions of a model in place.
+ * <p>
+ * Operations on constant operands are folded into literals, with the semantics of the {@link ExpressionEvaluator}.
+ * Conditional expressions with a constant condition are replaced by the selected branch,
+ * and logical operations with a constant operand are shortened where this does not drop side effects or run-time errors.
+ * Constants declared with the <code>const</code> prefix and a constant initializer are replaced by their values,
+ * except for arguments of parameters passed by reference.
+ * Constants must be declared before they are used, so the expressions are simplified in the order of the model.
+ * </p>
+ * <p>
+ * Guards and invariants that are constantly true are removed,
+ * as well as updates without effect, such as <code>x = x</code>, <code>x += 0</code> or expressions without assignments.
+ * </p>
+ */
+public class ExpressionSimplifier {
+	/**
+	 * The factory creating the literals.
+	 */
+	protected final ExpressionsFactory factory = ExpressionsFactory.eINSTANCE;
+
+	/**
+	 * The literals of the constants found so far.
+	 */
+	private final Map<Variable, String> constants = new HashMap<Variable, String>();
+
+	private int foldedCount;
+
+	private int removedGuardCount;
+
+	private int removedInvariantCount;
+
+	private int removedUpdateCount;
+
+	/**
+	 * Simplifies all expressions contained in an object, usually an NTA,
+	 * and removes the trivial guards, invariants and updates of its edges and locations.
+	 * @param root the object.
+	 */
+	public void simplify(EObject root) {
+		List<Expression> expressions = new ArrayList<Expression>();
+		List<Edge> edges = new ArrayList<Edge>();
+		List<Location> locations = new ArrayList<Location>();
+		for (TreeIterator<EObject> iterator = root.eAllContents(); iterator.hasNext();) {
+			EObject object = iterator.next();
+			if (object instanceof Expression) {
+				if (!(object.eContainer() instanceof Expression)) {
+					expressions.add((Expression)object);
+				}
+			}
+			else if (object instanceof Edge) {
+				edges.add((Edge)object);
+			}
+			else if (object instanceof Location) {
+				locations.add((Location)object);
+			}
+		}
+		for (Expression expression : expressions) {
+			Expression simplified = simplify(expression, isCondition(expression));
+			addConstant(simplified);
+		}
+		for (Edge edge : edges) {
+			if (isTrue(edge.getGuard())) {
+				edge.setGuard(null);
+				removedGuardCount++;
+			}
+			EList<Expression> updates = edge.getUpdate();
+			for (int i = updates.size() - 1; i >= 0; i--) {
+				if (isNoOperation(updates.get(i))) {
+					updates.remove(i);
+					removedUpdateCount++;
+				}
+			}
+		}
+		for (Location location : locations) {
+			if (isTrue(location.getInvariant())) {
+				location.setInvariant(null);
+				removedInvariantCount++;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of expressions replaced by a simpler one.
+	 * @return the number of foldings.
+	 */
+	public int getFoldedCount() {
+		return foldedCount;
+	}
+
+	/**
+	 * Returns the number of guards removed because they are constantly true.
+	 * @return the number of removed guards.
+	 */
+	public int getRemovedGuardCount() {
+		return removedGuardCount;
+	}
+
+	/**
+	 * Returns the number of invariants removed because they are constantly true.
+	 * @return the number of removed invariants.
+	 */
+	public int getRemovedInvariantCount() {
+		return removedInvariantCount;
+	}
+
+	/**
+	 * Returns the number of updates removed because they have no effect.
+	 * @return the number of removed updates.
+	 */
+	public int getRemovedUpdateCount() {
+		return removedUpdateCount;
+	}
+
+	/**
+	 * Simplifies an expression and its subexpressions, replacing it in its container.
+	 * @param expression the expression.
+	 * @param condition whether only the truth of the value matters, as for guards and operands of logical operators.
+	 * @return the simplified expression, which may be the given one.
+	 */
+	protected Expression simplify(Expression expression, boolean condition) {
+		switch (expression.eClass().getClassifierID()) {
+		case ExpressionsPackage.IDENTIFIER_EXPRESSION:
+			IdentifierExpression identifier = (IdentifierExpression)expression;
+			simplifyIndices(identifier);
+			String constant = constants.get(identifier.getIdentifier());
+			if (constant != null && identifier.getIndex().isEmpty()) {
+				return replace(expression, createLiteral(constant));
+			}
+			return expression;
+		case ExpressionsPackage.SCOPED_IDENTIFIER_EXPRESSION:
+			simplifyReference(expression);
+			return expression;
+		case ExpressionsPackage.NEGATION_EXPRESSION:
+			Expression negated = simplify(((NegationExpression)expression).getNegatedExpression(), true);
+			Integer negatedValue = getValue(negated);
+			if (negatedValue != null) {
+				return replace(expression, createBoolean(negatedValue == 0));
+			}
+			if (negated instanceof NegationExpression && (condition || isBoolean(((NegationExpression)negated).getNegatedExpression()))) {
+				return replace(expression, ((NegationExpression)negated).getNegatedExpression());
+			}
+			return expression;
+		case ExpressionsPackage.PLUS_EXPRESSION:
+			return replace(expression, simplify(((PlusExpression)expression).getConfirmedExpression(), condition));
+		case ExpressionsPackage.MINUS_EXPRESSION:
+			Expression inverted = simplify(((MinusExpression)expression).getInvertedExpression(), false);
+			Integer invertedValue = getValue(inverted);
+			if (invertedValue != null && !(inverted instanceof LiteralExpression) && invertedValue != Integer.MIN_VALUE) {
+				return replace(expression, createNumber(-invertedValue));
+			}
+			return expression;
+		case ExpressionsPackage.ARITHMETIC_EXPRESSION:
+		case ExpressionsPackage.BIT_SHIFT_EXPRESSION:
+		case ExpressionsPackage.BITWISE_EXPRESSION:
+		case ExpressionsPackage.MIN_MAX_EXPRESSION:
+			return simplifyNumeric((BinaryExpression)expression);
+		case ExpressionsPackage.COMPARE_EXPRESSION:
+			return simplifyCompare((CompareExpression)expression);
+		case ExpressionsPackage.LOGICAL_EXPRESSION:
+			return simplifyLogical((LogicalExpression)expression, condition);
+		case ExpressionsPackage.CONDITION_EXPRESSION:
+			ConditionExpression conditional = (ConditionExpression)expression;
+			Integer ifValue = getValue(simplify(conditional.getIfExpression(), true));
+			Expression thenExpression = simplify(conditional.getThenExpression(), condition);
+			Expression elseExpression = simplify(conditional.getElseExpression(), condition);
+			if (ifValue != null) {
+				return replace(expression, ifValue != 0 ? thenExpression : elseExpression);
+			}
+			return expression;
+		case ExpressionsPackage.ASSIGNMENT_EXPRESSION:
+			AssignmentExpression assignment = (AssignmentExpression)expression;
+			simplifyReference(assignment.getFirstExpr());
+			simplify(assignment.getSecondExpr(), false);
+			return expression;
+		case ExpressionsPackage.INCREMENT_DECREMENT_EXPRESSION:
+			simplifyReference(((IncrementDecrementExpression)expression).getExpression());
+			return expression;
+		case ExpressionsPackage.FUNCTION_CALL_EXPRESSION:
+			FunctionCallExpression call = (FunctionCallExpression)expression;
+			Function function = call.getFunction();
+			EList<Expression> arguments = call.getArgument();
+			for (int i = 0; i < arguments.size(); i++) {
+				if (function != null && i < function.getParameter().size()
+						&& function.getParameter().get(i).getCallType() == CallType.CALL_BY_REFERENCE) {
+					simplifyReference(arguments.get(i));
+				}
+				else {
+					simplify(arguments.get(i), false);
+				}
+			}
+			return expression;
+		case ExpressionsPackage.QUANTIFICATION_EXPRESSION:
+			simplify(((QuantificationExpression)expression).getExpression(), true);
+			return expression;
+		default:
+			return expression;
+		}
+	}
+
+	/**
+	 * Folds arithmetic, bit shift, bitwise and minimum/maximum operations,
+	 * and removes additions of <code>0</code> and multiplications by <code>1</code>.
+	 */
+	private Expression simplifyNumeric(BinaryExpression expression) {
+		Expression first = simplify(expression.getFirstExpr(), false);
+		Expression second = simplify(expression.getSecondExpr(), false);
+		Integer firstValue = getValue(first);
+		Integer secondValue = getValue(second);
+		if (firstValue != null && secondValue != null) {
+			int a = firstValue;
+			int b = secondValue;
+			int value;
+			if (expression instanceof ArithmeticExpression) {
+				switch (((ArithmeticExpression)expression).getOperator()) {
+				case ADD:
+					value = a + b;
+					break;
+				case SUBTRACT:
+					value = a - b;
+					break;
+				case MULTIPLICATE:
+					value = a * b;
+					break;
+				case DIVIDE:
+					if (b == 0) {
+						return expression;
+					}
+					value = a / b;
+					break;
+				default:
+					if (b == 0) {
+						return expression;
+					}
+					value = a % b;
+					break;
+				}
+			}
+			else if (expression instanceof BitShiftExpression) {
+				value = ((BitShiftExpression)expression).getOperator() == BitShiftOperator.LEFT ? a << b : a >> b;
+			}
+			else if (expression instanceof BitwiseExpression) {
+				switch (((BitwiseExpression)expression).getOperator()) {
+				case AND:
+					value = a & b;
+					break;
+				case OR:
+					value = a | b;
+					break;
+				default:
+					value = a ^ b;
+					break;
+				}
+			}
+			else {
+				value = ((MinMaxExpression)expression).getOperator() == MinMaxOperator.MIN ? Math.min(a, b) : Math.max(a, b);
+			}
+			if (value == Integer.MIN_VALUE) {
+				return expression;
+			}
+			return replace(expression, createNumber(value));
+		}
+		if (expression instanceof ArithmeticExpression) {
+			switch (((ArithmeticExpression)expression).getOperator()) {
+			case ADD:
+				if (isValue(firstValue, 0)) {
+					return replace(expression, second);
+				}
+				if (isValue(secondValue, 0)) {
+					return replace(expression, first);
+				}
+				break;
+			case SUBTRACT:
+				if (isValue(secondValue, 0)) {
+					return replace(expression, first);
+				}
+				break;
+			case MULTIPLICATE:
+				if (isValue(firstValue, 1)) {
+					return replace(expression, second);
+				}
+				if (isValue(secondValue, 1)) {
+					return replace(expression, first);
+				}
+				break;
+			case DIVIDE:
+				if (isValue(secondValue, 1)) {
+					return replace(expression, first);
+				}
+				break;
+			default:
+				break;
+			}
+		}
+		return expression;
+	}
+
+	private Expression simplifyCompare(CompareExpression expression) {
+		Integer first = getValue(simplify(expression.getFirstExpr(), false));
+		Integer second = getValue(simplify(expression.getSecondExpr(), false));
+		if (first == null || second == null) {
+			return expression;
+		}
+		int a = first;
+		int b = second;
+		boolean value;
+		switch (expression.getOperator()) {
+		case EQUAL:
+			value = a == b;
+			break;
+		case UNEQUAL:
+			value = a != b;
+			break;
+		case GREATER:
+			value = a > b;
+			break;
+		case GREATER_OR_EQUAL:
+			value = a >= b;
+			break;
+		case LESS:
+			value = a < b;
+			break;
+		default:
+			value = a <= b;
+			break;
+		}
+		return replace(expression, createBoolean(value));
+	}
+
+	/**
+	 * Shortens logical operations with a constant operand.
+	 * An operand replaces the operation only if it is boolean or the operation is used as a condition,
+	 * and the first operand is only dropped if it has no side effects.
+	 */
+	private Expression simplifyLogical(LogicalExpression expression, boolean condition) {
+		Expression first = simplify(expression.getFirstExpr(), true);
+		Expression second = simplify(expression.getSecondExpr(), true);
+		Integer firstValue = getValue(first);
+		Integer secondValue = getValue(second);
+		switch (expression.getOperator()) {
+		case AND:
+			if (firstValue != null) {
+				if (firstValue == 0) {
+					return replace(expression, createBoolean(false));
+				}
+				return replaceByOperand(expression, second, condition);
+			}
+			if (secondValue != null) {
+				if (secondValue != 0) {
+					return replaceByOperand(expression, first, condition);
+				}
+				if (isPure(first)) {
+					return replace(expression, createBoolean(false));
+				}
+			}
+			break;
+		case OR:
+			if (firstValue != null) {
+				if (firstValue != 0) {
+					return replace(expression, createBoolean(true));
+				}
+				return replaceByOperand(expression, second, condition);
+			}
+			if (secondValue != null) {
+				if (secondValue == 0) {
+					return replaceByOperand(expression, first, condition);
+				}
+				if (isPure(first)) {
+					return replace(expression, createBoolean(true));
+				}
+			}
+			break;
+		default:
+			if (firstValue != null) {
+				if (firstValue == 0) {
+					return replace(expression, createBoolean(true));
+				}
+				return replaceByOperand(expression, second, condition);
+			}
+			if (secondValue != null) {
+				if (secondValue != 0) {
+					if (isPure(first)) {
+						return replace(expression, createBoolean(true));
+					}
+				}
+				else {
+					NegationExpression negation = factory.createNegationExpression();
+					replace(expression, negation);
+					negation.setNegatedExpression(first);
+					return negation;
+				}
+			}
+			break;
+		}
+		return expression;
+	}
+
+	private Expression replaceByOperand(Expression expression, Expression operand, boolean condition) {
+		Integer value = getValue(operand);
+		if (value != null) {
+			return replace(expression, createBoolean(value != 0));
+		}
+		if (condition || isBoolean(operand)) {
+			return replace(expression, operand);
+		}
+		return expression;
+	}
+
+	/**
+	 * Simplifies the indices of an expression denoting a variable, without replacing the variable by its value.
+	 */
+	private void simplifyReference(Expression expression) {
+		if (expression instanceof ScopedIdentifierExpression) {
+			simplifyReference(((ScopedIdentifierExpression)expression).getScope());
+			simplifyIndices(((ScopedIdentifierExpression)expression).getIdentifier());
+		}
+		else if (expression instanceof IdentifierExpression) {
+			simplifyIndices((IdentifierExpression)expression);
+		}
+		else if (expression != null) {
+			simplify(expression, false);
+		}
+	}
+
+	private void simplifyIndices(IdentifierExpression identifier) {
+		EList<Expression> indices = identifier.getIndex();
+		for (int i = 0; i < indices.size(); i++) {
+			simplify(indices.get(i), false);
+		}
+	}
+
+	/**
+	 * Replaces an expression in its container.
+	 * @return the replacement.
+	 */
+	private Expression replace(Expression expression, Expression replacement) {
+		if (replacement != expression) {
+			if (expression.eContainer() != null) {
+				EcoreUtil.replace(expression, replacement);
+			}
+			foldedCount++;
+		}
+		return replacement;
+	}
+
+	/**
+	 * Records the value of a constant whose initializer has been simplified to a literal.
+	 */
+	private void addConstant(Expression expression) {
+		if (!(expression.eContainer() instanceof ExpressionInitializer) || getValue(expression) == null) {
+			return;
+		}
+		EObject variable = expression.eContainer().eContainer();
+		if (variable instanceof Variable && ((Variable)variable).getIndex().isEmpty()
+				&& ((Variable)variable).getContainer() instanceof DataVariableDeclaration
+				&& ((DataVariableDeclaration)((Variable)variable).getContainer()).getPrefix() == DataVariablePrefix.CONST) {
+			int value = getValue(expression);
+			constants.put((Variable)variable, expression instanceof LiteralExpression ? ((LiteralExpression)expression).getText() : Integer.toString(value));
+		}
+	}
+
+	/**
+	 * Returns whether only the truth of the value of an expression matters.
+	 */
+	private static boolean isCondition(Expression expression) {
+		EStructuralFeature feature = expression.eContainingFeature();
+		return feature == TemplatesPackage.Literals.EDGE__GUARD
+				|| feature == TemplatesPackage.Literals.LOCATION__INVARIANT
+				|| feature == StatementsPackage.Literals.IF_STATEMENT__IF_EXPRESSION
+				|| feature == StatementsPackage.Literals.WHILE_LOOP__EXPRESSION
+				|| feature == StatementsPackage.Literals.DO_WHILE_LOOP__EXPRESSION
+				|| feature == StatementsPackage.Literals.FOR_LOOP__CONDITION;
+	}
+
+	/**
+	 * Returns whether an update has no effect.
+	 */
+	private static boolean isNoOperation(Expression update) {
+		if (isPure(update)) {
+			return true;
+		}
+		if (!(update instanceof AssignmentExpression)) {
+			return false;
+		}
+		AssignmentExpression assignment = (AssignmentExpression)update;
+		if (!isPure(assignment.getFirstExpr()) || !isPure(assignment.getSecondExpr())) {
+			return false;
+		}
+		Integer value = getValue(assignment.getSecondExpr());
+		switch (assignment.getOperator()) {
+		case EQUAL:
+			return isEqual(assignment.getFirstExpr(), assignment.getSecondExpr());
+		case PLUS_EQUAL:
+		case MINUS_EQUAL:
+		case BIT_OR_EQUAL:
+		case BIT_XOR_EQUAL:
+		case BIT_LEFT_EQUAL:
+		case BIT_RIGHT_EQUAL:
+			return isValue(value, 0);
+		case TIMES_EQUAL:
+		case DIVIDE_EQUAL:
+			return isValue(value, 1);
+		case BIT_AND_EQUAL:
+			return isValue(value, -1);
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Returns whether an expression has no side effects, i.e. contains no assignments, increments or function calls,
+	 * and cannot fail, i.e. contains no array accesses and no divisions by an operand other than a non-zero constant.
+	 * Function calls are assumed to have side effects.
+	 */
+	private static boolean isPure(Expression expression) {
+		if (!isPureNode(expression)) {
+			return false;
+		}
+		for (TreeIterator<EObject> iterator = expression.eAllContents(); iterator.hasNext();) {
+			if (!isPureNode(iterator.next())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isPureNode(EObject object) {
+		if (object instanceof ArithmeticExpression) {
+			switch (((ArithmeticExpression)object).getOperator()) {
+			case DIVIDE:
+			case MODULO:
+				Integer divisor = getValue(((ArithmeticExpression)object).getSecondExpr());
+				return divisor != null && divisor != 0;
+			default:
+				return true;
+			}
+		}
+		if (object instanceof IdentifierExpression) {
+			// indices may be out of range
+			return ((IdentifierExpression)object).getIndex().isEmpty();
+		}
+		return !(object instanceof AssignmentExpression || object instanceof IncrementDecrementExpression || object instanceof FunctionCallExpression);
+	}
+
+	/**
+	 * Returns whether an expression always evaluates to <code>0</code> or <code>1</code>.
+	 */
+	private static boolean isBoolean(Expression expression) {
+		if (expression instanceof LiteralExpression) {
+			String text = ((LiteralExpression)expression).getText();
+			return "true".equals(text) || "false".equals(text);
+		}
+		return expression instanceof CompareExpression || expression instanceof LogicalExpression
+				|| expression instanceof NegationExpression || expression instanceof QuantificationExpression;
+	}
+
+	private static boolean isTrue(Expression expression) {
+		Integer value = expression == null ? null : getValue(expression);
+		return value != null && value != 0;
+	}
+
+	private static boolean isValue(Integer value, int expected) {
+		return value != null && value == expected;
+	}
+
+	/**
+	 * Returns the value of a literal or of a negated number literal.
+	 * @return the value, <code>null</code> if the expression is not constant.
+	 */
+	private static Integer getValue(Expression expression) {
+		try {
+			if (expression instanceof LiteralExpression) {
+				return ExpressionEvaluator.evaluateLiteral((LiteralExpression)expression);
+			}
+			if (expression instanceof MinusExpression && ((MinusExpression)expression).getInvertedExpression() instanceof LiteralExpression) {
+				return -ExpressionEvaluator.evaluateLiteral((LiteralExpression)((MinusExpression)expression).getInvertedExpression());
+			}
+		}
+		catch (EvaluationException e) {
+			// Not a number
+		}
+		return null;
+	}
+
+	/**
+	 * Compares two expressions structurally, with references compared by identity.
+	 */
+	private static boolean isEqual(EObject first, EObject second) {
+		if (first == null || second == null || first.eClass() != second.eClass()) {
+			return first == second;
+		}
+		for (EStructuralFeature feature : first.eClass().getEAllStructuralFeatures()) {
+			Object firstValue = first.eGet(feature);
+			Object secondValue = second.eGet(feature);
+			if (feature instanceof EReference && ((EReference)feature).isContainment()) {
+				if (feature.isMany()) {
+					List<?> firstList = (List<?>)firstValue;
+					List<?> secondList = (List<?>)secondValue;
+					if (firstList.size() != secondList.size()) {
+						return false;
+					}
+					for (int i = 0; i < firstList.size(); i++) {
+						if (!isEqual((EObject)firstList.get(i), (EObject)secondList.get(i))) {
+							return false;
+						}
+					}
+				}
+				else if (!isEqual((EObject)firstValue, (EObject)secondValue)) {
+					return false;
+				}
+			}
+			else if (firstValue == null ? secondValue != null : !firstValue.equals(secondValue)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Expression createLiteral(String text) {
+		if (text.startsWith("-")) {
+			return createNumber(Integer.parseInt(text));
+		}
+		LiteralExpression literal = factory.createLiteralExpression();
+		literal.setText(text);
+		return literal;
+	}
+
+	/**
+	 * Creates a number, negative numbers as the negation of a literal like the parser.
+	 */
+	private Expression createNumber(int value) {
+		LiteralExpression literal = factory.createLiteralExpression();
+		literal.setText(Integer.toString(Math.abs(value)));
+		if (value >= 0) {
+			return literal;
+		}
+		MinusExpression minus = factory.createMinusExpression();
+		minus.setInvertedExpression(literal);
+		return minus;
+	}
+
+	private Expression createBoolean(boolean value) {
+		LiteralExpression literal = factory.createLiteralExpression();
+		literal.setText(value ? "true" : "false");
+		return literal;
+	}
+
+}
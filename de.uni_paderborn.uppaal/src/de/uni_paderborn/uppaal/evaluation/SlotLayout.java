@@ -0,0 +1,659 @@
+/**
+ */
+package de.uni_paderborn.uppaal.evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+
+import de.uni_paderborn.uppaal.declarations.CallType;
+import de.uni_paderborn.uppaal.declarations.ChannelVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.DataVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.Declaration;
+import de.uni_paderborn.uppaal.declarations.Declarations;
+import de.uni_paderborn.uppaal.declarations.Function;
+import de.uni_paderborn.uppaal.declarations.FunctionDeclaration;
+import de.uni_paderborn.uppaal.declarations.Index;
+import de.uni_paderborn.uppaal.declarations.Parameter;
+import de.uni_paderborn.uppaal.declarations.TypeDeclaration;
+import de.uni_paderborn.uppaal.declarations.TypeIndex;
+import de.uni_paderborn.uppaal.declarations.ValueIndex;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.declarations.VariableContainer;
+import de.uni_paderborn.uppaal.declarations.VariableDeclaration;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.QuantificationExpression;
+import de.uni_paderborn.uppaal.expressions.ScopedIdentifierExpression;
+import de.uni_paderborn.uppaal.statements.Iteration;
+import de.uni_paderborn.uppaal.templates.AbstractTemplate;
+import de.uni_paderborn.uppaal.templates.Selection;
+import de.uni_paderborn.uppaal.templates.Template;
+import de.uni_paderborn.uppaal.types.BuiltInType;
+import de.uni_paderborn.uppaal.types.DeclaredType;
+import de.uni_paderborn.uppaal.types.PredefinedType;
+import de.uni_paderborn.uppaal.types.RangeTypeSpecification;
+import de.uni_paderborn.uppaal.types.ScalarTypeSpecification;
+import de.uni_paderborn.uppaal.types.StructTypeSpecification;
+import de.uni_paderborn.uppaal.types.Type;
+import de.uni_paderborn.uppaal.types.TypeDefinition;
+import de.uni_paderborn.uppaal.types.TypeReference;
+import de.uni_paderborn.uppaal.validation.UppaalConstraints;
+
+/**
+ * Assigns the variables of a model to slots of an <code>int[]</code> valuation.
+ * <p>
+ * Variables of declarations are stored in the state, in the order they are added.
+ * Their initial values are computed as they are added, so array sizes and range bounds may refer to constants declared before.
+ * Parameters and local variables of functions are stored in a frame per call.
+ * The variables of selections, quantifications and iterations outside of functions are stored in a frame shared by all top-level evaluations.
+ * </p>
+ * <p>
+ * Template parameters are stored in the state like variables, so a layout describes a single instance of a template,
+ * unless the parameters are bound to arguments by {@link #bindParameters(AbstractTemplate, List)} before.
+ * The instances of a system can be laid out one after another by layouts {@link #SlotLayout(SlotLayout, int, int) extending}
+ * a layout of the global declarations.
+ * Channels take no slots of the state, they are numbered separately.
+ * A layout must not be modified while it is used for evaluations, but can then be shared by several {@link ExpressionEvaluator evaluators}.
+ * </p>
+ */
+public class SlotLayout {
+	/**
+	 * The smallest value of an <code>int</code> without range.
+	 */
+	public static final int INT_MIN = -32768;
+
+	/**
+	 * The largest value of an <code>int</code> without range.
+	 */
+	public static final int INT_MAX = 32767;
+
+	/**
+	 * The slots of the variables and structure fields.
+	 */
+	private final Map<Variable, VariableSlot> slots = new HashMap<Variable, VariableSlot>();
+
+	/**
+	 * The number of slots of the structure types.
+	 */
+	private final Map<StructTypeSpecification, Integer> structSizes = new HashMap<StructTypeSpecification, Integer>();
+
+	/**
+	 * The lower and upper bounds of the slots of the structure types.
+	 */
+	private final Map<StructTypeSpecification, int[][]> structBounds = new HashMap<StructTypeSpecification, int[][]>();
+
+	/**
+	 * The frame sizes of the functions.
+	 */
+	private final Map<Function, Integer> frameSizes = new HashMap<Function, Integer>();
+
+	/**
+	 * The evaluator computing initial values, array sizes and range bounds.
+	 */
+	private final ExpressionEvaluator evaluator = new ExpressionEvaluator(this);
+
+	/**
+	 * The initial values of the state slots, possibly longer than the state.
+	 */
+	private int[] initialState = new int[16];
+
+	/**
+	 * The smallest values of the state slots, as long as the initial values.
+	 */
+	private int[] lowerBounds = new int[16];
+
+	/**
+	 * The largest values of the state slots, as long as the initial values.
+	 */
+	private int[] upperBounds = new int[16];
+
+	/**
+	 * The variables of the state slots, as long as the initial values.
+	 */
+	private Variable[] variables = new Variable[16];
+
+	/**
+	 * The number of state slots.
+	 */
+	private int size;
+
+	/**
+	 * The number of slots of the top-level frame.
+	 */
+	private int frameSize;
+
+	/**
+	 * The number of channels.
+	 */
+	private int channelCount;
+
+	/**
+	 * Creates an empty layout.
+	 */
+	public SlotLayout() {
+		// Variables are added later
+	}
+
+	/**
+	 * Creates a layout containing the variables and functions of another layout, with their initial values,
+	 * and adding further variables and channels after the given slot and channel number.
+	 * @param base the layout whose variables are contained, which must not be modified afterwards.
+	 * @param size the first slot of the added variables, at least the size of the base layout.
+	 * @param channelCount the first number of the added channels, at least the number of channels of the base layout.
+	 */
+	public SlotLayout(SlotLayout base, int size, int channelCount) {
+		if (size < base.size || channelCount < base.channelCount) {
+			throw new IllegalArgumentException("Overlapping layouts");
+		}
+		slots.putAll(base.slots);
+		structSizes.putAll(base.structSizes);
+		structBounds.putAll(base.structBounds);
+		frameSizes.putAll(base.frameSizes);
+		initialState = Arrays.copyOf(base.initialState, Math.max(size, base.initialState.length));
+		lowerBounds = Arrays.copyOf(base.lowerBounds, initialState.length);
+		upperBounds = Arrays.copyOf(base.upperBounds, initialState.length);
+		variables = Arrays.copyOf(base.variables, initialState.length);
+		this.size = size;
+		this.frameSize = base.frameSize;
+		this.channelCount = channelCount;
+	}
+
+	/**
+	 * Returns the number of slots of the state.
+	 * @return the size of the state.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of slots of the frame of top-level evaluations.
+	 * @return the size of the top-level frame.
+	 */
+	public int getFrameSize() {
+		return frameSize;
+	}
+
+	/**
+	 * Returns the number of channels, including the elements of channel arrays.
+	 * @return the number of channels.
+	 */
+	public int getChannelCount() {
+		return channelCount;
+	}
+
+	/**
+	 * Returns the number of slots of the frame of a function call.
+	 * @param function the function.
+	 * @return the size of a frame of the function.
+	 * @throws EvaluationException if the function has not been added.
+	 */
+	public int getFrameSize(Function function) {
+		Integer functionFrameSize = frameSizes.get(function);
+		if (functionFrameSize == null) {
+			throw new EvaluationException("Function '" + function.getName() + "' is not part of the layout", function);
+		}
+		return functionFrameSize;
+	}
+
+	/**
+	 * Returns the slot of a variable.
+	 * @param variable the variable.
+	 * @return the slot, <code>null</code> if the variable has none.
+	 */
+	public VariableSlot getSlot(Variable variable) {
+		return slots.get(variable);
+	}
+
+	/**
+	 * Returns the smallest value of a slot of the state, as given by the type of its variable.
+	 * @param slot the slot, less than the size of the state.
+	 * @return the lower bound.
+	 */
+	public int getLowerBound(int slot) {
+		return lowerBounds[slot];
+	}
+
+	/**
+	 * Returns the largest value of a slot of the state, as given by the type of its variable.
+	 * @param slot the slot, less than the size of the state.
+	 * @return the upper bound.
+	 */
+	public int getUpperBound(int slot) {
+		return upperBounds[slot];
+	}
+
+	/**
+	 * Returns the variable a slot of the state belongs to.
+	 * @param slot the slot, less than the size of the state.
+	 * @return the variable, for the fields of a structure the variable of the structure.
+	 */
+	public Variable getVariable(int slot) {
+		return variables[slot];
+	}
+
+	/**
+	 * Creates a state holding the initial values of the variables.
+	 * @return the new state.
+	 */
+	public int[] createState() {
+		return Arrays.copyOf(initialState, size);
+	}
+
+	/**
+	 * Adds the variables and functions of a template: its parameters, its local declarations,
+	 * and the variables of the selections and quantifications of its locations and edges.
+	 * Parameters that are not bound yet are added like variables.
+	 * @param template the template.
+	 * @throws EvaluationException if a type, array size or initial value cannot be evaluated.
+	 */
+	public void addTemplate(Template template) {
+		for (Parameter parameter : template.getParameter()) {
+			VariableDeclaration declaration = parameter.getVariableDeclaration();
+			if (declaration != null) {
+				for (Variable variable : declaration.getVariable()) {
+					addVariable(variable);
+				}
+			}
+		}
+		if (template.getDeclarations() != null) {
+			addDeclarations(template.getDeclarations());
+		}
+		addLocals(template);
+	}
+
+	/**
+	 * Binds the parameters of a template to arguments, e.g. for an instance of the template in a system.
+	 * Arguments of parameters passed by value are evaluated and become the initial values of the parameters,
+	 * so the arguments may refer to parameters bound before.
+	 * Parameters passed by reference, and channel parameters, refer to the variable, element or channel denoted by their argument.
+	 * @param template the template, which may be a redefined template.
+	 * @param arguments the arguments, one for each variable of the parameters.
+	 * @throws EvaluationException if an argument does not match its parameter or cannot be evaluated.
+	 */
+	public void bindParameters(AbstractTemplate template, List<Expression> arguments) {
+		int argument = 0;
+		for (Parameter parameter : template.getParameter()) {
+			VariableDeclaration declaration = parameter.getVariableDeclaration();
+			if (declaration == null) {
+				continue;
+			}
+			for (Variable variable : declaration.getVariable()) {
+				if (argument >= arguments.size()) {
+					throw new EvaluationException("Missing argument for parameter '" + variable.getName() + "'", template);
+				}
+				bindParameter(variable, parameter.getCallType() == CallType.CALL_BY_REFERENCE, arguments.get(argument++));
+			}
+		}
+		if (argument < arguments.size()) {
+			throw new EvaluationException("Too many arguments for template '" + template.getName() + "'", arguments.get(argument));
+		}
+	}
+
+	/**
+	 * Binds a template parameter to its argument.
+	 */
+	private void bindParameter(Variable variable, boolean reference, Expression argument) {
+		if (slots.containsKey(variable)) {
+			throw new EvaluationException("Parameter '" + variable.getName() + "' is already bound", variable);
+		}
+		if (reference || variable.getContainer() instanceof ChannelVariableDeclaration) {
+			int address = evaluator.locate(argument, initialState, null);
+			VariableSlot.Kind kind = variable.getContainer() instanceof ChannelVariableDeclaration ? VariableSlot.Kind.CHANNEL : VariableSlot.Kind.GLOBAL;
+			VariableSlot target = slots.get(getIdentifier(argument).getIdentifier());
+			VariableSlot slot = createSlot(variable, kind, address);
+			if (target.kind != kind || slot.size != evaluator.getRegionSize()) {
+				throw new EvaluationException("Argument does not match parameter '" + variable.getName() + "'", argument);
+			}
+			slots.put(variable, slot);
+			return;
+		}
+		VariableSlot slot = addVariable(variable);
+		if (slot.size == 1) {
+			initialState[slot.offset] = evaluateConstant(argument, argument);
+		}
+		else {
+			int address = evaluator.locate(argument, initialState, null);
+			if (evaluator.getRegionSize() != slot.size) {
+				throw new EvaluationException("Argument does not match parameter '" + variable.getName() + "'", argument);
+			}
+			System.arraycopy(initialState, address, initialState, slot.offset, slot.size);
+		}
+	}
+
+	/**
+	 * Returns the identifier of a possibly scoped identifier expression.
+	 */
+	private static IdentifierExpression getIdentifier(Expression expression) {
+		while (expression instanceof ScopedIdentifierExpression) {
+			expression = ((ScopedIdentifierExpression)expression).getScope();
+		}
+		if (!(expression instanceof IdentifierExpression)) {
+			throw new EvaluationException("Expression does not denote a variable", expression);
+		}
+		return (IdentifierExpression)expression;
+	}
+
+	/**
+	 * Adds the variables and functions of declarations.
+	 * Clocks are added like integers, channels are numbered and take no slots.
+	 * @param declarations the declarations.
+	 * @throws EvaluationException if a type, array size or initial value cannot be evaluated.
+	 */
+	public void addDeclarations(Declarations declarations) {
+		for (Declaration declaration : declarations.getDeclaration()) {
+			if (declaration instanceof FunctionDeclaration) {
+				if (((FunctionDeclaration)declaration).getFunction() != null) {
+					addFunction(((FunctionDeclaration)declaration).getFunction());
+				}
+			}
+			else if (declaration instanceof VariableDeclaration) {
+				addLocals(declaration);
+				for (Variable variable : ((VariableDeclaration)declaration).getVariable()) {
+					addVariable(variable);
+				}
+			}
+			else if (declaration instanceof TypeDeclaration) {
+				addLocals(declaration);
+			}
+		}
+	}
+
+	/**
+	 * Adds a variable to the state and computes its initial value.
+	 * @param variable the variable.
+	 * @return the slot of the variable.
+	 * @throws EvaluationException if the type, array size or initial value cannot be evaluated.
+	 */
+	public VariableSlot addVariable(Variable variable) {
+		VariableSlot slot = slots.get(variable);
+		if (slot != null) {
+			return slot;
+		}
+		if (variable.getContainer() instanceof ChannelVariableDeclaration) {
+			slot = createSlot(variable, VariableSlot.Kind.CHANNEL, channelCount);
+			slots.put(variable, slot);
+			channelCount += slot.size;
+			return slot;
+		}
+		slot = createSlot(variable, VariableSlot.Kind.GLOBAL, size);
+		slots.put(variable, slot);
+		size += slot.size;
+		if (initialState.length < size) {
+			initialState = Arrays.copyOf(initialState, Math.max(size, 2 * initialState.length));
+			lowerBounds = Arrays.copyOf(lowerBounds, initialState.length);
+			upperBounds = Arrays.copyOf(upperBounds, initialState.length);
+			variables = Arrays.copyOf(variables, initialState.length);
+		}
+		copyBounds(getElementBounds(variable), slot, lowerBounds, upperBounds, slot.offset);
+		Arrays.fill(variables, slot.offset, size, variable);
+		evaluator.initialize(variable, initialState, slot.offset, slot.size);
+		return slot;
+	}
+
+	/**
+	 * Adds a function: its parameters, its local variables and the variables of its iterations and quantifications
+	 * are assigned to slots of its frame.
+	 * @param function the function.
+	 * @throws EvaluationException if a type or array size cannot be evaluated.
+	 */
+	public void addFunction(Function function) {
+		if (frameSizes.containsKey(function)) {
+			return;
+		}
+		int offset = 0;
+		for (Parameter parameter : function.getParameter()) {
+			VariableDeclaration declaration = parameter.getVariableDeclaration();
+			if (declaration == null || declaration instanceof ChannelVariableDeclaration) {
+				continue;
+			}
+			for (Variable variable : declaration.getVariable()) {
+				if (parameter.getCallType() == CallType.CALL_BY_REFERENCE) {
+					slots.put(variable, createSlot(variable, VariableSlot.Kind.REFERENCE, offset));
+					offset++;
+				}
+				else {
+					VariableSlot slot = createSlot(variable, VariableSlot.Kind.LOCAL, offset);
+					slots.put(variable, slot);
+					offset += slot.size;
+				}
+			}
+		}
+		if (function.getBlock() != null) {
+			offset = addFrameVariables(function.getBlock(), offset);
+		}
+		frameSizes.put(function, offset);
+	}
+
+	/**
+	 * Adds the variables of the selections, quantifications and iterations contained in an object, outside of functions,
+	 * to the top-level frame.
+	 * @param object the object.
+	 * @throws EvaluationException if a type or array size cannot be evaluated.
+	 */
+	public void addLocals(EObject object) {
+		if (object instanceof FunctionDeclaration) {
+			return;
+		}
+		if (isFrameContainer(object)) {
+			frameSize = addFrameVariables((VariableContainer)object, frameSize);
+		}
+		for (TreeIterator<EObject> iterator = object.eAllContents(); iterator.hasNext();) {
+			EObject content = iterator.next();
+			if (content instanceof FunctionDeclaration) {
+				iterator.prune();
+			}
+			else if (isFrameContainer(content)) {
+				frameSize = addFrameVariables((VariableContainer)content, frameSize);
+			}
+		}
+	}
+
+	/**
+	 * Adds the local variables contained in a function body to its frame.
+	 * @param object the body of the function.
+	 * @param offset the first free slot of the frame.
+	 * @return the new first free slot.
+	 */
+	private int addFrameVariables(EObject object, int offset) {
+		for (TreeIterator<EObject> iterator = object.eAllContents(); iterator.hasNext();) {
+			EObject content = iterator.next();
+			if (content instanceof StructTypeSpecification) {
+				iterator.prune();
+			}
+			else if (isFrameContainer(content)
+					|| content instanceof DataVariableDeclaration && content.eContainer() instanceof Declarations) {
+				offset = addFrameVariables((VariableContainer)content, offset);
+			}
+		}
+		return offset;
+	}
+
+	private int addFrameVariables(VariableContainer container, int offset) {
+		for (Variable variable : container.getVariable()) {
+			if (!slots.containsKey(variable)) {
+				VariableSlot slot = createSlot(variable, VariableSlot.Kind.LOCAL, offset);
+				slots.put(variable, slot);
+				offset += slot.size;
+			}
+		}
+		return offset;
+	}
+
+	private static boolean isFrameContainer(EObject object) {
+		return object instanceof Selection || object instanceof QuantificationExpression || object instanceof Iteration;
+	}
+
+	/**
+	 * Computes the storage of a variable from its indices and type.
+	 * The indices of the variable come before those of the declared types it refers to.
+	 */
+	private VariableSlot createSlot(Variable variable, VariableSlot.Kind kind, int offset) {
+		List<int[]> ranges = new ArrayList<int[]>();
+		addIndices(variable.getIndex(), ranges);
+		TypeDefinition type = UppaalConstraints.getTypeDefinition(variable);
+		while (type instanceof TypeReference && ((TypeReference)type).getReferredType() instanceof DeclaredType) {
+			DeclaredType declaredType = (DeclaredType)((TypeReference)type).getReferredType();
+			addIndices(declaredType.getIndex(), ranges);
+			TypeDeclaration declaration = declaredType.getTypeDeclaration();
+			type = declaration == null ? null : declaration.getTypeDefinition();
+		}
+		int[] dimensions = new int[ranges.size()];
+		int[] lowerIndices = new int[ranges.size()];
+		for (int i = 0; i < dimensions.length; i++) {
+			lowerIndices[i] = ranges.get(i)[0];
+			dimensions[i] = ranges.get(i)[1];
+		}
+		if (type instanceof StructTypeSpecification) {
+			return new VariableSlot(kind, offset, dimensions, lowerIndices, getStructSize((StructTypeSpecification)type), 0, 0);
+		}
+		if (kind == VariableSlot.Kind.CHANNEL) {
+			return new VariableSlot(kind, offset, dimensions, lowerIndices, 1, 0, 0);
+		}
+		int[] bounds = getBounds(type, variable);
+		int elementSize = type instanceof TypeReference && isChannel(((TypeReference)type).getReferredType()) ? 0 : 1;
+		return new VariableSlot(kind, offset, dimensions, lowerIndices, elementSize, bounds[0], bounds[1]);
+	}
+
+	private static boolean isChannel(Type type) {
+		return type instanceof PredefinedType && ((PredefinedType)type).getType() == BuiltInType.CHAN;
+	}
+
+	/**
+	 * Returns the number of slots of a structure, assigning slots to its fields on the first call.
+	 */
+	private int getStructSize(StructTypeSpecification type) {
+		Integer structSize = structSizes.get(type);
+		if (structSize != null) {
+			return structSize;
+		}
+		int offset = 0;
+		List<VariableSlot> fieldSlots = new ArrayList<VariableSlot>();
+		List<Variable> fields = new ArrayList<Variable>();
+		for (DataVariableDeclaration declaration : type.getDeclaration()) {
+			for (Variable field : declaration.getVariable()) {
+				VariableSlot slot = createSlot(field, VariableSlot.Kind.FIELD, offset);
+				slots.put(field, slot);
+				fieldSlots.add(slot);
+				fields.add(field);
+				offset += slot.size;
+			}
+		}
+		int[][] bounds = new int[2][offset];
+		for (int i = 0; i < fields.size(); i++) {
+			VariableSlot slot = fieldSlots.get(i);
+			copyBounds(getElementBounds(fields.get(i)), slot, bounds[0], bounds[1], slot.offset);
+		}
+		structSizes.put(type, offset);
+		structBounds.put(type, bounds);
+		return offset;
+	}
+
+	/**
+	 * Returns the lower and upper bounds of the slots of an element of a variable whose slot has been created.
+	 */
+	private int[][] getElementBounds(Variable variable) {
+		TypeDefinition type = UppaalConstraints.getTypeDefinition(variable);
+		while (type instanceof TypeReference && ((TypeReference)type).getReferredType() instanceof DeclaredType) {
+			TypeDeclaration declaration = ((DeclaredType)((TypeReference)type).getReferredType()).getTypeDeclaration();
+			type = declaration == null ? null : declaration.getTypeDefinition();
+		}
+		if (type instanceof StructTypeSpecification) {
+			return structBounds.get(type);
+		}
+		int[] bounds = getBounds(type, variable);
+		return new int[][] { { bounds[0] }, { bounds[1] } };
+	}
+
+	/**
+	 * Copies the bounds of an element to each element of a slot.
+	 */
+	private static void copyBounds(int[][] elementBounds, VariableSlot slot, int[] lower, int[] upper, int offset) {
+		if (slot.elementSize == 0) {
+			return;
+		}
+		for (int element = 0; element < slot.size; element += slot.elementSize) {
+			System.arraycopy(elementBounds[0], 0, lower, offset + element, slot.elementSize);
+			System.arraycopy(elementBounds[1], 0, upper, offset + element, slot.elementSize);
+		}
+	}
+
+	/**
+	 * Adds the first index and the number of elements of each index to a list.
+	 */
+	private void addIndices(EList<Index> indices, List<int[]> ranges) {
+		for (Index index : indices) {
+			if (index instanceof ValueIndex) {
+				int count = evaluateConstant(((ValueIndex)index).getSizeExpression(), index);
+				if (count < 0) {
+					throw new EvaluationException("Negative array size " + count, index);
+				}
+				ranges.add(new int[] { 0, count });
+			}
+			else if (index instanceof TypeIndex) {
+				int[] bounds = getBounds(resolve(((TypeIndex)index).getTypeDefinition()), index);
+				ranges.add(new int[] { bounds[0], bounds[1] - bounds[0] + 1 });
+			}
+			else {
+				throw new EvaluationException("Unsupported array index", index);
+			}
+		}
+	}
+
+	/**
+	 * Returns the smallest and largest value of a type without indices.
+	 */
+	private int[] getBounds(TypeDefinition type, EObject owner) {
+		if (type instanceof RangeTypeSpecification && ((RangeTypeSpecification)type).getBounds() != null) {
+			RangeTypeSpecification range = (RangeTypeSpecification)type;
+			return new int[] { evaluateConstant(range.getBounds().getLowerBound(), owner), evaluateConstant(range.getBounds().getUpperBound(), owner) };
+		}
+		if (type instanceof ScalarTypeSpecification) {
+			return new int[] { 0, evaluateConstant(((ScalarTypeSpecification)type).getSizeExpression(), owner) - 1 };
+		}
+		if (type instanceof TypeReference && ((TypeReference)type).getReferredType() instanceof PredefinedType) {
+			switch (((PredefinedType)((TypeReference)type).getReferredType()).getType()) {
+			case INT:
+				return new int[] { INT_MIN, INT_MAX };
+			case BOOL:
+				return new int[] { 0, 1 };
+			case CLOCK:
+				return new int[] { 0, Integer.MAX_VALUE };
+			case CHAN:
+				return new int[] { 0, 0 };
+			default:
+				break;
+			}
+		}
+		throw new EvaluationException("Unsupported type", owner);
+	}
+
+	/**
+	 * Follows references to declared types without indices.
+	 */
+	private static TypeDefinition resolve(TypeDefinition type) {
+		while (type instanceof TypeReference && ((TypeReference)type).getReferredType() instanceof DeclaredType) {
+			DeclaredType declaredType = (DeclaredType)((TypeReference)type).getReferredType();
+			if (!declaredType.getIndex().isEmpty() || declaredType.getTypeDeclaration() == null) {
+				return type;
+			}
+			type = declaredType.getTypeDeclaration().getTypeDefinition();
+		}
+		return type;
+	}
+
+	private int evaluateConstant(Expression expression, EObject owner) {
+		if (expression == null) {
+			throw new EvaluationException("Missing expression", owner);
+		}
+		return evaluator.evaluate(expression, initialState);
+	}
+
+}
@@ -0,0 +1,166 @@
+/**
+ */
+package de.uni_paderborn.uppaal.evaluation;
+
+/**
+ * The storage of a variable in a valuation: where its slots are and how its array indices map to them.
+ * <p>
+ * A variable occupies <code>size</code> consecutive slots, one per element of each of its dimensions times the size of an element.
+ * Integers, booleans, clocks, ranges and scalars take one slot, a structure takes the slots of its fields.
+ * Booleans are stored as <code>0</code> and <code>1</code>.
+ * </p>
+ * @see SlotLayout
+ */
+public final class VariableSlot {
+	/**
+	 * Where the slots of a variable are stored.
+	 */
+	public enum Kind {
+		/**
+		 * The slots are part of the state, the offset is relative to the start of the state.
+		 */
+		GLOBAL,
+
+		/**
+		 * The slots are part of a frame of the evaluator, the offset is relative to the start of the frame.
+		 * Used for parameters and local variables of functions, and for the variables of selections, quantifications and iterations.
+		 */
+		LOCAL,
+
+		/**
+		 * The variable is a parameter passed by reference.
+		 * Its frame slot at the offset holds the address of the referred slots.
+		 */
+		REFERENCE,
+
+		/**
+		 * The variable is a field of a structure, the offset is relative to the start of the structure.
+		 */
+		FIELD,
+
+		/**
+		 * The variable is a channel. It takes no slots of the state, the offset and the elements number the channels of the layout.
+		 */
+		CHANNEL
+	}
+
+	final Kind kind;
+
+	final int offset;
+
+	final int[] dimensions;
+
+	final int[] lowerIndices;
+
+	final int[] strides;
+
+	final int elementSize;
+
+	final int size;
+
+	final int lowerBound;
+
+	final int upperBound;
+
+	/**
+	 * Creates a slot.
+	 * @param kind where the slots are stored.
+	 * @param offset the offset of the first slot.
+	 * @param dimensions the number of elements of each dimension.
+	 * @param lowerIndices the first index of each dimension.
+	 * @param elementSize the number of slots of an element.
+	 * @param lowerBound the smallest value of an element, if it takes one slot.
+	 * @param upperBound the largest value of an element, if it takes one slot.
+	 */
+	VariableSlot(Kind kind, int offset, int[] dimensions, int[] lowerIndices, int elementSize, int lowerBound, int upperBound) {
+		this.kind = kind;
+		this.offset = offset;
+		this.dimensions = dimensions;
+		this.lowerIndices = lowerIndices;
+		this.elementSize = elementSize;
+		this.lowerBound = lowerBound;
+		this.upperBound = upperBound;
+		this.strides = new int[dimensions.length];
+		int stride = elementSize;
+		for (int i = dimensions.length - 1; i >= 0; i--) {
+			strides[i] = stride;
+			stride *= dimensions[i];
+		}
+		this.size = stride;
+	}
+
+	/**
+	 * Returns where the slots are stored.
+	 * @return the kind of the slot.
+	 */
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Returns the offset of the first slot, relative to the storage given by the kind.
+	 * @return the offset.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Returns the number of array dimensions.
+	 * @return the number of dimensions, <code>0</code> for a variable that is not an array.
+	 */
+	public int getDimensionCount() {
+		return dimensions.length;
+	}
+
+	/**
+	 * Returns the number of elements of a dimension.
+	 * @param dimension the dimension, starting at 0.
+	 * @return the number of elements.
+	 */
+	public int getDimension(int dimension) {
+		return dimensions[dimension];
+	}
+
+	/**
+	 * Returns the first index of a dimension, which is the lower bound of the range type of a typed index and 0 otherwise.
+	 * @param dimension the dimension, starting at 0.
+	 * @return the first index.
+	 */
+	public int getLowerIndex(int dimension) {
+		return lowerIndices[dimension];
+	}
+
+	/**
+	 * Returns the number of slots of an element.
+	 * @return the size of an element.
+	 */
+	public int getElementSize() {
+		return elementSize;
+	}
+
+	/**
+	 * Returns the number of slots of the variable.
+	 * @return the size of the variable.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the smallest value of an element, as given by its type.
+	 * @return the lower bound.
+	 */
+	public int getLowerBound() {
+		return lowerBound;
+	}
+
+	/**
+	 * Returns the largest value of an element, as given by its type.
+	 * @return the upper bound.
+	 */
+	public int getUpperBound() {
+		return upperBound;
+	}
+
+}
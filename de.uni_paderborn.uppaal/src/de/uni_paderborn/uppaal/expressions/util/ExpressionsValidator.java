@@ -7,11 +7,16 @@ import java.util.Map;
 import org.eclipse.emf.common.util.Diagnostic;
 import org.eclipse.emf.common.util.DiagnosticChain;
 import org.eclipse.emf.common.util.ResourceLocator;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.ecore.util.EObjectValidator;
 
 import de.uni_paderborn.uppaal.declarations.util.DeclarationsValidator;
 import de.uni_paderborn.uppaal.expressions.*;
+import de.uni_paderborn.uppaal.validation.OCLQueryCache;
+import de.uni_paderborn.uppaal.validation.UppaalConstraints;
+import de.uni_paderborn.uppaal.validation.ValidationMode;
 
 /**
  * <!-- begin-user-doc -->
@@ -279,11 +284,16 @@ public class ExpressionsValidator extends EObjectValidator {
 	/**
 	 * Validates the NumberOfArgumentsMatchesDeclaration constraint of '<em>Function Call Expression</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkFunctionCallExpression_NumberOfArgumentsMatchesDeclaration} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateFunctionCallExpression_NumberOfArgumentsMatchesDeclaration(FunctionCallExpression functionCallExpression, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkFunctionCallExpression_NumberOfArgumentsMatchesDeclaration(functionCallExpression), functionCallExpression, "NumberOfArgumentsMatchesDeclaration", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(ExpressionsPackage.Literals.FUNCTION_CALL_EXPRESSION,
 				 functionCallExpression,
@@ -295,6 +305,10 @@ public class ExpressionsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkFunctionCallExpression_NumberOfArgumentsMatchesDeclaration(functionCallExpression), functionCallExpression, "NumberOfArgumentsMatchesDeclaration", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -356,11 +370,16 @@ public class ExpressionsValidator extends EObjectValidator {
 	/**
 	 * Validates the SingleVariable constraint of '<em>Quantification Expression</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkQuantificationExpression_SingleVariable} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateQuantificationExpression_SingleVariable(QuantificationExpression quantificationExpression, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkQuantificationExpression_SingleVariable(quantificationExpression), quantificationExpression, "SingleVariable", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(ExpressionsPackage.Literals.QUANTIFICATION_EXPRESSION,
 				 quantificationExpression,
@@ -372,6 +391,10 @@ public class ExpressionsValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkQuantificationExpression_SingleVariable(quantificationExpression), quantificationExpression, "SingleVariable", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -500,6 +523,19 @@ public class ExpressionsValidator extends EObjectValidator {
 		return true;
 	}
 
+	/**
+	 * Evaluates a constraint.
+	 * <!-- begin-user-doc -->
+	 * OCL constraints are evaluated by the shared {@link OCLQueryCache}, see {@link OCLQueryCache#validate}.
+	 * <!-- end-user-doc -->
+	 * @generated NOT
+	 */
+	@Override
+	public boolean validate(EClass eClass, EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context, String validationDelegate, String constraint, String expression, int severity, String source, int code) {
+		return OCLQueryCache.OCL_DELEGATE_URI.equals(validationDelegate) ? OCLQueryCache.validate(eClass, eObject, diagnostics, context, constraint, expression, severity, source, code)
+				: super.validate(eClass, eObject, diagnostics, context, validationDelegate, constraint, expression, severity, source, code);
+	}
+
 	/**
 	 * Returns the resource locator that will be used to fetch messages for this validator's diagnostics.
 	 * <!-- begin-user-doc -->
@@ -0,0 +1,466 @@
+/**
+ */
+package de.uni_paderborn.uppaal.scoping;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.core.NamedElement;
+import de.uni_paderborn.uppaal.declarations.DataVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.Declaration;
+import de.uni_paderborn.uppaal.declarations.Declarations;
+import de.uni_paderborn.uppaal.declarations.Function;
+import de.uni_paderborn.uppaal.declarations.FunctionDeclaration;
+import de.uni_paderborn.uppaal.declarations.Parameter;
+import de.uni_paderborn.uppaal.declarations.SystemDeclarations;
+import de.uni_paderborn.uppaal.declarations.TypeDeclaration;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.declarations.VariableContainer;
+import de.uni_paderborn.uppaal.declarations.VariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.system.TemplateDeclaration;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.QuantificationExpression;
+import de.uni_paderborn.uppaal.expressions.ScopedIdentifierExpression;
+import de.uni_paderborn.uppaal.statements.Block;
+import de.uni_paderborn.uppaal.statements.Iteration;
+import de.uni_paderborn.uppaal.templates.AbstractTemplate;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.Location;
+import de.uni_paderborn.uppaal.templates.RedefinedTemplate;
+import de.uni_paderborn.uppaal.templates.Selection;
+import de.uni_paderborn.uppaal.templates.Template;
+import de.uni_paderborn.uppaal.types.DeclaredType;
+import de.uni_paderborn.uppaal.types.StructTypeSpecification;
+import de.uni_paderborn.uppaal.types.TypeDefinition;
+import de.uni_paderborn.uppaal.types.TypeReference;
+import de.uni_paderborn.uppaal.validation.UppaalConstraints;
+
+/**
+ * The names declared in the scopes of an NTA, for resolving names without scanning the declarations.
+ * <p>
+ * Each scope maps the names declared in it to the declared elements.
+ * The scopes follow the rules of Uppaal, as the {@link de.uni_paderborn.uppaal.serialization.UppaalTextParser parser} does:
+ * the global declarations of the NTA enclose the parameters and local declarations of each template;
+ * the system declarations declare the templates and the redefined templates;
+ * functions, blocks, iterations, quantifications and the selections of edges open nested scopes.
+ * Fields of structures and locations of templates are members, accessed through a {@link ScopedIdentifierExpression}.
+ * </p>
+ * <p>
+ * A name is looked up from the innermost scope enclosing an element outwards, with one hash lookup per scope,
+ * so the declaration nearest to the element shadows the others.
+ * The number of scopes enclosing an element is bounded by the nesting of the syntax, not by the size of the NTA.
+ * </p>
+ * <p>
+ * The table is built in one pass when it is {@link #attach(NTA) attached} to an NTA.
+ * It listens to the changes of all contained objects and drops the scopes affected by each change,
+ * which are built again on the next lookup in them.
+ * Lookups in an unchanged NTA only read the table and may run on several threads;
+ * after changes, the NTA must be modified and the first lookups made by the same thread.
+ * </p>
+ */
+public class SymbolTable extends EContentAdapter {
+	/**
+	 * The NTA.
+	 */
+	protected final NTA nta;
+
+	/**
+	 * The declared elements by name, by the object opening the scope.
+	 */
+	protected final Map<EObject, Map<String, NamedElement>> scopes = new HashMap<EObject, Map<String, NamedElement>>();
+
+	/**
+	 * The members by name, by structure or template.
+	 */
+	protected final Map<EObject, Map<String, NamedElement>> members = new HashMap<EObject, Map<String, NamedElement>>();
+
+	/**
+	 * Creates a table; use {@link #attach(NTA)} to create one listening to an NTA.
+	 * @param nta the NTA.
+	 */
+	public SymbolTable(NTA nta) {
+		this.nta = nta;
+	}
+
+	/**
+	 * Creates a table of the scopes of an NTA and attaches it to the NTA.
+	 * @param nta the NTA.
+	 * @return the attached table.
+	 */
+	public static SymbolTable attach(NTA nta) {
+		SymbolTable table = new SymbolTable(nta);
+		table.build();
+		nta.eAdapters().add(table);
+		return table;
+	}
+
+	/**
+	 * Detaches the table from its NTA and drops the scopes.
+	 */
+	public void detach() {
+		nta.eAdapters().remove(this);
+		scopes.clear();
+		members.clear();
+	}
+
+	/**
+	 * Returns the NTA.
+	 * @return the NTA.
+	 */
+	public NTA getNTA() {
+		return nta;
+	}
+
+	/**
+	 * Builds the scopes of all objects of the NTA.
+	 */
+	protected void build() {
+		scopes.clear();
+		members.clear();
+		getScope(nta);
+		for (Iterator<EObject> i = nta.eAllContents(); i.hasNext();) {
+			EObject eObject = i.next();
+			if (isScope(eObject)) {
+				getScope(eObject);
+			}
+			if (hasMembers(eObject)) {
+				getMembers(eObject);
+			}
+		}
+	}
+
+	/**
+	 * Looks up a name in the scopes enclosing an element.
+	 * @param context the element, which may open a scope itself.
+	 * @param name the name.
+	 * @return the declared element with the name in the innermost scope, or <code>null</code>.
+	 */
+	public NamedElement lookup(EObject context, String name) {
+		for (EObject eObject = context; eObject != null; eObject = eObject.eContainer()) {
+			if (isScope(eObject)) {
+				NamedElement element = getScope(eObject).get(name);
+				if (element != null) {
+					return element;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Looks up a member of a structure or a template, following redefined templates to the template they refer to.
+	 * @param owner the structure type specification or the template.
+	 * @param name the name of the member.
+	 * @return the field or location, or <code>null</code>.
+	 */
+	public NamedElement lookupMember(EObject owner, String name) {
+		while (owner instanceof RedefinedTemplate) {
+			owner = ((RedefinedTemplate)owner).getReferredTemplate();
+		}
+		return hasMembers(owner) ? getMembers(owner).get(name) : null;
+	}
+
+	/**
+	 * Resolves the name of the element an identifier refers to in the scopes enclosing the identifier,
+	 * or among the members of the structure or template denoted by the scope of a {@link ScopedIdentifierExpression}.
+	 * The result differs from the referred element if the reference does not follow the rules of Uppaal.
+	 * @param expression the identifier.
+	 * @return the element the name of the referred element resolves to, or <code>null</code>.
+	 */
+	public NamedElement resolve(IdentifierExpression expression) {
+		NamedElement identifier = expression.getIdentifier();
+		if (identifier == null || identifier.getName() == null) {
+			return null;
+		}
+		EObject container = expression.eContainer();
+		if (container instanceof ScopedIdentifierExpression && ((ScopedIdentifierExpression)container).getIdentifier() == expression) {
+			EObject owner = getMemberOwner(((ScopedIdentifierExpression)container).getScope());
+			return owner == null ? null : lookupMember(owner, identifier.getName());
+		}
+		return lookup(expression, identifier.getName());
+	}
+
+	/**
+	 * Resolves the member accessed by a scoped identifier.
+	 * @param expression the scoped identifier.
+	 * @return the field or location, or <code>null</code>.
+	 */
+	public NamedElement resolve(ScopedIdentifierExpression expression) {
+		return expression.getIdentifier() == null ? null : resolve(expression.getIdentifier());
+	}
+
+	/**
+	 * Returns the element of the same name in the scopes enclosing the one declaring an element, which the element shadows.
+	 * @param element the declared element.
+	 * @return the shadowed element, or <code>null</code> if there is none or the element is a member.
+	 */
+	public NamedElement getShadowed(NamedElement element) {
+		EObject owner = getDeclaringScope(element);
+		if (owner == null || element.getName() == null) {
+			return null;
+		}
+		if (owner instanceof SystemDeclarations) {
+			// The system declarations are nested in the global declarations, not contained in their scope
+			return getScope(nta).get(element.getName());
+		}
+		return lookup(owner.eContainer(), element.getName());
+	}
+
+	/**
+	 * Returns the elements declared in a scope.
+	 * @param owner the object opening the scope, e.g. the NTA for the global declarations.
+	 * @return an unmodifiable map of the elements by name, empty if the object does not open a scope.
+	 */
+	public Map<String, NamedElement> getDeclaredElements(EObject owner) {
+		return isScope(owner) ? Collections.unmodifiableMap(getScope(owner)) : Collections.<String, NamedElement>emptyMap();
+	}
+
+	/**
+	 * Returns whether an object opens a scope.
+	 * @param eObject the object.
+	 * @return whether names can be declared in the object.
+	 */
+	protected boolean isScope(EObject eObject) {
+		return eObject instanceof NTA || eObject instanceof SystemDeclarations || eObject instanceof AbstractTemplate
+				|| eObject instanceof Function || eObject instanceof Block || eObject instanceof Iteration
+				|| eObject instanceof QuantificationExpression || eObject instanceof Edge;
+	}
+
+	/**
+	 * Returns whether an object has members.
+	 * @param eObject the object.
+	 * @return whether the object is a structure or a template.
+	 */
+	protected boolean hasMembers(EObject eObject) {
+		return eObject instanceof StructTypeSpecification || eObject instanceof Template;
+	}
+
+	/**
+	 * Returns the scope of an object, building it if it was dropped.
+	 */
+	private Map<String, NamedElement> getScope(EObject owner) {
+		Map<String, NamedElement> scope = scopes.get(owner);
+		if (scope == null) {
+			scope = new HashMap<String, NamedElement>();
+			collect(owner, scope);
+			scopes.put(owner, scope);
+		}
+		return scope;
+	}
+
+	/**
+	 * Returns the members of a structure or a template, collecting them if they were dropped.
+	 */
+	private Map<String, NamedElement> getMembers(EObject owner) {
+		Map<String, NamedElement> scope = members.get(owner);
+		if (scope == null) {
+			scope = new HashMap<String, NamedElement>();
+			if (owner instanceof StructTypeSpecification) {
+				for (DataVariableDeclaration field : ((StructTypeSpecification)owner).getDeclaration()) {
+					declareAll(field.getVariable(), scope);
+				}
+			}
+			else {
+				for (Location location : ((Template)owner).getLocation()) {
+					declare(location, scope);
+				}
+			}
+			members.put(owner, scope);
+		}
+		return scope;
+	}
+
+	/**
+	 * Collects the elements declared in the scope of an object.
+	 * Later declarations of a name replace earlier ones, as in the parser.
+	 */
+	private void collect(EObject owner, Map<String, NamedElement> scope) {
+		if (owner instanceof NTA) {
+			declareAll(((NTA)owner).getGlobalDeclarations(), scope);
+		}
+		else if (owner instanceof SystemDeclarations) {
+			EObject container = owner.eContainer();
+			if (container instanceof NTA) {
+				declareAll(((NTA)container).getTemplate(), scope);
+			}
+			declareAll((Declarations)owner, scope);
+		}
+		else if (owner instanceof AbstractTemplate) {
+			declareParameters(((AbstractTemplate)owner).getParameter(), scope);
+			if (owner instanceof Template) {
+				declareAll(((Template)owner).getDeclarations(), scope);
+			}
+		}
+		else if (owner instanceof Function) {
+			declareParameters(((Function)owner).getParameter(), scope);
+		}
+		else if (owner instanceof Block) {
+			declareAll(((Block)owner).getDeclarations(), scope);
+		}
+		else if (owner instanceof VariableContainer) {
+			// Iterations and quantifications
+			declareAll(((VariableContainer)owner).getVariable(), scope);
+		}
+		else if (owner instanceof Edge) {
+			for (Selection selection : ((Edge)owner).getSelection()) {
+				declareAll(selection.getVariable(), scope);
+			}
+		}
+	}
+
+	private void declareAll(Declarations declarations, Map<String, NamedElement> scope) {
+		if (declarations == null) {
+			return;
+		}
+		for (Declaration declaration : declarations.getDeclaration()) {
+			if (declaration instanceof VariableDeclaration) {
+				declareAll(((VariableDeclaration)declaration).getVariable(), scope);
+			}
+			else if (declaration instanceof FunctionDeclaration) {
+				declare(((FunctionDeclaration)declaration).getFunction(), scope);
+			}
+			else if (declaration instanceof TypeDeclaration) {
+				declareAll(((TypeDeclaration)declaration).getType(), scope);
+			}
+			else if (declaration instanceof TemplateDeclaration) {
+				declare(((TemplateDeclaration)declaration).getDeclaredTemplate(), scope);
+			}
+		}
+	}
+
+	private void declareParameters(List<Parameter> parameters, Map<String, NamedElement> scope) {
+		for (Parameter parameter : parameters) {
+			if (parameter.getVariableDeclaration() != null) {
+				declareAll(parameter.getVariableDeclaration().getVariable(), scope);
+			}
+		}
+	}
+
+	private void declareAll(List<? extends NamedElement> elements, Map<String, NamedElement> scope) {
+		for (NamedElement element : elements) {
+			declare(element, scope);
+		}
+	}
+
+	private void declare(NamedElement element, Map<String, NamedElement> scope) {
+		if (element != null && element.getName() != null) {
+			scope.put(element.getName(), element);
+		}
+	}
+
+	/**
+	 * Returns the structure or template an expression denotes, as the scope of a member access.
+	 */
+	private EObject getMemberOwner(Expression expression) {
+		IdentifierExpression identifier = expression instanceof ScopedIdentifierExpression ? ((ScopedIdentifierExpression)expression).getIdentifier()
+				: expression instanceof IdentifierExpression ? (IdentifierExpression)expression : null;
+		NamedElement element = identifier == null ? null : identifier.getIdentifier();
+		if (element instanceof Variable) {
+			TypeDefinition type = UppaalConstraints.getTypeDefinition((Variable)element);
+			while (type instanceof TypeReference && ((TypeReference)type).getReferredType() instanceof DeclaredType) {
+				TypeDeclaration declaration = ((DeclaredType)((TypeReference)type).getReferredType()).getTypeDeclaration();
+				type = declaration == null ? null : declaration.getTypeDefinition();
+			}
+			return type instanceof StructTypeSpecification ? type : null;
+		}
+		return element instanceof AbstractTemplate ? element : null;
+	}
+
+	/**
+	 * Returns the object opening the scope an element is declared in.
+	 * @return the object, or <code>null</code> for members and elements outside a scope.
+	 */
+	private EObject getDeclaringScope(EObject element) {
+		if (element instanceof Template) {
+			NTA container = (NTA)element.eContainer();
+			return container == null ? null : container.getSystemDeclarations();
+		}
+		if (element instanceof Location) {
+			return null;
+		}
+		for (EObject eObject = element.eContainer(); eObject != null; eObject = eObject.eContainer()) {
+			if (eObject instanceof StructTypeSpecification) {
+				return null;
+			}
+			if (isScope(eObject)) {
+				return eObject;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		super.notifyChanged(notification);
+		int eventType = notification.getEventType();
+		if (notification.isTouch() || eventType == Notification.RESOLVE || eventType == Notification.REMOVING_ADAPTER
+				|| !(notification.getNotifier() instanceof EObject)) {
+			return;
+		}
+		EObject notifier = (EObject)notification.getNotifier();
+		// The scope changed by a list of declarations, parameters or variables, and the one declaring a renamed element
+		invalidate(notifier);
+		if (notifier.eContainer() != null) {
+			invalidate(notifier.eContainer());
+		}
+		if (notification.getFeature() instanceof EReference && ((EReference)notification.getFeature()).isContainment()) {
+			if (eventType == Notification.REMOVE || eventType == Notification.SET || eventType == Notification.UNSET) {
+				forget(notification.getOldValue());
+			}
+			else if (eventType == Notification.REMOVE_MANY && notification.getOldValue() instanceof List<?>) {
+				for (Object oldValue : (List<?>)notification.getOldValue()) {
+					forget(oldValue);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drops the scope and the members enclosing an object.
+	 */
+	private void invalidate(EObject eObject) {
+		boolean scopeFound = false;
+		boolean membersFound = false;
+		for (EObject current = eObject; current != null && !(scopeFound && membersFound); current = current.eContainer()) {
+			if (!scopeFound && isScope(current)) {
+				scopes.remove(current);
+				if (current instanceof NTA) {
+					// Templates are declared in the system declarations
+					scopes.remove(((NTA)current).getSystemDeclarations());
+				}
+				scopeFound = true;
+			}
+			if (!membersFound && hasMembers(current)) {
+				members.remove(current);
+				membersFound = true;
+			}
+		}
+	}
+
+	/**
+	 * Drops the scopes of a removed object and its contents.
+	 */
+	private void forget(Object oldValue) {
+		if (oldValue instanceof EObject) {
+			EObject eObject = (EObject)oldValue;
+			scopes.remove(eObject);
+			members.remove(eObject);
+			for (Iterator<EObject> i = eObject.eAllContents(); i.hasNext();) {
+				EObject content = i.next();
+				scopes.remove(content);
+				members.remove(content);
+			}
+		}
+	}
+
+}
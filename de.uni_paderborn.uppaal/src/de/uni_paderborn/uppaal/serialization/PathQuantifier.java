@@ -0,0 +1,65 @@
+/**
+ */
+package de.uni_paderborn.uppaal.serialization;
+
+/**
+ * The path quantifiers of Uppaal's query language.
+ */
+public enum PathQuantifier {
+	/**
+	 * Some reachable state satisfies the property.
+	 */
+	EXISTS_EVENTUALLY("E<>"),
+
+	/**
+	 * All reachable states satisfy the property.
+	 */
+	ALWAYS_GLOBALLY("A[]"),
+
+	/**
+	 * Some maximal path always satisfies the property.
+	 */
+	EXISTS_GLOBALLY("E[]"),
+
+	/**
+	 * All paths eventually satisfy the property.
+	 */
+	ALWAYS_EVENTUALLY("A<>");
+
+	/**
+	 * The textual representation of the quantifier.
+	 */
+	private final String literal;
+
+	private PathQuantifier(String literal) {
+		this.literal = literal;
+	}
+
+	/**
+	 * Returns the textual representation of the quantifier.
+	 * @return the literal, e.g. <code>E&lt;&gt;</code>.
+	 */
+	public String getLiteral() {
+		return literal;
+	}
+
+	/**
+	 * Returns the quantifier with the given textual representation.
+	 * @param literal the literal.
+	 * @return the quantifier, or <code>null</code> if there is none.
+	 */
+	public static PathQuantifier get(String literal) {
+		for (PathQuantifier quantifier : values()) {
+			if (quantifier.literal.equals(literal)) {
+				return quantifier;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return literal;
+	}
+
+}
@@ -0,0 +1,36 @@
+/**
+ */
+package de.uni_paderborn.uppaal.serialization;
+
+import org.eclipse.emf.common.util.URI;
+
+import org.eclipse.emf.ecore.resource.Resource;
+
+import org.eclipse.emf.ecore.resource.impl.ResourceFactoryImpl;
+
+/**
+ * The resource factory for the compact binary encoding of NTAs, registered for the <code>uppaalbin</code> extension.
+ * @see UppaalBinaryResourceImpl
+ */
+public class UppaalBinaryResourceFactoryImpl extends ResourceFactoryImpl {
+	/**
+	 * The file extension of binary encoded NTAs.
+	 */
+	public static final String FILE_EXTENSION = "uppaalbin";
+
+	/**
+	 * Creates an instance of the resource factory.
+	 */
+	public UppaalBinaryResourceFactoryImpl() {
+		super();
+	}
+
+	/**
+	 * Creates an instance of the resource.
+	 */
+	@Override
+	public Resource createResource(URI uri) {
+		return new UppaalBinaryResourceImpl(uri);
+	}
+
+}
@@ -0,0 +1,193 @@
+/**
+ */
+package de.uni_paderborn.uppaal.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.Enumerator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EEnum;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+
+/**
+ * A binary resource tuned to the Uppaal metamodel.
+ * <p>
+ * It extends EMF's binary encoding with a more compact representation of the attribute values found in NTAs:
+ * strings such as names and literal texts are interned per resource and written once,
+ * enumeration literals (operators, location kinds, colors) are written as variable length ordinals,
+ * and integers (the coordinates of points) are written as zig-zag encoded varints.
+ * </p>
+ * @see UppaalBinaryResourceFactoryImpl
+ */
+public class UppaalBinaryResourceImpl extends BinaryResourceImpl {
+	/**
+	 * Creates an instance of the resource.
+	 * @param uri the URI of the new resource.
+	 */
+	public UppaalBinaryResourceImpl(URI uri) {
+		super(uri);
+	}
+
+	@Override
+	protected EObjectOutputStream createEObjectOutputStream(OutputStream outputStream, Map<?, ?> options) throws IOException {
+		return new UppaalObjectOutputStream(outputStream, options);
+	}
+
+	@Override
+	protected EObjectInputStream createEObjectInputStream(InputStream inputStream, Map<?, ?> options) throws IOException {
+		return new UppaalObjectInputStream(inputStream, options);
+	}
+
+	/**
+	 * Writes the compact encoding of strings, enumeration literals and integers.
+	 */
+	public static class UppaalObjectOutputStream extends EObjectOutputStream {
+		/**
+		 * The indices of the strings written so far.
+		 */
+		protected final Map<String, Integer> stringIndices = new HashMap<String, Integer>();
+
+		/**
+		 * Creates a stream writing to the given byte stream.
+		 * @param outputStream the target of the stream.
+		 * @param options the save options.
+		 * @throws IOException if the header cannot be written.
+		 */
+		public UppaalObjectOutputStream(OutputStream outputStream, Map<?, ?> options) throws IOException {
+			super(outputStream, options);
+		}
+
+		@Override
+		protected void saveFeatureValue(InternalEObject internalEObject, Object value, int featureID, EStructuralFeatureData eStructuralFeatureData) throws IOException {
+			FeatureKind kind = eStructuralFeatureData.kind;
+			if (kind == FeatureKind.STRING) {
+				writeInternedString((String)value);
+			}
+			else if (kind == FeatureKind.ENUMERATOR) {
+				writeCompressedInt(((Enumerator)value).getValue());
+			}
+			else if (kind == FeatureKind.INT) {
+				writeVarInt((Integer)value);
+			}
+			else {
+				super.saveFeatureValue(internalEObject, value, featureID, eStructuralFeatureData);
+			}
+		}
+
+		/**
+		 * Writes a string as the index of its first occurrence, followed by its characters if it is new.
+		 * @param value the string, may be <code>null</code>.
+		 * @throws IOException if the string cannot be written.
+		 */
+		public void writeInternedString(String value) throws IOException {
+			if (value == null) {
+				writeCompressedInt(-1);
+				return;
+			}
+			Integer index = stringIndices.get(value);
+			if (index != null) {
+				writeCompressedInt(index);
+			}
+			else {
+				int newIndex = stringIndices.size();
+				stringIndices.put(value, newIndex);
+				writeCompressedInt(newIndex);
+				writeString(value);
+			}
+		}
+
+		/**
+		 * Writes an integer as a zig-zag encoded varint, using one byte for values between -64 and 63.
+		 * @param value the integer.
+		 * @throws IOException if the integer cannot be written.
+		 */
+		public void writeVarInt(int value) throws IOException {
+			int bits = (value << 1) ^ (value >> 31);
+			while ((bits & ~0x7F) != 0) {
+				writeByte((bits & 0x7F) | 0x80);
+				bits >>>= 7;
+			}
+			writeByte(bits);
+		}
+	}
+
+	/**
+	 * Reads the compact encoding of strings, enumeration literals and integers.
+	 */
+	public static class UppaalObjectInputStream extends EObjectInputStream {
+		/**
+		 * The strings read so far, by index.
+		 */
+		protected final List<String> strings = new ArrayList<String>();
+
+		/**
+		 * Creates a stream reading from the given byte stream.
+		 * @param inputStream the source of the stream.
+		 * @param options the load options.
+		 * @throws IOException if the stream cannot be read.
+		 */
+		public UppaalObjectInputStream(InputStream inputStream, Map<?, ?> options) throws IOException {
+			super(inputStream, options);
+		}
+
+		@Override
+		protected void loadFeatureValue(InternalEObject internalEObject, EStructuralFeatureData eStructuralFeatureData) throws IOException {
+			FeatureKind kind = eStructuralFeatureData.kind;
+			if (kind == FeatureKind.STRING) {
+				internalEObject.eSet(eStructuralFeatureData.featureID, readInternedString());
+			}
+			else if (kind == FeatureKind.ENUMERATOR) {
+				EEnum eEnum = (EEnum)eStructuralFeatureData.eDataType;
+				internalEObject.eSet(eStructuralFeatureData.featureID, eEnum.getEEnumLiteral(readCompressedInt()).getInstance());
+			}
+			else if (kind == FeatureKind.INT) {
+				internalEObject.eSet(eStructuralFeatureData.featureID, readVarInt());
+			}
+			else {
+				super.loadFeatureValue(internalEObject, eStructuralFeatureData);
+			}
+		}
+
+		/**
+		 * Reads a string written by {@link UppaalObjectOutputStream#writeInternedString(String)}.
+		 * @return the string, may be <code>null</code>.
+		 * @throws IOException if the string cannot be read.
+		 */
+		public String readInternedString() throws IOException {
+			int index = readCompressedInt();
+			if (index == -1) {
+				return null;
+			}
+			if (index == strings.size()) {
+				strings.add(readString());
+			}
+			return strings.get(index);
+		}
+
+		/**
+		 * Reads an integer written by {@link UppaalObjectOutputStream#writeVarInt(int)}.
+		 * @return the integer.
+		 * @throws IOException if the integer cannot be read.
+		 */
+		public int readVarInt() throws IOException {
+			int bits = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = readByte();
+				bits |= (b & 0x7F) << shift;
+				shift += 7;
+			}
+			while ((b & 0x80) != 0);
+			return (bits >>> 1) ^ -(bits & 1);
+		}
+	}
+
+}
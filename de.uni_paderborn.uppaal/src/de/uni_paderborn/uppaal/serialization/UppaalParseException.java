@@ -0,0 +1,51 @@
+/**
+ */
+package de.uni_paderborn.uppaal.serialization;
+
+import java.io.IOException;
+
+/**
+ * Signals a syntax error or an unresolvable name in Uppaal's textual syntax.
+ */
+public class UppaalParseException extends IOException {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The line of the error, starting at 1.
+	 */
+	private final int line;
+
+	/**
+	 * The column of the error, starting at 1.
+	 */
+	private final int column;
+
+	/**
+	 * Creates an exception for an error at the given position.
+	 * @param message the description of the error.
+	 * @param line the line of the error, starting at 1.
+	 * @param column the column of the error, starting at 1.
+	 */
+	public UppaalParseException(String message, int line, int column) {
+		super(message + " (line " + line + ", column " + column + ")");
+		this.line = line;
+		this.column = column;
+	}
+
+	/**
+	 * Returns the line of the error, starting at 1.
+	 * @return the line of the error.
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * Returns the column of the error, starting at 1.
+	 * @return the column of the error.
+	 */
+	public int getColumn() {
+		return column;
+	}
+
+}
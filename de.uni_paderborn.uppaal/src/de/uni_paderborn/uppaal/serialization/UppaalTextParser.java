@@ -0,0 +1,1605 @@
+/**
+ */
+package de.uni_paderborn.uppaal.serialization;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.core.NamedElement;
+import de.uni_paderborn.uppaal.declarations.ArrayInitializer;
+import de.uni_paderborn.uppaal.declarations.CallType;
+import de.uni_paderborn.uppaal.declarations.ChannelVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.DataVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.DataVariablePrefix;
+import de.uni_paderborn.uppaal.declarations.Declarations;
+import de.uni_paderborn.uppaal.declarations.DeclarationsFactory;
+import de.uni_paderborn.uppaal.declarations.ExpressionInitializer;
+import de.uni_paderborn.uppaal.declarations.Function;
+import de.uni_paderborn.uppaal.declarations.FunctionDeclaration;
+import de.uni_paderborn.uppaal.declarations.GlobalDeclarations;
+import de.uni_paderborn.uppaal.declarations.Index;
+import de.uni_paderborn.uppaal.declarations.Initializer;
+import de.uni_paderborn.uppaal.declarations.LocalDeclarations;
+import de.uni_paderborn.uppaal.declarations.Parameter;
+import de.uni_paderborn.uppaal.declarations.SystemDeclarations;
+import de.uni_paderborn.uppaal.declarations.TypeDeclaration;
+import de.uni_paderborn.uppaal.declarations.TypeIndex;
+import de.uni_paderborn.uppaal.declarations.ValueIndex;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.declarations.VariableContainer;
+import de.uni_paderborn.uppaal.declarations.VariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.global.ChannelList;
+import de.uni_paderborn.uppaal.declarations.global.ChannelPriority;
+import de.uni_paderborn.uppaal.declarations.global.GlobalFactory;
+import de.uni_paderborn.uppaal.declarations.system.InstantiationList;
+import de.uni_paderborn.uppaal.declarations.system.ProgressMeasure;
+import de.uni_paderborn.uppaal.declarations.system.SystemFactory;
+import de.uni_paderborn.uppaal.declarations.system.TemplateDeclaration;
+import de.uni_paderborn.uppaal.expressions.ArithmeticExpression;
+import de.uni_paderborn.uppaal.expressions.ArithmeticOperator;
+import de.uni_paderborn.uppaal.expressions.AssignmentExpression;
+import de.uni_paderborn.uppaal.expressions.AssignmentOperator;
+import de.uni_paderborn.uppaal.expressions.BinaryExpression;
+import de.uni_paderborn.uppaal.expressions.BitShiftExpression;
+import de.uni_paderborn.uppaal.expressions.BitShiftOperator;
+import de.uni_paderborn.uppaal.expressions.BitwiseExpression;
+import de.uni_paderborn.uppaal.expressions.BitwiseOperator;
+import de.uni_paderborn.uppaal.expressions.CompareExpression;
+import de.uni_paderborn.uppaal.expressions.CompareOperator;
+import de.uni_paderborn.uppaal.expressions.ConditionExpression;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.expressions.ExpressionsFactory;
+import de.uni_paderborn.uppaal.expressions.FunctionCallExpression;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.IncrementDecrementExpression;
+import de.uni_paderborn.uppaal.expressions.IncrementDecrementOperator;
+import de.uni_paderborn.uppaal.expressions.IncrementDecrementPosition;
+import de.uni_paderborn.uppaal.expressions.LiteralExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalOperator;
+import de.uni_paderborn.uppaal.expressions.MinMaxExpression;
+import de.uni_paderborn.uppaal.expressions.MinMaxOperator;
+import de.uni_paderborn.uppaal.expressions.MinusExpression;
+import de.uni_paderborn.uppaal.expressions.NegationExpression;
+import de.uni_paderborn.uppaal.expressions.PlusExpression;
+import de.uni_paderborn.uppaal.expressions.QuantificationExpression;
+import de.uni_paderborn.uppaal.expressions.Quantifier;
+import de.uni_paderborn.uppaal.expressions.ScopedIdentifierExpression;
+import de.uni_paderborn.uppaal.statements.Block;
+import de.uni_paderborn.uppaal.statements.DoWhileLoop;
+import de.uni_paderborn.uppaal.statements.ExpressionStatement;
+import de.uni_paderborn.uppaal.statements.ForLoop;
+import de.uni_paderborn.uppaal.statements.IfStatement;
+import de.uni_paderborn.uppaal.statements.Iteration;
+import de.uni_paderborn.uppaal.statements.ReturnStatement;
+import de.uni_paderborn.uppaal.statements.Statement;
+import de.uni_paderborn.uppaal.statements.StatementsFactory;
+import de.uni_paderborn.uppaal.statements.WhileLoop;
+import de.uni_paderborn.uppaal.templates.AbstractTemplate;
+import de.uni_paderborn.uppaal.templates.Location;
+import de.uni_paderborn.uppaal.templates.RedefinedTemplate;
+import de.uni_paderborn.uppaal.templates.Selection;
+import de.uni_paderborn.uppaal.templates.Synchronization;
+import de.uni_paderborn.uppaal.templates.SynchronizationKind;
+import de.uni_paderborn.uppaal.templates.Template;
+import de.uni_paderborn.uppaal.templates.TemplatesFactory;
+import de.uni_paderborn.uppaal.types.BuiltInType;
+import de.uni_paderborn.uppaal.types.DeclaredType;
+import de.uni_paderborn.uppaal.types.IntegerBounds;
+import de.uni_paderborn.uppaal.types.PredefinedType;
+import de.uni_paderborn.uppaal.types.RangeTypeSpecification;
+import de.uni_paderborn.uppaal.types.ScalarTypeSpecification;
+import de.uni_paderborn.uppaal.types.StructTypeSpecification;
+import de.uni_paderborn.uppaal.types.Type;
+import de.uni_paderborn.uppaal.types.TypeDefinition;
+import de.uni_paderborn.uppaal.types.TypeReference;
+import de.uni_paderborn.uppaal.types.TypesFactory;
+
+/**
+ * A recursive descent parser for Uppaal's textual syntax of declarations, statements and expressions.
+ * <p>
+ * The parser builds model elements directly and resolves identifiers in a single pass
+ * through a chain of scopes (global, template, edge, function and block scopes),
+ * relying on Uppaal's declare-before-use rule.
+ * Templates become visible in the system declarations once {@link #endTemplate(AbstractTemplate)} has been called.
+ * </p>
+ */
+public class UppaalTextParser {
+	/**
+	 * The token kind signaling the end of the text.
+	 */
+	protected static final int EOF = 0;
+
+	/**
+	 * The token kind of identifiers and keywords.
+	 */
+	protected static final int IDENTIFIER = 1;
+
+	/**
+	 * The token kind of number literals.
+	 */
+	protected static final int NUMBER = 2;
+
+	/**
+	 * The token kind of operators and punctuation.
+	 */
+	protected static final int SYMBOL = 3;
+
+	/**
+	 * The operators and punctuation of the language, longest first.
+	 */
+	private static final String[] SYMBOLS = {
+		"<<=", ">>=",
+		"<?", ">?", "<=", ">=", "==", "!=", "&&", "||", "++", "--", "+=", "-=", "*=", "/=", "%=", "&=", "|=", "^=", ":=", "<<", ">>",
+		"(", ")", "[", "]", "{", "}", ",", ";", ":", ".", "?", "!", "+", "-", "*", "/", "%", "<", ">", "=", "&", "|", "^", "'"
+	};
+
+	/**
+	 * Prefix flag for <code>const</code>.
+	 */
+	private static final int PREFIX_CONST = 1;
+
+	/**
+	 * Prefix flag for <code>meta</code>.
+	 */
+	private static final int PREFIX_META = 2;
+
+	/**
+	 * Prefix flag for <code>urgent</code>.
+	 */
+	private static final int PREFIX_URGENT = 4;
+
+	/**
+	 * Prefix flag for <code>broadcast</code>.
+	 */
+	private static final int PREFIX_BROADCAST = 8;
+
+	protected final DeclarationsFactory declarationsFactory = DeclarationsFactory.eINSTANCE;
+
+	protected final ExpressionsFactory expressionsFactory = ExpressionsFactory.eINSTANCE;
+
+	protected final StatementsFactory statementsFactory = StatementsFactory.eINSTANCE;
+
+	protected final TemplatesFactory templatesFactory = TemplatesFactory.eINSTANCE;
+
+	protected final TypesFactory typesFactory = TypesFactory.eINSTANCE;
+
+	/**
+	 * The NTA providing the predefined types.
+	 */
+	protected final NTA nta;
+
+	/**
+	 * The scope of the global declarations.
+	 */
+	protected final Scope globalScope;
+
+	/**
+	 * The scope of the template names, visible in the system declarations.
+	 */
+	protected final Scope systemScope;
+
+	/**
+	 * The innermost scope.
+	 */
+	protected Scope scope;
+
+	/**
+	 * The text being parsed.
+	 */
+	protected CharSequence text;
+
+	/**
+	 * The position behind the current token.
+	 */
+	protected int position;
+
+	/**
+	 * The start position of the current token.
+	 */
+	protected int tokenStart;
+
+	/**
+	 * The kind of the current token.
+	 */
+	protected int tokenKind;
+
+	/**
+	 * The text of the current token.
+	 */
+	protected String token;
+
+	/**
+	 * Creates a parser for the given NTA, whose predefined types must already be set.
+	 * @param nta the NTA.
+	 */
+	public UppaalTextParser(NTA nta) {
+		this.nta = nta;
+		this.globalScope = new Scope(null);
+		this.systemScope = new Scope(globalScope);
+		this.scope = globalScope;
+	}
+
+	/**
+	 * Opens the scope of a template. Parameters and local declarations parsed until
+	 * {@link #endTemplate(AbstractTemplate)} belong to this template.
+	 * @param template the template.
+	 */
+	public void beginTemplate(AbstractTemplate template) {
+		scope = new Scope(globalScope);
+	}
+
+	/**
+	 * Closes the scope of a template and makes it visible to the system declarations.
+	 * @param template the template.
+	 */
+	public void endTemplate(AbstractTemplate template) {
+		scope = globalScope;
+		systemScope.declare(template);
+	}
+
+	/**
+	 * Opens the scope of an edge, holding its selection variables.
+	 */
+	public void beginEdge() {
+		scope = new Scope(scope);
+	}
+
+	/**
+	 * Closes the scope of an edge.
+	 */
+	public void endEdge() {
+		scope = scope.parent;
+	}
+
+	/**
+	 * Parses declarations into the given container.
+	 * Channel priorities are accepted for global declarations,
+	 * template instantiations, progress measures and the system line for system declarations.
+	 * @param text the declarations.
+	 * @param declarations the container receiving the declarations.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	public void parseDeclarations(CharSequence text, Declarations declarations) throws UppaalParseException {
+		Scope previous = scope;
+		if (declarations instanceof SystemDeclarations) {
+			scope = systemScope;
+		}
+		start(text);
+		while (tokenKind != EOF) {
+			parseDeclaration(declarations);
+		}
+		scope = previous;
+	}
+
+	/**
+	 * Parses a comma separated list of template parameters.
+	 * @param text the parameters.
+	 * @param parameters the list receiving the parameters.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	public void parseParameters(CharSequence text, List<Parameter> parameters) throws UppaalParseException {
+		start(text);
+		if (tokenKind != EOF) {
+			parseParameterList(parameters);
+		}
+		expectEnd();
+	}
+
+	/**
+	 * Parses a single expression.
+	 * @param text the expression.
+	 * @return the expression.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	public Expression parseExpression(CharSequence text) throws UppaalParseException {
+		start(text);
+		Expression expression = parseExpression();
+		expectEnd();
+		return expression;
+	}
+
+	/**
+	 * Parses a comma separated list of expressions, as used for the updates of edges.
+	 * @param text the expressions.
+	 * @param expressions the list receiving the expressions.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	public void parseExpressions(CharSequence text, List<Expression> expressions) throws UppaalParseException {
+		start(text);
+		if (tokenKind != EOF) {
+			expressions.add(parseExpression());
+			while (accept(",")) {
+				expressions.add(parseExpression());
+			}
+		}
+		expectEnd();
+	}
+
+	/**
+	 * Parses the selections of an edge and declares the selected variables in the current scope.
+	 * @param text the selections.
+	 * @param selections the list receiving the selections.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	public void parseSelections(CharSequence text, List<Selection> selections) throws UppaalParseException {
+		start(text);
+		if (tokenKind != EOF) {
+			do {
+				Selection selection = templatesFactory.createSelection();
+				Variable variable = createVariable(expectIdentifier());
+				expect(":");
+				selection.setTypeDefinition(parseType());
+				selection.getVariable().add(variable);
+				selections.add(selection);
+				scope.declare(variable);
+			}
+			while (accept(","));
+		}
+		expectEnd();
+	}
+
+	/**
+	 * Parses the synchronization of an edge, e.g. <code>c[i]!</code>.
+	 * @param text the synchronization.
+	 * @return the synchronization.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	public Synchronization parseSynchronization(CharSequence text) throws UppaalParseException {
+		start(text);
+		Expression channel = parsePostfix();
+		if (!(channel instanceof IdentifierExpression)) {
+			throw error("Channel expected");
+		}
+		Synchronization synchronization = templatesFactory.createSynchronization();
+		synchronization.setChannelExpression((IdentifierExpression)channel);
+		if (accept("!")) {
+			synchronization.setKind(SynchronizationKind.SEND);
+		}
+		else {
+			expect("?");
+			synchronization.setKind(SynchronizationKind.RECEIVE);
+		}
+		expectEnd();
+		return synchronization;
+	}
+
+	// Declarations
+
+	/**
+	 * Parses a single declaration.
+	 * @param declarations the container receiving the declaration.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected void parseDeclaration(Declarations declarations) throws UppaalParseException {
+		if (accept(";")) {
+			return;
+		}
+		if (accept("typedef")) {
+			declarations.getDeclaration().add(parseTypeDeclaration());
+			return;
+		}
+		if (declarations instanceof GlobalDeclarations && is("chan") && peekIs("priority")) {
+			next();
+			next();
+			((GlobalDeclarations)declarations).setChannelPriority(parseChannelPriority());
+			return;
+		}
+		if (declarations instanceof SystemDeclarations) {
+			SystemDeclarations systemDeclarations = (SystemDeclarations)declarations;
+			if (accept("system")) {
+				systemDeclarations.setSystem(parseSystem());
+				return;
+			}
+			if (accept("progress")) {
+				systemDeclarations.setProgressMeasure(parseProgressMeasure());
+				return;
+			}
+			if (tokenKind == IDENTIFIER && !isDeclarationStart()) {
+				declarations.getDeclaration().add(parseTemplateDeclaration());
+				return;
+			}
+		}
+		int prefixes = parsePrefixes();
+		TypeDefinition type = parseType();
+		int nameStart = tokenStart;
+		String name = expectIdentifier();
+		if (is("(")) {
+			declarations.getDeclaration().add(parseFunction(type, name));
+		}
+		else {
+			VariableDeclaration declaration = createVariableDeclaration(prefixes, type);
+			parseVariables(declaration, name, nameStart);
+			declarations.getDeclaration().add(declaration);
+		}
+	}
+
+	/**
+	 * Checks whether the current token starts a variable, type or function declaration.
+	 * @return whether the current token starts a declaration.
+	 */
+	protected boolean isDeclarationStart() {
+		if (tokenKind != IDENTIFIER) {
+			return false;
+		}
+		if (is("const") || is("meta") || is("urgent") || is("broadcast") || is("typedef") || isTypeKeyword()) {
+			return true;
+		}
+		return scope.lookup(token) instanceof DeclaredType;
+	}
+
+	/**
+	 * Checks whether the current token is a keyword denoting a type.
+	 * @return whether the current token is a type keyword.
+	 */
+	protected boolean isTypeKeyword() {
+		return is("int") || is("bool") || is("clock") || is("chan") || is("void") || is("scalar") || is("struct");
+	}
+
+	/**
+	 * Parses the prefixes of a variable declaration.
+	 * @return the prefix flags.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected int parsePrefixes() throws UppaalParseException {
+		int prefixes = 0;
+		while (true) {
+			if (accept("const")) {
+				prefixes |= PREFIX_CONST;
+			}
+			else if (accept("meta")) {
+				prefixes |= PREFIX_META;
+			}
+			else if (accept("urgent")) {
+				prefixes |= PREFIX_URGENT;
+			}
+			else if (accept("broadcast")) {
+				prefixes |= PREFIX_BROADCAST;
+			}
+			else {
+				return prefixes;
+			}
+		}
+	}
+
+	/**
+	 * Parses a type, i.e. a predefined type, a bounded integer, a scalar set, a structure or a declared type.
+	 * @return the type definition.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected TypeDefinition parseType() throws UppaalParseException {
+		if (accept("int")) {
+			if (accept("[")) {
+				RangeTypeSpecification range = typesFactory.createRangeTypeSpecification();
+				IntegerBounds bounds = typesFactory.createIntegerBounds();
+				bounds.setLowerBound(parseExpression());
+				expect(",");
+				bounds.setUpperBound(parseExpression());
+				expect("]");
+				range.setBounds(bounds);
+				return range;
+			}
+			return createTypeReference(nta.getInt());
+		}
+		if (accept("bool")) {
+			return createTypeReference(nta.getBool());
+		}
+		if (accept("clock")) {
+			return createTypeReference(nta.getClock());
+		}
+		if (accept("chan")) {
+			return createTypeReference(nta.getChan());
+		}
+		if (accept("void")) {
+			return createTypeReference(nta.getVoid());
+		}
+		if (accept("scalar")) {
+			ScalarTypeSpecification scalar = typesFactory.createScalarTypeSpecification();
+			expect("[");
+			scalar.setSizeExpression(parseExpression());
+			expect("]");
+			return scalar;
+		}
+		if (accept("struct")) {
+			StructTypeSpecification struct = typesFactory.createStructTypeSpecification();
+			expect("{");
+			Scope previous = scope;
+			scope = new Scope(scope);
+			while (!accept("}")) {
+				int prefixes = parsePrefixes();
+				TypeDefinition type = parseType();
+				int nameStart = tokenStart;
+				VariableDeclaration field = createVariableDeclaration(prefixes, type);
+				if (!(field instanceof DataVariableDeclaration)) {
+					throw error("Structure fields must be data variables");
+				}
+				parseVariables(field, expectIdentifier(), nameStart);
+				struct.getDeclaration().add((DataVariableDeclaration)field);
+			}
+			scope = previous;
+			return struct;
+		}
+		if (tokenKind == IDENTIFIER) {
+			NamedElement element = scope.lookup(token);
+			if (element instanceof DeclaredType) {
+				next();
+				return createTypeReference((DeclaredType)element);
+			}
+		}
+		throw error("Type expected");
+	}
+
+	/**
+	 * Parses the declared names of a type declaration, following the type.
+	 * @return the type declaration.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected TypeDeclaration parseTypeDeclaration() throws UppaalParseException {
+		TypeDeclaration declaration = declarationsFactory.createTypeDeclaration();
+		declaration.setTypeDefinition(parseType());
+		do {
+			DeclaredType type = typesFactory.createDeclaredType();
+			type.setName(expectIdentifier());
+			parseIndices(type.getIndex());
+			declaration.getType().add(type);
+			scope.declare(type);
+		}
+		while (accept(","));
+		expect(";");
+		return declaration;
+	}
+
+	/**
+	 * Parses the comma separated variables of a variable declaration, terminated by a semicolon.
+	 * @param declaration the declaration receiving the variables.
+	 * @param name the already consumed name of the first variable.
+	 * @param nameStart the position of the first name, for error reporting.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected void parseVariables(VariableContainer declaration, String name, int nameStart) throws UppaalParseException {
+		while (true) {
+			Variable variable = createVariable(name);
+			parseIndices(variable.getIndex());
+			if (accept("=") || accept(":=")) {
+				variable.setInitializer(parseInitializer());
+			}
+			declaration.getVariable().add(variable);
+			scope.declare(variable);
+			if (!accept(",")) {
+				break;
+			}
+			name = expectIdentifier();
+		}
+		expect(";");
+	}
+
+	/**
+	 * Parses array dimensions, which are either sizes or types.
+	 * @param indices the list receiving the dimensions.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected void parseIndices(List<Index> indices) throws UppaalParseException {
+		while (accept("[")) {
+			if (isTypeKeyword() || (tokenKind == IDENTIFIER && scope.lookup(token) instanceof DeclaredType)) {
+				TypeIndex index = declarationsFactory.createTypeIndex();
+				index.setTypeDefinition(parseType());
+				indices.add(index);
+			}
+			else {
+				ValueIndex index = declarationsFactory.createValueIndex();
+				index.setSizeExpression(parseExpression());
+				indices.add(index);
+			}
+			expect("]");
+		}
+	}
+
+	/**
+	 * Parses an initializer, i.e. an expression or a brace enclosed list of initializers.
+	 * @return the initializer.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected Initializer parseInitializer() throws UppaalParseException {
+		if (accept("{")) {
+			ArrayInitializer initializer = declarationsFactory.createArrayInitializer();
+			do {
+				initializer.getInitializer().add(parseInitializer());
+			}
+			while (accept(","));
+			expect("}");
+			return initializer;
+		}
+		ExpressionInitializer initializer = declarationsFactory.createExpressionInitializer();
+		initializer.setExpression(parseAssignment());
+		return initializer;
+	}
+
+	/**
+	 * Parses a function following its return type and name.
+	 * @param returnType the return type.
+	 * @param name the name of the function.
+	 * @return the function declaration.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected FunctionDeclaration parseFunction(TypeDefinition returnType, String name) throws UppaalParseException {
+		FunctionDeclaration declaration = declarationsFactory.createFunctionDeclaration();
+		Function function = declarationsFactory.createFunction();
+		function.setName(name);
+		function.setReturnType(returnType);
+		declaration.setFunction(function);
+		scope.declare(function);
+		Scope previous = scope;
+		scope = new Scope(scope);
+		expect("(");
+		if (!is(")")) {
+			parseParameterList(function.getParameter());
+		}
+		expect(")");
+		function.setBlock(parseBlock());
+		scope = previous;
+		return declaration;
+	}
+
+	/**
+	 * Parses a comma separated list of parameters and declares them in the current scope.
+	 * @param parameters the list receiving the parameters.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected void parseParameterList(List<Parameter> parameters) throws UppaalParseException {
+		do {
+			Parameter parameter = declarationsFactory.createParameter();
+			int prefixes = parsePrefixes();
+			VariableDeclaration declaration = createVariableDeclaration(prefixes, parseType());
+			parameter.setCallType(accept("&") ? CallType.CALL_BY_REFERENCE : CallType.CALL_BY_VALUE);
+			Variable variable = createVariable(expectIdentifier());
+			parseIndices(variable.getIndex());
+			declaration.getVariable().add(variable);
+			parameter.setVariableDeclaration(declaration);
+			parameters.add(parameter);
+			scope.declare(variable);
+		}
+		while (accept(","));
+	}
+
+	/**
+	 * Parses the channel priority declaration following <code>chan priority</code>.
+	 * @return the channel priority.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected ChannelPriority parseChannelPriority() throws UppaalParseException {
+		ChannelPriority channelPriority = GlobalFactory.eINSTANCE.createChannelPriority();
+		do {
+			if (accept("default")) {
+				channelPriority.getItem().add(GlobalFactory.eINSTANCE.createDefaultChannelPriority());
+			}
+			else {
+				ChannelList channelList = GlobalFactory.eINSTANCE.createChannelList();
+				do {
+					Expression channel = parsePostfix();
+					if (!(channel instanceof IdentifierExpression)) {
+						throw error("Channel expected");
+					}
+					channelList.getChannelExpression().add((IdentifierExpression)channel);
+				}
+				while (accept(","));
+				channelPriority.getItem().add(channelList);
+			}
+		}
+		while (accept("<"));
+		expect(";");
+		return channelPriority;
+	}
+
+	/**
+	 * Parses a template instantiation of the system declarations, e.g. <code>P1(int i) = P(i, 2);</code>.
+	 * @return the template declaration.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected TemplateDeclaration parseTemplateDeclaration() throws UppaalParseException {
+		TemplateDeclaration declaration = SystemFactory.eINSTANCE.createTemplateDeclaration();
+		RedefinedTemplate template = templatesFactory.createRedefinedTemplate();
+		template.setName(expectIdentifier());
+		declaration.setDeclaredTemplate(template);
+		Scope previous = scope;
+		scope = new Scope(scope);
+		if (accept("(")) {
+			if (!is(")")) {
+				parseParameterList(template.getParameter());
+			}
+			expect(")");
+		}
+		if (!accept(":=")) {
+			expect("=");
+		}
+		template.setReferredTemplate(resolveTemplate(expectIdentifier()));
+		expect("(");
+		if (!is(")")) {
+			do {
+				declaration.getArgument().add(parseExpression());
+			}
+			while (accept(","));
+		}
+		expect(")");
+		expect(";");
+		scope = previous;
+		scope.declare(template);
+		return declaration;
+	}
+
+	/**
+	 * Parses the process list following <code>system</code>.
+	 * @return the system.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected de.uni_paderborn.uppaal.declarations.system.System parseSystem() throws UppaalParseException {
+		de.uni_paderborn.uppaal.declarations.system.System system = SystemFactory.eINSTANCE.createSystem();
+		do {
+			InstantiationList instantiationList = SystemFactory.eINSTANCE.createInstantiationList();
+			do {
+				instantiationList.getTemplate().add(resolveTemplate(expectIdentifier()));
+			}
+			while (accept(","));
+			system.getInstantiationList().add(instantiationList);
+		}
+		while (accept("<"));
+		expect(";");
+		return system;
+	}
+
+	/**
+	 * Parses the brace enclosed expressions following <code>progress</code>.
+	 * @return the progress measure.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected ProgressMeasure parseProgressMeasure() throws UppaalParseException {
+		ProgressMeasure progressMeasure = SystemFactory.eINSTANCE.createProgressMeasure();
+		expect("{");
+		while (!accept("}")) {
+			progressMeasure.getExpression().add(parseExpression());
+			expect(";");
+		}
+		return progressMeasure;
+	}
+
+	// Statements
+
+	/**
+	 * Parses a block including its local declarations.
+	 * @return the block.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected Block parseBlock() throws UppaalParseException {
+		Block block = statementsFactory.createBlock();
+		expect("{");
+		Scope previous = scope;
+		scope = new Scope(scope);
+		while (isDeclarationStart()) {
+			if (block.getDeclarations() == null) {
+				block.setDeclarations(declarationsFactory.createLocalDeclarations());
+			}
+			parseDeclaration(block.getDeclarations());
+		}
+		while (!accept("}")) {
+			block.getStatement().add(parseStatement());
+		}
+		scope = previous;
+		return block;
+	}
+
+	/**
+	 * Parses a statement.
+	 * @return the statement.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected Statement parseStatement() throws UppaalParseException {
+		if (is("{")) {
+			return parseBlock();
+		}
+		if (accept(";")) {
+			return statementsFactory.createEmptyStatement();
+		}
+		if (accept("if")) {
+			IfStatement statement = statementsFactory.createIfStatement();
+			expect("(");
+			statement.setIfExpression(parseExpression());
+			expect(")");
+			statement.setThenStatement(parseStatement());
+			if (accept("else")) {
+				statement.setElseStatement(parseStatement());
+			}
+			return statement;
+		}
+		if (accept("while")) {
+			WhileLoop statement = statementsFactory.createWhileLoop();
+			expect("(");
+			statement.setExpression(parseExpression());
+			expect(")");
+			statement.setStatement(parseStatement());
+			return statement;
+		}
+		if (accept("do")) {
+			DoWhileLoop statement = statementsFactory.createDoWhileLoop();
+			statement.setStatement(parseStatement());
+			expect("while");
+			expect("(");
+			statement.setExpression(parseExpression());
+			expect(")");
+			expect(";");
+			return statement;
+		}
+		if (accept("for")) {
+			expect("(");
+			if (tokenKind == IDENTIFIER && peekIs(":")) {
+				Iteration statement = statementsFactory.createIteration();
+				Variable variable = createVariable(expectIdentifier());
+				expect(":");
+				statement.setTypeDefinition(parseType());
+				statement.getVariable().add(variable);
+				expect(")");
+				Scope previous = scope;
+				scope = new Scope(scope);
+				scope.declare(variable);
+				statement.setStatement(parseStatement());
+				scope = previous;
+				return statement;
+			}
+			ForLoop statement = statementsFactory.createForLoop();
+			if (!is(";")) {
+				statement.setInitialization(parseExpression());
+			}
+			expect(";");
+			if (!is(";")) {
+				statement.setCondition(parseExpression());
+			}
+			expect(";");
+			if (!is(")")) {
+				statement.setIteration(parseExpression());
+			}
+			expect(")");
+			statement.setStatement(parseStatement());
+			return statement;
+		}
+		if (accept("return")) {
+			ReturnStatement statement = statementsFactory.createReturnStatement();
+			if (!is(";")) {
+				statement.setReturnExpression(parseExpression());
+			}
+			expect(";");
+			return statement;
+		}
+		ExpressionStatement statement = statementsFactory.createExpressionStatement();
+		statement.setExpression(parseExpression());
+		expect(";");
+		return statement;
+	}
+
+	// Expressions
+
+	/**
+	 * Parses an expression, including the keyword operators <code>or</code>, <code>imply</code>, <code>and</code> and <code>not</code>.
+	 * @return the expression.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected Expression parseExpression() throws UppaalParseException {
+		Expression expression = parseKeywordAnd();
+		while (true) {
+			if (accept("or")) {
+				expression = createLogical(expression, LogicalOperator.OR, parseKeywordAnd());
+			}
+			else if (accept("imply")) {
+				expression = createLogical(expression, LogicalOperator.IMPLY, parseKeywordAnd());
+			}
+			else {
+				return expression;
+			}
+		}
+	}
+
+	protected Expression parseKeywordAnd() throws UppaalParseException {
+		Expression expression = parseKeywordNot();
+		while (accept("and")) {
+			expression = createLogical(expression, LogicalOperator.AND, parseKeywordNot());
+		}
+		return expression;
+	}
+
+	protected Expression parseKeywordNot() throws UppaalParseException {
+		if (accept("not")) {
+			NegationExpression expression = expressionsFactory.createNegationExpression();
+			expression.setNegatedExpression(parseKeywordNot());
+			return expression;
+		}
+		return parseAssignment();
+	}
+
+	protected Expression parseAssignment() throws UppaalParseException {
+		Expression expression = parseConditional();
+		AssignmentOperator operator = getAssignmentOperator();
+		if (operator == null) {
+			return expression;
+		}
+		next();
+		AssignmentExpression assignment = expressionsFactory.createAssignmentExpression();
+		assignment.setOperator(operator);
+		return initBinary(assignment, expression, parseAssignment());
+	}
+
+	/**
+	 * Returns the assignment operator denoted by the current token.
+	 * @return the assignment operator, or <code>null</code> if the current token is none.
+	 */
+	protected AssignmentOperator getAssignmentOperator() {
+		if (tokenKind != SYMBOL) {
+			return null;
+		}
+		if (is("=") || is(":=")) {
+			return AssignmentOperator.EQUAL;
+		}
+		return AssignmentOperator.get(token);
+	}
+
+	protected Expression parseConditional() throws UppaalParseException {
+		Expression expression = parseOr();
+		if (!accept("?")) {
+			return expression;
+		}
+		ConditionExpression condition = expressionsFactory.createConditionExpression();
+		condition.setIfExpression(expression);
+		condition.setThenExpression(parseAssignment());
+		expect(":");
+		condition.setElseExpression(parseConditional());
+		return condition;
+	}
+
+	protected Expression parseOr() throws UppaalParseException {
+		Expression expression = parseAnd();
+		while (accept("||")) {
+			expression = createLogical(expression, LogicalOperator.OR, parseAnd());
+		}
+		return expression;
+	}
+
+	protected Expression parseAnd() throws UppaalParseException {
+		Expression expression = parseBitOr();
+		while (accept("&&")) {
+			expression = createLogical(expression, LogicalOperator.AND, parseBitOr());
+		}
+		return expression;
+	}
+
+	protected Expression parseBitOr() throws UppaalParseException {
+		Expression expression = parseBitXor();
+		while (accept("|")) {
+			expression = createBitwise(expression, BitwiseOperator.OR, parseBitXor());
+		}
+		return expression;
+	}
+
+	protected Expression parseBitXor() throws UppaalParseException {
+		Expression expression = parseBitAnd();
+		while (accept("^")) {
+			expression = createBitwise(expression, BitwiseOperator.XOR, parseBitAnd());
+		}
+		return expression;
+	}
+
+	protected Expression parseBitAnd() throws UppaalParseException {
+		Expression expression = parseEquality();
+		while (accept("&")) {
+			expression = createBitwise(expression, BitwiseOperator.AND, parseEquality());
+		}
+		return expression;
+	}
+
+	protected Expression parseEquality() throws UppaalParseException {
+		Expression expression = parseRelational();
+		while (is("==") || is("!=")) {
+			CompareOperator operator = CompareOperator.get(token);
+			next();
+			expression = createCompare(expression, operator, parseRelational());
+		}
+		return expression;
+	}
+
+	protected Expression parseRelational() throws UppaalParseException {
+		Expression expression = parseMinMax();
+		while (is("<") || is("<=") || is(">=") || is(">")) {
+			CompareOperator operator = CompareOperator.get(token);
+			next();
+			expression = createCompare(expression, operator, parseMinMax());
+		}
+		return expression;
+	}
+
+	protected Expression parseMinMax() throws UppaalParseException {
+		Expression expression = parseShift();
+		while (is("<?") || is(">?")) {
+			MinMaxExpression minMax = expressionsFactory.createMinMaxExpression();
+			minMax.setOperator(MinMaxOperator.get(token));
+			next();
+			expression = initBinary(minMax, expression, parseShift());
+		}
+		return expression;
+	}
+
+	protected Expression parseShift() throws UppaalParseException {
+		Expression expression = parseAdditive();
+		while (is("<<") || is(">>")) {
+			BitShiftExpression shift = expressionsFactory.createBitShiftExpression();
+			shift.setOperator(BitShiftOperator.get(token));
+			next();
+			expression = initBinary(shift, expression, parseAdditive());
+		}
+		return expression;
+	}
+
+	protected Expression parseAdditive() throws UppaalParseException {
+		Expression expression = parseMultiplicative();
+		while (is("+") || is("-")) {
+			ArithmeticOperator operator = ArithmeticOperator.get(token);
+			next();
+			expression = createArithmetic(expression, operator, parseMultiplicative());
+		}
+		return expression;
+	}
+
+	protected Expression parseMultiplicative() throws UppaalParseException {
+		Expression expression = parseUnary();
+		while (is("*") || is("/") || is("%")) {
+			ArithmeticOperator operator = ArithmeticOperator.get(token);
+			next();
+			expression = createArithmetic(expression, operator, parseUnary());
+		}
+		return expression;
+	}
+
+	protected Expression parseUnary() throws UppaalParseException {
+		if (accept("!")) {
+			NegationExpression expression = expressionsFactory.createNegationExpression();
+			expression.setNegatedExpression(parseUnary());
+			return expression;
+		}
+		if (accept("-")) {
+			MinusExpression expression = expressionsFactory.createMinusExpression();
+			expression.setInvertedExpression(parseUnary());
+			return expression;
+		}
+		if (accept("+")) {
+			PlusExpression expression = expressionsFactory.createPlusExpression();
+			expression.setConfirmedExpression(parseUnary());
+			return expression;
+		}
+		if (is("++") || is("--")) {
+			IncrementDecrementExpression expression = expressionsFactory.createIncrementDecrementExpression();
+			expression.setOperator(IncrementDecrementOperator.get(token));
+			expression.setPosition(IncrementDecrementPosition.PRE);
+			next();
+			expression.setExpression(parseUnary());
+			return expression;
+		}
+		return parsePostfix();
+	}
+
+	/**
+	 * Parses a primary expression followed by array subscripts, member accesses and postfix increments.
+	 * @return the expression.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected Expression parsePostfix() throws UppaalParseException {
+		Expression expression = parsePrimary();
+		while (true) {
+			if (accept("[")) {
+				IdentifierExpression identifier = getInnermostIdentifier(expression);
+				if (identifier == null) {
+					throw error("Array subscript not allowed here");
+				}
+				identifier.getIndex().add(parseExpression());
+				expect("]");
+			}
+			else if (accept(".")) {
+				ScopedIdentifierExpression scoped = expressionsFactory.createScopedIdentifierExpression();
+				String name = expectIdentifier();
+				NamedElement member = resolveMember(expression, name);
+				if (member == null) {
+					throw error("Unknown member '" + name + "'");
+				}
+				scoped.setScope(expression);
+				scoped.setIdentifier(createIdentifier(member));
+				expression = scoped;
+			}
+			else if (is("++") || is("--")) {
+				IncrementDecrementExpression increment = expressionsFactory.createIncrementDecrementExpression();
+				increment.setOperator(IncrementDecrementOperator.get(token));
+				increment.setPosition(IncrementDecrementPosition.POST);
+				next();
+				increment.setExpression(expression);
+				expression = increment;
+			}
+			else {
+				return expression;
+			}
+		}
+	}
+
+	/**
+	 * Parses a literal, a parenthesized expression, a quantification, a function call or an identifier.
+	 * @return the expression.
+	 * @throws UppaalParseException if the text is not valid.
+	 */
+	protected Expression parsePrimary() throws UppaalParseException {
+		if (tokenKind == NUMBER || is("true") || is("false")) {
+			LiteralExpression literal = expressionsFactory.createLiteralExpression();
+			literal.setText(token);
+			next();
+			return literal;
+		}
+		if (accept("(")) {
+			Expression expression = parseExpression();
+			expect(")");
+			return expression;
+		}
+		if (is("forall") || is("exists")) {
+			QuantificationExpression quantification = expressionsFactory.createQuantificationExpression();
+			quantification.setQuantifier(is("forall") ? Quantifier.UNIVERSAL : Quantifier.EXISTENTIAL);
+			next();
+			expect("(");
+			Variable variable = createVariable(expectIdentifier());
+			expect(":");
+			quantification.setTypeDefinition(parseType());
+			quantification.getVariable().add(variable);
+			expect(")");
+			Scope previous = scope;
+			scope = new Scope(scope);
+			scope.declare(variable);
+			quantification.setExpression(parseExpression());
+			scope = previous;
+			return quantification;
+		}
+		if (tokenKind != IDENTIFIER) {
+			throw error("Expression expected");
+		}
+		NamedElement element = scope.lookup(token);
+		if (element == null) {
+			throw error("Unknown identifier '" + token + "'");
+		}
+		next();
+		if (element instanceof Function) {
+			FunctionCallExpression call = expressionsFactory.createFunctionCallExpression();
+			call.setFunction((Function)element);
+			expect("(");
+			if (!is(")")) {
+				do {
+					call.getArgument().add(parseExpression());
+				}
+				while (accept(","));
+			}
+			expect(")");
+			return call;
+		}
+		return createIdentifier(element);
+	}
+
+	/**
+	 * Returns the identifier expression that array subscripts following the given expression apply to.
+	 * @param expression the expression preceding the subscript.
+	 * @return the identifier expression, or <code>null</code> if subscripts are not applicable.
+	 */
+	protected IdentifierExpression getInnermostIdentifier(Expression expression) {
+		if (expression instanceof IdentifierExpression) {
+			return (IdentifierExpression)expression;
+		}
+		if (expression instanceof ScopedIdentifierExpression) {
+			return ((ScopedIdentifierExpression)expression).getIdentifier();
+		}
+		return null;
+	}
+
+	/**
+	 * Resolves a member access, i.e. a structure field or a location of a process.
+	 * @param scopeExpression the expression denoting the structure or process.
+	 * @param name the name of the member.
+	 * @return the member, or <code>null</code> if it cannot be resolved.
+	 */
+	protected NamedElement resolveMember(Expression scopeExpression, String name) {
+		IdentifierExpression identifier = getInnermostIdentifier(scopeExpression);
+		if (identifier == null) {
+			return null;
+		}
+		NamedElement element = identifier.getIdentifier();
+		if (element instanceof Variable) {
+			VariableContainer container = ((Variable)element).getContainer();
+			TypeDefinition type = container == null ? null : resolveTypeDefinition(container.getTypeDefinition());
+			if (type instanceof StructTypeSpecification) {
+				for (DataVariableDeclaration field : ((StructTypeSpecification)type).getDeclaration()) {
+					for (Variable variable : field.getVariable()) {
+						if (name.equals(variable.getName())) {
+							return variable;
+						}
+					}
+				}
+			}
+			return null;
+		}
+		while (element instanceof RedefinedTemplate) {
+			element = ((RedefinedTemplate)element).getReferredTemplate();
+		}
+		if (element instanceof Template) {
+			for (Location location : ((Template)element).getLocation()) {
+				if (name.equals(location.getName())) {
+					return location;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Resolves the name of a template or redefined template.
+	 * @param name the name.
+	 * @return the template.
+	 * @throws UppaalParseException if no template has the given name.
+	 */
+	protected AbstractTemplate resolveTemplate(String name) throws UppaalParseException {
+		NamedElement element = scope.lookup(name);
+		if (!(element instanceof AbstractTemplate)) {
+			throw error("Unknown template '" + name + "'");
+		}
+		return (AbstractTemplate)element;
+	}
+
+	// Element creation
+
+	protected TypeReference createTypeReference(Type type) {
+		TypeReference reference = typesFactory.createTypeReference();
+		reference.setReferredType(type);
+		return reference;
+	}
+
+	protected Variable createVariable(String name) {
+		Variable variable = declarationsFactory.createVariable();
+		variable.setName(name);
+		return variable;
+	}
+
+	protected IdentifierExpression createIdentifier(NamedElement element) {
+		IdentifierExpression identifier = expressionsFactory.createIdentifierExpression();
+		identifier.setIdentifier(element);
+		return identifier;
+	}
+
+	/**
+	 * Creates the kind of variable declaration matching the base type of the given type.
+	 * @param prefixes the prefix flags.
+	 * @param type the type of the declaration.
+	 * @return the declaration.
+	 */
+	protected VariableDeclaration createVariableDeclaration(int prefixes, TypeDefinition type) {
+		BuiltInType baseType = getBaseType(type);
+		VariableDeclaration declaration;
+		if (baseType == BuiltInType.CHAN) {
+			ChannelVariableDeclaration channelDeclaration = declarationsFactory.createChannelVariableDeclaration();
+			channelDeclaration.setUrgent((prefixes & PREFIX_URGENT) != 0);
+			channelDeclaration.setBroadcast((prefixes & PREFIX_BROADCAST) != 0);
+			declaration = channelDeclaration;
+		}
+		else if (baseType == BuiltInType.CLOCK) {
+			declaration = declarationsFactory.createClockVariableDeclaration();
+		}
+		else {
+			DataVariableDeclaration dataDeclaration = declarationsFactory.createDataVariableDeclaration();
+			if ((prefixes & PREFIX_CONST) != 0) {
+				dataDeclaration.setPrefix(DataVariablePrefix.CONST);
+			}
+			else if ((prefixes & PREFIX_META) != 0) {
+				dataDeclaration.setPrefix(DataVariablePrefix.META);
+			}
+			else {
+				dataDeclaration.setPrefix(DataVariablePrefix.NONE);
+			}
+			declaration = dataDeclaration;
+		}
+		declaration.setTypeDefinition(type);
+		return declaration;
+	}
+
+	protected Expression createLogical(Expression first, LogicalOperator operator, Expression second) {
+		LogicalExpression expression = expressionsFactory.createLogicalExpression();
+		expression.setOperator(operator);
+		return initBinary(expression, first, second);
+	}
+
+	protected Expression createBitwise(Expression first, BitwiseOperator operator, Expression second) {
+		BitwiseExpression expression = expressionsFactory.createBitwiseExpression();
+		expression.setOperator(operator);
+		return initBinary(expression, first, second);
+	}
+
+	protected Expression createCompare(Expression first, CompareOperator operator, Expression second) {
+		CompareExpression expression = expressionsFactory.createCompareExpression();
+		expression.setOperator(operator);
+		return initBinary(expression, first, second);
+	}
+
+	protected Expression createArithmetic(Expression first, ArithmeticOperator operator, Expression second) {
+		ArithmeticExpression expression = expressionsFactory.createArithmeticExpression();
+		expression.setOperator(operator);
+		return initBinary(expression, first, second);
+	}
+
+	protected Expression initBinary(BinaryExpression expression, Expression first, Expression second) {
+		expression.setFirstExpr(first);
+		expression.setSecondExpr(second);
+		return expression;
+	}
+
+	/**
+	 * Returns the built-in base type of a type definition without evaluating derived features.
+	 * @param type the type definition.
+	 * @return the base type, or <code>null</code> for structures.
+	 */
+	protected static BuiltInType getBaseType(TypeDefinition type) {
+		TypeDefinition resolved = resolveTypeDefinition(type);
+		if (resolved instanceof TypeReference) {
+			Type referredType = ((TypeReference)resolved).getReferredType();
+			return referredType instanceof PredefinedType ? ((PredefinedType)referredType).getType() : null;
+		}
+		if (resolved instanceof RangeTypeSpecification || resolved instanceof ScalarTypeSpecification) {
+			return BuiltInType.INT;
+		}
+		return null;
+	}
+
+	/**
+	 * Follows references to declared types until a predefined type or a type specification is reached.
+	 * @param type the type definition.
+	 * @return the resolved type definition.
+	 */
+	protected static TypeDefinition resolveTypeDefinition(TypeDefinition type) {
+		while (type instanceof TypeReference && ((TypeReference)type).getReferredType() instanceof DeclaredType) {
+			TypeDeclaration declaration = ((DeclaredType)((TypeReference)type).getReferredType()).getTypeDeclaration();
+			if (declaration == null) {
+				return type;
+			}
+			type = declaration.getTypeDefinition();
+		}
+		return type;
+	}
+
+	// Lexer
+
+	/**
+	 * Starts scanning the given text.
+	 * @param text the text.
+	 * @throws UppaalParseException if the first token is not valid.
+	 */
+	protected void start(CharSequence text) throws UppaalParseException {
+		this.text = text;
+		this.position = 0;
+		next();
+	}
+
+	/**
+	 * Advances to the next token.
+	 * @throws UppaalParseException if the next token is not valid.
+	 */
+	protected void next() throws UppaalParseException {
+		int length = text.length();
+		while (position < length) {
+			char c = text.charAt(position);
+			if (Character.isWhitespace(c)) {
+				position++;
+			}
+			else if (c == '/' && position + 1 < length && text.charAt(position + 1) == '/') {
+				while (position < length && text.charAt(position) != '\n') {
+					position++;
+				}
+			}
+			else if (c == '/' && position + 1 < length && text.charAt(position + 1) == '*') {
+				position += 2;
+				while (position < length && !(text.charAt(position) == '*' && position + 1 < length && text.charAt(position + 1) == '/')) {
+					position++;
+				}
+				position += 2;
+			}
+			else {
+				break;
+			}
+		}
+		tokenStart = position;
+		if (position >= length) {
+			tokenKind = EOF;
+			token = "";
+			return;
+		}
+		char c = text.charAt(position);
+		if (Character.isLetter(c) || c == '_') {
+			while (position < length && (Character.isLetterOrDigit(text.charAt(position)) || text.charAt(position) == '_')) {
+				position++;
+			}
+			tokenKind = IDENTIFIER;
+			token = text.subSequence(tokenStart, position).toString();
+			return;
+		}
+		if (Character.isDigit(c)) {
+			while (position < length && (Character.isDigit(text.charAt(position)) || text.charAt(position) == '.')) {
+				position++;
+			}
+			tokenKind = NUMBER;
+			token = text.subSequence(tokenStart, position).toString();
+			return;
+		}
+		for (String symbol : SYMBOLS) {
+			if (matches(symbol)) {
+				position += symbol.length();
+				tokenKind = SYMBOL;
+				token = symbol;
+				return;
+			}
+		}
+		throw error("Unexpected character '" + c + "'");
+	}
+
+	/**
+	 * Checks whether the text at the current position starts with the given symbol.
+	 * @param symbol the symbol.
+	 * @return whether the symbol matches.
+	 */
+	private boolean matches(String symbol) {
+		if (position + symbol.length() > text.length()) {
+			return false;
+		}
+		for (int i = 0; i < symbol.length(); i++) {
+			if (text.charAt(position + i) != symbol.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the current token is the given keyword or symbol.
+	 * @param expected the keyword or symbol.
+	 * @return whether the current token matches.
+	 */
+	protected boolean is(String expected) {
+		return tokenKind != EOF && tokenKind != NUMBER && token.equals(expected);
+	}
+
+	/**
+	 * Checks whether the token following the current one is the given keyword or symbol.
+	 * @param expected the keyword or symbol.
+	 * @return whether the next token matches.
+	 * @throws UppaalParseException if the next token is not valid.
+	 */
+	protected boolean peekIs(String expected) throws UppaalParseException {
+		int savedPosition = position;
+		int savedTokenStart = tokenStart;
+		int savedTokenKind = tokenKind;
+		String savedToken = token;
+		next();
+		boolean result = is(expected);
+		position = savedPosition;
+		tokenStart = savedTokenStart;
+		tokenKind = savedTokenKind;
+		token = savedToken;
+		return result;
+	}
+
+	/**
+	 * Consumes the current token if it is the given keyword or symbol.
+	 * @param expected the keyword or symbol.
+	 * @return whether the token has been consumed.
+	 * @throws UppaalParseException if the next token is not valid.
+	 */
+	protected boolean accept(String expected) throws UppaalParseException {
+		if (is(expected)) {
+			next();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Consumes the current token, which must be the given keyword or symbol.
+	 * @param expected the keyword or symbol.
+	 * @throws UppaalParseException if the current token does not match.
+	 */
+	protected void expect(String expected) throws UppaalParseException {
+		if (!accept(expected)) {
+			throw error("'" + expected + "' expected");
+		}
+	}
+
+	/**
+	 * Consumes the current token, which must be an identifier.
+	 * @return the identifier.
+	 * @throws UppaalParseException if the current token is no identifier.
+	 */
+	protected String expectIdentifier() throws UppaalParseException {
+		if (tokenKind != IDENTIFIER) {
+			throw error("Identifier expected");
+		}
+		String identifier = token;
+		next();
+		return identifier;
+	}
+
+	/**
+	 * Checks that the whole text has been consumed.
+	 * @throws UppaalParseException if there are remaining tokens.
+	 */
+	protected void expectEnd() throws UppaalParseException {
+		if (tokenKind != EOF) {
+			throw error("Unexpected '" + token + "'");
+		}
+	}
+
+	/**
+	 * Creates an exception for an error at the current token.
+	 * @param message the description of the error.
+	 * @return the exception.
+	 */
+	protected UppaalParseException error(String message) {
+		int line = 1;
+		int column = 1;
+		for (int i = 0; i < tokenStart && i < text.length(); i++) {
+			if (text.charAt(i) == '\n') {
+				line++;
+				column = 1;
+			}
+			else {
+				column++;
+			}
+		}
+		return new UppaalParseException(message, line, column);
+	}
+
+	/**
+	 * A scope mapping names to the elements declared in it.
+	 */
+	protected static class Scope {
+		/**
+		 * The enclosing scope.
+		 */
+		protected final Scope parent;
+
+		/**
+		 * The elements declared in this scope by name.
+		 */
+		protected final Map<String, NamedElement> elements = new HashMap<String, NamedElement>();
+
+		/**
+		 * Creates a scope nested in the given one.
+		 * @param parent the enclosing scope, or <code>null</code>.
+		 */
+		public Scope(Scope parent) {
+			this.parent = parent;
+		}
+
+		/**
+		 * Declares an element in this scope, shadowing elements of enclosing scopes.
+		 * @param element the element.
+		 */
+		public void declare(NamedElement element) {
+			elements.put(element.getName(), element);
+		}
+
+		/**
+		 * Looks up a name in this scope and its enclosing scopes.
+		 * @param name the name.
+		 * @return the innermost element with the given name, or <code>null</code>.
+		 */
+		public NamedElement lookup(String name) {
+			for (Scope current = this; current != null; current = current.parent) {
+				NamedElement element = current.elements.get(name);
+				if (element != null) {
+					return element;
+				}
+			}
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,1141 @@
+/**
+ */
+package de.uni_paderborn.uppaal.serialization;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.eclipse.emf.common.util.Enumerator;
+
+import de.uni_paderborn.uppaal.declarations.ArrayInitializer;
+import de.uni_paderborn.uppaal.declarations.CallType;
+import de.uni_paderborn.uppaal.declarations.ChannelVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.DataVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.DataVariablePrefix;
+import de.uni_paderborn.uppaal.declarations.Declaration;
+import de.uni_paderborn.uppaal.declarations.Declarations;
+import de.uni_paderborn.uppaal.declarations.ExpressionInitializer;
+import de.uni_paderborn.uppaal.declarations.Function;
+import de.uni_paderborn.uppaal.declarations.FunctionDeclaration;
+import de.uni_paderborn.uppaal.declarations.GlobalDeclarations;
+import de.uni_paderborn.uppaal.declarations.Index;
+import de.uni_paderborn.uppaal.declarations.Initializer;
+import de.uni_paderborn.uppaal.declarations.Parameter;
+import de.uni_paderborn.uppaal.declarations.SystemDeclarations;
+import de.uni_paderborn.uppaal.declarations.TypeDeclaration;
+import de.uni_paderborn.uppaal.declarations.TypeIndex;
+import de.uni_paderborn.uppaal.declarations.ValueIndex;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.declarations.VariableContainer;
+import de.uni_paderborn.uppaal.declarations.VariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.global.ChannelList;
+import de.uni_paderborn.uppaal.declarations.global.ChannelPriority;
+import de.uni_paderborn.uppaal.declarations.global.ChannelPriorityItem;
+import de.uni_paderborn.uppaal.declarations.system.InstantiationList;
+import de.uni_paderborn.uppaal.declarations.system.ProgressMeasure;
+import de.uni_paderborn.uppaal.declarations.system.TemplateDeclaration;
+import de.uni_paderborn.uppaal.expressions.ArithmeticExpression;
+import de.uni_paderborn.uppaal.expressions.AssignmentExpression;
+import de.uni_paderborn.uppaal.expressions.BinaryExpression;
+import de.uni_paderborn.uppaal.expressions.BitShiftExpression;
+import de.uni_paderborn.uppaal.expressions.BitwiseExpression;
+import de.uni_paderborn.uppaal.expressions.CompareExpression;
+import de.uni_paderborn.uppaal.expressions.ConditionExpression;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.expressions.ExpressionsPackage;
+import de.uni_paderborn.uppaal.expressions.FunctionCallExpression;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.IncrementDecrementExpression;
+import de.uni_paderborn.uppaal.expressions.IncrementDecrementPosition;
+import de.uni_paderborn.uppaal.expressions.LiteralExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalOperator;
+import de.uni_paderborn.uppaal.expressions.MinMaxExpression;
+import de.uni_paderborn.uppaal.expressions.MinusExpression;
+import de.uni_paderborn.uppaal.expressions.NegationExpression;
+import de.uni_paderborn.uppaal.expressions.PlusExpression;
+import de.uni_paderborn.uppaal.expressions.QuantificationExpression;
+import de.uni_paderborn.uppaal.expressions.Quantifier;
+import de.uni_paderborn.uppaal.expressions.ScopedIdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.util.ExpressionsSwitch;
+import de.uni_paderborn.uppaal.statements.Block;
+import de.uni_paderborn.uppaal.statements.DoWhileLoop;
+import de.uni_paderborn.uppaal.statements.EmptyStatement;
+import de.uni_paderborn.uppaal.statements.ExpressionStatement;
+import de.uni_paderborn.uppaal.statements.ForLoop;
+import de.uni_paderborn.uppaal.statements.IfStatement;
+import de.uni_paderborn.uppaal.statements.Iteration;
+import de.uni_paderborn.uppaal.statements.ReturnStatement;
+import de.uni_paderborn.uppaal.statements.Statement;
+import de.uni_paderborn.uppaal.statements.WhileLoop;
+import de.uni_paderborn.uppaal.statements.util.StatementsSwitch;
+import de.uni_paderborn.uppaal.templates.AbstractTemplate;
+import de.uni_paderborn.uppaal.templates.RedefinedTemplate;
+import de.uni_paderborn.uppaal.templates.Selection;
+import de.uni_paderborn.uppaal.templates.Synchronization;
+import de.uni_paderborn.uppaal.types.DeclaredType;
+import de.uni_paderborn.uppaal.types.IntegerBounds;
+import de.uni_paderborn.uppaal.types.RangeTypeSpecification;
+import de.uni_paderborn.uppaal.types.ScalarTypeSpecification;
+import de.uni_paderborn.uppaal.types.StructTypeSpecification;
+import de.uni_paderborn.uppaal.types.TypeDefinition;
+import de.uni_paderborn.uppaal.types.TypeReference;
+
+/**
+ * Prints declarations, statements and expressions of the model in Uppaal's textual syntax.
+ * <p>
+ * The printer appends directly to an {@link Appendable} and never builds intermediate strings,
+ * so it can be pointed at a buffered writer as well as at a reused {@link StringBuilder}.
+ * Expressions and statements are dispatched through an {@link ExpressionsSwitch} and a {@link StatementsSwitch},
+ * and parentheses are only printed where the precedence or associativity of the operators requires them.
+ * </p>
+ */
+public class UppaalTextPrinter {
+	/**
+	 * The precedence levels of Uppaal's operators, from the loosest to the tightest binding.
+	 * The keyword operators <code>or</code> and <code>and</code> are printed as <code>||</code> and <code>&amp;&amp;</code>.
+	 */
+	public static final int PRECEDENCE_LOWEST = 0;
+
+	public static final int PRECEDENCE_IMPLY = 1;
+
+	public static final int PRECEDENCE_QUANTIFIER = 2;
+
+	public static final int PRECEDENCE_ASSIGNMENT = 3;
+
+	public static final int PRECEDENCE_CONDITION = 4;
+
+	public static final int PRECEDENCE_OR = 5;
+
+	public static final int PRECEDENCE_AND = 6;
+
+	public static final int PRECEDENCE_BIT_OR = 7;
+
+	public static final int PRECEDENCE_BIT_XOR = 8;
+
+	public static final int PRECEDENCE_BIT_AND = 9;
+
+	public static final int PRECEDENCE_EQUALITY = 10;
+
+	public static final int PRECEDENCE_RELATION = 11;
+
+	public static final int PRECEDENCE_MIN_MAX = 12;
+
+	public static final int PRECEDENCE_SHIFT = 13;
+
+	public static final int PRECEDENCE_ADDITIVE = 14;
+
+	public static final int PRECEDENCE_MULTIPLICATIVE = 15;
+
+	public static final int PRECEDENCE_UNARY = 16;
+
+	public static final int PRECEDENCE_POSTFIX = 17;
+
+	public static final int PRECEDENCE_PRIMARY = 18;
+
+	/**
+	 * The characters used for one level of indentation.
+	 */
+	protected static final String INDENTATION = "    ";
+
+	/**
+	 * The target of the printer.
+	 */
+	protected Appendable out;
+
+	/**
+	 * The current indentation level.
+	 */
+	protected int indentation;
+
+	/**
+	 * The switch printing expressions.
+	 */
+	protected final ExpressionPrinter expressionPrinter = new ExpressionPrinter();
+
+	/**
+	 * The switch printing statements.
+	 */
+	protected final StatementPrinter statementPrinter = new StatementPrinter();
+
+	/**
+	 * Creates a printer appending to the given target.
+	 * @param out the target of the printer.
+	 */
+	public UppaalTextPrinter(Appendable out) {
+		this.out = out;
+	}
+
+	/**
+	 * Returns the target of the printer.
+	 * @return the target of the printer.
+	 */
+	public Appendable getOut() {
+		return out;
+	}
+
+	/**
+	 * Redirects the printer to another target, so that a single instance can be reused.
+	 * @param out the new target of the printer.
+	 */
+	public void setOut(Appendable out) {
+		this.out = out;
+		this.indentation = 0;
+	}
+
+	/**
+	 * Prints a list of declarations, one per line.
+	 * @param declarations the declarations to print, may be <code>null</code>.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printDeclarations(Declarations declarations) throws IOException {
+		if (declarations == null) {
+			return;
+		}
+		for (Declaration declaration : declarations.getDeclaration()) {
+			printDeclaration(declaration);
+			newLine();
+		}
+		if (declarations instanceof GlobalDeclarations) {
+			ChannelPriority channelPriority = ((GlobalDeclarations)declarations).getChannelPriority();
+			if (channelPriority != null) {
+				printChannelPriority(channelPriority);
+				newLine();
+			}
+		}
+		else if (declarations instanceof SystemDeclarations) {
+			SystemDeclarations systemDeclarations = (SystemDeclarations)declarations;
+			if (systemDeclarations.getProgressMeasure() != null) {
+				printProgressMeasure(systemDeclarations.getProgressMeasure());
+				newLine();
+			}
+			if (systemDeclarations.getSystem() != null) {
+				printSystem(systemDeclarations.getSystem());
+				newLine();
+			}
+		}
+	}
+
+	/**
+	 * Prints a single declaration.
+	 * @param declaration the declaration to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printDeclaration(Declaration declaration) throws IOException {
+		indent();
+		if (declaration instanceof VariableDeclaration) {
+			printVariableDeclaration((VariableDeclaration)declaration);
+			out.append(';');
+		}
+		else if (declaration instanceof TypeDeclaration) {
+			printTypeDeclaration((TypeDeclaration)declaration);
+		}
+		else if (declaration instanceof FunctionDeclaration) {
+			printFunction(((FunctionDeclaration)declaration).getFunction());
+		}
+		else if (declaration instanceof TemplateDeclaration) {
+			printTemplateDeclaration((TemplateDeclaration)declaration);
+		}
+		else if (declaration.getExp() != null) {
+			out.append(declaration.getExp());
+		}
+	}
+
+	/**
+	 * Prints a variable declaration without the terminating semicolon.
+	 * @param declaration the declaration to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printVariableDeclaration(VariableDeclaration declaration) throws IOException {
+		if (declaration instanceof DataVariableDeclaration) {
+			DataVariablePrefix prefix = ((DataVariableDeclaration)declaration).getPrefix();
+			if (prefix != null && prefix != DataVariablePrefix.NONE) {
+				out.append(prefix.getLiteral()).append(' ');
+			}
+		}
+		else if (declaration instanceof ChannelVariableDeclaration) {
+			ChannelVariableDeclaration channelDeclaration = (ChannelVariableDeclaration)declaration;
+			if (channelDeclaration.isUrgent()) {
+				out.append("urgent ");
+			}
+			if (channelDeclaration.isBroadcast()) {
+				out.append("broadcast ");
+			}
+		}
+		printVariableContainer(declaration);
+	}
+
+	/**
+	 * Prints the type and the variables of a variable container, separated by commas.
+	 * @param container the container to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printVariableContainer(VariableContainer container) throws IOException {
+		printTypeDefinition(container.getTypeDefinition());
+		out.append(' ');
+		List<Variable> variables = container.getVariable();
+		for (int i = 0; i < variables.size(); i++) {
+			if (i > 0) {
+				out.append(", ");
+			}
+			printVariable(variables.get(i));
+		}
+	}
+
+	/**
+	 * Prints a variable including its array dimensions and initializer.
+	 * @param variable the variable to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printVariable(Variable variable) throws IOException {
+		out.append(variable.getName());
+		printIndices(variable.getIndex());
+		if (variable.getInitializer() != null) {
+			out.append(" = ");
+			printInitializer(variable.getInitializer());
+		}
+	}
+
+	/**
+	 * Prints the array dimensions of a variable or type.
+	 * @param indices the dimensions to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printIndices(List<Index> indices) throws IOException {
+		for (Index index : indices) {
+			out.append('[');
+			if (index instanceof ValueIndex) {
+				printExpression(((ValueIndex)index).getSizeExpression());
+			}
+			else if (index instanceof TypeIndex) {
+				printTypeDefinition(((TypeIndex)index).getTypeDefinition());
+			}
+			out.append(']');
+		}
+	}
+
+	/**
+	 * Prints an initializer.
+	 * @param initializer the initializer to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printInitializer(Initializer initializer) throws IOException {
+		if (initializer instanceof ExpressionInitializer) {
+			printExpression(((ExpressionInitializer)initializer).getExpression());
+		}
+		else if (initializer instanceof ArrayInitializer) {
+			out.append("{ ");
+			List<Initializer> initializers = ((ArrayInitializer)initializer).getInitializer();
+			for (int i = 0; i < initializers.size(); i++) {
+				if (i > 0) {
+					out.append(", ");
+				}
+				printInitializer(initializers.get(i));
+			}
+			out.append(" }");
+		}
+	}
+
+	/**
+	 * Prints a type definition, i.e. a reference to a named type or an inline type specification.
+	 * @param typeDefinition the type definition to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printTypeDefinition(TypeDefinition typeDefinition) throws IOException {
+		if (typeDefinition instanceof TypeReference) {
+			out.append(((TypeReference)typeDefinition).getReferredType().getName());
+		}
+		else if (typeDefinition instanceof RangeTypeSpecification) {
+			IntegerBounds bounds = ((RangeTypeSpecification)typeDefinition).getBounds();
+			out.append("int[");
+			printExpression(bounds.getLowerBound());
+			out.append(',');
+			printExpression(bounds.getUpperBound());
+			out.append(']');
+		}
+		else if (typeDefinition instanceof ScalarTypeSpecification) {
+			out.append("scalar[");
+			printExpression(((ScalarTypeSpecification)typeDefinition).getSizeExpression());
+			out.append(']');
+		}
+		else if (typeDefinition instanceof StructTypeSpecification) {
+			out.append("struct {");
+			indentation++;
+			for (DataVariableDeclaration field : ((StructTypeSpecification)typeDefinition).getDeclaration()) {
+				newLine();
+				indent();
+				printVariableDeclaration(field);
+				out.append(';');
+			}
+			indentation--;
+			newLine();
+			indent();
+			out.append('}');
+		}
+	}
+
+	/**
+	 * Prints a type declaration, e.g. <code>typedef int[0,3] id_t;</code>.
+	 * @param declaration the declaration to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printTypeDeclaration(TypeDeclaration declaration) throws IOException {
+		out.append("typedef ");
+		printTypeDefinition(declaration.getTypeDefinition());
+		out.append(' ');
+		List<DeclaredType> types = declaration.getType();
+		for (int i = 0; i < types.size(); i++) {
+			if (i > 0) {
+				out.append(", ");
+			}
+			DeclaredType type = types.get(i);
+			out.append(type.getName());
+			printIndices(type.getIndex());
+		}
+		out.append(';');
+	}
+
+	/**
+	 * Prints a function including its body.
+	 * @param function the function to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printFunction(Function function) throws IOException {
+		printTypeDefinition(function.getReturnType());
+		out.append(' ').append(function.getName()).append('(');
+		printParameters(function.getParameter());
+		out.append(')');
+		newLine();
+		indent();
+		printBlock(function.getBlock());
+	}
+
+	/**
+	 * Prints a comma separated list of parameters.
+	 * @param parameters the parameters to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printParameters(List<Parameter> parameters) throws IOException {
+		for (int i = 0; i < parameters.size(); i++) {
+			if (i > 0) {
+				out.append(", ");
+			}
+			printParameter(parameters.get(i));
+		}
+	}
+
+	/**
+	 * Prints a parameter, marking call-by-reference parameters with an ampersand.
+	 * @param parameter the parameter to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printParameter(Parameter parameter) throws IOException {
+		VariableDeclaration declaration = parameter.getVariableDeclaration();
+		if (declaration instanceof DataVariableDeclaration) {
+			DataVariablePrefix prefix = ((DataVariableDeclaration)declaration).getPrefix();
+			if (prefix != null && prefix != DataVariablePrefix.NONE) {
+				out.append(prefix.getLiteral()).append(' ');
+			}
+		}
+		else if (declaration instanceof ChannelVariableDeclaration) {
+			ChannelVariableDeclaration channelDeclaration = (ChannelVariableDeclaration)declaration;
+			if (channelDeclaration.isUrgent()) {
+				out.append("urgent ");
+			}
+			if (channelDeclaration.isBroadcast()) {
+				out.append("broadcast ");
+			}
+		}
+		printTypeDefinition(declaration.getTypeDefinition());
+		out.append(' ');
+		if (parameter.getCallType() == CallType.CALL_BY_REFERENCE) {
+			out.append('&');
+		}
+		if (!declaration.getVariable().isEmpty()) {
+			Variable variable = declaration.getVariable().get(0);
+			out.append(variable.getName());
+			printIndices(variable.getIndex());
+		}
+	}
+
+	/**
+	 * Prints a template redefinition of the system declarations, e.g. <code>P1 = P(1);</code>.
+	 * @param declaration the declaration to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printTemplateDeclaration(TemplateDeclaration declaration) throws IOException {
+		RedefinedTemplate template = declaration.getDeclaredTemplate();
+		out.append(template.getName());
+		if (!template.getParameter().isEmpty()) {
+			out.append('(');
+			printParameters(template.getParameter());
+			out.append(')');
+		}
+		out.append(" = ").append(template.getReferredTemplate().getName()).append('(');
+		printExpressions(declaration.getArgument(), ", ");
+		out.append(");");
+	}
+
+	/**
+	 * Prints the channel priority declaration, e.g. <code>chan priority a, b &lt; default &lt; c;</code>.
+	 * @param channelPriority the channel priority to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printChannelPriority(ChannelPriority channelPriority) throws IOException {
+		indent();
+		out.append("chan priority ");
+		List<ChannelPriorityItem> items = channelPriority.getItem();
+		for (int i = 0; i < items.size(); i++) {
+			if (i > 0) {
+				out.append(" < ");
+			}
+			ChannelPriorityItem item = items.get(i);
+			if (item instanceof ChannelList) {
+				List<IdentifierExpression> channels = ((ChannelList)item).getChannelExpression();
+				for (int j = 0; j < channels.size(); j++) {
+					if (j > 0) {
+						out.append(", ");
+					}
+					printExpression(channels.get(j));
+				}
+			}
+			else {
+				out.append("default");
+			}
+		}
+		out.append(';');
+	}
+
+	/**
+	 * Prints a progress measure declaration.
+	 * @param progressMeasure the progress measure to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printProgressMeasure(ProgressMeasure progressMeasure) throws IOException {
+		indent();
+		out.append("progress {");
+		indentation++;
+		for (Expression expression : progressMeasure.getExpression()) {
+			newLine();
+			indent();
+			printExpression(expression);
+			out.append(';');
+		}
+		indentation--;
+		newLine();
+		indent();
+		out.append('}');
+	}
+
+	/**
+	 * Prints the process instantiation line of the system declarations.
+	 * Templates of the same instantiation list are separated by commas,
+	 * lists of decreasing priority are separated by '&lt;'.
+	 * @param system the system to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printSystem(de.uni_paderborn.uppaal.declarations.system.System system) throws IOException {
+		indent();
+		out.append("system ");
+		List<InstantiationList> instantiationLists = system.getInstantiationList();
+		for (int i = 0; i < instantiationLists.size(); i++) {
+			if (i > 0) {
+				out.append(" < ");
+			}
+			List<AbstractTemplate> templates = instantiationLists.get(i).getTemplate();
+			for (int j = 0; j < templates.size(); j++) {
+				if (j > 0) {
+					out.append(", ");
+				}
+				out.append(templates.get(j).getName());
+			}
+		}
+		out.append(';');
+	}
+
+	/**
+	 * Prints the select label of an edge, e.g. <code>i : int[0,3], j : id_t</code>.
+	 * @param selections the selections to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printSelections(List<Selection> selections) throws IOException {
+		for (int i = 0; i < selections.size(); i++) {
+			if (i > 0) {
+				out.append(", ");
+			}
+			Selection selection = selections.get(i);
+			out.append(selection.getVariable().get(0).getName()).append(" : ");
+			printTypeDefinition(selection.getTypeDefinition());
+		}
+	}
+
+	/**
+	 * Prints the synchronization label of an edge, e.g. <code>c[i]!</code>.
+	 * @param synchronization the synchronization to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printSynchronization(Synchronization synchronization) throws IOException {
+		printExpression(synchronization.getChannelExpression());
+		out.append(synchronization.getKind().getLiteral());
+	}
+
+	/**
+	 * Prints the given expressions separated by the given separator.
+	 * @param expressions the expressions to print.
+	 * @param separator the separator to insert between two expressions.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printExpressions(List<Expression> expressions, String separator) throws IOException {
+		for (int i = 0; i < expressions.size(); i++) {
+			if (i > 0) {
+				out.append(separator);
+			}
+			printExpression(expressions.get(i));
+		}
+	}
+
+	/**
+	 * Prints a statement. Nested statements are printed on their own, indented lines.
+	 * @param statement the statement to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printStatement(Statement statement) throws IOException {
+		try {
+			statementPrinter.doSwitch(statement);
+		}
+		catch (AppendException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Prints a block including its local declarations.
+	 * @param block the block to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printBlock(Block block) throws IOException {
+		printStatement(block);
+	}
+
+	/**
+	 * Prints an expression with the minimal number of parentheses.
+	 * @param expression the expression to print.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printExpression(Expression expression) throws IOException {
+		printExpression(expression, PRECEDENCE_LOWEST);
+	}
+
+	/**
+	 * Prints an expression in a context of the given precedence,
+	 * enclosing it in parentheses if its own operator binds less tightly.
+	 * @param expression the expression to print.
+	 * @param precedence the precedence of the context.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void printExpression(Expression expression, int precedence) throws IOException {
+		try {
+			expressionPrinter.print(expression, precedence);
+		}
+		catch (AppendException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Returns the textual operator symbol of a binary expression.
+	 * @param expression the binary expression.
+	 * @return the operator symbol.
+	 */
+	protected String getOperatorSymbol(BinaryExpression expression) {
+		if (expression instanceof LogicalExpression) {
+			switch (((LogicalExpression)expression).getOperator()) {
+				case AND:
+					return "&&";
+				case OR:
+					return "||";
+				default:
+					return LogicalOperator.IMPLY.getLiteral();
+			}
+		}
+		return getOperator(expression).getLiteral();
+	}
+
+	/**
+	 * Returns the operator of a binary expression.
+	 * @param expression the binary expression.
+	 * @return the operator.
+	 */
+	protected static Enumerator getOperator(BinaryExpression expression) {
+		switch (expression.eClass().getClassifierID()) {
+			case ExpressionsPackage.ARITHMETIC_EXPRESSION:
+				return ((ArithmeticExpression)expression).getOperator();
+			case ExpressionsPackage.COMPARE_EXPRESSION:
+				return ((CompareExpression)expression).getOperator();
+			case ExpressionsPackage.LOGICAL_EXPRESSION:
+				return ((LogicalExpression)expression).getOperator();
+			case ExpressionsPackage.ASSIGNMENT_EXPRESSION:
+				return ((AssignmentExpression)expression).getOperator();
+			case ExpressionsPackage.BIT_SHIFT_EXPRESSION:
+				return ((BitShiftExpression)expression).getOperator();
+			case ExpressionsPackage.BITWISE_EXPRESSION:
+				return ((BitwiseExpression)expression).getOperator();
+			default:
+				return ((MinMaxExpression)expression).getOperator();
+		}
+	}
+
+	/**
+	 * Returns the precedence of the operator of an expression, higher values binding more tightly.
+	 * The levels follow Uppaal's grammar and the <code>PRECEDENCE_</code> constants.
+	 * @param expression the expression.
+	 * @return the precedence.
+	 */
+	public static int getPrecedence(Expression expression) {
+		switch (expression.eClass().getClassifierID()) {
+			case ExpressionsPackage.LOGICAL_EXPRESSION:
+				switch (((LogicalExpression)expression).getOperator()) {
+					case AND:
+						return PRECEDENCE_AND;
+					case OR:
+						return PRECEDENCE_OR;
+					default:
+						return PRECEDENCE_IMPLY;
+				}
+			case ExpressionsPackage.QUANTIFICATION_EXPRESSION:
+				return PRECEDENCE_QUANTIFIER;
+			case ExpressionsPackage.ASSIGNMENT_EXPRESSION:
+				return PRECEDENCE_ASSIGNMENT;
+			case ExpressionsPackage.CONDITION_EXPRESSION:
+				return PRECEDENCE_CONDITION;
+			case ExpressionsPackage.BITWISE_EXPRESSION:
+				switch (((BitwiseExpression)expression).getOperator()) {
+					case OR:
+						return PRECEDENCE_BIT_OR;
+					case XOR:
+						return PRECEDENCE_BIT_XOR;
+					default:
+						return PRECEDENCE_BIT_AND;
+				}
+			case ExpressionsPackage.COMPARE_EXPRESSION:
+				switch (((CompareExpression)expression).getOperator()) {
+					case EQUAL:
+					case UNEQUAL:
+						return PRECEDENCE_EQUALITY;
+					default:
+						return PRECEDENCE_RELATION;
+				}
+			case ExpressionsPackage.MIN_MAX_EXPRESSION:
+				return PRECEDENCE_MIN_MAX;
+			case ExpressionsPackage.BIT_SHIFT_EXPRESSION:
+				return PRECEDENCE_SHIFT;
+			case ExpressionsPackage.ARITHMETIC_EXPRESSION:
+				switch (((ArithmeticExpression)expression).getOperator()) {
+					case ADD:
+					case SUBTRACT:
+						return PRECEDENCE_ADDITIVE;
+					default:
+						return PRECEDENCE_MULTIPLICATIVE;
+				}
+			case ExpressionsPackage.NEGATION_EXPRESSION:
+			case ExpressionsPackage.MINUS_EXPRESSION:
+			case ExpressionsPackage.PLUS_EXPRESSION:
+				return PRECEDENCE_UNARY;
+			case ExpressionsPackage.INCREMENT_DECREMENT_EXPRESSION:
+				return ((IncrementDecrementExpression)expression).getPosition() == IncrementDecrementPosition.PRE ? PRECEDENCE_UNARY : PRECEDENCE_POSTFIX;
+			case ExpressionsPackage.SCOPED_IDENTIFIER_EXPRESSION:
+			case ExpressionsPackage.FUNCTION_CALL_EXPRESSION:
+				return PRECEDENCE_POSTFIX;
+			default:
+				return PRECEDENCE_PRIMARY;
+		}
+	}
+
+	/**
+	 * Appends a character sequence, wrapping I/O errors so that they can pass through the switches.
+	 * @param text the text to append.
+	 */
+	private void write(CharSequence text) {
+		try {
+			out.append(text);
+		}
+		catch (IOException e) {
+			throw new AppendException(e);
+		}
+	}
+
+	/**
+	 * Appends a character, wrapping I/O errors so that they can pass through the switches.
+	 * @param c the character to append.
+	 */
+	private void write(char c) {
+		try {
+			out.append(c);
+		}
+		catch (IOException e) {
+			throw new AppendException(e);
+		}
+	}
+
+	/**
+	 * Starts a new, indented line, wrapping I/O errors so that they can pass through the switches.
+	 */
+	private void writeLine() {
+		try {
+			newLine();
+			indent();
+		}
+		catch (IOException e) {
+			throw new AppendException(e);
+		}
+	}
+
+	/**
+	 * Prints a type definition, wrapping I/O errors so that they can pass through the switches.
+	 * @param typeDefinition the type definition to print.
+	 */
+	private void writeTypeDefinition(TypeDefinition typeDefinition) {
+		try {
+			printTypeDefinition(typeDefinition);
+		}
+		catch (IOException e) {
+			throw new AppendException(e);
+		}
+	}
+
+	/**
+	 * Prints expressions by dispatching on their class.
+	 * Each case prints the expression without surrounding parentheses and reports success with {@link Boolean#TRUE}.
+	 */
+	protected class ExpressionPrinter extends ExpressionsSwitch<Boolean> {
+		/**
+		 * Prints an expression, enclosed in parentheses if it binds less tightly than its context.
+		 * @param expression the expression to print.
+		 * @param precedence the precedence of the context.
+		 */
+		public void print(Expression expression, int precedence) {
+			if (expression == null) {
+				return;
+			}
+			boolean parenthesize = getPrecedence(expression) < precedence;
+			if (parenthesize) {
+				write('(');
+			}
+			doSwitch(expression);
+			if (parenthesize) {
+				write(')');
+			}
+		}
+
+		/**
+		 * Prints a comma separated list of expressions.
+		 * @param expressions the expressions to print.
+		 */
+		protected void printList(List<Expression> expressions) {
+			for (int i = 0; i < expressions.size(); i++) {
+				if (i > 0) {
+					write(", ");
+				}
+				print(expressions.get(i), PRECEDENCE_ASSIGNMENT);
+			}
+		}
+
+		/**
+		 * Prints the operand of a prefix operator, separating consecutive signs so that they are not read as increments.
+		 * @param operator the prefix operator.
+		 * @param operand the operand.
+		 */
+		protected void printPrefix(char operator, Expression operand) {
+			write(operator);
+			int classifierID = operand.eClass().getClassifierID();
+			if (classifierID == ExpressionsPackage.MINUS_EXPRESSION || classifierID == ExpressionsPackage.PLUS_EXPRESSION
+				|| classifierID == ExpressionsPackage.INCREMENT_DECREMENT_EXPRESSION && ((IncrementDecrementExpression)operand).getPosition() == IncrementDecrementPosition.PRE) {
+				write(' ');
+			}
+			print(operand, PRECEDENCE_UNARY);
+		}
+
+		@Override
+		public Boolean caseLiteralExpression(LiteralExpression object) {
+			write(object.getText());
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseIdentifierExpression(IdentifierExpression object) {
+			write(object.getIdentifier().getName());
+			for (Expression index : object.getIndex()) {
+				write('[');
+				print(index, PRECEDENCE_LOWEST);
+				write(']');
+			}
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseScopedIdentifierExpression(ScopedIdentifierExpression object) {
+			print(object.getScope(), PRECEDENCE_POSTFIX);
+			write('.');
+			doSwitch(object.getIdentifier());
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseFunctionCallExpression(FunctionCallExpression object) {
+			write(object.getFunction().getName());
+			write('(');
+			printList(object.getArgument());
+			write(')');
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseAssignmentExpression(AssignmentExpression object) {
+			print(object.getFirstExpr(), PRECEDENCE_ASSIGNMENT + 1);
+			write(' ');
+			write(object.getOperator().getLiteral());
+			write(' ');
+			print(object.getSecondExpr(), PRECEDENCE_ASSIGNMENT);
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseBinaryExpression(BinaryExpression object) {
+			int precedence = getPrecedence(object);
+			print(object.getFirstExpr(), precedence);
+			write(' ');
+			write(getOperatorSymbol(object));
+			write(' ');
+			print(object.getSecondExpr(), precedence + 1);
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseNegationExpression(NegationExpression object) {
+			printPrefix('!', object.getNegatedExpression());
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseMinusExpression(MinusExpression object) {
+			printPrefix('-', object.getInvertedExpression());
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean casePlusExpression(PlusExpression object) {
+			printPrefix('+', object.getConfirmedExpression());
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseIncrementDecrementExpression(IncrementDecrementExpression object) {
+			if (object.getPosition() == IncrementDecrementPosition.PRE) {
+				write(object.getOperator().getLiteral());
+				print(object.getExpression(), PRECEDENCE_UNARY);
+			}
+			else {
+				print(object.getExpression(), PRECEDENCE_POSTFIX);
+				write(object.getOperator().getLiteral());
+			}
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseConditionExpression(ConditionExpression object) {
+			print(object.getIfExpression(), PRECEDENCE_CONDITION + 1);
+			write(" ? ");
+			print(object.getThenExpression(), PRECEDENCE_ASSIGNMENT);
+			write(" : ");
+			print(object.getElseExpression(), PRECEDENCE_CONDITION);
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseQuantificationExpression(QuantificationExpression object) {
+			write(object.getQuantifier() == Quantifier.EXISTENTIAL ? "exists (" : "forall (");
+			write(object.getVariable().get(0).getName());
+			write(" : ");
+			writeTypeDefinition(object.getTypeDefinition());
+			write(") ");
+			print(object.getExpression(), PRECEDENCE_LOWEST);
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseExpression(Expression object) {
+			if (object.getExp() != null) {
+				write(object.getExp());
+			}
+			return Boolean.TRUE;
+		}
+	}
+
+	/**
+	 * Prints statements by dispatching on their class.
+	 * Each case prints the statement starting at the current position without a trailing line break.
+	 */
+	protected class StatementPrinter extends StatementsSwitch<Boolean> {
+		/**
+		 * Prints the body of a compound statement on its own line, indented unless it is a block.
+		 * @param statement the nested statement.
+		 */
+		protected void printNested(Statement statement) {
+			boolean block = statement instanceof Block;
+			if (!block) {
+				indentation++;
+			}
+			writeLine();
+			doSwitch(statement);
+			if (!block) {
+				indentation--;
+			}
+		}
+
+		@Override
+		public Boolean caseBlock(Block object) {
+			write('{');
+			indentation++;
+			if (object.getDeclarations() != null) {
+				for (Declaration declaration : object.getDeclarations().getDeclaration()) {
+					try {
+						newLine();
+						printDeclaration(declaration);
+					}
+					catch (IOException e) {
+						throw new AppendException(e);
+					}
+				}
+			}
+			for (Statement statement : object.getStatement()) {
+				writeLine();
+				doSwitch(statement);
+			}
+			indentation--;
+			writeLine();
+			write('}');
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseExpressionStatement(ExpressionStatement object) {
+			expressionPrinter.print(object.getExpression(), PRECEDENCE_LOWEST);
+			write(';');
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseReturnStatement(ReturnStatement object) {
+			write("return");
+			if (object.getReturnExpression() != null) {
+				write(' ');
+				expressionPrinter.print(object.getReturnExpression(), PRECEDENCE_LOWEST);
+			}
+			write(';');
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseIfStatement(IfStatement object) {
+			write("if (");
+			expressionPrinter.print(object.getIfExpression(), PRECEDENCE_LOWEST);
+			write(')');
+			printNested(object.getThenStatement());
+			if (object.getElseStatement() != null) {
+				writeLine();
+				write("else");
+				printNested(object.getElseStatement());
+			}
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseForLoop(ForLoop object) {
+			write("for (");
+			expressionPrinter.print(object.getInitialization(), PRECEDENCE_LOWEST);
+			write("; ");
+			expressionPrinter.print(object.getCondition(), PRECEDENCE_LOWEST);
+			write("; ");
+			expressionPrinter.print(object.getIteration(), PRECEDENCE_LOWEST);
+			write(')');
+			printNested(object.getStatement());
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseIteration(Iteration object) {
+			write("for (");
+			write(object.getVariable().get(0).getName());
+			write(" : ");
+			writeTypeDefinition(object.getTypeDefinition());
+			write(')');
+			printNested(object.getStatement());
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseWhileLoop(WhileLoop object) {
+			write("while (");
+			expressionPrinter.print(object.getExpression(), PRECEDENCE_LOWEST);
+			write(')');
+			printNested(object.getStatement());
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseDoWhileLoop(DoWhileLoop object) {
+			write("do");
+			printNested(object.getStatement());
+			writeLine();
+			write("while (");
+			expressionPrinter.print(object.getExpression(), PRECEDENCE_LOWEST);
+			write(");");
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public Boolean caseEmptyStatement(EmptyStatement object) {
+			write(';');
+			return Boolean.TRUE;
+		}
+	}
+
+	/**
+	 * Carries an {@link IOException} of the target through the switches, which cannot throw checked exceptions.
+	 */
+	protected static class AppendException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Creates a wrapper for the given exception.
+		 * @param cause the exception of the target.
+		 */
+		public AppendException(IOException cause) {
+			super(cause);
+		}
+
+		@Override
+		public synchronized IOException getCause() {
+			return (IOException)super.getCause();
+		}
+	}
+
+	/**
+	 * Starts a new line.
+	 * @throws IOException if the target cannot be written.
+	 */
+	protected void newLine() throws IOException {
+		out.append('\n');
+	}
+
+	/**
+	 * Appends the indentation of the current nesting level.
+	 * @throws IOException if the target cannot be written.
+	 */
+	protected void indent() throws IOException {
+		for (int i = 0; i < indentation; i++) {
+			out.append(INDENTATION);
+		}
+	}
+
+}
@@ -0,0 +1,490 @@
+/**
+ */
+package de.uni_paderborn.uppaal.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.UppaalFactory;
+import de.uni_paderborn.uppaal.declarations.DeclarationsFactory;
+import de.uni_paderborn.uppaal.declarations.GlobalDeclarations;
+import de.uni_paderborn.uppaal.declarations.LocalDeclarations;
+import de.uni_paderborn.uppaal.declarations.SystemDeclarations;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.Location;
+import de.uni_paderborn.uppaal.templates.LocationKind;
+import de.uni_paderborn.uppaal.templates.Template;
+import de.uni_paderborn.uppaal.templates.TemplatesFactory;
+import de.uni_paderborn.uppaal.types.BuiltInType;
+import de.uni_paderborn.uppaal.types.PredefinedType;
+import de.uni_paderborn.uppaal.types.TypesFactory;
+import de.uni_paderborn.uppaal.visuals.ColorKind;
+import de.uni_paderborn.uppaal.visuals.ColoredElement;
+import de.uni_paderborn.uppaal.visuals.Point;
+import de.uni_paderborn.uppaal.visuals.VisualsFactory;
+
+/**
+ * Reads an {@link NTA} from Uppaal's native XML format, the counterpart of {@link UppaalXMLWriter}.
+ * <p>
+ * The document is processed in a single pass with a StAX cursor.
+ * Location identifiers are resolved through a per-template table, since Uppaal's DTD places all locations before the transitions,
+ * and declarations and labels are handed to an {@link UppaalTextParser} as soon as their element is complete.
+ * Element text is collected in a reused buffer, so no DOM is built.
+ * </p>
+ */
+public class UppaalXMLReader {
+	/**
+	 * The name given to NTAs read by default, as the native format does not store a name.
+	 */
+	public static final String DEFAULT_NAME = "NTA";
+
+	/**
+	 * The factory creating the StAX cursors.
+	 */
+	protected final XMLInputFactory inputFactory;
+
+	/**
+	 * The name given to the NTA read.
+	 */
+	protected String name = DEFAULT_NAME;
+
+	/**
+	 * The parser for declarations and labels of the document being read.
+	 */
+	protected UppaalTextParser parser;
+
+	/**
+	 * The NTA being read.
+	 */
+	protected NTA nta;
+
+	/**
+	 * The template being read, or <code>null</code> outside of templates.
+	 */
+	protected Template template;
+
+	/**
+	 * The location being read, or <code>null</code> outside of locations.
+	 */
+	protected Location location;
+
+	/**
+	 * The edge being read, or <code>null</code> outside of transitions.
+	 */
+	protected Edge edge;
+
+	/**
+	 * The kind of the label being read.
+	 */
+	protected String labelKind;
+
+	/**
+	 * The labels of the edge being read, which are parsed when the transition is complete.
+	 */
+	protected String select, guard, synchronisation, assignment;
+
+	/**
+	 * The text of the obsolete <code>instantiation</code> element, prepended to the system declarations.
+	 */
+	protected String instantiation;
+
+	/**
+	 * The locations of the template being read by identifier.
+	 */
+	protected final Map<String, Location> locations = new HashMap<String, Location>();
+
+	/**
+	 * The character data of the current element.
+	 */
+	protected final StringBuilder text = new StringBuilder();
+
+	/**
+	 * Creates a reader which does not resolve the external DTD.
+	 */
+	public UppaalXMLReader() {
+		inputFactory = XMLInputFactory.newInstance();
+		inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+	}
+
+	/**
+	 * Returns the name given to the NTAs read.
+	 * @return the name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Sets the name given to the NTAs read.
+	 * @param name the name.
+	 */
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Reads an NTA from the given byte stream.
+	 * @param in the source of the document.
+	 * @return the NTA.
+	 * @throws IOException if the document cannot be read or is not valid.
+	 */
+	public NTA read(InputStream in) throws IOException {
+		try {
+			return read(inputFactory.createXMLStreamReader(in));
+		}
+		catch (XMLStreamException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Reads an NTA from the given character stream.
+	 * @param in the source of the document.
+	 * @return the NTA.
+	 * @throws IOException if the document cannot be read or is not valid.
+	 */
+	public NTA read(Reader in) throws IOException {
+		try {
+			return read(inputFactory.createXMLStreamReader(in));
+		}
+		catch (XMLStreamException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Reads an NTA from the given StAX cursor and closes it.
+	 * @param reader the cursor.
+	 * @return the NTA.
+	 * @throws XMLStreamException if the document is not well-formed.
+	 * @throws IOException if a declaration or label is not valid.
+	 */
+	protected NTA read(XMLStreamReader reader) throws XMLStreamException, IOException {
+		nta = createNTA();
+		parser = createParser(nta);
+		try {
+			while (reader.hasNext()) {
+				switch (reader.next()) {
+					case XMLStreamConstants.START_ELEMENT:
+						text.setLength(0);
+						startElement(reader);
+						break;
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.CDATA:
+					case XMLStreamConstants.SPACE:
+						text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						endElement(reader.getLocalName());
+						break;
+					default:
+						break;
+				}
+			}
+			return nta;
+		}
+		finally {
+			reader.close();
+			reset();
+		}
+	}
+
+	/**
+	 * Clears the state of the document read.
+	 */
+	protected void reset() {
+		parser = null;
+		nta = null;
+		template = null;
+		location = null;
+		edge = null;
+		instantiation = null;
+		locations.clear();
+		text.setLength(0);
+	}
+
+	/**
+	 * Creates an empty NTA with the predefined types.
+	 * @return the NTA.
+	 */
+	protected NTA createNTA() {
+		NTA nta = UppaalFactory.eINSTANCE.createNTA();
+		nta.setName(name);
+		nta.setInt(createPredefinedType(BuiltInType.INT));
+		nta.setBool(createPredefinedType(BuiltInType.BOOL));
+		nta.setClock(createPredefinedType(BuiltInType.CLOCK));
+		nta.setChan(createPredefinedType(BuiltInType.CHAN));
+		nta.setVoid(createPredefinedType(BuiltInType.VOID));
+		return nta;
+	}
+
+	/**
+	 * Creates a predefined type named after its literal.
+	 * @param builtInType the built-in type.
+	 * @return the predefined type.
+	 */
+	protected PredefinedType createPredefinedType(BuiltInType builtInType) {
+		PredefinedType type = TypesFactory.eINSTANCE.createPredefinedType();
+		type.setName(builtInType.getLiteral());
+		type.setType(builtInType);
+		return type;
+	}
+
+	/**
+	 * Creates the parser for declarations and labels.
+	 * @param nta the NTA being read.
+	 * @return the parser.
+	 */
+	protected UppaalTextParser createParser(NTA nta) {
+		return new UppaalTextParser(nta);
+	}
+
+	/**
+	 * Handles the start of an element.
+	 * @param reader the cursor positioned at the start of the element.
+	 * @throws IOException if a referenced location does not exist.
+	 */
+	protected void startElement(XMLStreamReader reader) throws IOException {
+		String element = reader.getLocalName();
+		if ("template".equals(element)) {
+			template = TemplatesFactory.eINSTANCE.createTemplate();
+			nta.getTemplate().add(template);
+			locations.clear();
+			parser.beginTemplate(template);
+		}
+		else if ("location".equals(element) && template != null) {
+			location = TemplatesFactory.eINSTANCE.createLocation();
+			location.setLocationTimeKind(LocationKind.NORMAL);
+			location.setPosition(readPosition(reader));
+			readColor(reader, location);
+			template.getLocation().add(location);
+			locations.put(reader.getAttributeValue(null, "id"), location);
+		}
+		else if ("urgent".equals(element) && location != null) {
+			location.setLocationTimeKind(LocationKind.URGENT);
+		}
+		else if ("committed".equals(element) && location != null) {
+			location.setLocationTimeKind(LocationKind.COMMITED);
+		}
+		else if ("init".equals(element) && template != null) {
+			template.setInit(resolveLocation(reader));
+		}
+		else if ("transition".equals(element) && template != null) {
+			edge = TemplatesFactory.eINSTANCE.createEdge();
+			readColor(reader, edge);
+			template.getEdge().add(edge);
+			select = guard = synchronisation = assignment = null;
+		}
+		else if ("source".equals(element) && edge != null) {
+			edge.setSource(resolveLocation(reader));
+		}
+		else if ("target".equals(element) && edge != null) {
+			edge.setTarget(resolveLocation(reader));
+		}
+		else if ("nail".equals(element) && edge != null) {
+			edge.getBendPoint().add(readPosition(reader));
+		}
+		else if ("label".equals(element)) {
+			labelKind = reader.getAttributeValue(null, "kind");
+		}
+	}
+
+	/**
+	 * Handles the end of an element, whose character data is in {@link #text}.
+	 * @param element the name of the element.
+	 * @throws IOException if the character data is not valid.
+	 */
+	protected void endElement(String element) throws IOException {
+		if ("declaration".equals(element)) {
+			if (template != null) {
+				LocalDeclarations declarations = DeclarationsFactory.eINSTANCE.createLocalDeclarations();
+				template.setDeclarations(declarations);
+				parser.parseDeclarations(text, declarations);
+			}
+			else {
+				GlobalDeclarations declarations = DeclarationsFactory.eINSTANCE.createGlobalDeclarations();
+				nta.setGlobalDeclarations(declarations);
+				parser.parseDeclarations(text, declarations);
+			}
+		}
+		else if ("name".equals(element)) {
+			if (location != null) {
+				location.setName(text.toString().trim());
+			}
+			else if (template != null && edge == null) {
+				template.setName(text.toString().trim());
+			}
+		}
+		else if ("parameter".equals(element) && template != null) {
+			parser.parseParameters(text, template.getParameter());
+		}
+		else if ("label".equals(element)) {
+			endLabel();
+		}
+		else if ("location".equals(element)) {
+			location = null;
+		}
+		else if ("transition".equals(element)) {
+			endEdge();
+			edge = null;
+		}
+		else if ("template".equals(element) && template != null) {
+			parser.endTemplate(template);
+			template = null;
+		}
+		else if ("instantiation".equals(element)) {
+			instantiation = text.toString();
+		}
+		else if ("system".equals(element)) {
+			SystemDeclarations declarations = DeclarationsFactory.eINSTANCE.createSystemDeclarations();
+			nta.setSystemDeclarations(declarations);
+			if (instantiation != null) {
+				text.insert(0, '\n').insert(0, instantiation);
+			}
+			parser.parseDeclarations(text, declarations);
+		}
+	}
+
+	/**
+	 * Handles the end of a label of a location or transition.
+	 * Labels of transitions are kept until the transition is complete, as selections must be declared first.
+	 * @throws IOException if the label of a location is not valid.
+	 */
+	protected void endLabel() throws IOException {
+		if (location != null) {
+			if ("invariant".equals(labelKind) && !isBlank(text)) {
+				location.setInvariant(parser.parseExpression(text));
+			}
+			else if ("comments".equals(labelKind)) {
+				location.setComment(text.toString());
+			}
+		}
+		else if (edge != null) {
+			if ("select".equals(labelKind)) {
+				select = text.toString();
+			}
+			else if ("guard".equals(labelKind)) {
+				guard = text.toString();
+			}
+			else if ("synchronisation".equals(labelKind)) {
+				synchronisation = text.toString();
+			}
+			else if ("assignment".equals(labelKind)) {
+				assignment = text.toString();
+			}
+			else if ("comments".equals(labelKind)) {
+				edge.setComment(text.toString());
+			}
+		}
+		labelKind = null;
+	}
+
+	/**
+	 * Parses the labels of the completed transition within the scope of its selections.
+	 * @throws IOException if a label is not valid.
+	 */
+	protected void endEdge() throws IOException {
+		parser.beginEdge();
+		if (!isBlank(select)) {
+			parser.parseSelections(select, edge.getSelection());
+		}
+		if (!isBlank(guard)) {
+			edge.setGuard(parser.parseExpression(guard));
+		}
+		if (!isBlank(synchronisation)) {
+			edge.setSynchronization(parser.parseSynchronization(synchronisation));
+		}
+		if (!isBlank(assignment)) {
+			parser.parseExpressions(assignment, edge.getUpdate());
+		}
+		parser.endEdge();
+	}
+
+	/**
+	 * Returns the location referenced by the <code>ref</code> attribute of the current element.
+	 * @param reader the cursor positioned at the start of the element.
+	 * @return the location.
+	 * @throws IOException if no location has the referenced identifier.
+	 */
+	protected Location resolveLocation(XMLStreamReader reader) throws IOException {
+		String ref = reader.getAttributeValue(null, "ref");
+		Location result = locations.get(ref);
+		if (result == null) {
+			throw new IOException("Unknown location '" + ref + "' at line " + reader.getLocation().getLineNumber());
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the <code>x</code> and <code>y</code> attributes of the current element.
+	 * @param reader the cursor positioned at the start of the element.
+	 * @return the point, or <code>null</code> if the element has no position.
+	 */
+	protected Point readPosition(XMLStreamReader reader) {
+		String x = reader.getAttributeValue(null, "x");
+		String y = reader.getAttributeValue(null, "y");
+		if (x == null || y == null) {
+			return null;
+		}
+		Point point = VisualsFactory.eINSTANCE.createPoint();
+		point.setX(Integer.parseInt(x.trim()));
+		point.setY(Integer.parseInt(y.trim()));
+		return point;
+	}
+
+	/**
+	 * Reads the <code>color</code> attribute of the current element.
+	 * @param reader the cursor positioned at the start of the element.
+	 * @param element the element receiving the color.
+	 */
+	protected void readColor(XMLStreamReader reader, ColoredElement element) {
+		String code = reader.getAttributeValue(null, "color");
+		if (code != null) {
+			element.setColor(getColorKind(code));
+			if (element.getColor() == ColorKind.SELF_DEFINED) {
+				element.setColorCode(code);
+			}
+		}
+	}
+
+	/**
+	 * Returns the color kind for one of Uppaal's hexadecimal color codes.
+	 * @param colorCode the color code.
+	 * @return the matching color kind, or {@link ColorKind#SELF_DEFINED} if there is none.
+	 */
+	public static ColorKind getColorKind(String colorCode) {
+		for (ColorKind color : ColorKind.VALUES) {
+			if (color != ColorKind.SELF_DEFINED && colorCode.equalsIgnoreCase(UppaalXMLWriter.getColorCode(color, null))) {
+				return color;
+			}
+		}
+		return ColorKind.SELF_DEFINED;
+	}
+
+	/**
+	 * Checks whether a text is missing or consists of whitespace only.
+	 * @param text the text.
+	 * @return whether the text is blank.
+	 */
+	protected static boolean isBlank(CharSequence text) {
+		if (text != null) {
+			for (int i = 0; i < text.length(); i++) {
+				if (!Character.isWhitespace(text.charAt(i))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+}
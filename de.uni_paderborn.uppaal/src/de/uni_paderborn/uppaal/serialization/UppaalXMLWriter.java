@@ -0,0 +1,406 @@
+/**
+ */
+package de.uni_paderborn.uppaal.serialization;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.Location;
+import de.uni_paderborn.uppaal.templates.LocationKind;
+import de.uni_paderborn.uppaal.templates.Template;
+import de.uni_paderborn.uppaal.visuals.ColorKind;
+import de.uni_paderborn.uppaal.visuals.ColoredElement;
+import de.uni_paderborn.uppaal.visuals.Point;
+
+/**
+ * Writes an {@link NTA} in Uppaal's native XML format (<code>flat-1_2.dtd</code>), as read by the Uppaal GUI and <code>verifyta</code>.
+ * <p>
+ * The model is streamed element by element to the underlying {@link Writer}.
+ * Declarations and labels are printed by an {@link UppaalTextPrinter} through an escaping adapter,
+ * so neither a DOM nor intermediate strings are built for templates or labels.
+ * </p>
+ */
+public class UppaalXMLWriter {
+	/**
+	 * The encoding used when writing to an {@link OutputStream}.
+	 */
+	public static final String ENCODING = "utf-8";
+
+	/**
+	 * The document type declaration of Uppaal's native format.
+	 */
+	public static final String DOCTYPE = "<!DOCTYPE nta PUBLIC '-//Uppaal Team//DTD Flat System 1.1//EN' 'http://www.it.uu.se/research/group/darts/uppaal/flat-1_2.dtd'>";
+
+	/**
+	 * The target of the writer.
+	 */
+	protected final Writer out;
+
+	/**
+	 * The printer for declarations and labels, writing escaped character data to {@link #out}.
+	 */
+	protected final UppaalTextPrinter printer;
+
+	/**
+	 * The identifiers of the locations of the template being written.
+	 */
+	protected final Map<Location, String> locationIds = new IdentityHashMap<Location, String>();
+
+	/**
+	 * Creates a writer for the given character stream.
+	 * @param out the target of the writer.
+	 */
+	public UppaalXMLWriter(Writer out) {
+		this.out = out;
+		this.printer = createPrinter(new EscapingAppendable(out));
+	}
+
+	/**
+	 * Creates a writer for the given byte stream, encoding the document in UTF-8.
+	 * @param out the target of the writer.
+	 * @throws IOException if the encoding is not supported.
+	 */
+	public UppaalXMLWriter(OutputStream out) throws IOException {
+		this(new BufferedWriter(new OutputStreamWriter(out, ENCODING)));
+	}
+
+	/**
+	 * Creates the printer used for declarations and labels.
+	 * @param target the escaping target of the printer.
+	 * @return the printer.
+	 */
+	protected UppaalTextPrinter createPrinter(Appendable target) {
+		return new UppaalTextPrinter(target);
+	}
+
+	/**
+	 * Writes a complete document for the given NTA and flushes the underlying stream.
+	 * @param nta the NTA to write.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void write(NTA nta) throws IOException {
+		out.write("<?xml version=\"1.0\" encoding=\"");
+		out.write(ENCODING);
+		out.write("\"?>\n");
+		out.write(DOCTYPE);
+		out.write("\n<nta>\n");
+		if (nta.getGlobalDeclarations() != null) {
+			out.write("\t<declaration>");
+			printer.printDeclarations(nta.getGlobalDeclarations());
+			out.write("</declaration>\n");
+		}
+		for (Template template : nta.getTemplate()) {
+			writeTemplate(template);
+		}
+		out.write("\t<system>");
+		printer.printDeclarations(nta.getSystemDeclarations());
+		out.write("</system>\n");
+		out.write("</nta>\n");
+		out.flush();
+	}
+
+	/**
+	 * Writes a template element.
+	 * @param template the template to write.
+	 * @throws IOException if the target cannot be written.
+	 */
+	protected void writeTemplate(Template template) throws IOException {
+		out.write("\t<template>\n\t\t<name>");
+		writeText(template.getName());
+		out.write("</name>\n");
+		if (!template.getParameter().isEmpty()) {
+			out.write("\t\t<parameter>");
+			printer.printParameters(template.getParameter());
+			out.write("</parameter>\n");
+		}
+		if (template.getDeclarations() != null) {
+			out.write("\t\t<declaration>");
+			printer.printDeclarations(template.getDeclarations());
+			out.write("</declaration>\n");
+		}
+		locationIds.clear();
+		List<Location> locations = template.getLocation();
+		for (int i = 0; i < locations.size(); i++) {
+			Location location = locations.get(i);
+			String id = "id" + i;
+			locationIds.put(location, id);
+			writeLocation(location, id);
+		}
+		if (template.getInit() != null) {
+			out.write("\t\t<init ref=\"");
+			String id = locationIds.get(template.getInit());
+			if (id == null) {
+				throw new IOException("The initial location of template '" + template.getName() + "' is not a location of the template");
+			}
+			out.write(id);
+			out.write("\"/>\n");
+		}
+		for (Edge edge : template.getEdge()) {
+			writeEdge(edge);
+		}
+		out.write("\t</template>\n");
+		locationIds.clear();
+	}
+
+	/**
+	 * Returns the identifier of the source or target of an edge of the template being written.
+	 * @param edge the edge.
+	 * @param location the source or target of the edge, may be <code>null</code>.
+	 * @param end <code>source</code> or <code>target</code>, for the error message.
+	 * @return the identifier.
+	 * @throws IOException if the location is not set or not a location of the template.
+	 */
+	protected String getLocationId(Edge edge, Location location, String end) throws IOException {
+		String id = locationIds.get(location);
+		if (id == null) {
+			Template template = edge.getParentTemplate();
+			String label = template == null ? "an edge" : "edge " + template.getEdge().indexOf(edge) + " of template '" + template.getName() + "'";
+			throw new IOException("The " + end + " of " + label + (location == null ? " is not set" : " is not a location of the template"));
+		}
+		return id;
+	}
+
+	/**
+	 * Writes a location element.
+	 * @param location the location to write.
+	 * @param id the identifier of the location.
+	 * @throws IOException if the target cannot be written.
+	 */
+	protected void writeLocation(Location location, String id) throws IOException {
+		out.write("\t\t<location id=\"");
+		out.write(id);
+		out.write('"');
+		writePosition(location.getPosition());
+		writeColor(location);
+		out.write(">\n");
+		if (location.getName() != null) {
+			out.write("\t\t\t<name>");
+			writeText(location.getName());
+			out.write("</name>\n");
+		}
+		if (location.getInvariant() != null) {
+			out.write("\t\t\t<label kind=\"invariant\">");
+			printer.printExpression(location.getInvariant());
+			out.write("</label>\n");
+		}
+		if (location.getComment() != null) {
+			writeComment(location.getComment(), "\t\t\t");
+		}
+		if (location.getLocationTimeKind() == LocationKind.URGENT) {
+			out.write("\t\t\t<urgent/>\n");
+		}
+		else if (location.getLocationTimeKind() == LocationKind.COMMITED) {
+			out.write("\t\t\t<committed/>\n");
+		}
+		out.write("\t\t</location>\n");
+	}
+
+	/**
+	 * Writes a transition element for an edge.
+	 * @param edge the edge to write.
+	 * @throws IOException if the target cannot be written.
+	 */
+	protected void writeEdge(Edge edge) throws IOException {
+		out.write("\t\t<transition");
+		writeColor(edge);
+		out.write(">\n\t\t\t<source ref=\"");
+		out.write(getLocationId(edge, edge.getSource(), "source"));
+		out.write("\"/>\n\t\t\t<target ref=\"");
+		out.write(getLocationId(edge, edge.getTarget(), "target"));
+		out.write("\"/>\n");
+		if (!edge.getSelection().isEmpty()) {
+			out.write("\t\t\t<label kind=\"select\">");
+			printer.printSelections(edge.getSelection());
+			out.write("</label>\n");
+		}
+		if (edge.getGuard() != null) {
+			out.write("\t\t\t<label kind=\"guard\">");
+			printer.printExpression(edge.getGuard());
+			out.write("</label>\n");
+		}
+		if (edge.getSynchronization() != null) {
+			out.write("\t\t\t<label kind=\"synchronisation\">");
+			printer.printSynchronization(edge.getSynchronization());
+			out.write("</label>\n");
+		}
+		List<Expression> updates = edge.getUpdate();
+		if (!updates.isEmpty()) {
+			out.write("\t\t\t<label kind=\"assignment\">");
+			printer.printExpressions(updates, ", ");
+			out.write("</label>\n");
+		}
+		if (edge.getComment() != null) {
+			writeComment(edge.getComment(), "\t\t\t");
+		}
+		for (Point bendPoint : edge.getBendPoint()) {
+			out.write("\t\t\t<nail");
+			writePosition(bendPoint);
+			out.write("/>\n");
+		}
+		out.write("\t\t</transition>\n");
+	}
+
+	/**
+	 * Writes a comments label.
+	 * @param comment the comment to write.
+	 * @param indentation the indentation of the label.
+	 * @throws IOException if the target cannot be written.
+	 */
+	protected void writeComment(String comment, String indentation) throws IOException {
+		out.write(indentation);
+		out.write("<label kind=\"comments\">");
+		writeText(comment);
+		out.write("</label>\n");
+	}
+
+	/**
+	 * Writes the <code>x</code> and <code>y</code> attributes of a point, if present.
+	 * @param position the point, may be <code>null</code>.
+	 * @throws IOException if the target cannot be written.
+	 */
+	protected void writePosition(Point position) throws IOException {
+		if (position != null) {
+			out.write(" x=\"");
+			out.write(Integer.toString(position.getX()));
+			out.write("\" y=\"");
+			out.write(Integer.toString(position.getY()));
+			out.write('"');
+		}
+	}
+
+	/**
+	 * Writes the <code>color</code> attribute of an element, if it has a non-default color.
+	 * @param element the colored element.
+	 * @throws IOException if the target cannot be written.
+	 */
+	protected void writeColor(ColoredElement element) throws IOException {
+		String code = getColorCode(element.getColor(), element.getColorCode());
+		if (code != null) {
+			out.write(" color=\"");
+			writeText(code);
+			out.write('"');
+		}
+	}
+
+	/**
+	 * Writes text with the XML special characters escaped.
+	 * @param text the text to write, nothing is written if it is <code>null</code>.
+	 * @throws IOException if the target cannot be written.
+	 */
+	protected void writeText(String text) throws IOException {
+		if (text != null) {
+			printer.getOut().append(text);
+		}
+	}
+
+	/**
+	 * Returns Uppaal's hexadecimal color code for a color kind.
+	 * @param color the color kind.
+	 * @param colorCode the explicit color code for self defined colors.
+	 * @return the color code, or <code>null</code> for the default color.
+	 */
+	public static String getColorCode(ColorKind color, String colorCode) {
+		if (color == null) {
+			return null;
+		}
+		switch (color) {
+			case WHITE:
+				return "#ffffff";
+			case LIGHTGREY:
+				return "#c0c0c0";
+			case DARKGREY:
+				return "#404040";
+			case BLACK:
+				return "#000000";
+			case BLUE:
+				return "#0000ff";
+			case CYAN:
+				return "#00ffff";
+			case GREEN:
+				return "#00ff00";
+			case MAGENTA:
+				return "#ff00ff";
+			case ORANGE:
+				return "#ffc800";
+			case PINK:
+				return "#ffafaf";
+			case RED:
+				return "#ff0000";
+			case YELLOW:
+				return "#ffff00";
+			case SELF_DEFINED:
+				return colorCode;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * An {@link Appendable} escaping the XML special characters before passing them to a {@link Writer}.
+	 * As required by {@link Appendable}, <code>null</code> is appended as the characters <code>"null"</code>.
+	 */
+	protected static class EscapingAppendable implements Appendable {
+		/**
+		 * The target of the escaped characters.
+		 */
+		protected final Writer out;
+
+		/**
+		 * Creates an escaping adapter for the given writer.
+		 * @param out the target of the escaped characters.
+		 */
+		public EscapingAppendable(Writer out) {
+			this.out = out;
+		}
+
+		@Override
+		public Appendable append(CharSequence csq) throws IOException {
+			if (csq == null) {
+				csq = "null";
+			}
+			return append(csq, 0, csq.length());
+		}
+
+		@Override
+		public Appendable append(CharSequence csq, int start, int end) throws IOException {
+			if (csq == null) {
+				csq = "null";
+			}
+			for (int i = start; i < end; i++) {
+				append(csq.charAt(i));
+			}
+			return this;
+		}
+
+		@Override
+		public Appendable append(char c) throws IOException {
+			switch (c) {
+				case '<':
+					out.write("&lt;");
+					break;
+				case '>':
+					out.write("&gt;");
+					break;
+				case '&':
+					out.write("&amp;");
+					break;
+				case '"':
+					out.write("&quot;");
+					break;
+				default:
+					out.write(c);
+			}
+			return this;
+		}
+	}
+
+}
@@ -0,0 +1,222 @@
+/**
+ */
+package de.uni_paderborn.uppaal.serialization;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.Location;
+import de.uni_paderborn.uppaal.templates.LocationKind;
+import de.uni_paderborn.uppaal.templates.Template;
+
+/**
+ * Writes an {@link NTA} in Uppaal's textual <code>.xta</code> format and queries in the <code>.q</code> format, as read by <code>verifyta</code>.
+ * <p>
+ * All text is appended directly to the target by an {@link UppaalTextPrinter},
+ * so a single writer with a reused {@link StringBuilder} exports guards and updates of any number of edges without temporary strings.
+ * </p>
+ */
+public class UppaalXTAWriter {
+	/**
+	 * The indentation of the sections of a process.
+	 */
+	protected static final String INDENTATION = "    ";
+
+	/**
+	 * The target of the writer.
+	 */
+	protected final Appendable out;
+
+	/**
+	 * The printer for declarations and labels.
+	 */
+	protected final UppaalTextPrinter printer;
+
+	/**
+	 * The names of the locations of the template being written.
+	 */
+	protected final Map<Location, String> locationNames = new IdentityHashMap<Location, String>();
+
+	/**
+	 * Creates a writer appending to the given target.
+	 * @param out the target of the writer.
+	 */
+	public UppaalXTAWriter(Appendable out) {
+		this.out = out;
+		this.printer = createPrinter(out);
+	}
+
+	/**
+	 * Creates the printer used for declarations and labels.
+	 * @param target the target of the printer.
+	 * @return the printer.
+	 */
+	protected UppaalTextPrinter createPrinter(Appendable target) {
+		return new UppaalTextPrinter(target);
+	}
+
+	/**
+	 * Writes the complete system, i.e. the global declarations, the processes and the system declarations,
+	 * and flushes the target if it is {@link Flushable}.
+	 * @param nta the NTA to write.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void write(NTA nta) throws IOException {
+		printer.printDeclarations(nta.getGlobalDeclarations());
+		for (Template template : nta.getTemplate()) {
+			out.append('\n');
+			writeTemplate(template);
+		}
+		out.append('\n');
+		printer.printDeclarations(nta.getSystemDeclarations());
+		flush();
+	}
+
+	/**
+	 * Writes a single query line of a <code>.q</code> file, e.g. <code>A[] not deadlock</code>.
+	 * @param quantifier the path quantifier.
+	 * @param property the state property.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void writeQuery(PathQuantifier quantifier, Expression property) throws IOException {
+		out.append(quantifier.getLiteral()).append(' ');
+		printer.printExpression(property);
+		out.append('\n');
+	}
+
+	/**
+	 * Writes a leads-to query line of a <code>.q</code> file, e.g. <code>p --&gt; q</code>.
+	 * @param premise the state property triggering the obligation.
+	 * @param conclusion the state property that must eventually hold.
+	 * @throws IOException if the target cannot be written.
+	 */
+	public void writeLeadsToQuery(Expression premise, Expression conclusion) throws IOException {
+		printer.printExpression(premise, UppaalTextPrinter.PRECEDENCE_IMPLY + 1);
+		out.append(" --> ");
+		printer.printExpression(conclusion, UppaalTextPrinter.PRECEDENCE_IMPLY + 1);
+		out.append('\n');
+	}
+
+	/**
+	 * Flushes the target if it is {@link Flushable}.
+	 * @throws IOException if the target cannot be flushed.
+	 */
+	public void flush() throws IOException {
+		if (out instanceof Flushable) {
+			((Flushable)out).flush();
+		}
+	}
+
+	/**
+	 * Writes a process definition for a template.
+	 * @param template the template to write.
+	 * @throws IOException if the target cannot be written.
+	 */
+	protected void writeTemplate(Template template) throws IOException {
+		out.append("process ").append(template.getName()).append('(');
+		printer.printParameters(template.getParameter());
+		out.append(") {\n");
+		printer.printDeclarations(template.getDeclarations());
+		locationNames.clear();
+		List<Location> locations = template.getLocation();
+		for (int i = 0; i < locations.size(); i++) {
+			Location location = locations.get(i);
+			locationNames.put(location, location.getName() != null ? location.getName() : "_id" + i);
+		}
+		writeStates(locations);
+		writeLocationKind(locations, LocationKind.COMMITED, "commit");
+		writeLocationKind(locations, LocationKind.URGENT, "urgent");
+		if (template.getInit() != null) {
+			out.append(INDENTATION).append("init ").append(locationNames.get(template.getInit())).append(";\n");
+		}
+		List<Edge> edges = template.getEdge();
+		if (!edges.isEmpty()) {
+			out.append(INDENTATION).append("trans\n");
+			for (int i = 0; i < edges.size(); i++) {
+				writeEdge(edges.get(i));
+				out.append(i < edges.size() - 1 ? ",\n" : ";\n");
+			}
+		}
+		out.append("}\n");
+		locationNames.clear();
+	}
+
+	/**
+	 * Writes the state section of a process, including the invariants.
+	 * @param locations the locations of the template.
+	 * @throws IOException if the target cannot be written.
+	 */
+	protected void writeStates(List<Location> locations) throws IOException {
+		if (locations.isEmpty()) {
+			return;
+		}
+		out.append(INDENTATION).append("state\n");
+		for (int i = 0; i < locations.size(); i++) {
+			Location location = locations.get(i);
+			out.append(INDENTATION).append(INDENTATION).append(locationNames.get(location));
+			if (location.getInvariant() != null) {
+				out.append(" { ");
+				printer.printExpression(location.getInvariant());
+				out.append(" }");
+			}
+			out.append(i < locations.size() - 1 ? ",\n" : ";\n");
+		}
+	}
+
+	/**
+	 * Writes the section listing the locations of the given kind, if there are any.
+	 * @param locations the locations of the template.
+	 * @param kind the location kind.
+	 * @param keyword the keyword of the section.
+	 * @throws IOException if the target cannot be written.
+	 */
+	protected void writeLocationKind(List<Location> locations, LocationKind kind, String keyword) throws IOException {
+		boolean first = true;
+		for (Location location : locations) {
+			if (location.getLocationTimeKind() == kind) {
+				out.append(first ? INDENTATION + keyword + " " : ", ").append(locationNames.get(location));
+				first = false;
+			}
+		}
+		if (!first) {
+			out.append(";\n");
+		}
+	}
+
+	/**
+	 * Writes a transition without the separating comma or semicolon.
+	 * @param edge the edge to write.
+	 * @throws IOException if the target cannot be written.
+	 */
+	protected void writeEdge(Edge edge) throws IOException {
+		out.append(INDENTATION).append(INDENTATION).append(locationNames.get(edge.getSource())).append(" -> ").append(locationNames.get(edge.getTarget())).append(" {");
+		if (!edge.getSelection().isEmpty()) {
+			out.append(" select ");
+			printer.printSelections(edge.getSelection());
+			out.append(';');
+		}
+		if (edge.getGuard() != null) {
+			out.append(" guard ");
+			printer.printExpression(edge.getGuard());
+			out.append(';');
+		}
+		if (edge.getSynchronization() != null) {
+			out.append(" sync ");
+			printer.printSynchronization(edge.getSynchronization());
+			out.append(';');
+		}
+		if (!edge.getUpdate().isEmpty()) {
+			out.append(" assign ");
+			printer.printExpressions(edge.getUpdate(), ", ");
+			out.append(';');
+		}
+		out.append(" }");
+	}
+
+}
@@ -0,0 +1,227 @@
+/**
+ */
+package de.uni_paderborn.uppaal.simulation;
+
+import java.util.Arrays;
+
+import org.eclipse.emf.ecore.EObject;
+
+import de.uni_paderborn.uppaal.declarations.DataVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.DataVariablePrefix;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.evaluation.EvaluationException;
+import de.uni_paderborn.uppaal.evaluation.SlotLayout;
+
+/**
+ * A layout packing the locations of the processes and the valuation of the system of an NTA into the bits of a <code>long[]</code>.
+ * <p>
+ * Each location and each slot of the state is a field taking the bits needed for the values it may take:
+ * the location of a process takes the bits of the index of the last location of its template,
+ * a slot with the bounds <code>l</code> and <code>u</code> of its type stores <code>v - l</code> in the bits of <code>u - l</code>.
+ * Slots of constants take no bits, as do the slots of clocks unless they are packed; they keep their initial values.
+ * A field does not cross the boundary of a word, so it is read and written by a single shift and mask.
+ * </p>
+ * <p>
+ * As the evaluation does not check values against the ranges of their types, packing does.
+ * </p>
+ */
+public final class PackedStateLayout {
+	private final int processCount;
+
+	private final int stateSize;
+
+	private final int wordCount;
+
+	private final int bitCount;
+
+	// The fields: the locations of the processes, then the slots of the state
+
+	private final int[] words;
+
+	private final int[] shifts;
+
+	private final long[] masks;
+
+	private final int[] lowerBounds;
+
+	private final long[] ranges;
+
+	/**
+	 * The variables of the slots, or the templates of the processes.
+	 */
+	private final EObject[] owners;
+
+	/**
+	 * Computes the layout of a system.
+	 * @param system the system.
+	 * @param clocks whether the slots of the clocks are packed, or keep their initial values, e.g. as the clocks are kept in zones.
+	 */
+	public PackedStateLayout(SystemInstance system, boolean clocks) {
+		this.processCount = system.getProcessCount();
+		this.stateSize = system.getStateSize();
+		int fieldCount = processCount + stateSize;
+		this.words = new int[fieldCount];
+		this.shifts = new int[fieldCount];
+		this.masks = new long[fieldCount];
+		this.lowerBounds = new int[fieldCount];
+		this.ranges = new long[fieldCount];
+		this.owners = new EObject[fieldCount];
+		for (int process = 0; process < processCount; process++) {
+			ranges[process] = system.getTemplate(process).getLocation().size() - 1;
+			owners[process] = system.getTemplate(process);
+		}
+		int[] initialState = system.createState();
+		int start = 0;
+		for (int process = -1; process < processCount; process++) {
+			SlotLayout layout = process < 0 ? system.getGlobalLayout() : system.getLayout(process);
+			for (int slot = start; slot < layout.getSize(); slot++) {
+				int field = processCount + slot;
+				Variable variable = layout.getVariable(slot);
+				owners[field] = variable;
+				if (isConstant(variable)) {
+					lowerBounds[field] = initialState[slot];
+				}
+				else {
+					lowerBounds[field] = layout.getLowerBound(slot);
+					ranges[field] = (long)layout.getUpperBound(slot) - layout.getLowerBound(slot);
+				}
+			}
+			start = layout.getSize();
+		}
+		if (!clocks) {
+			for (int slot : system.getClocks()) {
+				lowerBounds[processCount + slot] = initialState[slot];
+				ranges[processCount + slot] = 0;
+			}
+		}
+
+		// Places each field in the first word with enough free bits
+		int[] used = new int[fieldCount];
+		int count = 0;
+		int bits = 0;
+		for (int field = 0; field < fieldCount; field++) {
+			int width = 64 - Long.numberOfLeadingZeros(ranges[field]);
+			if (width == 0) {
+				continue;
+			}
+			int word = 0;
+			while (word < count && used[word] + width > 64) {
+				word++;
+			}
+			if (word == count) {
+				count++;
+			}
+			words[field] = word;
+			shifts[field] = used[word];
+			masks[field] = width == 64 ? -1L : (1L << width) - 1;
+			used[word] += width;
+			bits += width;
+		}
+		this.wordCount = Math.max(1, count);
+		this.bitCount = bits;
+	}
+
+	private static boolean isConstant(Variable variable) {
+		return variable.getContainer() instanceof DataVariableDeclaration
+				&& ((DataVariableDeclaration)variable.getContainer()).getPrefix() == DataVariablePrefix.CONST;
+	}
+
+	/**
+	 * Returns the number of words of a packed state.
+	 * @return the length of the arrays of packed states.
+	 */
+	public int getWordCount() {
+		return wordCount;
+	}
+
+	/**
+	 * Returns the number of bits taken by the fields.
+	 * @return the number of bits.
+	 */
+	public int getBitCount() {
+		return bitCount;
+	}
+
+	/**
+	 * Packs the locations and the valuation of a state.
+	 * @param locations the indices of the locations of the processes.
+	 * @param state the valuation.
+	 * @return the new packed state.
+	 * @throws EvaluationException if a value is out of the range of its type, or a constant or unpacked clock differs from its initial value.
+	 */
+	public long[] pack(int[] locations, int[] state) {
+		long[] packed = new long[wordCount];
+		pack(locations, state, packed);
+		return packed;
+	}
+
+	/**
+	 * Packs the locations and the valuation of a state into an array.
+	 * @param locations the indices of the locations of the processes.
+	 * @param state the valuation.
+	 * @param packed the array receiving the packed state, of the length of {@link #getWordCount()}.
+	 * @throws EvaluationException if a value is out of the range of its type, or a constant or unpacked clock differs from its initial value.
+	 */
+	public void pack(int[] locations, int[] state, long[] packed) {
+		Arrays.fill(packed, 0);
+		for (int process = 0; process < processCount; process++) {
+			set(packed, process, locations[process]);
+		}
+		for (int slot = 0; slot < stateSize; slot++) {
+			set(packed, processCount + slot, state[slot]);
+		}
+	}
+
+	private void set(long[] packed, int field, int value) {
+		long offset = (long)value - lowerBounds[field];
+		if (offset < 0 || offset > ranges[field]) {
+			if (field < processCount) {
+				throw new EvaluationException("Location " + value + " of process " + field + " is out of range", owners[field]);
+			}
+			Variable variable = (Variable)owners[field];
+			throw new EvaluationException("Value " + value + " of '" + variable.getName() + "' is out of range [" + lowerBounds[field] + ", "
+					+ (lowerBounds[field] + ranges[field]) + "]", variable);
+		}
+		packed[words[field]] |= offset << shifts[field];
+	}
+
+	/**
+	 * Unpacks the locations and the valuation of a state.
+	 * @param packed the packed state.
+	 * @param locations the array receiving the indices of the locations of the processes.
+	 * @param state the array receiving the valuation.
+	 */
+	public void unpack(long[] packed, int[] locations, int[] state) {
+		for (int process = 0; process < processCount; process++) {
+			locations[process] = get(packed, process);
+		}
+		for (int slot = 0; slot < stateSize; slot++) {
+			state[slot] = get(packed, processCount + slot);
+		}
+	}
+
+	/**
+	 * Returns the location of a process in a packed state.
+	 * @param packed the packed state.
+	 * @param process the process.
+	 * @return the index of the location.
+	 */
+	public int getLocation(long[] packed, int process) {
+		return get(packed, process);
+	}
+
+	/**
+	 * Returns the value of a slot in a packed state.
+	 * @param packed the packed state.
+	 * @param slot the slot of the state.
+	 * @return the value.
+	 */
+	public int getValue(long[] packed, int slot) {
+		return get(packed, processCount + slot);
+	}
+
+	private int get(long[] packed, int field) {
+		return (int)((packed[words[field]] >>> shifts[field]) & masks[field]) + lowerBounds[field];
+	}
+
+}
@@ -0,0 +1,212 @@
+/**
+ */
+package de.uni_paderborn.uppaal.simulation;
+
+import de.uni_paderborn.uppaal.evaluation.CompiledExpression;
+import de.uni_paderborn.uppaal.evaluation.EvaluationException;
+import de.uni_paderborn.uppaal.evaluation.ExpressionCompiler;
+import de.uni_paderborn.uppaal.evaluation.VariableSlot;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.templates.Edge;
+
+/**
+ * An edge of a process of a {@link SystemInstance}, with its compiled guard and updates.
+ */
+public final class ProcessEdge {
+	/**
+	 * The synchronization kind of edges without synchronization.
+	 */
+	public static final int NONE = -1;
+
+	/**
+	 * The synchronization kind of receiving edges, <code>c?</code>.
+	 */
+	public static final int RECEIVE = 0;
+
+	/**
+	 * The synchronization kind of sending edges, <code>c!</code>.
+	 */
+	public static final int SEND = 1;
+
+	final int process;
+
+	final Edge edge;
+
+	final int source;
+
+	final int target;
+
+	final CompiledExpression guard;
+
+	final CompiledExpression update;
+
+	final int synchronization;
+
+	/**
+	 * The number of the channel, <code>-1</code> if it depends on the state or on selections.
+	 */
+	final int channel;
+
+	final IdentifierExpression channelExpression;
+
+	/**
+	 * The slot of the channel variable and the compiled indices of the channel expression, if the channel is not constant.
+	 */
+	private final VariableSlot channelSlot;
+
+	private final CompiledExpression[] channelIndices;
+
+	final int[] selectionOffsets;
+
+	final int[] selectionLowerBounds;
+
+	final int[] selectionUpperBounds;
+
+	ProcessEdge(int process, Edge edge, int source, int target, CompiledExpression guard, CompiledExpression update,
+			int synchronization, int channel, IdentifierExpression channelExpression, VariableSlot channelSlot, CompiledExpression[] channelIndices,
+			int[] selectionOffsets, int[] selectionLowerBounds, int[] selectionUpperBounds) {
+		this.process = process;
+		this.edge = edge;
+		this.source = source;
+		this.target = target;
+		this.guard = guard;
+		this.update = update;
+		this.synchronization = synchronization;
+		this.channel = channel;
+		this.channelExpression = channelExpression;
+		this.channelSlot = channelSlot;
+		this.channelIndices = channelIndices;
+		this.selectionOffsets = selectionOffsets;
+		this.selectionLowerBounds = selectionLowerBounds;
+		this.selectionUpperBounds = selectionUpperBounds;
+	}
+
+	/**
+	 * Returns the number of the process.
+	 * @return the process.
+	 */
+	public int getProcess() {
+		return process;
+	}
+
+	/**
+	 * Returns the edge of the template.
+	 * @return the edge.
+	 */
+	public Edge getEdge() {
+		return edge;
+	}
+
+	/**
+	 * Returns the index of the source location in the locations of the template.
+	 * @return the source location.
+	 */
+	public int getSource() {
+		return source;
+	}
+
+	/**
+	 * Returns the index of the target location in the locations of the template.
+	 * @return the target location.
+	 */
+	public int getTarget() {
+		return target;
+	}
+
+	/**
+	 * Returns the compiled guard, evaluated with the values of the selections in the frame of the process.
+	 * @return the guard.
+	 */
+	public CompiledExpression getGuard() {
+		return guard;
+	}
+
+	/**
+	 * Returns the compiled updates, evaluated with the values of the selections in the frame of the process.
+	 * @return the updates.
+	 */
+	public CompiledExpression getUpdate() {
+		return update;
+	}
+
+	/**
+	 * Returns the kind of synchronization.
+	 * @return {@link #NONE}, {@link #RECEIVE} or {@link #SEND}.
+	 */
+	public int getSynchronization() {
+		return synchronization;
+	}
+
+	/**
+	 * Returns the number of the channel of the synchronization.
+	 * @return the channel, <code>-1</code> if the edge does not synchronize
+	 * or the channel depends on the state or on selections, see {@link #getChannel(int[], int[])}.
+	 */
+	public int getChannel() {
+		return channel;
+	}
+
+	/**
+	 * Computes the number of the channel of the synchronization.
+	 * @param state the valuation of the variables.
+	 * @param frame the frame of the process, holding the values of the selections.
+	 * @return the channel, <code>-1</code> if the edge does not synchronize.
+	 * @throws EvaluationException if an index of the channel expression is out of bounds.
+	 */
+	public int getChannel(int[] state, int[] frame) {
+		if (channel >= 0 || synchronization == NONE) {
+			return channel;
+		}
+		int result = channelSlot.getOffset();
+		int stride = channelSlot.getSize();
+		for (int i = 0; i < channelIndices.length; i++) {
+			stride /= channelSlot.getDimension(i);
+			result += ExpressionCompiler.checkIndex(channelIndices[i].evaluate(state, frame), channelSlot.getLowerIndex(i), channelSlot.getDimension(i)) * stride;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the channel expression of the synchronization.
+	 * @return the channel expression, <code>null</code> if the edge does not synchronize.
+	 */
+	public IdentifierExpression getChannelExpression() {
+		return channelExpression;
+	}
+
+	/**
+	 * Returns the number of selection variables.
+	 * @return the number of selections.
+	 */
+	public int getSelectionCount() {
+		return selectionOffsets.length;
+	}
+
+	/**
+	 * Returns the slot of a selection variable in the frame of the process.
+	 * @param selection the selection variable, in the order of the selections of the edge.
+	 * @return the frame slot.
+	 */
+	public int getSelectionOffset(int selection) {
+		return selectionOffsets[selection];
+	}
+
+	/**
+	 * Returns the smallest value of a selection variable.
+	 * @param selection the selection variable.
+	 * @return the lower bound.
+	 */
+	public int getSelectionLowerBound(int selection) {
+		return selectionLowerBounds[selection];
+	}
+
+	/**
+	 * Returns the largest value of a selection variable.
+	 * @param selection the selection variable.
+	 * @return the upper bound.
+	 */
+	public int getSelectionUpperBound(int selection) {
+		return selectionUpperBounds[selection];
+	}
+
+}
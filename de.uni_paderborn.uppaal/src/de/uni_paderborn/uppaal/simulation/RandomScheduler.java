@@ -0,0 +1,35 @@
+/**
+ */
+package de.uni_paderborn.uppaal.simulation;
+
+import java.util.Random;
+
+/**
+ * Chooses uniformly among the enabled transitions and the delay, for random walks.
+ */
+public class RandomScheduler implements Scheduler {
+	private final Random random;
+
+	/**
+	 * Creates a scheduler with a random seed.
+	 */
+	public RandomScheduler() {
+		this.random = new Random();
+	}
+
+	/**
+	 * Creates a scheduler making reproducible choices.
+	 * @param seed the seed of the random numbers.
+	 */
+	public RandomScheduler(long seed) {
+		this.random = new Random(seed);
+	}
+
+	@Override
+	public int choose(Simulator simulator) {
+		int count = simulator.getTransitionCount();
+		int choice = random.nextInt(simulator.canDelay() ? count + 1 : count);
+		return choice == count ? DELAY : choice;
+	}
+
+}
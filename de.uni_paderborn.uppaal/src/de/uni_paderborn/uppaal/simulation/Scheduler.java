@@ -0,0 +1,23 @@
+/**
+ */
+package de.uni_paderborn.uppaal.simulation;
+
+/**
+ * Chooses the steps of a {@link Simulator}.
+ */
+public interface Scheduler {
+	/**
+	 * The choice of a delay step.
+	 */
+	int DELAY = -1;
+
+	/**
+	 * Chooses the next step among the enabled transitions and the delay.
+	 * The transitions are described by {@link Simulator#getTransitionCount()} and the related methods of the simulator.
+	 * Called only if a transition is enabled or time can pass.
+	 * @param simulator the simulator.
+	 * @return the index of the transition, or {@link #DELAY} if {@link Simulator#canDelay()} holds.
+	 */
+	int choose(Simulator simulator);
+
+}
@@ -0,0 +1,573 @@
+/**
+ */
+package de.uni_paderborn.uppaal.simulation;
+
+import java.util.Arrays;
+
+import de.uni_paderborn.uppaal.evaluation.EvaluationException;
+import de.uni_paderborn.uppaal.templates.Location;
+import de.uni_paderborn.uppaal.templates.LocationKind;
+
+/**
+ * Simulates the system of an NTA with discrete time, e.g. for random walks over transformed models.
+ * <p>
+ * A state consists of the location of each process and the valuation of the variables, with clocks as integers.
+ * In each step the {@link Scheduler} chooses an enabled transition or a delay of one time unit, which increments all clocks.
+ * A transition is an edge without synchronization, a pair of a sending and a receiving edge of a binary channel,
+ * or a sending edge of a broadcast channel together with one enabled receiving edge of every other process able to receive.
+ * A broadcast is offered as one transition for each combination of receiving edges and values of their selections,
+ * so the scheduler chooses the receiving edge of each process along with the transition.
+ * The guards of all edges are evaluated before the updates, which are applied in the order of the edges, the sender first.
+ * </p>
+ * <p>
+ * Transitions whose target state violates an invariant are not taken.
+ * If a process is in a committed location, only transitions involving a process in a committed location are enabled.
+ * Time cannot pass while a process is in an urgent or committed location, while a synchronization on an urgent channel is enabled,
+ * or if an invariant would be violated.
+ * Of the transitions left, only those of the highest channel priority and then of the highest process priority are enabled.
+ * </p>
+ * <p>
+ * A simulator keeps its buffers between the steps, so a step allocates no memory. It must be used by a single thread.
+ * </p>
+ */
+public class Simulator {
+	private static final int COMMITTED = LocationKind.COMMITED_VALUE;
+
+	private static final int URGENT = LocationKind.URGENT_VALUE;
+
+	private final SystemInstance system;
+
+	private final Scheduler scheduler;
+
+	private final int processCount;
+
+	private final int[] clocks;
+
+	/**
+	 * Whether the processes have different priorities.
+	 */
+	private final boolean processPriorities;
+
+	private final int[] state;
+
+	private final int[] locations;
+
+	private final int[] previousState;
+
+	private final int[] previousLocations;
+
+	private final int[] previousClocks;
+
+	/**
+	 * The top-level frame of each process, holding the values of its selections.
+	 */
+	private final int[][] frames;
+
+	// The enabled edges, with their channels and the values of their selections
+
+	private ProcessEdge[] candidates = new ProcessEdge[16];
+
+	private int[] candidateChannels = new int[16];
+
+	private int[] candidateSelections = new int[16];
+
+	private int candidateCount;
+
+	private int[] selectionValues = new int[16];
+
+	private int selectionCount;
+
+	// The enabled transitions, each a sequence of candidates
+
+	private int[] participants = new int[16];
+
+	private int participantCount;
+
+	private int[] transitionStarts = new int[16];
+
+	private int[] transitionLengths = new int[16];
+
+	private int transitionCount;
+
+	// The receivers of a broadcast grouped by process, and the receiver chosen in each group
+
+	private int[] receivers = new int[16];
+
+	private int[] receiverGroups = new int[16];
+
+	private int[] receiverChoices = new int[16];
+
+	private boolean delayable;
+
+	private long time;
+
+	private long stepCount;
+
+	/**
+	 * Creates a simulator starting in the initial state of a system.
+	 * @param system the system.
+	 * @param scheduler the scheduler choosing the steps.
+	 */
+	public Simulator(SystemInstance system, Scheduler scheduler) {
+		this.system = system;
+		this.scheduler = scheduler;
+		this.processCount = system.getProcessCount();
+		this.clocks = system.getClocks();
+		boolean different = false;
+		for (int process = 1; process < processCount; process++) {
+			different |= system.getProcessPriority(process) != system.getProcessPriority(0);
+		}
+		this.processPriorities = different;
+		this.state = system.createState();
+		this.locations = system.createLocations();
+		this.previousState = new int[state.length];
+		this.previousLocations = new int[processCount];
+		this.previousClocks = new int[clocks.length];
+		this.frames = new int[processCount][];
+		for (int process = 0; process < processCount; process++) {
+			frames[process] = new int[Math.max(1, system.getLayout(process).getFrameSize())];
+		}
+	}
+
+	/**
+	 * Returns the simulated system.
+	 * @return the system.
+	 */
+	public SystemInstance getSystem() {
+		return system;
+	}
+
+	/**
+	 * Returns to the initial state.
+	 */
+	public void reset() {
+		System.arraycopy(system.createState(), 0, state, 0, state.length);
+		System.arraycopy(system.createLocations(), 0, locations, 0, processCount);
+		time = 0;
+		stepCount = 0;
+		transitionCount = 0;
+	}
+
+	/**
+	 * Returns the current valuation of the variables, laid out as given by the {@link SystemInstance#getLayout(int) layouts} of the processes.
+	 * The array is modified by the following steps.
+	 * @return the valuation.
+	 */
+	public int[] getState() {
+		return state;
+	}
+
+	/**
+	 * Returns the index of the current location of a process.
+	 * @param process the number of the process.
+	 * @return the index of the location in the locations of the template.
+	 */
+	public int getLocationIndex(int process) {
+		return locations[process];
+	}
+
+	/**
+	 * Returns the current location of a process.
+	 * @param process the number of the process.
+	 * @return the location.
+	 */
+	public Location getLocation(int process) {
+		return system.getLocation(process, locations[process]);
+	}
+
+	/**
+	 * Returns the time passed since the initial state.
+	 * @return the number of delay steps.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Returns the number of steps taken since the initial state, including delays.
+	 * @return the number of steps.
+	 */
+	public long getStepCount() {
+		return stepCount;
+	}
+
+	/**
+	 * Runs a number of steps, stopping early in a deadlock.
+	 * @param steps the maximal number of steps.
+	 * @return the number of steps taken.
+	 * @throws EvaluationException if an expression cannot be evaluated.
+	 */
+	public long run(long steps) {
+		long taken = 0;
+		while (taken < steps && step()) {
+			taken++;
+		}
+		return taken;
+	}
+
+	/**
+	 * Takes a step chosen by the scheduler.
+	 * @return whether a step was taken, <code>false</code> in a deadlock, i.e. if neither a transition nor a delay is possible.
+	 * @throws EvaluationException if an expression cannot be evaluated.
+	 */
+	public boolean step() {
+		computeTransitions();
+		while (transitionCount > 0 || delayable) {
+			int choice = scheduler.choose(this);
+			if (choice == Scheduler.DELAY) {
+				if (!delayable) {
+					throw new IllegalStateException("Delay chosen although time cannot pass");
+				}
+				delay();
+				time++;
+				stepCount++;
+				return true;
+			}
+			if (fire(choice)) {
+				stepCount++;
+				return true;
+			}
+			transitionCount--;
+			transitionStarts[choice] = transitionStarts[transitionCount];
+			transitionLengths[choice] = transitionLengths[transitionCount];
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the number of enabled transitions in the current step.
+	 * @return the number of transitions.
+	 */
+	public int getTransitionCount() {
+		return transitionCount;
+	}
+
+	/**
+	 * Returns whether time can pass in the current step.
+	 * @return whether a delay is possible.
+	 */
+	public boolean canDelay() {
+		return delayable;
+	}
+
+	/**
+	 * Returns the number of edges taken by a transition.
+	 * @param transition the index of the transition.
+	 * @return the number of edges, one for edges without synchronization.
+	 */
+	public int getParticipantCount(int transition) {
+		return transitionLengths[transition];
+	}
+
+	/**
+	 * Returns an edge taken by a transition.
+	 * @param transition the index of the transition.
+	 * @param participant the index of the edge, the sending edge is the first.
+	 * @return the edge.
+	 */
+	public ProcessEdge getParticipant(int transition, int participant) {
+		return candidates[participants[transitionStarts[transition] + participant]];
+	}
+
+	/**
+	 * Returns the value chosen for a selection variable of an edge taken by a transition.
+	 * @param transition the index of the transition.
+	 * @param participant the index of the edge.
+	 * @param selection the index of the selection variable.
+	 * @return the value.
+	 */
+	public int getSelectionValue(int transition, int participant, int selection) {
+		return selectionValues[candidateSelections[participants[transitionStarts[transition] + participant]] + selection];
+	}
+
+	/**
+	 * Collects the enabled transitions and whether time can pass.
+	 */
+	private void computeTransitions() {
+		candidateCount = 0;
+		selectionCount = 0;
+		boolean committed = false;
+		boolean urgent = false;
+		for (int process = 0; process < processCount; process++) {
+			int kind = system.getLocationKind(process, locations[process]);
+			committed |= kind == COMMITTED;
+			urgent |= kind == URGENT;
+			for (ProcessEdge edge : system.getOutgoing(process, locations[process])) {
+				addCandidates(edge);
+			}
+		}
+
+		participantCount = 0;
+		transitionCount = 0;
+		for (int candidate = 0; candidate < candidateCount; candidate++) {
+			ProcessEdge edge = candidates[candidate];
+			if (edge.synchronization == ProcessEdge.NONE) {
+				addTransition(candidate, -1);
+			}
+			else if (edge.synchronization == ProcessEdge.SEND) {
+				int channel = candidateChannels[candidate];
+				if (system.isBroadcast(channel)) {
+					addBroadcastTransitions(candidate, channel);
+				}
+				else {
+					for (int receiver = 0; receiver < candidateCount; receiver++) {
+						ProcessEdge receiving = candidates[receiver];
+						if (receiving.process != edge.process && receiving.synchronization == ProcessEdge.RECEIVE
+								&& candidateChannels[receiver] == channel) {
+							addTransition(candidate, receiver);
+						}
+					}
+				}
+			}
+		}
+
+		if (committed) {
+			retainCommitted();
+		}
+		boolean urgentChannel = false;
+		for (int transition = 0; transition < transitionCount; transition++) {
+			int channel = candidateChannels[participants[transitionStarts[transition]]];
+			urgentChannel |= channel >= 0 && system.isUrgent(channel);
+		}
+		if (system.hasChannelPriorities() || processPriorities) {
+			retainHighestPriority();
+		}
+		delayable = !committed && !urgent && !urgentChannel && canDelayInvariants();
+	}
+
+	/**
+	 * Adds a broadcast transition for each combination of one enabled receiving candidate of each process that can receive.
+	 * The candidates are ordered by process, so the receivers of a process are adjacent.
+	 */
+	private void addBroadcastTransitions(int sender, int channel) {
+		int senderProcess = candidates[sender].process;
+		int receiverCount = 0;
+		int groupCount = 0;
+		int last = -1;
+		for (int receiver = 0; receiver < candidateCount; receiver++) {
+			ProcessEdge receiving = candidates[receiver];
+			if (receiving.process != senderProcess && receiving.synchronization == ProcessEdge.RECEIVE && candidateChannels[receiver] == channel) {
+				if (receiverCount == receivers.length) {
+					receivers = Arrays.copyOf(receivers, 2 * receiverCount);
+				}
+				if (receiving.process != last) {
+					if (groupCount + 1 >= receiverGroups.length) {
+						receiverGroups = Arrays.copyOf(receiverGroups, 2 * receiverGroups.length);
+						receiverChoices = Arrays.copyOf(receiverChoices, 2 * receiverChoices.length);
+					}
+					receiverGroups[groupCount] = receiverCount;
+					receiverChoices[groupCount] = receiverCount;
+					groupCount++;
+					last = receiving.process;
+				}
+				receivers[receiverCount++] = receiver;
+			}
+		}
+		receiverGroups[groupCount] = receiverCount;
+		while (true) {
+			addTransition(sender, -1);
+			for (int group = 0; group < groupCount; group++) {
+				addParticipant(receivers[receiverChoices[group]]);
+				transitionLengths[transitionCount - 1]++;
+			}
+			int group = groupCount - 1;
+			while (group >= 0 && receiverChoices[group] == receiverGroups[group + 1] - 1) {
+				receiverChoices[group] = receiverGroups[group];
+				group--;
+			}
+			if (group < 0) {
+				return;
+			}
+			receiverChoices[group]++;
+		}
+	}
+
+	/**
+	 * Adds an edge as a candidate for each combination of values of its selections for which its guard holds.
+	 */
+	private void addCandidates(ProcessEdge edge) {
+		int[] frame = frames[edge.process];
+		int[] offsets = edge.selectionOffsets;
+		if (offsets.length == 0) {
+			if (edge.guard.evaluate(state, frame) != 0) {
+				addCandidate(edge, frame);
+			}
+			return;
+		}
+		for (int i = 0; i < offsets.length; i++) {
+			frame[offsets[i]] = edge.selectionLowerBounds[i];
+		}
+		while (true) {
+			if (edge.guard.evaluate(state, frame) != 0) {
+				addCandidate(edge, frame);
+			}
+			int i = offsets.length - 1;
+			while (i >= 0 && frame[offsets[i]] == edge.selectionUpperBounds[i]) {
+				frame[offsets[i]] = edge.selectionLowerBounds[i];
+				i--;
+			}
+			if (i < 0) {
+				return;
+			}
+			frame[offsets[i]]++;
+		}
+	}
+
+	private void addCandidate(ProcessEdge edge, int[] frame) {
+		if (candidateCount == candidates.length) {
+			candidates = Arrays.copyOf(candidates, 2 * candidateCount);
+			candidateChannels = Arrays.copyOf(candidateChannels, 2 * candidateCount);
+			candidateSelections = Arrays.copyOf(candidateSelections, 2 * candidateCount);
+		}
+		int[] offsets = edge.selectionOffsets;
+		if (selectionCount + offsets.length > selectionValues.length) {
+			selectionValues = Arrays.copyOf(selectionValues, Math.max(selectionCount + offsets.length, 2 * selectionValues.length));
+		}
+		int channel = edge.getChannel(state, frame);
+		candidates[candidateCount] = edge;
+		candidateChannels[candidateCount] = channel;
+		candidateSelections[candidateCount] = selectionCount;
+		for (int i = 0; i < offsets.length; i++) {
+			selectionValues[selectionCount++] = frame[offsets[i]];
+		}
+		candidateCount++;
+	}
+
+	/**
+	 * Adds a transition of one or two candidates.
+	 */
+	private void addTransition(int first, int second) {
+		if (transitionCount == transitionStarts.length) {
+			transitionStarts = Arrays.copyOf(transitionStarts, 2 * transitionCount);
+			transitionLengths = Arrays.copyOf(transitionLengths, 2 * transitionCount);
+		}
+		transitionStarts[transitionCount] = participantCount;
+		transitionLengths[transitionCount] = 1;
+		addParticipant(first);
+		if (second >= 0) {
+			addParticipant(second);
+			transitionLengths[transitionCount]++;
+		}
+		transitionCount++;
+	}
+
+	private void addParticipant(int candidate) {
+		if (participantCount == participants.length) {
+			participants = Arrays.copyOf(participants, 2 * participantCount);
+		}
+		participants[participantCount++] = candidate;
+	}
+
+	/**
+	 * Removes the transitions in which no process in a committed location takes part.
+	 */
+	private void retainCommitted() {
+		int retained = 0;
+		for (int transition = 0; transition < transitionCount; transition++) {
+			boolean involved = false;
+			for (int i = 0; i < transitionLengths[transition]; i++) {
+				int process = candidates[participants[transitionStarts[transition] + i]].process;
+				involved |= system.getLocationKind(process, locations[process]) == COMMITTED;
+			}
+			if (involved) {
+				transitionStarts[retained] = transitionStarts[transition];
+				transitionLengths[retained] = transitionLengths[transition];
+				retained++;
+			}
+		}
+		transitionCount = retained;
+	}
+
+	/**
+	 * Removes the transitions of lower priority than others.
+	 */
+	private void retainHighestPriority() {
+		long highest = Long.MIN_VALUE;
+		for (int transition = 0; transition < transitionCount; transition++) {
+			highest = Math.max(highest, getPriority(transition));
+		}
+		int retained = 0;
+		for (int transition = 0; transition < transitionCount; transition++) {
+			if (getPriority(transition) == highest) {
+				transitionStarts[retained] = transitionStarts[transition];
+				transitionLengths[retained] = transitionLengths[transition];
+				retained++;
+			}
+		}
+		transitionCount = retained;
+	}
+
+	/**
+	 * Combines the priority of the channel with the highest priority of the processes taking part in a transition.
+	 */
+	private long getPriority(int transition) {
+		int start = transitionStarts[transition];
+		int processPriority = Integer.MIN_VALUE;
+		for (int i = 0; i < transitionLengths[transition]; i++) {
+			processPriority = Math.max(processPriority, system.getProcessPriority(candidates[participants[start + i]].process));
+		}
+		return ((long)system.getChannelPriority(candidateChannels[participants[start]]) << 32) + processPriority;
+	}
+
+	/**
+	 * Returns whether the invariants hold after a delay.
+	 */
+	private boolean canDelayInvariants() {
+		if (clocks.length == 0) {
+			return true;
+		}
+		for (int i = 0; i < clocks.length; i++) {
+			previousClocks[i] = state[clocks[i]];
+		}
+		delay();
+		boolean holds = invariantsHold();
+		for (int i = 0; i < clocks.length; i++) {
+			state[clocks[i]] = previousClocks[i];
+		}
+		return holds;
+	}
+
+	private void delay() {
+		for (int clock : clocks) {
+			if (state[clock] != Integer.MAX_VALUE) {
+				state[clock]++;
+			}
+		}
+	}
+
+	private boolean invariantsHold() {
+		for (int process = 0; process < processCount; process++) {
+			if (system.getInvariant(process, locations[process]).evaluate(state, frames[process]) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Takes a transition, unless the target state violates an invariant.
+	 */
+	private boolean fire(int transition) {
+		System.arraycopy(state, 0, previousState, 0, state.length);
+		System.arraycopy(locations, 0, previousLocations, 0, processCount);
+		int start = transitionStarts[transition];
+		for (int i = 0; i < transitionLengths[transition]; i++) {
+			int candidate = participants[start + i];
+			ProcessEdge edge = candidates[candidate];
+			int[] frame = frames[edge.process];
+			int[] offsets = edge.selectionOffsets;
+			for (int j = 0; j < offsets.length; j++) {
+				frame[offsets[j]] = selectionValues[candidateSelections[candidate] + j];
+			}
+			edge.update.evaluate(state, frame);
+			locations[edge.process] = edge.target;
+		}
+		if (invariantsHold()) {
+			return true;
+		}
+		System.arraycopy(previousState, 0, state, 0, state.length);
+		System.arraycopy(previousLocations, 0, locations, 0, processCount);
+		return false;
+	}
+
+}
@@ -0,0 +1,622 @@
+/**
+ */
+package de.uni_paderborn.uppaal.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.declarations.ChannelVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.ClockVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.Declaration;
+import de.uni_paderborn.uppaal.declarations.Declarations;
+import de.uni_paderborn.uppaal.declarations.Parameter;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.declarations.VariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.global.ChannelList;
+import de.uni_paderborn.uppaal.declarations.global.ChannelPriority;
+import de.uni_paderborn.uppaal.declarations.global.ChannelPriorityItem;
+import de.uni_paderborn.uppaal.declarations.system.InstantiationList;
+import de.uni_paderborn.uppaal.evaluation.CompiledExpression;
+import de.uni_paderborn.uppaal.evaluation.EvaluationException;
+import de.uni_paderborn.uppaal.evaluation.ExpressionCompiler;
+import de.uni_paderborn.uppaal.evaluation.ExpressionEvaluator;
+import de.uni_paderborn.uppaal.evaluation.SlotLayout;
+import de.uni_paderborn.uppaal.evaluation.VariableSlot;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.expressions.ExpressionsFactory;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.LiteralExpression;
+import de.uni_paderborn.uppaal.templates.AbstractTemplate;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.Location;
+import de.uni_paderborn.uppaal.templates.LocationKind;
+import de.uni_paderborn.uppaal.templates.RedefinedTemplate;
+import de.uni_paderborn.uppaal.templates.Selection;
+import de.uni_paderborn.uppaal.templates.SynchronizationKind;
+import de.uni_paderborn.uppaal.templates.Template;
+
+/**
+ * The processes of the system of an NTA, with the slots of their variables and their compiled guards, updates and invariants.
+ * <p>
+ * The processes are the instances of the templates listed in the system declaration.
+ * Templates declared in the system declarations, such as <code>P1 = P(1);</code>, are instantiated with their arguments.
+ * Templates with unbound parameters passed by value are instantiated for every combination of values of their parameters.
+ * Each process has a {@link SlotLayout} containing the global variables, which are stored at the start of the state,
+ * and its own parameters and variables, which are stored after those of the processes before it.
+ * Channels are numbered in the same way.
+ * </p>
+ * <p>
+ * The instantiation lists of the system declaration separated by <code>&lt;</code> give the priorities of the processes,
+ * the channel priority declaration gives the priorities of the channels.
+ * Edges without synchronization have the default priority.
+ * </p>
+ */
+public class SystemInstance {
+	private final NTA nta;
+
+	private final SlotLayout globalLayout;
+
+	private final List<String> names = new ArrayList<String>();
+
+	private final List<Template> templates = new ArrayList<Template>();
+
+	private final List<SlotLayout> layouts = new ArrayList<SlotLayout>();
+
+	private final List<ExpressionCompiler> compilers = new ArrayList<ExpressionCompiler>();
+
+	private final List<Integer> processPriorities = new ArrayList<Integer>();
+
+	/**
+	 * The locations of the templates by their indices.
+	 */
+	private final Map<Location, Integer> locationIndices = new HashMap<Location, Integer>();
+
+	/**
+	 * The outgoing edges of the locations of the processes.
+	 */
+	private ProcessEdge[][][] outgoing;
+
+	/**
+	 * The compiled invariants of the locations of the processes.
+	 */
+	private CompiledExpression[][] invariants;
+
+	/**
+	 * The kinds of the locations of the processes, as values of {@link LocationKind}.
+	 */
+	private int[][] locationKinds;
+
+	private final int[] initialState;
+
+	private int[] initialLocations;
+
+	private int channelCount;
+
+	private boolean[] broadcast = new boolean[16];
+
+	private boolean[] urgent = new boolean[16];
+
+	private int[] channelPriorities;
+
+	private int defaultPriority;
+
+	private boolean prioritized;
+
+	private int[] clocks = new int[0];
+
+	/**
+	 * Instantiates the system of an NTA.
+	 * @param nta the NTA.
+	 * @throws EvaluationException if the system cannot be instantiated,
+	 * e.g. because an argument does not match its parameter or a template has no initial location.
+	 */
+	public SystemInstance(NTA nta) {
+		this.nta = nta;
+		if (nta.getSystemDeclarations() == null || nta.getSystemDeclarations().getSystem() == null) {
+			throw new EvaluationException("Missing system declaration", nta);
+		}
+		globalLayout = new SlotLayout();
+		if (nta.getGlobalDeclarations() != null) {
+			globalLayout.addDeclarations(nta.getGlobalDeclarations());
+			globalLayout.addLocals(nta.getGlobalDeclarations());
+		}
+		globalLayout.addDeclarations(nta.getSystemDeclarations());
+		globalLayout.addLocals(nta.getSystemDeclarations());
+		channelCount = globalLayout.getChannelCount();
+		addChannels(globalLayout, nta.getGlobalDeclarations());
+		addChannels(globalLayout, nta.getSystemDeclarations());
+		addClocks(globalLayout, nta.getGlobalDeclarations());
+		addClocks(globalLayout, nta.getSystemDeclarations());
+
+		int priority = 0;
+		for (InstantiationList instantiationList : nta.getSystemDeclarations().getSystem().getInstantiationList()) {
+			for (AbstractTemplate template : instantiationList.getTemplate()) {
+				instantiate(template, priority);
+			}
+			priority++;
+		}
+		if (layouts.isEmpty()) {
+			throw new EvaluationException("The system has no processes", nta.getSystemDeclarations().getSystem());
+		}
+
+		SlotLayout last = layouts.get(layouts.size() - 1);
+		initialState = new int[last.getSize()];
+		int[] globalState = globalLayout.createState();
+		System.arraycopy(globalState, 0, initialState, 0, globalState.length);
+		int start = globalLayout.getSize();
+		for (SlotLayout layout : layouts) {
+			int[] state = layout.createState();
+			System.arraycopy(state, start, initialState, start, state.length - start);
+			start = state.length;
+		}
+		broadcast = Arrays.copyOf(broadcast, channelCount);
+		urgent = Arrays.copyOf(urgent, channelCount);
+		addPriorities();
+		addEdges();
+	}
+
+	/**
+	 * Instantiates a template, for every combination of the values of its parameters.
+	 */
+	private void instantiate(AbstractTemplate template, int priority) {
+		SlotLayout scratch = new SlotLayout(globalLayout, globalLayout.getSize(), globalLayout.getChannelCount());
+		List<Variable> parameters = new ArrayList<Variable>();
+		List<int[]> bounds = new ArrayList<int[]>();
+		for (Parameter parameter : template.getParameter()) {
+			if (parameter.getVariableDeclaration() == null) {
+				continue;
+			}
+			for (Variable variable : parameter.getVariableDeclaration().getVariable()) {
+				VariableSlot slot = scratch.addVariable(variable);
+				if (slot.getKind() != VariableSlot.Kind.GLOBAL || slot.getSize() != 1 || slot.getLowerBound() == SlotLayout.INT_MIN && slot.getUpperBound() == SlotLayout.INT_MAX) {
+					throw new EvaluationException("Parameter '" + variable.getName() + "' of template '" + template.getName() + "' must be bound or have a bounded type", variable);
+				}
+				parameters.add(variable);
+				bounds.add(new int[] { slot.getLowerBound(), slot.getUpperBound() });
+			}
+		}
+		int[] values = new int[parameters.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = bounds.get(i)[0];
+		}
+		while (true) {
+			List<Expression> arguments = new ArrayList<Expression>(values.length);
+			StringBuilder name = new StringBuilder(template.getName());
+			for (int i = 0; i < values.length; i++) {
+				LiteralExpression literal = ExpressionsFactory.eINSTANCE.createLiteralExpression();
+				literal.setText(Integer.toString(values[i]));
+				arguments.add(literal);
+				name.append(i == 0 ? "(" : ", ").append(values[i]);
+			}
+			if (values.length > 0) {
+				name.append(')');
+			}
+			addProcess(name.toString(), template, arguments, priority);
+			int i = values.length - 1;
+			while (i >= 0 && values[i] == bounds.get(i)[1]) {
+				values[i] = bounds.get(i)[0];
+				i--;
+			}
+			if (i < 0) {
+				break;
+			}
+			values[i]++;
+		}
+	}
+
+	private void addProcess(String name, AbstractTemplate template, List<Expression> arguments, int priority) {
+		SlotLayout previous = layouts.isEmpty() ? globalLayout : layouts.get(layouts.size() - 1);
+		SlotLayout layout = new SlotLayout(globalLayout, previous.getSize(), previous.getChannelCount());
+		layout.bindParameters(template, arguments);
+		while (template instanceof RedefinedTemplate) {
+			RedefinedTemplate redefined = (RedefinedTemplate)template;
+			List<Expression> redefinedArguments = redefined.getDeclaration() == null ? Collections.<Expression>emptyList() : redefined.getDeclaration().getArgument();
+			template = redefined.getReferredTemplate();
+			if (template == null) {
+				throw new EvaluationException("Template '" + redefined.getName() + "' refers to no template", redefined);
+			}
+			layout.bindParameters(template, redefinedArguments);
+		}
+		Template instantiated = (Template)template;
+		if (instantiated.getInit() == null) {
+			throw new EvaluationException("Template '" + instantiated.getName() + "' has no initial location", instantiated);
+		}
+		layout.addTemplate(instantiated);
+		addChannels(layout, instantiated.getDeclarations());
+		addClocks(layout, instantiated.getDeclarations());
+		for (Parameter parameter : instantiated.getParameter()) {
+			if (parameter.getVariableDeclaration() instanceof ClockVariableDeclaration) {
+				addClocks(layout, parameter.getVariableDeclaration());
+			}
+		}
+		channelCount = Math.max(channelCount, layout.getChannelCount());
+		names.add(name);
+		templates.add(instantiated);
+		layouts.add(layout);
+		compilers.add(new ExpressionCompiler(layout));
+		processPriorities.add(priority);
+	}
+
+	/**
+	 * Records the kinds of the channels declared in declarations.
+	 */
+	private void addChannels(SlotLayout layout, Declarations declarations) {
+		if (declarations == null) {
+			return;
+		}
+		for (Declaration declaration : declarations.getDeclaration()) {
+			if (declaration instanceof ChannelVariableDeclaration) {
+				ChannelVariableDeclaration channelDeclaration = (ChannelVariableDeclaration)declaration;
+				for (Variable variable : channelDeclaration.getVariable()) {
+					VariableSlot slot = layout.getSlot(variable);
+					int end = slot.getOffset() + slot.getSize();
+					if (broadcast.length < end) {
+						broadcast = Arrays.copyOf(broadcast, Math.max(end, 2 * broadcast.length));
+						urgent = Arrays.copyOf(urgent, broadcast.length);
+					}
+					Arrays.fill(broadcast, slot.getOffset(), end, channelDeclaration.isBroadcast());
+					Arrays.fill(urgent, slot.getOffset(), end, channelDeclaration.isUrgent());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Records the slots of the clocks declared in declarations.
+	 */
+	private void addClocks(SlotLayout layout, Declarations declarations) {
+		if (declarations == null) {
+			return;
+		}
+		for (Declaration declaration : declarations.getDeclaration()) {
+			if (declaration instanceof ClockVariableDeclaration) {
+				addClocks(layout, (VariableDeclaration)declaration);
+			}
+		}
+	}
+
+	private void addClocks(SlotLayout layout, VariableDeclaration declaration) {
+		for (Variable variable : declaration.getVariable()) {
+			VariableSlot slot = layout.getSlot(variable);
+			for (int offset = slot.getOffset(); offset < slot.getOffset() + slot.getSize(); offset++) {
+				if (!contains(clocks, offset)) {
+					clocks = Arrays.copyOf(clocks, clocks.length + 1);
+					clocks[clocks.length - 1] = offset;
+				}
+			}
+		}
+	}
+
+	private static boolean contains(int[] values, int value) {
+		for (int element : values) {
+			if (element == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Computes the priorities of the channels. Channels not listed have the default priority,
+	 * which is the lowest priority if the declaration does not list it.
+	 */
+	private void addPriorities() {
+		channelPriorities = new int[channelCount];
+		ChannelPriority channelPriority = nta.getGlobalDeclarations() == null ? null : nta.getGlobalDeclarations().getChannelPriority();
+		if (channelPriority == null) {
+			return;
+		}
+		prioritized = true;
+		ExpressionEvaluator evaluator = new ExpressionEvaluator(globalLayout);
+		int[] state = globalLayout.createState();
+		int level = 1;
+		for (ChannelPriorityItem item : channelPriority.getItem()) {
+			if (item instanceof ChannelList) {
+				for (IdentifierExpression channel : ((ChannelList)item).getChannelExpression()) {
+					VariableSlot slot = globalLayout.getSlot((Variable)channel.getIdentifier());
+					if (slot == null || slot.getKind() != VariableSlot.Kind.CHANNEL) {
+						throw new EvaluationException("Channel expected", channel);
+					}
+					if (channel.getIndex().isEmpty()) {
+						Arrays.fill(channelPriorities, slot.getOffset(), slot.getOffset() + slot.getSize(), level);
+					}
+					else {
+						channelPriorities[evaluator.locate(channel, state, null)] = level;
+					}
+				}
+			}
+			else {
+				defaultPriority = level;
+			}
+			level++;
+		}
+		for (int channel = 0; channel < channelCount; channel++) {
+			if (channelPriorities[channel] == 0) {
+				channelPriorities[channel] = defaultPriority;
+			}
+		}
+	}
+
+	/**
+	 * Compiles the edges and invariants of the processes.
+	 */
+	private void addEdges() {
+		int processCount = templates.size();
+		outgoing = new ProcessEdge[processCount][][];
+		invariants = new CompiledExpression[processCount][];
+		locationKinds = new int[processCount][];
+		initialLocations = new int[processCount];
+		for (int process = 0; process < processCount; process++) {
+			Template template = templates.get(process);
+			SlotLayout layout = layouts.get(process);
+			ExpressionCompiler compiler = compilers.get(process);
+			List<Location> locations = template.getLocation();
+			invariants[process] = new CompiledExpression[locations.size()];
+			locationKinds[process] = new int[locations.size()];
+			List<List<ProcessEdge>> edges = new ArrayList<List<ProcessEdge>>();
+			for (int i = 0; i < locations.size(); i++) {
+				Location location = locations.get(i);
+				locationIndices.put(location, i);
+				invariants[process][i] = compiler.getInvariant(location);
+				locationKinds[process][i] = location.getLocationTimeKind().getValue();
+				edges.add(new ArrayList<ProcessEdge>());
+			}
+			initialLocations[process] = locationIndices.get(template.getInit());
+			for (Edge edge : template.getEdge()) {
+				ProcessEdge processEdge = createEdge(process, edge, layout, compiler);
+				edges.get(processEdge.source).add(processEdge);
+			}
+			outgoing[process] = new ProcessEdge[locations.size()][];
+			for (int i = 0; i < locations.size(); i++) {
+				outgoing[process][i] = edges.get(i).toArray(new ProcessEdge[edges.get(i).size()]);
+			}
+		}
+	}
+
+	private ProcessEdge createEdge(int process, Edge edge, SlotLayout layout, ExpressionCompiler compiler) {
+		Integer source = locationIndices.get(edge.getSource());
+		Integer target = locationIndices.get(edge.getTarget());
+		if (source == null || target == null) {
+			throw new EvaluationException("Edge connects locations of another template", edge);
+		}
+		int synchronization = ProcessEdge.NONE;
+		int channel = -1;
+		IdentifierExpression channelExpression = null;
+		VariableSlot channelSlot = null;
+		CompiledExpression[] channelIndices = null;
+		if (edge.getSynchronization() != null) {
+			synchronization = edge.getSynchronization().getKind() == SynchronizationKind.SEND ? ProcessEdge.SEND : ProcessEdge.RECEIVE;
+			channelExpression = edge.getSynchronization().getChannelExpression();
+			channelSlot = layout.getSlot((Variable)channelExpression.getIdentifier());
+			if (channelSlot == null || channelSlot.getKind() != VariableSlot.Kind.CHANNEL
+					|| channelExpression.getIndex().size() != channelSlot.getDimensionCount()) {
+				throw new EvaluationException("Channel expected", channelExpression);
+			}
+			if (channelExpression.getIndex().isEmpty()) {
+				channel = channelSlot.getOffset();
+			}
+			else {
+				channelIndices = new CompiledExpression[channelExpression.getIndex().size()];
+				for (int i = 0; i < channelIndices.length; i++) {
+					channelIndices[i] = compiler.compile(channelExpression.getIndex().get(i));
+				}
+			}
+		}
+		List<VariableSlot> selections = new ArrayList<VariableSlot>();
+		for (Selection selection : edge.getSelection()) {
+			for (Variable variable : selection.getVariable()) {
+				selections.add(layout.getSlot(variable));
+			}
+		}
+		int[] offsets = new int[selections.size()];
+		int[] lowerBounds = new int[selections.size()];
+		int[] upperBounds = new int[selections.size()];
+		for (int i = 0; i < offsets.length; i++) {
+			offsets[i] = selections.get(i).getOffset();
+			lowerBounds[i] = selections.get(i).getLowerBound();
+			upperBounds[i] = selections.get(i).getUpperBound();
+		}
+		return new ProcessEdge(process, edge, source, target, compiler.getGuard(edge), compiler.getUpdate(edge),
+				synchronization, channel, channelExpression, channelSlot, channelIndices, offsets, lowerBounds, upperBounds);
+	}
+
+	/**
+	 * Returns the NTA.
+	 * @return the NTA.
+	 */
+	public NTA getNTA() {
+		return nta;
+	}
+
+	/**
+	 * Returns the number of processes.
+	 * @return the number of processes.
+	 */
+	public int getProcessCount() {
+		return templates.size();
+	}
+
+	/**
+	 * Returns the name of a process, which is the name of its template followed by the values of its parameters if it has any.
+	 * @param process the number of the process.
+	 * @return the name.
+	 */
+	public String getProcessName(int process) {
+		return names.get(process);
+	}
+
+	/**
+	 * Returns the template of a process.
+	 * @param process the number of the process.
+	 * @return the template.
+	 */
+	public Template getTemplate(int process) {
+		return templates.get(process);
+	}
+
+	/**
+	 * Returns the priority of a process, given by the instantiation list containing it.
+	 * @param process the number of the process.
+	 * @return the priority, higher values take precedence.
+	 */
+	public int getProcessPriority(int process) {
+		return processPriorities.get(process);
+	}
+
+	/**
+	 * Returns the layout of the global variables.
+	 * @return the global layout.
+	 */
+	public SlotLayout getGlobalLayout() {
+		return globalLayout;
+	}
+
+	/**
+	 * Returns the layout of the variables of a process, including the global variables.
+	 * @param process the number of the process.
+	 * @return the layout.
+	 */
+	public SlotLayout getLayout(int process) {
+		return layouts.get(process);
+	}
+
+	/**
+	 * Returns the compiler of the expressions of a process.
+	 * @param process the number of the process.
+	 * @return the compiler.
+	 */
+	public ExpressionCompiler getCompiler(int process) {
+		return compilers.get(process);
+	}
+
+	/**
+	 * Returns the number of slots of the state of the system.
+	 * @return the size of the state.
+	 */
+	public int getStateSize() {
+		return initialState.length;
+	}
+
+	/**
+	 * Creates a state holding the initial values of the variables of all processes.
+	 * @return the new state.
+	 */
+	public int[] createState() {
+		return initialState.clone();
+	}
+
+	/**
+	 * Creates an array holding the initial location of each process.
+	 * @return the indices of the initial locations in the locations of the templates.
+	 */
+	public int[] createLocations() {
+		return initialLocations.clone();
+	}
+
+	/**
+	 * Returns a location of the template of a process.
+	 * @param process the number of the process.
+	 * @param location the index of the location in the locations of the template.
+	 * @return the location.
+	 */
+	public Location getLocation(int process, int location) {
+		return templates.get(process).getLocation().get(location);
+	}
+
+	/**
+	 * Returns the index of a location in the locations of its template.
+	 * @param location the location.
+	 * @return the index, <code>-1</code> if the template is not instantiated.
+	 */
+	public int getLocationIndex(Location location) {
+		Integer index = locationIndices.get(location);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Returns the kind of a location of a process.
+	 * @param process the number of the process.
+	 * @param location the index of the location.
+	 * @return the value of the {@link LocationKind}.
+	 */
+	public int getLocationKind(int process, int location) {
+		return locationKinds[process][location];
+	}
+
+	/**
+	 * Returns the outgoing edges of a location of a process. The array must not be modified.
+	 * @param process the number of the process.
+	 * @param location the index of the location.
+	 * @return the outgoing edges.
+	 */
+	public ProcessEdge[] getOutgoing(int process, int location) {
+		return outgoing[process][location];
+	}
+
+	/**
+	 * Returns the compiled invariant of a location of a process.
+	 * @param process the number of the process.
+	 * @param location the index of the location.
+	 * @return the invariant, {@link ExpressionCompiler#TRUE} if the location has none.
+	 */
+	public CompiledExpression getInvariant(int process, int location) {
+		return invariants[process][location];
+	}
+
+	/**
+	 * Returns the number of channels, including those declared in templates.
+	 * @return the number of channels.
+	 */
+	public int getChannelCount() {
+		return channelCount;
+	}
+
+	/**
+	 * Returns whether a channel is a broadcast channel.
+	 * @param channel the number of the channel.
+	 * @return whether the channel is broadcast.
+	 */
+	public boolean isBroadcast(int channel) {
+		return broadcast[channel];
+	}
+
+	/**
+	 * Returns whether a channel is urgent.
+	 * @param channel the number of the channel.
+	 * @return whether the channel is urgent.
+	 */
+	public boolean isUrgent(int channel) {
+		return urgent[channel];
+	}
+
+	/**
+	 * Returns whether the system declares channel priorities.
+	 * @return whether the channels have priorities.
+	 */
+	public boolean hasChannelPriorities() {
+		return prioritized;
+	}
+
+	/**
+	 * Returns the priority of a channel.
+	 * @param channel the number of the channel, <code>-1</code> for edges without synchronization.
+	 * @return the priority, higher values take precedence.
+	 */
+	public int getChannelPriority(int channel) {
+		return channel < 0 ? defaultPriority : channelPriorities[channel];
+	}
+
+	/**
+	 * Returns the slots of the clocks in the state.
+	 * @return the slots, which must not be modified.
+	 */
+	public int[] getClocks() {
+		return clocks;
+	}
+
+}
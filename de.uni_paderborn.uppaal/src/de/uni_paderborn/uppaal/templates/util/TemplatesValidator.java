@@ -7,12 +7,17 @@ import java.util.Map;
 import org.eclipse.emf.common.util.Diagnostic;
 import org.eclipse.emf.common.util.DiagnosticChain;
 import org.eclipse.emf.common.util.ResourceLocator;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.ecore.util.EObjectValidator;
 
 import de.uni_paderborn.uppaal.core.util.CoreValidator;
 import de.uni_paderborn.uppaal.declarations.util.DeclarationsValidator;
 import de.uni_paderborn.uppaal.templates.*;
+import de.uni_paderborn.uppaal.validation.OCLQueryCache;
+import de.uni_paderborn.uppaal.validation.UppaalConstraints;
+import de.uni_paderborn.uppaal.validation.ValidationMode;
 
 /**
  * <!-- begin-user-doc -->
@@ -159,11 +164,16 @@ public class TemplatesValidator extends EObjectValidator {
 	/**
 	 * Validates the UniqueParameterNames constraint of '<em>Abstract Template</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkAbstractTemplate_UniqueParameterNames} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateAbstractTemplate_UniqueParameterNames(AbstractTemplate abstractTemplate, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkAbstractTemplate_UniqueParameterNames(abstractTemplate), abstractTemplate, "UniqueParameterNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(TemplatesPackage.Literals.ABSTRACT_TEMPLATE,
 				 abstractTemplate,
@@ -175,6 +185,10 @@ public class TemplatesValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkAbstractTemplate_UniqueParameterNames(abstractTemplate), abstractTemplate, "UniqueParameterNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -210,11 +224,16 @@ public class TemplatesValidator extends EObjectValidator {
 	/**
 	 * Validates the UniqueLocationNames constraint of '<em>Template</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkTemplate_UniqueLocationNames} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateTemplate_UniqueLocationNames(Template template, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkTemplate_UniqueLocationNames(template), template, "UniqueLocationNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(TemplatesPackage.Literals.TEMPLATE,
 				 template,
@@ -226,6 +245,10 @@ public class TemplatesValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkTemplate_UniqueLocationNames(template), template, "UniqueLocationNames", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -301,11 +324,16 @@ public class TemplatesValidator extends EObjectValidator {
 	/**
 	 * Validates the UniqueParentTemplate constraint of '<em>Edge</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkEdge_UniqueParentTemplate} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateEdge_UniqueParentTemplate(Edge edge, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkEdge_UniqueParentTemplate(edge), edge, "UniqueParentTemplate", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(TemplatesPackage.Literals.EDGE,
 				 edge,
@@ -317,6 +345,10 @@ public class TemplatesValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkEdge_UniqueParentTemplate(edge), edge, "UniqueParentTemplate", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -357,11 +389,16 @@ public class TemplatesValidator extends EObjectValidator {
 	/**
 	 * Validates the ChannelVariablesOnly constraint of '<em>Synchronization</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkSynchronization_ChannelVariablesOnly} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateSynchronization_ChannelVariablesOnly(Synchronization synchronization, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkSynchronization_ChannelVariablesOnly(synchronization), synchronization, "ChannelVariablesOnly", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(TemplatesPackage.Literals.SYNCHRONIZATION,
 				 synchronization,
@@ -373,6 +410,10 @@ public class TemplatesValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkSynchronization_ChannelVariablesOnly(synchronization), synchronization, "ChannelVariablesOnly", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -408,11 +449,16 @@ public class TemplatesValidator extends EObjectValidator {
 	/**
 	 * Validates the SingleVariable constraint of '<em>Selection</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkSelection_SingleVariable} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateSelection_SingleVariable(Selection selection, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkSelection_SingleVariable(selection), selection, "SingleVariable", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(TemplatesPackage.Literals.SELECTION,
 				 selection,
@@ -424,6 +470,10 @@ public class TemplatesValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkSelection_SingleVariable(selection), selection, "SingleVariable", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -439,11 +489,16 @@ public class TemplatesValidator extends EObjectValidator {
 	/**
 	 * Validates the IntegerBasedType constraint of '<em>Selection</em>'.
 	 * <!-- begin-user-doc -->
+	 * Depending on the {@link ValidationMode} of the context, the constraint is checked by its OCL expression, by {@link UppaalConstraints#checkSelection_IntegerBasedType} or by both.
 	 * <!-- end-user-doc -->
-	 * @generated
+	 * @generated NOT
 	 */
 	public boolean validateSelection_IntegerBasedType(Selection selection, DiagnosticChain diagnostics, Map<Object, Object> context) {
-		return
+		ValidationMode mode = ValidationMode.get(context);
+		if (mode == ValidationMode.COMPILED) {
+			return UppaalConstraints.report(UppaalConstraints.checkSelection_IntegerBasedType(selection), selection, "IntegerBasedType", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		boolean result =
 			validate
 				(TemplatesPackage.Literals.SELECTION,
 				 selection,
@@ -455,6 +510,10 @@ public class TemplatesValidator extends EObjectValidator {
 				 Diagnostic.ERROR,
 				 DIAGNOSTIC_SOURCE,
 				 0);
+		if (mode == ValidationMode.PARITY) {
+			result = UppaalConstraints.compare(result, UppaalConstraints.checkSelection_IntegerBasedType(selection), selection, "IntegerBasedType", DIAGNOSTIC_SOURCE, diagnostics, context);
+		}
+		return result;
 	}
 
 	/**
@@ -475,6 +534,19 @@ public class TemplatesValidator extends EObjectValidator {
 		return true;
 	}
 
+	/**
+	 * Evaluates a constraint.
+	 * <!-- begin-user-doc -->
+	 * OCL constraints are evaluated by the shared {@link OCLQueryCache}, see {@link OCLQueryCache#validate}.
+	 * <!-- end-user-doc -->
+	 * @generated NOT
+	 */
+	@Override
+	public boolean validate(EClass eClass, EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context, String validationDelegate, String constraint, String expression, int severity, String source, int code) {
+		return OCLQueryCache.OCL_DELEGATE_URI.equals(validationDelegate) ? OCLQueryCache.validate(eClass, eObject, diagnostics, context, constraint, expression, severity, source, code)
+				: super.validate(eClass, eObject, diagnostics, context, validationDelegate, constraint, expression, severity, source, code);
+	}
+
 	/**
 	 * Returns the resource locator that will be used to fetch messages for this validator's diagnostics.
 	 * <!-- begin-user-doc -->
@@ -0,0 +1,400 @@
+/**
+ */
+package de.uni_paderborn.uppaal.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.BasicDiagnostic;
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.common.util.DiagnosticChain;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.EValidator;
+import org.eclipse.emf.ecore.util.Diagnostician;
+import org.eclipse.emf.ecore.util.ECrossReferenceAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.declarations.DeclarationsPackage;
+import de.uni_paderborn.uppaal.declarations.Parameter;
+import de.uni_paderborn.uppaal.declarations.TypeDeclaration;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.declarations.VariableContainer;
+import de.uni_paderborn.uppaal.templates.TemplatesPackage;
+import de.uni_paderborn.uppaal.types.DeclaredType;
+import de.uni_paderborn.uppaal.types.Type;
+import de.uni_paderborn.uppaal.types.TypesPackage;
+
+/**
+ * Keeps the diagnostics of an NTA up to date by revalidating only the objects affected by each change.
+ * <p>
+ * The validator is attached to an NTA with {@link #attach(NTA, Map)}. It listens to the changes of all contained objects
+ * and records the objects whose constraints may have changed their result:
+ * the changed object and its containers, the objects referring to it or to the function or template of a changed parameter,
+ * and, for changes of types, the declarations and variables whose base type depends on the changed type.
+ * {@link #validate()} validates the recorded objects without their contents and returns the diagnostics of the whole NTA,
+ * combining the new diagnostics with the cached ones in the order of a full validation.
+ * </p>
+ * <p>
+ * The validator is not thread-safe; the NTA must be modified and validated by the same thread.
+ * </p>
+ */
+public class IncrementalValidator extends ECrossReferenceAdapter {
+	/**
+	 * How many containers of a changed object are revalidated.
+	 * Uniqueness constraints are defined at most three levels above the named elements they check,
+	 * for example on the function containing the parameter which contains the declaration of a parameter variable.
+	 */
+	protected static final int CONTAINER_DEPTH = 3;
+
+	/**
+	 * The validated NTA.
+	 */
+	protected final NTA nta;
+
+	/**
+	 * The diagnostician validating single objects.
+	 */
+	protected final Diagnostician diagnostician;
+
+	/**
+	 * The entries added to the context of each validation.
+	 */
+	protected final Map<?, ?> contextEntries;
+
+	/**
+	 * The diagnostics of the validated objects that have any.
+	 */
+	protected final Map<EObject, Diagnostic> diagnostics = new LinkedHashMap<EObject, Diagnostic>();
+
+	/**
+	 * The objects to revalidate.
+	 */
+	protected final Set<EObject> affectedObjects = new HashSet<EObject>();
+
+	/**
+	 * The diagnostics of the NTA returned by the last validation, <code>null</code> before the first one.
+	 */
+	protected BasicDiagnostic result;
+
+	/**
+	 * Creates a validator; use {@link #attach(NTA, Map)} to create one listening to an NTA.
+	 * @param nta the NTA to validate.
+	 * @param eValidatorRegistry the registry of the validators.
+	 * @param contextEntries the entries added to the context of each validation, may be <code>null</code>.
+	 */
+	public IncrementalValidator(NTA nta, EValidator.Registry eValidatorRegistry, Map<?, ?> contextEntries) {
+		this.nta = nta;
+		this.diagnostician = new ObjectDiagnostician(eValidatorRegistry);
+		this.contextEntries = contextEntries == null ? Collections.emptyMap() : contextEntries;
+	}
+
+	/**
+	 * Creates a validator and attaches it to an NTA. The first call to {@link #validate()} validates the whole NTA.
+	 * @param nta the NTA.
+	 * @param contextEntries the entries added to the context of each validation, for example a {@link ValidationMode}, may be <code>null</code>.
+	 * @return the attached validator.
+	 */
+	public static IncrementalValidator attach(NTA nta, Map<?, ?> contextEntries) {
+		IncrementalValidator validator = new IncrementalValidator(nta, EValidator.Registry.INSTANCE, contextEntries);
+		nta.eAdapters().add(validator);
+		return validator;
+	}
+
+	/**
+	 * Detaches the validator from its NTA and drops the cached diagnostics.
+	 */
+	public void detach() {
+		nta.eAdapters().remove(this);
+		diagnostics.clear();
+		affectedObjects.clear();
+		result = null;
+	}
+
+	/**
+	 * Returns the validated NTA.
+	 * @return the NTA.
+	 */
+	public NTA getNTA() {
+		return nta;
+	}
+
+	/**
+	 * Returns the objects which are revalidated by the next call to {@link #validate()}, unless it is the first one.
+	 * @return an unmodifiable view of the affected objects.
+	 */
+	public Set<EObject> getAffectedObjects() {
+		return Collections.unmodifiableSet(affectedObjects);
+	}
+
+	/**
+	 * Revalidates the affected objects and returns the diagnostics of the NTA.
+	 * The messages of cached diagnostics keep the labels of the objects from the time they were created.
+	 * @return the diagnostics of the NTA in the order of a full validation.
+	 */
+	public Diagnostic validate() {
+		if (result != null && affectedObjects.isEmpty()) {
+			return result;
+		}
+		Map<Object, Object> context = diagnostician.createDefaultContext();
+		context.putAll(contextEntries);
+		List<EObject> objects = new ArrayList<EObject>();
+		if (result == null) {
+			diagnostics.clear();
+			validate(nta, context);
+			for (Iterator<EObject> i = nta.eAllContents(); i.hasNext();) {
+				validate(i.next(), context);
+			}
+			// the map preserves the order of the tree walk
+			objects.addAll(diagnostics.keySet());
+		}
+		else {
+			for (EObject eObject : affectedObjects) {
+				if (EcoreUtil.isAncestor(nta, eObject)) {
+					validate(eObject, context);
+				}
+			}
+			final Map<EObject, int[]> paths = new HashMap<EObject, int[]>();
+			for (Iterator<EObject> i = diagnostics.keySet().iterator(); i.hasNext();) {
+				EObject eObject = i.next();
+				if (EcoreUtil.isAncestor(nta, eObject)) {
+					objects.add(eObject);
+					paths.put(eObject, getPath(eObject));
+				}
+				else {
+					i.remove();
+				}
+			}
+			Collections.sort(objects, new Comparator<EObject>() {
+				public int compare(EObject first, EObject second) {
+					return comparePaths(paths.get(first), paths.get(second));
+				}
+			});
+		}
+		affectedObjects.clear();
+		result = diagnostician.createDefaultDiagnostic(nta);
+		for (EObject eObject : objects) {
+			result.addAll(diagnostics.get(eObject));
+		}
+		return result;
+	}
+
+	/**
+	 * Validates a single object and caches its diagnostics.
+	 */
+	private void validate(EObject eObject, Map<Object, Object> context) {
+		BasicDiagnostic objectDiagnostics = new BasicDiagnostic();
+		diagnostician.validate(eObject, objectDiagnostics, context);
+		if (objectDiagnostics.getChildren().isEmpty()) {
+			diagnostics.remove(eObject);
+		}
+		else {
+			diagnostics.put(eObject, objectDiagnostics);
+		}
+	}
+
+	/**
+	 * Returns the indices of an object and its containers in the contents of their containers, starting below the NTA.
+	 */
+	private int[] getPath(EObject eObject) {
+		int depth = 0;
+		for (EObject container = eObject; container != nta; container = container.eContainer()) {
+			depth++;
+		}
+		int[] path = new int[depth];
+		for (EObject container = eObject; container != nta; container = container.eContainer()) {
+			path[--depth] = container.eContainer().eContents().indexOf(container);
+		}
+		return path;
+	}
+
+	/**
+	 * Compares paths in the order of a tree walk, which visits containers before their contents.
+	 */
+	private static int comparePaths(int[] first, int[] second) {
+		int length = Math.min(first.length, second.length);
+		for (int i = 0; i < length; i++) {
+			if (first[i] != second[i]) {
+				return first[i] < second[i] ? -1 : 1;
+			}
+		}
+		return first.length - second.length;
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		super.notifyChanged(notification);
+		if (!notification.isTouch() && notification.getNotifier() instanceof EObject) {
+			record((EObject)notification.getNotifier(), notification);
+		}
+	}
+
+	/**
+	 * Records the objects affected by a change.
+	 * @param notifier the changed object.
+	 * @param notification the change.
+	 */
+	protected void record(EObject notifier, Notification notification) {
+		addWithContainers(notifier);
+		Object feature = notification.getFeature();
+		if (feature instanceof EReference && ((EReference)feature).isContainment()) {
+			for (EObject eObject : getValues(notification.getOldValue())) {
+				contentsChanged(eObject, false);
+			}
+			for (EObject eObject : getValues(notification.getNewValue())) {
+				contentsChanged(eObject, true);
+			}
+		}
+		if (feature == DeclarationsPackage.Literals.VARIABLE_CONTAINER__TYPE_DEFINITION
+				|| feature == DeclarationsPackage.Literals.FUNCTION__RETURN_TYPE
+				|| feature == DeclarationsPackage.Literals.TYPE_INDEX__TYPE_DEFINITION
+				|| feature == DeclarationsPackage.Literals.TYPE_DECLARATION__TYPE_DEFINITION) {
+			typeChanged(notifier, new HashSet<EObject>());
+		}
+		else if (feature == TypesPackage.Literals.TYPE_REFERENCE__REFERRED_TYPE && notifier.eContainer() != null) {
+			typeChanged(notifier.eContainer(), new HashSet<EObject>());
+		}
+		else if (feature == TypesPackage.Literals.PREDEFINED_TYPE__TYPE) {
+			typeReferencesChanged(notifier, new HashSet<EObject>());
+		}
+		if (feature == DeclarationsPackage.Literals.FUNCTION__PARAMETER
+				|| feature == TemplatesPackage.Literals.ABSTRACT_TEMPLATE__PARAMETER) {
+			// calls and instantiations check the number of arguments
+			addReferrers(notifier);
+		}
+		for (EObject container = notifier; container != null; container = container.eContainer()) {
+			if (container instanceof Parameter) {
+				// the templates and functions of parameters are checked by their instantiations and calls
+				if (container.eContainer() != null) {
+					addReferrers(container.eContainer());
+				}
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Records the objects affected by adding or removing a subtree.
+	 * Removed objects keep this adapter, so that their references are still known if they are added again.
+	 * @param root the root of the subtree.
+	 * @param added whether the subtree was added or removed.
+	 */
+	protected void contentsChanged(EObject root, boolean added) {
+		for (Iterator<EObject> i = EcoreUtil.getAllProperContents(Collections.singleton(root), false); i.hasNext();) {
+			EObject eObject = i.next();
+			if (added) {
+				affectedObjects.add(eObject);
+			}
+			else {
+				diagnostics.remove(eObject);
+				affectedObjects.remove(eObject);
+			}
+			addReferrers(eObject);
+			typeReferencesChanged(eObject, new HashSet<EObject>());
+		}
+	}
+
+	/**
+	 * Records the objects depending on a changed type definition.
+	 * @param owner the object containing the type definition.
+	 * @param visited the owners visited so far, which guards against cyclic type declarations.
+	 */
+	protected void typeChanged(EObject owner, Set<EObject> visited) {
+		if (!visited.add(owner)) {
+			return;
+		}
+		addWithContainers(owner);
+		if (owner instanceof VariableContainer) {
+			for (Variable variable : ((VariableContainer)owner).getVariable()) {
+				affectedObjects.add(variable);
+				addReferrers(variable);
+			}
+		}
+		else if (owner instanceof TypeDeclaration) {
+			for (DeclaredType type : ((TypeDeclaration)owner).getType()) {
+				typeReferencesChanged(type, visited);
+			}
+		}
+	}
+
+	/**
+	 * Records the objects depending on the type definitions referring to a changed type.
+	 * @param type the type, ignored if it is no {@link Type}.
+	 * @param visited the owners visited so far.
+	 */
+	protected void typeReferencesChanged(EObject type, Set<EObject> visited) {
+		if (!(type instanceof Type)) {
+			return;
+		}
+		for (EStructuralFeature.Setting setting : getInverseReferences(type, false)) {
+			if (setting.getEStructuralFeature() == TypesPackage.Literals.TYPE_REFERENCE__REFERRED_TYPE) {
+				EObject owner = setting.getEObject().eContainer();
+				if (owner != null) {
+					typeChanged(owner, visited);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Records the objects referring to an object, together with their containers.
+	 * @param eObject the referred object.
+	 */
+	protected void addReferrers(EObject eObject) {
+		for (EStructuralFeature.Setting setting : getInverseReferences(eObject, false)) {
+			addWithContainers(setting.getEObject());
+		}
+	}
+
+	/**
+	 * Records an object and up to {@link #CONTAINER_DEPTH} of its containers.
+	 * @param eObject the object.
+	 */
+	protected void addWithContainers(EObject eObject) {
+		for (int i = 0; eObject != null && i <= CONTAINER_DEPTH; i++) {
+			affectedObjects.add(eObject);
+			eObject = eObject.eContainer();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<EObject> getValues(Object value) {
+		if (value instanceof EObject) {
+			return Collections.singletonList((EObject)value);
+		}
+		if (value instanceof List<?>) {
+			return (List<EObject>)value;
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Validates single objects without their contents.
+	 */
+	protected static class ObjectDiagnostician extends Diagnostician {
+		/**
+		 * Creates an instance.
+		 * @param eValidatorRegistry the registry of the validators.
+		 */
+		public ObjectDiagnostician(EValidator.Registry eValidatorRegistry) {
+			super(eValidatorRegistry);
+		}
+
+		@Override
+		protected boolean doValidateContents(EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context) {
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,238 @@
+/**
+ */
+package de.uni_paderborn.uppaal.validation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.emf.common.util.BasicDiagnostic;
+import org.eclipse.emf.common.util.DiagnosticChain;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.plugin.EcorePlugin;
+import org.eclipse.emf.ecore.util.EObjectValidator;
+import org.eclipse.ocl.ParserException;
+import org.eclipse.ocl.ecore.Constraint;
+import org.eclipse.ocl.ecore.OCL;
+
+/**
+ * A cache of the compiled OCL constraints of the metamodel, shared by the validators of all packages.
+ * <p>
+ * The generated validators pass the OCL expression of a constraint to each evaluation.
+ * The cache parses the expression once per constraint, identified by its class and name,
+ * and keeps the resulting queries for the following evaluations.
+ * Parsed constraints are shared by all threads. Queries keep evaluation state, so each thread creates its own ones from the parsed constraints.
+ * </p>
+ * <p>
+ * The constraints are parsed by one OCL environment on the global package registry, not on the registry of the resource set of the validated objects.
+ * This suffices for the constraints of the metamodel, which only refer to its own packages, registered globally;
+ * objects of other versions of the packages, e.g. loaded dynamically from an <code>.ecore</code> file into a resource set, are not supported.
+ * </p>
+ * <p>
+ * The cache counts the evaluations that found a parsed constraint (hits), those that had to parse it (misses),
+ * and the time spent evaluating queries.
+ * </p>
+ */
+public class OCLQueryCache {
+	/**
+	 * The URI of the OCL validation delegate named by the constraints of the metamodel.
+	 */
+	public static final String OCL_DELEGATE_URI = "http://www.eclipse.org/emf/2002/Ecore/OCL";
+
+	/**
+	 * The cache used by the validators.
+	 */
+	public static final OCLQueryCache INSTANCE = new OCLQueryCache();
+
+	/**
+	 * The OCL environment parsing the constraints, guarded by itself.
+	 */
+	private final OCL ocl = OCL.newInstance();
+
+	/**
+	 * The parsed constraints.
+	 */
+	private final ConcurrentMap<Key, Constraint> constraints = new ConcurrentHashMap<Key, Constraint>();
+
+	/**
+	 * The queries of the current thread.
+	 */
+	private final ThreadLocal<Map<Key, OCL.Query>> queries = new ThreadLocal<Map<Key, OCL.Query>>() {
+		@Override
+		protected Map<Key, OCL.Query> initialValue() {
+			return new HashMap<Key, OCL.Query>();
+		}
+	};
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evaluationTime = new AtomicLong();
+
+	/**
+	 * Checks an OCL constraint on an object.
+	 * @param eClass the class defining the constraint.
+	 * @param constraint the name of the constraint.
+	 * @param expression the OCL expression of the constraint, parsed if the constraint is not cached yet.
+	 * @param eObject the object to check.
+	 * @return whether the constraint holds.
+	 * @throws ParserException if the expression cannot be parsed.
+	 */
+	public boolean check(EClass eClass, String constraint, String expression, EObject eObject) throws ParserException {
+		OCL.Query query = getQuery(eClass, constraint, expression);
+		long start = System.nanoTime();
+		try {
+			return query.check(eObject);
+		}
+		finally {
+			evaluationTime.addAndGet(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Checks an OCL constraint for a generated validator, reporting a violation or an exception as the validation delegate does.
+	 * The validators of all packages delegate their OCL constraints to this method.
+	 * @param eClass the class defining the constraint.
+	 * @param eObject the object to check.
+	 * @param diagnostics the diagnostics to add to, may be <code>null</code>.
+	 * @param context the context of the validation.
+	 * @param constraint the name of the constraint.
+	 * @param expression the OCL expression of the constraint.
+	 * @param severity the severity of a violation.
+	 * @param source the diagnostic source of the validator.
+	 * @param code the diagnostic code.
+	 * @return whether the constraint holds; <code>false</code> if it cannot be evaluated.
+	 */
+	public static boolean validate(EClass eClass, EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context, String constraint, String expression, int severity, String source, int code) {
+		try {
+			if (INSTANCE.check(eClass, constraint, expression, eObject)) {
+				return true;
+			}
+			if (diagnostics != null) {
+				String message = EcorePlugin.INSTANCE.getString("_UI_GenericConstraint_diagnostic", new Object[] { constraint, EObjectValidator.getObjectLabel(eObject, context) });
+				diagnostics.add(new BasicDiagnostic(severity, source, code, message, new Object[] { eObject }));
+			}
+		}
+		catch (Throwable throwable) {
+			if (diagnostics != null) {
+				String message = EcorePlugin.INSTANCE.getString("_UI_ConstraintDelegateException_diagnostic",
+						new Object[] { constraint, EObjectValidator.getObjectLabel(eObject, context), throwable.getLocalizedMessage() });
+				diagnostics.add(new BasicDiagnostic(severity, source, code, message, new Object[] { eObject }));
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the query of the current thread for a constraint.
+	 * @param eClass the class defining the constraint.
+	 * @param constraint the name of the constraint.
+	 * @param expression the OCL expression of the constraint, parsed if the constraint is not cached yet.
+	 * @return the query.
+	 * @throws ParserException if the expression cannot be parsed.
+	 */
+	public OCL.Query getQuery(EClass eClass, String constraint, String expression) throws ParserException {
+		Key key = new Key(eClass, constraint);
+		Map<Key, OCL.Query> threadQueries = queries.get();
+		OCL.Query query = threadQueries.get(key);
+		if (query == null) {
+			Constraint parsedConstraint = getConstraint(key, expression);
+			synchronized (ocl) {
+				query = ocl.createQuery(parsedConstraint);
+			}
+			threadQueries.put(key, query);
+		}
+		else {
+			hitCount.incrementAndGet();
+		}
+		return query;
+	}
+
+	private Constraint getConstraint(Key key, String expression) throws ParserException {
+		Constraint parsedConstraint = constraints.get(key);
+		if (parsedConstraint != null) {
+			hitCount.incrementAndGet();
+			return parsedConstraint;
+		}
+		synchronized (ocl) {
+			parsedConstraint = constraints.get(key);
+			if (parsedConstraint == null) {
+				missCount.incrementAndGet();
+				OCL.Helper helper = ocl.createOCLHelper();
+				helper.setContext(key.eClass);
+				parsedConstraint = helper.createInvariant(expression);
+				constraints.put(key, parsedConstraint);
+			}
+			else {
+				hitCount.incrementAndGet();
+			}
+		}
+		return parsedConstraint;
+	}
+
+	/**
+	 * Returns the number of queries taken from the cache.
+	 * @return the number of hits.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the number of constraints parsed.
+	 * @return the number of misses.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Returns the time spent evaluating queries.
+	 * @return the time in nanoseconds.
+	 */
+	public long getEvaluationTime() {
+		return evaluationTime.get();
+	}
+
+	/**
+	 * Resets the counters, keeping the cached constraints.
+	 */
+	public void resetStatistics() {
+		hitCount.set(0);
+		missCount.set(0);
+		evaluationTime.set(0);
+	}
+
+	/**
+	 * Identifies a constraint by its class and name.
+	 */
+	private static final class Key {
+		final EClass eClass;
+
+		final String constraint;
+
+		Key(EClass eClass, String constraint) {
+			this.eClass = eClass;
+			this.constraint = constraint;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Key)) {
+				return false;
+			}
+			Key key = (Key)object;
+			return eClass == key.eClass && constraint.equals(key.constraint);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * eClass.hashCode() + constraint.hashCode();
+		}
+	}
+
+}
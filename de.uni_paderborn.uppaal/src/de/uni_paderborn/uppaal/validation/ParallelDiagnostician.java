@@ -0,0 +1,201 @@
+/**
+ */
+package de.uni_paderborn.uppaal.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.eclipse.emf.common.util.BasicDiagnostic;
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.common.util.DiagnosticChain;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EValidator;
+import org.eclipse.emf.ecore.util.Diagnostician;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.UppaalPackage;
+
+/**
+ * A diagnostician validating the parts of an NTA in parallel.
+ * <p>
+ * An NTA is partitioned into its contents: the global declarations, each template, the system declarations and the predefined types.
+ * The partitions are validated on a fork-join pool, each with its own copy of the context,
+ * and their diagnostics are added to the result in the order of the contents,
+ * so the result is the same as that of a sequential {@link Diagnostician}.
+ * Other objects are validated sequentially.
+ * </p>
+ * <p>
+ * A diagnostician created with its own pool keeps the pool's threads until it is {@link #close() closed}.
+ * </p>
+ * <p>
+ * The model must not be modified during the validation.
+ * The validators of the Uppaal packages keep no state besides the context,
+ * but constraints in {@link ValidationMode#OCL OCL mode} rely on the thread safety of the installed OCL delegates.
+ * </p>
+ */
+public class ParallelDiagnostician extends Diagnostician {
+	/**
+	 * An instance validating on a pool with one thread per processor, which is shared for the lifetime of the class and never closed.
+	 */
+	public static final ParallelDiagnostician INSTANCE = new ParallelDiagnostician(EValidator.Registry.INSTANCE, new ForkJoinPool());
+
+	/**
+	 * The context key marking the NTA whose contents are validated by separate tasks.
+	 */
+	private static final Object PARTITIONED = new Object();
+
+	/**
+	 * The pool the partitions are validated on.
+	 */
+	protected final ForkJoinPool pool;
+
+	/**
+	 * Whether the pool was created by this instance and is shut down by {@link #close()}.
+	 */
+	private final boolean ownsPool;
+
+	/**
+	 * Creates an instance validating on its own pool with one thread per processor, which must be {@link #close() closed}.
+	 */
+	public ParallelDiagnostician() {
+		this(EValidator.Registry.INSTANCE, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates an instance validating on its own pool, which must be {@link #close() closed}.
+	 * @param eValidatorRegistry the registry of the validators.
+	 * @param parallelism the number of threads of the pool.
+	 */
+	public ParallelDiagnostician(EValidator.Registry eValidatorRegistry, int parallelism) {
+		this(eValidatorRegistry, new ForkJoinPool(parallelism), true);
+	}
+
+	/**
+	 * Creates an instance validating on a pool of the caller, which is not shut down by {@link #close()}.
+	 * @param eValidatorRegistry the registry of the validators.
+	 * @param pool the pool the partitions are validated on.
+	 */
+	public ParallelDiagnostician(EValidator.Registry eValidatorRegistry, ForkJoinPool pool) {
+		this(eValidatorRegistry, pool, false);
+	}
+
+	private ParallelDiagnostician(EValidator.Registry eValidatorRegistry, ForkJoinPool pool, boolean ownsPool) {
+		super(eValidatorRegistry);
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+	}
+
+	/**
+	 * Shuts down the pool if this instance created it; validations in progress are completed,
+	 * later validations of an NTA throw a {@link java.util.concurrent.RejectedExecutionException RejectedExecutionException}.
+	 * Does nothing for a pool of the caller.
+	 */
+	public void close() {
+		if (ownsPool) {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Validates an object with the default context, in parallel for an NTA.
+	 */
+	@Override
+	public Diagnostic validate(EObject eObject) {
+		return validate(eObject, Collections.emptyMap());
+	}
+
+	@Override
+	public Diagnostic validate(EObject eObject, Map<?, ?> contextEntries) {
+		if (!(eObject instanceof NTA)) {
+			return super.validate(eObject, contextEntries);
+		}
+		resolveValidators();
+		List<ValidationTask> tasks = new ArrayList<ValidationTask>();
+		for (EObject partition : eObject.eContents()) {
+			ValidationTask task = new ValidationTask(partition, contextEntries);
+			tasks.add(task);
+			pool.execute(task);
+		}
+		BasicDiagnostic diagnostics = createDefaultDiagnostic(eObject);
+		Map<Object, Object> context = createContext(contextEntries);
+		context.put(PARTITIONED, eObject);
+		validate(eObject, diagnostics, context);
+		for (ValidationTask task : tasks) {
+			diagnostics.addAll(task.join());
+		}
+		return diagnostics;
+	}
+
+	/**
+	 * Validates the contents of an object, except for the partitions of an NTA which are validated by separate tasks.
+	 */
+	@Override
+	protected boolean doValidateContents(EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context) {
+		if (context.get(PARTITIONED) == eObject) {
+			return true;
+		}
+		return super.doValidateContents(eObject, diagnostics, context);
+	}
+
+	/**
+	 * Creates a new context for a validation.
+	 * @param contextEntries the entries to add to the default context.
+	 * @return the new context.
+	 */
+	protected Map<Object, Object> createContext(Map<?, ?> contextEntries) {
+		Map<Object, Object> context = createDefaultContext();
+		if (contextEntries != null) {
+			context.putAll(contextEntries);
+		}
+		return context;
+	}
+
+	/**
+	 * Resolves the validator descriptors of the Uppaal packages, which the registry replaces by the validators on first access.
+	 */
+	protected void resolveValidators() {
+		eValidatorRegistry.get(null);
+		resolveValidators(UppaalPackage.eINSTANCE);
+	}
+
+	private void resolveValidators(EPackage ePackage) {
+		eValidatorRegistry.getEValidator(ePackage);
+		for (EPackage eSubpackage : ePackage.getESubpackages()) {
+			resolveValidators(eSubpackage);
+		}
+	}
+
+	/**
+	 * Validates one partition with its own context.
+	 */
+	protected class ValidationTask extends RecursiveTask<Diagnostic> {
+		private static final long serialVersionUID = 1L;
+
+		private final EObject partition;
+
+		private final Map<?, ?> contextEntries;
+
+		/**
+		 * Creates a task.
+		 * @param partition the object to validate with its contents.
+		 * @param contextEntries the entries to add to the default context.
+		 */
+		public ValidationTask(EObject partition, Map<?, ?> contextEntries) {
+			this.partition = partition;
+			this.contextEntries = contextEntries;
+		}
+
+		@Override
+		protected Diagnostic compute() {
+			BasicDiagnostic diagnostics = new BasicDiagnostic();
+			validate(partition, diagnostics, createContext(contextEntries));
+			return diagnostics;
+		}
+	}
+
+}
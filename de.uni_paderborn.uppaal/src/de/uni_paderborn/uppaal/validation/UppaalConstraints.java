@@ -0,0 +1,761 @@
+/**
+ */
+package de.uni_paderborn.uppaal.validation;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.util.BasicDiagnostic;
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.common.util.DiagnosticChain;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.plugin.EcorePlugin;
+import org.eclipse.emf.ecore.util.EObjectValidator;
+
+import de.uni_paderborn.uppaal.NTA;
+import de.uni_paderborn.uppaal.core.NamedElement;
+import de.uni_paderborn.uppaal.declarations.CallType;
+import de.uni_paderborn.uppaal.declarations.ChannelVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.ClockVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.DataVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.Declaration;
+import de.uni_paderborn.uppaal.declarations.Declarations;
+import de.uni_paderborn.uppaal.declarations.Function;
+import de.uni_paderborn.uppaal.declarations.FunctionDeclaration;
+import de.uni_paderborn.uppaal.declarations.GlobalDeclarations;
+import de.uni_paderborn.uppaal.declarations.LocalDeclarations;
+import de.uni_paderborn.uppaal.declarations.Parameter;
+import de.uni_paderborn.uppaal.declarations.SystemDeclarations;
+import de.uni_paderborn.uppaal.declarations.TypeDeclaration;
+import de.uni_paderborn.uppaal.declarations.TypeIndex;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.declarations.VariableContainer;
+import de.uni_paderborn.uppaal.declarations.VariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.global.ChannelList;
+import de.uni_paderborn.uppaal.declarations.global.ChannelPriority;
+import de.uni_paderborn.uppaal.declarations.global.ChannelPriorityItem;
+import de.uni_paderborn.uppaal.declarations.global.DefaultChannelPriority;
+import de.uni_paderborn.uppaal.declarations.system.InstantiationList;
+import de.uni_paderborn.uppaal.declarations.system.TemplateDeclaration;
+import de.uni_paderborn.uppaal.expressions.FunctionCallExpression;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.QuantificationExpression;
+import de.uni_paderborn.uppaal.statements.Block;
+import de.uni_paderborn.uppaal.statements.Iteration;
+import de.uni_paderborn.uppaal.templates.AbstractTemplate;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.RedefinedTemplate;
+import de.uni_paderborn.uppaal.templates.Selection;
+import de.uni_paderborn.uppaal.templates.Synchronization;
+import de.uni_paderborn.uppaal.templates.Template;
+import de.uni_paderborn.uppaal.types.BuiltInType;
+import de.uni_paderborn.uppaal.types.DeclaredType;
+import de.uni_paderborn.uppaal.types.PredefinedType;
+import de.uni_paderborn.uppaal.types.RangeTypeSpecification;
+import de.uni_paderborn.uppaal.types.ScalarTypeSpecification;
+import de.uni_paderborn.uppaal.types.StructTypeSpecification;
+import de.uni_paderborn.uppaal.types.Type;
+import de.uni_paderborn.uppaal.types.TypeDefinition;
+import de.uni_paderborn.uppaal.types.TypeReference;
+
+/**
+ * Compiled Java versions of the OCL invariants of the metamodel.
+ * <p>
+ * There is one <code>check</code> method for each invariant, named after the validation method of the generated validator.
+ * The methods evaluate the same expressions as the OCL versions, including their treatment of undefined values,
+ * but they do not go through the derived features, which are computed by OCL as well.
+ * </p>
+ * @see ValidationMode#COMPILED
+ */
+public final class UppaalConstraints {
+	/**
+	 * The key of the message of a violated constraint, the same one used by {@link EObjectValidator}.
+	 */
+	private static final String CONSTRAINT_MESSAGE = "_UI_GenericConstraint_diagnostic";
+
+	private UppaalConstraints() {
+	}
+
+	/**
+	 * Reports the result of a compiled constraint the way {@link EObjectValidator} reports the result of an OCL constraint.
+	 * @param valid whether the constraint holds.
+	 * @param eObject the validated object.
+	 * @param constraint the name of the constraint.
+	 * @param source the diagnostic source of the validator.
+	 * @param diagnostics the diagnostics to add the error to, may be <code>null</code>.
+	 * @param context the context of the validation.
+	 * @return <code>valid</code>.
+	 */
+	public static boolean report(boolean valid, EObject eObject, String constraint, String source, DiagnosticChain diagnostics, Map<Object, Object> context) {
+		if (!valid && diagnostics != null) {
+			String message = EcorePlugin.INSTANCE.getString(CONSTRAINT_MESSAGE, new Object[] { constraint, EObjectValidator.getObjectLabel(eObject, context) });
+			diagnostics.add(new BasicDiagnostic(Diagnostic.ERROR, source, 0, message, new Object[] { eObject }));
+		}
+		return valid;
+	}
+
+	/**
+	 * Reports a warning if a compiled constraint disagrees with its OCL version.
+	 * @param oclValid whether the OCL version holds.
+	 * @param valid whether the compiled version holds.
+	 * @param eObject the validated object.
+	 * @param constraint the name of the constraint.
+	 * @param source the diagnostic source of the validator.
+	 * @param diagnostics the diagnostics to add the warning to, may be <code>null</code>.
+	 * @param context the context of the validation.
+	 * @return <code>oclValid</code>.
+	 * @see ValidationMode#PARITY
+	 */
+	public static boolean compare(boolean oclValid, boolean valid, EObject eObject, String constraint, String source, DiagnosticChain diagnostics, Map<Object, Object> context) {
+		if (oclValid != valid && diagnostics != null) {
+			String message = "The compiled version of the '" + constraint + "' constraint " + (valid ? "holds" : "fails")
+					+ " on '" + EObjectValidator.getObjectLabel(eObject, context) + "', the OCL version " + (oclValid ? "holds" : "fails");
+			diagnostics.add(new BasicDiagnostic(Diagnostic.WARNING, source, 0, message, new Object[] { eObject }));
+		}
+		return oclValid;
+	}
+
+	/**
+	 * Returns the base type of a type definition, as the derived <code>baseType</code> feature does.
+	 * @param type the type definition, may be <code>null</code>.
+	 * @return the built-in type the definition is based on, <code>null</code> for structs and unresolved types.
+	 */
+	public static BuiltInType getBaseType(TypeDefinition type) {
+		while (type instanceof TypeReference) {
+			Type referredType = ((TypeReference)type).getReferredType();
+			if (referredType instanceof PredefinedType) {
+				return ((PredefinedType)referredType).getType();
+			}
+			if (!(referredType instanceof DeclaredType)) {
+				return null;
+			}
+			TypeDeclaration declaration = ((DeclaredType)referredType).getTypeDeclaration();
+			type = declaration == null ? null : declaration.getTypeDefinition();
+		}
+		if (type instanceof ScalarTypeSpecification || type instanceof RangeTypeSpecification) {
+			return BuiltInType.INT;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the type definition of a variable, as the derived <code>typeDefinition</code> feature does.
+	 * @param variable the variable.
+	 * @return the type definition of the container of the variable, may be <code>null</code>.
+	 */
+	public static TypeDefinition getTypeDefinition(Variable variable) {
+		VariableContainer container = variable.getContainer();
+		return container == null ? null : container.getTypeDefinition();
+	}
+
+	// core
+
+	/**
+	 * Checks that a name contains no space. An undefined name violates the constraint.
+	 * @param namedElement the element.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkNamedElement_NoWhitespace(NamedElement namedElement) {
+		String name = namedElement.getName();
+		return name != null && name.indexOf(' ') < 0;
+	}
+
+	/**
+	 * Checks that a name does not start with a digit. An undefined or empty name violates the constraint.
+	 * @param namedElement the element.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkNamedElement_NoDigitStart(NamedElement namedElement) {
+		String name = namedElement.getName();
+		if (name == null || name.length() == 0) {
+			return false;
+		}
+		char first = name.charAt(0);
+		return first < '0' || first > '9';
+	}
+
+
+	// uppaal
+
+	/**
+	 * Checks that the predefined <code>int</code> type of an NTA is an <code>int</code> type.
+	 * @param nta the NTA.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkNTA_MatchingIntDetails(NTA nta) {
+		return isMatching(nta.getInt(), BuiltInType.INT);
+	}
+
+	/**
+	 * Checks that the predefined <code>bool</code> type of an NTA is a <code>bool</code> type.
+	 * @param nta the NTA.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkNTA_MatchingBoolDetails(NTA nta) {
+		return isMatching(nta.getBool(), BuiltInType.BOOL);
+	}
+
+	/**
+	 * Checks that the predefined <code>clock</code> type of an NTA is a <code>clock</code> type.
+	 * @param nta the NTA.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkNTA_MatchingClockDetails(NTA nta) {
+		return isMatching(nta.getClock(), BuiltInType.CLOCK);
+	}
+
+	/**
+	 * Checks that the predefined <code>chan</code> type of an NTA is a <code>chan</code> type.
+	 * @param nta the NTA.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkNTA_MatchingChanDetails(NTA nta) {
+		return isMatching(nta.getChan(), BuiltInType.CHAN);
+	}
+
+	/**
+	 * Checks that the predefined <code>void</code> type of an NTA is a <code>void</code> type.
+	 * @param nta the NTA.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkNTA_MatchingVoidDetails(NTA nta) {
+		return isMatching(nta.getVoid(), BuiltInType.VOID);
+	}
+
+	private static boolean isMatching(PredefinedType predefinedType, BuiltInType type) {
+		return predefinedType == null || predefinedType.getType() == type && type.getLiteral().equalsIgnoreCase(predefinedType.getName());
+	}
+
+	/**
+	 * Checks that the templates of an NTA have unique names.
+	 * @param nta the NTA.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkNTA_UniqueTemplateNames(NTA nta) {
+		return isUnique(nta.getTemplate());
+	}
+
+	// types
+
+	/**
+	 * Checks that the fields of a struct have unique names.
+	 * @param structTypeSpecification the struct.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkStructTypeSpecification_UniqueFieldNames(StructTypeSpecification structTypeSpecification) {
+		Set<String> names = new HashSet<String>();
+		for (DataVariableDeclaration declaration : structTypeSpecification.getDeclaration()) {
+			if (!addNames(names, declaration.getVariable())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// declarations
+
+	/**
+	 * Checks that the functions of a declaration block have unique names.
+	 * @param declarations the declarations.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkDeclarations_UniqueFunctionNames(Declarations declarations) {
+		Set<String> names = new HashSet<String>();
+		for (Declaration declaration : declarations.getDeclaration()) {
+			if (declaration instanceof FunctionDeclaration) {
+				Function function = ((FunctionDeclaration)declaration).getFunction();
+				if (function != null && !names.add(function.getName())) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks that the variables of a declaration block have unique names.
+	 * @param declarations the declarations.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkDeclarations_UniqueVariableNames(Declarations declarations) {
+		Set<String> names = new HashSet<String>();
+		for (Declaration declaration : declarations.getDeclaration()) {
+			if (declaration instanceof VariableDeclaration && !addNames(names, ((VariableDeclaration)declaration).getVariable())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks that the types of a declaration block have unique names.
+	 * @param declarations the declarations.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkDeclarations_UniqueTypeNames(Declarations declarations) {
+		Set<String> names = new HashSet<String>();
+		for (Declaration declaration : declarations.getDeclaration()) {
+			if (declaration instanceof TypeDeclaration && !addNames(names, ((TypeDeclaration)declaration).getType())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks that global declarations do not declare templates.
+	 * @param globalDeclarations the declarations.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkGlobalDeclarations_NoTemplateDeclarations(GlobalDeclarations globalDeclarations) {
+		return !contains(globalDeclarations.getDeclaration(), TemplateDeclaration.class);
+	}
+
+	/**
+	 * Checks that local declarations do not declare templates.
+	 * @param localDeclarations the declarations.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkLocalDeclarations_NoTemplateDeclarations(LocalDeclarations localDeclarations) {
+		return !contains(localDeclarations.getDeclaration(), TemplateDeclaration.class);
+	}
+
+	/**
+	 * Checks that local declarations do not declare channels.
+	 * @param localDeclarations the declarations.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkLocalDeclarations_NoChannelDeclarations(LocalDeclarations localDeclarations) {
+		return !contains(localDeclarations.getDeclaration(), ChannelVariableDeclaration.class);
+	}
+
+	/**
+	 * Checks that the templates declared in the system declarations have unique names.
+	 * @param systemDeclarations the declarations.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkSystemDeclarations_UniqueTemplateNames(SystemDeclarations systemDeclarations) {
+		Set<String> names = new HashSet<String>();
+		for (Declaration declaration : systemDeclarations.getDeclaration()) {
+			if (declaration instanceof TemplateDeclaration) {
+				RedefinedTemplate template = ((TemplateDeclaration)declaration).getDeclaredTemplate();
+				if (template != null && !names.add(template.getName())) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks that the system declarations do not declare channels.
+	 * @param systemDeclarations the declarations.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkSystemDeclarations_NoChannelDeclarations(SystemDeclarations systemDeclarations) {
+		return !contains(systemDeclarations.getDeclaration(), ChannelVariableDeclaration.class);
+	}
+
+	/**
+	 * Checks that a channel declaration has a channel type.
+	 * @param channelVariableDeclaration the declaration.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkChannelVariableDeclaration_MatchingType(ChannelVariableDeclaration channelVariableDeclaration) {
+		TypeDefinition type = channelVariableDeclaration.getTypeDefinition();
+		return type == null || getBaseType(type) == BuiltInType.CHAN;
+	}
+
+	/**
+	 * Checks that a clock declaration has a clock type.
+	 * @param clockVariableDeclaration the declaration.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkClockVariableDeclaration_MatchingType(ClockVariableDeclaration clockVariableDeclaration) {
+		TypeDefinition type = clockVariableDeclaration.getTypeDefinition();
+		return type == null || getBaseType(type) == BuiltInType.CLOCK;
+	}
+
+	/**
+	 * Checks that a data declaration has neither a channel nor a clock type.
+	 * @param dataVariableDeclaration the declaration.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkDataVariableDeclaration_MatchingType(DataVariableDeclaration dataVariableDeclaration) {
+		TypeDefinition type = dataVariableDeclaration.getTypeDefinition();
+		if (type == null) {
+			return true;
+		}
+		BuiltInType baseType = getBaseType(type);
+		return baseType != BuiltInType.CHAN && baseType != BuiltInType.CLOCK;
+	}
+
+	/**
+	 * Checks that a function returns <code>void</code>, an integer or a boolean.
+	 * @param function the function.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkFunction_ValidReturnType(Function function) {
+		TypeDefinition type = function.getReturnType();
+		if (type == null) {
+			return true;
+		}
+		BuiltInType baseType = getBaseType(type);
+		return baseType == BuiltInType.VOID || baseType == BuiltInType.INT || baseType == BuiltInType.BOOL;
+	}
+
+	/**
+	 * Checks that the parameters of a function have unique names.
+	 * @param function the function.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkFunction_UniqueParameterNames(Function function) {
+		return isUniqueParameters(function.getParameter());
+	}
+
+	/**
+	 * Checks that the types of a type declaration have unique names.
+	 * @param typeDeclaration the declaration.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkTypeDeclaration_UniqueTypeNames(TypeDeclaration typeDeclaration) {
+		return isUnique(typeDeclaration.getType());
+	}
+
+	/**
+	 * Checks that a clock or channel variable has no initializer.
+	 * @param variable the variable.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkVariable_NoInitializerForClockAndChannelVariables(Variable variable) {
+		TypeDefinition type = getTypeDefinition(variable);
+		if (type == null) {
+			return true;
+		}
+		BuiltInType baseType = getBaseType(type);
+		return baseType != BuiltInType.CHAN && baseType != BuiltInType.CLOCK || variable.getInitializer() == null;
+	}
+
+	/**
+	 * Checks that a type index has an integer type.
+	 * @param typeIndex the index.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkTypeIndex_IntegerBasedIndex(TypeIndex typeIndex) {
+		TypeDefinition type = typeIndex.getTypeDefinition();
+		return type == null || getBaseType(type) == BuiltInType.INT;
+	}
+
+	/**
+	 * Checks that the variables of a container are not of type <code>void</code>.
+	 * @param variableContainer the container.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkVariableContainer_NoVoidVariables(VariableContainer variableContainer) {
+		TypeDefinition type = variableContainer.getTypeDefinition();
+		return type == null || getBaseType(type) != BuiltInType.VOID;
+	}
+
+	/**
+	 * Checks that the variables of a container have unique names.
+	 * @param variableContainer the container.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkVariableContainer_UniqueVariableNames(VariableContainer variableContainer) {
+		return isUnique(variableContainer.getVariable());
+	}
+
+	/**
+	 * Checks that a parameter declares a single variable.
+	 * @param parameter the parameter.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkParameter_SingleVariable(Parameter parameter) {
+		VariableDeclaration declaration = parameter.getVariableDeclaration();
+		return declaration == null || declaration.getVariable().size() <= 1;
+	}
+
+	// global
+
+	/**
+	 * Checks that a channel priority has at most one default item.
+	 * @param channelPriority the channel priority.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkChannelPriority_AtMostOneDefaultItem(ChannelPriority channelPriority) {
+		int count = 0;
+		for (ChannelPriorityItem item : channelPriority.getItem()) {
+			if (item instanceof DefaultChannelPriority && ++count > 1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks that no channel is listed twice in a channel priority.
+	 * @param channelPriority the channel priority.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkChannelPriority_EachChannelContainedAtMostOnce(ChannelPriority channelPriority) {
+		Set<NamedElement> channels = Collections.newSetFromMap(new IdentityHashMap<NamedElement, Boolean>());
+		for (ChannelPriorityItem item : channelPriority.getItem()) {
+			if (item instanceof ChannelList) {
+				for (IdentifierExpression expression : ((ChannelList)item).getChannelExpression()) {
+					if (!channels.add(expression.getIdentifier())) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Checks that a channel list only contains channels.
+	 * @param channelList the channel list.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkChannelList_ChannelVariablesOnly(ChannelList channelList) {
+		for (IdentifierExpression expression : channelList.getChannelExpression()) {
+			if (!isChannel(expression)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether an identifier expression refers to a channel variable, or to something without a type.
+	 */
+	private static boolean isChannel(IdentifierExpression expression) {
+		NamedElement identifier = expression.getIdentifier();
+		if (!(identifier instanceof Variable)) {
+			return true;
+		}
+		TypeDefinition type = getTypeDefinition((Variable)identifier);
+		return type == null || getBaseType(type) == BuiltInType.CHAN;
+	}
+
+	// system
+
+	/**
+	 * Checks that a template declaration passes one argument for each parameter of the referred template.
+	 * @param templateDeclaration the declaration.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkTemplateDeclaration_NumberOfArgumentsMatchesDeclaration(TemplateDeclaration templateDeclaration) {
+		RedefinedTemplate template = templateDeclaration.getDeclaredTemplate();
+		AbstractTemplate referredTemplate = template == null ? null : template.getReferredTemplate();
+		return referredTemplate == null || templateDeclaration.getArgument().size() == referredTemplate.getParameter().size();
+	}
+
+	/**
+	 * Checks that no template is instantiated twice by a system.
+	 * @param system the system.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkSystem_EachTemplateReferencedAtMostOnce(de.uni_paderborn.uppaal.declarations.system.System system) {
+		Set<AbstractTemplate> templates = Collections.newSetFromMap(new IdentityHashMap<AbstractTemplate, Boolean>());
+		for (InstantiationList list : system.getInstantiationList()) {
+			for (AbstractTemplate template : list.getTemplate()) {
+				if (!templates.add(template)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks that the templates of an instantiation list only have parameters of range or scalar types passed by value.
+	 * @param instantiationList the instantiation list.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkInstantiationList_OnlyLegalParamsForPartialInstantiation(InstantiationList instantiationList) {
+		for (AbstractTemplate template : instantiationList.getTemplate()) {
+			for (Parameter parameter : template.getParameter()) {
+				if (parameter.getCallType() != CallType.CALL_BY_VALUE) {
+					return false;
+				}
+				VariableDeclaration declaration = parameter.getVariableDeclaration();
+				if (declaration != null) {
+					TypeDefinition type = declaration.getTypeDefinition();
+					if (!(type instanceof RangeTypeSpecification || type instanceof ScalarTypeSpecification)) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	// templates
+
+	/**
+	 * Checks that the parameters of a template have unique names.
+	 * @param abstractTemplate the template.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkAbstractTemplate_UniqueParameterNames(AbstractTemplate abstractTemplate) {
+		return isUniqueParameters(abstractTemplate.getParameter());
+	}
+
+	/**
+	 * Checks that the locations of a template have unique names. Two unnamed locations violate the constraint.
+	 * @param template the template.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkTemplate_UniqueLocationNames(Template template) {
+		return isUnique(template.getLocation());
+	}
+
+	/**
+	 * Checks that the source and the target of an edge belong to the same template.
+	 * @param edge the edge.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkEdge_UniqueParentTemplate(Edge edge) {
+		if (edge.getSource() == null || edge.getTarget() == null) {
+			return true;
+		}
+		return edge.getSource().getParentTemplate() == edge.getTarget().getParentTemplate();
+	}
+
+	/**
+	 * Checks that a synchronization uses a channel.
+	 * @param synchronization the synchronization.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkSynchronization_ChannelVariablesOnly(Synchronization synchronization) {
+		IdentifierExpression expression = synchronization.getChannelExpression();
+		return expression == null || isChannel(expression);
+	}
+
+	/**
+	 * Checks that a selection declares a single variable.
+	 * @param selection the selection.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkSelection_SingleVariable(Selection selection) {
+		return selection.getVariable().size() <= 1;
+	}
+
+	/**
+	 * Checks that a selection has an integer type.
+	 * @param selection the selection.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkSelection_IntegerBasedType(Selection selection) {
+		TypeDefinition type = selection.getTypeDefinition();
+		return type == null || getBaseType(type) == BuiltInType.INT;
+	}
+
+	// statements
+
+	/**
+	 * Checks that a block only declares data variables.
+	 * @param block the block.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkBlock_DataVariableDeclarationsOnly(Block block) {
+		LocalDeclarations declarations = block.getDeclarations();
+		if (declarations == null) {
+			return true;
+		}
+		for (Declaration declaration : declarations.getDeclaration()) {
+			if (!(declaration instanceof DataVariableDeclaration)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks that an iteration declares a single variable.
+	 * @param iteration the iteration.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkIteration_SingleVariable(Iteration iteration) {
+		return iteration.getVariable().size() <= 1;
+	}
+
+	// expressions
+
+	/**
+	 * Checks that a function call passes one argument for each parameter of the function.
+	 * @param functionCallExpression the function call.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkFunctionCallExpression_NumberOfArgumentsMatchesDeclaration(FunctionCallExpression functionCallExpression) {
+		Function function = functionCallExpression.getFunction();
+		return function == null || functionCallExpression.getArgument().size() == function.getParameter().size();
+	}
+
+	/**
+	 * Checks that a quantification declares a single variable.
+	 * @param quantificationExpression the quantification.
+	 * @return whether the constraint holds.
+	 */
+	public static boolean checkQuantificationExpression_SingleVariable(QuantificationExpression quantificationExpression) {
+		return quantificationExpression.getVariable().size() <= 1;
+	}
+
+	// helpers
+
+	/**
+	 * Returns whether the elements of a list have unique names, counting undefined names as equal.
+	 */
+	private static boolean isUnique(List<? extends NamedElement> elements) {
+		int size = elements.size();
+		if (size < 2) {
+			return true;
+		}
+		return addNames(new HashSet<String>(size * 2), elements);
+	}
+
+	/**
+	 * Adds the names of the elements to a set, stopping at the first name already in the set.
+	 * @return whether all names were new.
+	 */
+	private static boolean addNames(Set<String> names, List<? extends NamedElement> elements) {
+		for (NamedElement element : elements) {
+			if (!names.add(element.getName())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether the variables declared by the parameters have unique names.
+	 */
+	private static boolean isUniqueParameters(List<Parameter> parameters) {
+		Set<String> names = new HashSet<String>();
+		for (Parameter parameter : parameters) {
+			VariableDeclaration declaration = parameter.getVariableDeclaration();
+			if (declaration != null && !addNames(names, declaration.getVariable())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether a list of declarations contains an instance of the given type.
+	 */
+	private static boolean contains(List<Declaration> declarations, Class<? extends Declaration> type) {
+		for (Declaration declaration : declarations) {
+			if (type.isInstance(declaration)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,52 @@
+/**
+ */
+package de.uni_paderborn.uppaal.validation;
+
+import java.util.Map;
+
+/**
+ * The way the invariants of the metamodel are checked by the generated validators.
+ * <p>
+ * The mode is selected per validation run by putting it into the context map under the key <code>ValidationMode.class</code>,
+ * for example with {@link #put(Map)}. Without an entry the OCL expressions of the metamodel are evaluated.
+ * </p>
+ * @see UppaalConstraints
+ */
+public enum ValidationMode {
+	/**
+	 * Evaluates the OCL expressions of the metamodel.
+	 */
+	OCL,
+
+	/**
+	 * Evaluates the compiled Java versions of the OCL expressions in {@link UppaalConstraints}.
+	 */
+	COMPILED,
+
+	/**
+	 * Evaluates both versions and reports a warning wherever the compiled version disagrees with the OCL expression.
+	 * The result of the OCL expression is the result of the validation.
+	 */
+	PARITY;
+
+	/**
+	 * Stores this mode in a validation context.
+	 * @param context the context of the validation.
+	 * @return the context.
+	 */
+	public Map<Object, Object> put(Map<Object, Object> context) {
+		context.put(ValidationMode.class, this);
+		return context;
+	}
+
+	/**
+	 * Returns the mode stored in a validation context.
+	 * @param context the context of the validation, may be <code>null</code>.
+	 * @return the mode of the context, {@link #OCL} if there is none.
+	 */
+	public static ValidationMode get(Map<Object, Object> context) {
+		Object mode = context == null ? null : context.get(ValidationMode.class);
+		return mode instanceof ValidationMode ? (ValidationMode)mode : OCL;
+	}
+
+}
@@ -0,0 +1,133 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+/**
+ * An approximate passed list setting <code>k</code> bits of a bit array for each state (bitstate hashing, or supertrace).
+ * <p>
+ * A state is taken as passed if all its bits are set, so states whose bits were set by other states are omitted.
+ * The states are hashed with their zones, and a state is only found if an equal state was added:
+ * zones cannot be compared, so states with included zones are explored.
+ * </p>
+ * <p>
+ * A new state is omitted with the probability <code>f^k</code> for the fraction <code>f</code> of set bits.
+ * The sum of these probabilities over the added states is the expected number of omitted states <code>e</code>,
+ * and <code>1 - exp(-e)</code> estimates the probability that a state was omitted.
+ * </p>
+ */
+final class BitStateStore implements StateStore {
+	private final long[] bits;
+
+	/**
+	 * The number of bits minus one, a power of two minus one.
+	 */
+	private final long mask;
+
+	private final int hashCount;
+
+	private long setBits;
+
+	private int size;
+
+	private double expectedOmissions;
+
+	/**
+	 * Creates an empty bit array.
+	 * @param memory the bytes of the array, rounded down to a power of two of at least 8.
+	 * @param hashCount the number of bits set for each state.
+	 */
+	BitStateStore(long memory, int hashCount) {
+		long words = Long.highestOneBit(Math.max(1, memory / 8));
+		this.bits = new long[(int)Math.min(words, 1 << 30)];
+		this.mask = 64L * bits.length - 1;
+		this.hashCount = hashCount;
+	}
+
+	@Override
+	public boolean add(SymbolicState state) {
+		long hash = hash(state, 0x9E3779B97F4A7C15L);
+		// The bits are chosen by double hashing, an odd step visits distinct bits
+		long step = hash(state, 0xC2B2AE3D27D4EB4FL) | 1;
+		boolean found = true;
+		for (int i = 0; i < hashCount; i++) {
+			long bit = hash & mask;
+			found &= (bits[(int)(bit >>> 6)] & (1L << bit)) != 0;
+			hash += step;
+		}
+		if (found) {
+			return false;
+		}
+		double fill = (double)setBits / (mask + 1);
+		expectedOmissions += Math.pow(fill, hashCount);
+		hash -= hashCount * step;
+		for (int i = 0; i < hashCount; i++) {
+			long bit = hash & mask;
+			long word = bits[(int)(bit >>> 6)];
+			if ((word & (1L << bit)) == 0) {
+				bits[(int)(bit >>> 6)] = word | (1L << bit);
+				setBits++;
+			}
+			hash += step;
+		}
+		size++;
+		return true;
+	}
+
+	/**
+	 * Returns the number of states added, as the states are not stored.
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public long getMemoryUsage() {
+		return 16 + 8L * bits.length;
+	}
+
+	/**
+	 * Returns the fraction of set bits.
+	 */
+	@Override
+	public double getLoadFactor() {
+		return (double)setBits / (mask + 1);
+	}
+
+	@Override
+	public double getOmissionProbability() {
+		return -Math.expm1(-expectedOmissions);
+	}
+
+	@Override
+	public void close() {
+		// The garbage collector frees the array
+	}
+
+	/**
+	 * Hashes the discrete part and the zone of a state to 64 bits.
+	 * @param seed the seed choosing the hash function.
+	 */
+	static long hash(SymbolicState state, long seed) {
+		long hash = seed;
+		for (long word : state.discrete) {
+			hash = (hash ^ mix(word)) * 0x9E3779B97F4A7C15L;
+		}
+		for (int bound : state.zone) {
+			hash = (hash ^ mix(bound + seed)) * 0x9E3779B97F4A7C15L;
+		}
+		return mix(hash);
+	}
+
+	/**
+	 * Spreads all bits of a value over all bits of the result, the finalizer of MurmurHash3.
+	 */
+	private static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xFF51AFD7ED558CCDL;
+		value ^= value >>> 33;
+		value *= 0xC4CEB9FE1A85EC53L;
+		return value ^ (value >>> 33);
+	}
+
+}
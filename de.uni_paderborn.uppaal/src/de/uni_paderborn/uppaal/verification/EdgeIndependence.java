@@ -0,0 +1,342 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.evaluation.SlotLayout;
+import de.uni_paderborn.uppaal.evaluation.VariableSlot;
+import de.uni_paderborn.uppaal.expressions.AssignmentExpression;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.expressions.FunctionCallExpression;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.IncrementDecrementExpression;
+import de.uni_paderborn.uppaal.simulation.ProcessEdge;
+import de.uni_paderborn.uppaal.simulation.SystemInstance;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.LocationKind;
+import de.uni_paderborn.uppaal.zones.ClockGuard;
+
+/**
+ * A static analysis of the edges of the processes of a system finding the locations whose outgoing edges are independent
+ * of all edges of the other processes and of the passing of time.
+ * <p>
+ * The slots of the state read and written by an edge are collected from its guard, its updates and the index of its channel,
+ * and the slots read by the invariants of the locations of its process. An edge is independent if it does not synchronize,
+ * neither its guard nor its update refers to clocks or calls functions, no other process reads or writes the slots it writes
+ * and no other process writes the slots it reads.
+ * </p>
+ * <p>
+ * A location is reducible if it and the targets of its outgoing edges are neither urgent nor committed
+ * and have invariants without clock constraints, and all its outgoing edges are independent and none closes a cycle of the locations.
+ * As a cycle of states returns each process to its location, it takes an edge closing a cycle,
+ * so it passes a state where no process is in a reducible location and all transitions are explored.
+ * Firing an edge of a reducible location then neither depends on the zone nor changes it, commutes with the transitions
+ * of the other processes and with delays, and cannot enable or disable them:
+ * the enabled edges of a process in a reducible location are an ample set, unless the checked property observes them.
+ * To keep binary and broadcast synchronizations of other processes independent, the targets must not receive from broadcast channels,
+ * and must not synchronize at all if the system has urgent channels, which would forbid delays.
+ * </p>
+ */
+final class EdgeIndependence {
+	private static final int NONE = -1;
+
+	private static final int SEVERAL = -2;
+
+	private static final int NORMAL = LocationKind.NORMAL_VALUE;
+
+	private final SystemInstance system;
+
+	/**
+	 * The slots written by the outgoing edges of the reducible locations of the processes, <code>null</code> for the other locations.
+	 */
+	private final int[][][] reducibleWrites;
+
+	/**
+	 * Analyzes the edges of a system.
+	 * @param guards the guards of the outgoing edges of the locations of the processes.
+	 * @param invariants the invariants of the locations of the processes.
+	 */
+	EdgeIndependence(SystemInstance system, ClockGuard[][][] guards, ClockGuard[][] invariants) {
+		this.system = system;
+		int processCount = system.getProcessCount();
+		int stateSize = system.getStateSize();
+		boolean[] clocks = new boolean[stateSize];
+		for (int slot : system.getClocks()) {
+			clocks[slot] = true;
+		}
+		boolean broadcastChannels = false;
+		boolean urgentChannels = false;
+		for (int channel = 0; channel < system.getChannelCount(); channel++) {
+			broadcastChannels |= system.isBroadcast(channel);
+			urgentChannels |= system.isUrgent(channel);
+		}
+
+		// The only process reading and writing each slot, NONE or SEVERAL
+		int[] readers = new int[stateSize];
+		int[] writers = new int[stateSize];
+		Arrays.fill(readers, NONE);
+		Arrays.fill(writers, NONE);
+		boolean[][][] edgeReads = new boolean[processCount][][];
+		boolean[][][] edgeWrites = new boolean[processCount][][];
+		boolean[][] known = new boolean[processCount][];
+		for (int process = 0; process < processCount; process++) {
+			SlotLayout layout = system.getLayout(process);
+			boolean[] reads = new boolean[stateSize];
+			boolean[] writes = new boolean[stateSize];
+			boolean processKnown = true;
+			int locationCount = system.getTemplate(process).getLocation().size();
+			List<ProcessEdge> edges = new ArrayList<ProcessEdge>();
+			for (int location = 0; location < locationCount; location++) {
+				processKnown &= collectAccesses(system.getLocation(process, location).getInvariant(), layout, reads, reads);
+				for (ProcessEdge edge : system.getOutgoing(process, location)) {
+					edges.add(edge);
+				}
+			}
+			edgeReads[process] = new boolean[edges.size()][];
+			edgeWrites[process] = new boolean[edges.size()][];
+			known[process] = new boolean[edges.size()];
+			for (int i = 0; i < edges.size(); i++) {
+				boolean[] readsOfEdge = new boolean[stateSize];
+				boolean[] writesOfEdge = new boolean[stateSize];
+				known[process][i] = collectAccesses(edges.get(i).getEdge(), layout, readsOfEdge, writesOfEdge);
+				processKnown &= known[process][i];
+				edgeReads[process][i] = readsOfEdge;
+				edgeWrites[process][i] = writesOfEdge;
+				for (int slot = 0; slot < stateSize; slot++) {
+					reads[slot] |= readsOfEdge[slot];
+					writes[slot] |= writesOfEdge[slot];
+				}
+			}
+			for (int slot = 0; slot < stateSize; slot++) {
+				// A function may read and write any slot
+				if (reads[slot] || !processKnown) {
+					readers[slot] = readers[slot] == NONE || readers[slot] == process ? process : SEVERAL;
+				}
+				if (writes[slot] || !processKnown) {
+					writers[slot] = writers[slot] == NONE || writers[slot] == process ? process : SEVERAL;
+				}
+			}
+		}
+
+		this.reducibleWrites = new int[processCount][][];
+		int[] initialLocations = system.createLocations();
+		for (int process = 0; process < processCount; process++) {
+			int locationCount = system.getTemplate(process).getLocation().size();
+			reducibleWrites[process] = new int[locationCount][];
+			boolean[][] backEdges = findBackEdges(process, initialLocations[process]);
+			int edgeIndex = 0;
+			for (int location = 0; location < locationCount; location++) {
+				ProcessEdge[] outgoing = system.getOutgoing(process, location);
+				boolean reducible = outgoing.length > 0 && isTimeless(process, location, invariants);
+				for (int i = 0; i < outgoing.length; i++) {
+					reducible &= !backEdges[location][i];
+				}
+				boolean[] writes = new boolean[stateSize];
+				for (int i = 0; i < outgoing.length; i++, edgeIndex++) {
+					ProcessEdge edge = outgoing[i];
+					boolean[] readsOfEdge = edgeReads[process][edgeIndex];
+					boolean[] writesOfEdge = edgeWrites[process][edgeIndex];
+					reducible &= known[process][edgeIndex] && edge.getSynchronization() == ProcessEdge.NONE
+							&& !guards[process][location][i].hasClockConstraints() && isTimeless(process, edge.getTarget(), invariants);
+					for (ProcessEdge next : system.getOutgoing(process, edge.getTarget())) {
+						reducible &= next.getSynchronization() == ProcessEdge.NONE || !urgentChannels && (next.getSynchronization() == ProcessEdge.SEND
+								|| !broadcastChannels || next.getChannel() >= 0 && !system.isBroadcast(next.getChannel()));
+					}
+					for (int slot = 0; slot < stateSize && reducible; slot++) {
+						if (writesOfEdge[slot]) {
+							reducible &= !clocks[slot] && (readers[slot] == NONE || readers[slot] == process) && writers[slot] == process;
+						}
+						if (readsOfEdge[slot]) {
+							reducible &= !clocks[slot] && (writers[slot] == NONE || writers[slot] == process);
+						}
+						writes[slot] |= writesOfEdge[slot];
+					}
+				}
+				if (reducible) {
+					reducibleWrites[process][location] = toSlots(writes);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the edges of a process closing cycles in a depth-first search of its locations, starting at the initial location.
+	 * Each cycle of the locations contains such an edge.
+	 * @return for each location and outgoing edge, whether the edge is a back edge.
+	 */
+	private boolean[][] findBackEdges(int process, int initialLocation) {
+		int locationCount = system.getTemplate(process).getLocation().size();
+		boolean[][] backEdges = new boolean[locationCount][];
+		// Unvisited locations have no entry, visited locations are on the stack until all their edges are followed
+		boolean[] onStack = new boolean[locationCount];
+		int[] path = new int[locationCount];
+		int[] nextEdges = new int[locationCount];
+		for (int root = -1; root < locationCount; root++) {
+			int start = root < 0 ? initialLocation : root;
+			if (backEdges[start] != null) {
+				continue;
+			}
+			int depth = 0;
+			path[0] = start;
+			nextEdges[0] = 0;
+			backEdges[start] = new boolean[system.getOutgoing(process, start).length];
+			onStack[start] = true;
+			while (depth >= 0) {
+				int location = path[depth];
+				ProcessEdge[] outgoing = system.getOutgoing(process, location);
+				if (nextEdges[depth] == outgoing.length) {
+					onStack[location] = false;
+					depth--;
+					continue;
+				}
+				int i = nextEdges[depth]++;
+				int target = outgoing[i].getTarget();
+				if (backEdges[target] == null) {
+					backEdges[target] = new boolean[system.getOutgoing(process, target).length];
+					onStack[target] = true;
+					path[++depth] = target;
+					nextEdges[depth] = 0;
+				}
+				else if (onStack[target]) {
+					backEdges[location][i] = true;
+				}
+			}
+		}
+		return backEdges;
+	}
+
+	/**
+	 * Returns whether time passes in a location as in any other location: it is neither urgent nor committed and its invariant does not constrain clocks.
+	 */
+	private boolean isTimeless(int process, int location, ClockGuard[][] invariants) {
+		return system.getLocationKind(process, location) == NORMAL && !invariants[process][location].hasClockConstraints();
+	}
+
+	private static int[] toSlots(boolean[] set) {
+		int count = 0;
+		for (boolean element : set) {
+			count += element ? 1 : 0;
+		}
+		int[] slots = new int[count];
+		count = 0;
+		for (int slot = 0; slot < set.length; slot++) {
+			if (set[slot]) {
+				slots[count++] = slot;
+			}
+		}
+		return slots;
+	}
+
+	/**
+	 * Returns the locations of the processes whose enabled edges are an ample set for a property.
+	 * @param visibleLocations the processes whose locations the property refers to.
+	 * @param visibleSlots the slots of the state the property reads.
+	 * @return for each process and location, whether the location is reducible and its edges do not write slots read by the property.
+	 */
+	boolean[][] getAmpleLocations(boolean[] visibleLocations, boolean[] visibleSlots) {
+		boolean[][] ample = new boolean[reducibleWrites.length][];
+		for (int process = 0; process < reducibleWrites.length; process++) {
+			ample[process] = new boolean[reducibleWrites[process].length];
+			if (visibleLocations[process]) {
+				continue;
+			}
+			for (int location = 0; location < ample[process].length; location++) {
+				int[] writes = reducibleWrites[process][location];
+				boolean invisible = writes != null;
+				for (int i = 0; invisible && i < writes.length; i++) {
+					invisible = !visibleSlots[writes[i]];
+				}
+				ample[process][location] = invisible;
+			}
+		}
+		return ample;
+	}
+
+	/**
+	 * Collects the slots of the state accessed by the guard, the updates and the synchronization of an edge.
+	 * @return whether all accesses are known, i.e. the edge calls no functions.
+	 */
+	private static boolean collectAccesses(Edge edge, SlotLayout layout, boolean[] reads, boolean[] writes) {
+		boolean known = collectAccesses(edge.getGuard(), layout, reads, writes);
+		for (Expression update : edge.getUpdate()) {
+			known &= collectAccesses(update, layout, reads, writes);
+		}
+		if (edge.getSynchronization() != null) {
+			for (Expression index : edge.getSynchronization().getChannelExpression().getIndex()) {
+				known &= collectAccesses(index, layout, reads, writes);
+			}
+		}
+		return known;
+	}
+
+	/**
+	 * Collects the slots of the state accessed by an expression: all variables are read,
+	 * and the variables of the left side of assignments and of increments and decrements are written.
+	 * Arrays and structures are accessed as a whole.
+	 * @param expression the expression, or <code>null</code>.
+	 * @param layout the layout the expression is evaluated in.
+	 * @param reads the set of the slots read.
+	 * @param writes the set of the slots written.
+	 * @return whether all accesses are known, i.e. the expression calls no functions.
+	 */
+	static boolean collectAccesses(Expression expression, SlotLayout layout, boolean[] reads, boolean[] writes) {
+		if (expression == null) {
+			return true;
+		}
+		List<EObject> objects = new ArrayList<EObject>();
+		objects.add(expression);
+		for (Iterator<EObject> iterator = expression.eAllContents(); iterator.hasNext();) {
+			objects.add(iterator.next());
+		}
+		for (EObject object : objects) {
+			if (object instanceof FunctionCallExpression) {
+				return false;
+			}
+			if (object instanceof IdentifierExpression) {
+				addSlots(((IdentifierExpression)object), layout, reads);
+			}
+			Expression written = null;
+			if (object instanceof AssignmentExpression) {
+				written = ((AssignmentExpression)object).getFirstExpr();
+			}
+			else if (object instanceof IncrementDecrementExpression) {
+				written = ((IncrementDecrementExpression)object).getExpression();
+			}
+			if (written instanceof IdentifierExpression) {
+				addSlots((IdentifierExpression)written, layout, writes);
+			}
+			else if (written != null) {
+				for (Iterator<EObject> iterator = written.eAllContents(); iterator.hasNext();) {
+					EObject part = iterator.next();
+					if (part instanceof IdentifierExpression) {
+						addSlots((IdentifierExpression)part, layout, writes);
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the slots of the variable of an identifier if they are part of the state.
+	 */
+	private static void addSlots(IdentifierExpression identifier, SlotLayout layout, boolean[] set) {
+		if (!(identifier.getIdentifier() instanceof Variable)) {
+			return;
+		}
+		VariableSlot slot = layout.getSlot((Variable)identifier.getIdentifier());
+		if (slot != null && slot.getKind() == VariableSlot.Kind.GLOBAL) {
+			for (int i = 0; i < slot.getSize(); i++) {
+				set[slot.getOffset() + i] = true;
+			}
+		}
+	}
+
+}
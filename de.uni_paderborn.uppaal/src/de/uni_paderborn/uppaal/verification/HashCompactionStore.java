@@ -0,0 +1,90 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+/**
+ * An approximate passed list keeping a 64-bit hash of each state instead of the state (hash compaction).
+ * <p>
+ * A state is taken as passed if a state with the same hash was added, so states colliding with other states are omitted.
+ * As in a {@link BitStateStore}, states are hashed with their zones and states with included zones are explored.
+ * </p>
+ * <p>
+ * A new state is omitted with the probability <code>n / 2^64</code> for the number <code>n</code> of stored hashes,
+ * the probability that a state was omitted is estimated as for a {@link BitStateStore}.
+ * </p>
+ */
+final class HashCompactionStore implements StateStore {
+	private static final long SEED = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * The open addressing hash table of the hashes, <code>0</code> marking empty slots.
+	 */
+	private long[] table = new long[1024];
+
+	private int size;
+
+	private double expectedOmissions;
+
+	@Override
+	public boolean add(SymbolicState state) {
+		long hash = BitStateStore.hash(state, SEED);
+		if (hash == 0) {
+			hash = 1;
+		}
+		int mask = table.length - 1;
+		int i = (int)hash & mask;
+		for (long stored = table[i]; stored != 0; stored = table[i]) {
+			if (stored == hash) {
+				return false;
+			}
+			i = (i + 1) & mask;
+		}
+		expectedOmissions += size * 0x1p-64;
+		table[i] = hash;
+		if (2 * ++size > table.length) {
+			resize();
+		}
+		return true;
+	}
+
+	private void resize() {
+		long[] oldTable = table;
+		table = new long[2 * oldTable.length];
+		int mask = table.length - 1;
+		for (long hash : oldTable) {
+			if (hash != 0) {
+				int i = (int)hash & mask;
+				while (table[i] != 0) {
+					i = (i + 1) & mask;
+				}
+				table[i] = hash;
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public long getMemoryUsage() {
+		return 16 + 8L * table.length;
+	}
+
+	@Override
+	public double getLoadFactor() {
+		return (double)size / table.length;
+	}
+
+	@Override
+	public double getOmissionProbability() {
+		return -Math.expm1(-expectedOmissions);
+	}
+
+	@Override
+	public void close() {
+		// The garbage collector frees the table
+	}
+
+}
@@ -0,0 +1,296 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.uni_paderborn.uppaal.zones.DBM;
+
+/**
+ * A passed list outside the heap, so that the garbage collector does not trace the stored states.
+ * <p>
+ * The states are copied into records of fixed width in direct buffers: the packed discrete part,
+ * the zone and the index of the next record with the same discrete part.
+ * An open addressing hash table in a direct buffer holds the first record and the hash code of each discrete part.
+ * Records of removed states are unlinked and not reused.
+ * </p>
+ * <p>
+ * With a spill directory, the buffers allocated after direct memory is exhausted map temporary files of the directory,
+ * which the operating system writes back to disk when it runs out of memory.
+ * </p>
+ */
+final class OffHeapPassedList implements StateStore {
+	/**
+	 * The bytes of the records allocated at once.
+	 */
+	private static final int SEGMENT_SIZE = 1 << 22;
+
+	/**
+	 * The bytes of a slot of the table: the index of the first record plus one, or zero if the slot is empty, and the hash code.
+	 */
+	private static final int SLOT_SIZE = 16;
+
+	/**
+	 * The largest number of slots of a table whose bytes fit in a buffer.
+	 */
+	private static final int MAX_SLOTS = 1 << 26;
+
+	private final int wordCount;
+
+	private final int dim;
+
+	// The offsets of the parts of a record
+
+	private final int zoneOffset;
+
+	private final int nextOffset;
+
+	private final int recordSize;
+
+	/**
+	 * The binary logarithm of the number of records of a segment.
+	 */
+	private final int segmentShift;
+
+	private final int recordMask;
+
+	private final File spillDirectory;
+
+	private final List<ByteBuffer> segments = new ArrayList<ByteBuffer>();
+
+	/**
+	 * The segments as buffers of ints, to copy zones at once.
+	 */
+	private final List<IntBuffer> zoneViews = new ArrayList<IntBuffer>();
+
+	/**
+	 * The buffer receiving a stored zone.
+	 */
+	private final int[] zone;
+
+	private final List<File> spillFiles = new ArrayList<File>();
+
+	private boolean spilling;
+
+	private ByteBuffer table;
+
+	private int slotCount;
+
+	private long recordCount;
+
+	private int size;
+
+	private int bucketCount;
+
+	/**
+	 * Creates an empty passed list.
+	 * @param wordCount the number of words of the packed discrete parts.
+	 * @param dim the dimension of the zones.
+	 * @param spillDirectory the directory of the files mapped when direct memory is exhausted, or <code>null</code>.
+	 */
+	OffHeapPassedList(int wordCount, int dim, File spillDirectory) {
+		this.wordCount = wordCount;
+		this.dim = dim;
+		this.zone = new int[dim * dim];
+		this.zoneOffset = 8 * wordCount;
+		this.nextOffset = (zoneOffset + 4 * dim * dim + 7) & ~7;
+		this.recordSize = nextOffset + 8;
+		this.segmentShift = 31 - Integer.numberOfLeadingZeros(Math.max(1, SEGMENT_SIZE / recordSize));
+		this.recordMask = (1 << segmentShift) - 1;
+		this.spillDirectory = spillDirectory;
+		this.slotCount = 1024;
+		this.table = allocate(slotCount * SLOT_SIZE);
+	}
+
+	@Override
+	public boolean add(SymbolicState state) {
+		int mask = slotCount - 1;
+		int i = PassedList.mix(state.hash) & mask;
+		for (long first = table.getLong(i * SLOT_SIZE); first != 0; first = table.getLong(i * SLOT_SIZE)) {
+			if (table.getInt(i * SLOT_SIZE + 8) == state.hash && hasDiscretePart(first - 1, state.discrete)) {
+				return addToBucket(i * SLOT_SIZE, first - 1, state);
+			}
+			i = (i + 1) & mask;
+		}
+		long record = write(state, -1);
+		table.putLong(i * SLOT_SIZE, record + 1);
+		table.putInt(i * SLOT_SIZE + 8, state.hash);
+		size++;
+		if (2 * ++bucketCount > slotCount) {
+			resize();
+		}
+		return true;
+	}
+
+	private boolean addToBucket(int slot, long first, SymbolicState state) {
+		long previous = -1;
+		for (long record = first; record >= 0;) {
+			ByteBuffer segment = segments.get((int)(record >>> segmentShift));
+			int offset = ((int)record & recordMask) * recordSize;
+			long next = segment.getLong(offset + nextOffset);
+			IntBuffer zones = zoneViews.get((int)(record >>> segmentShift));
+			zones.position((offset + zoneOffset) >> 2);
+			zones.get(zone);
+			// No state was removed before, as its zone would be included in the zone of another stored state
+			if (DBM.isSubset(state.zone, zone, dim)) {
+				return false;
+			}
+			if (DBM.isSubset(zone, state.zone, dim)) {
+				if (previous < 0) {
+					table.putLong(slot, next + 1);
+				}
+				else {
+					setNext(previous, next);
+				}
+				size--;
+			}
+			else {
+				previous = record;
+			}
+			record = next;
+		}
+		long record = write(state, table.getLong(slot) - 1);
+		table.putLong(slot, record + 1);
+		size++;
+		return true;
+	}
+
+	private boolean hasDiscretePart(long record, long[] discrete) {
+		ByteBuffer segment = segments.get((int)(record >>> segmentShift));
+		int offset = ((int)record & recordMask) * recordSize;
+		for (int j = 0; j < wordCount; j++) {
+			if (segment.getLong(offset + 8 * j) != discrete[j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void setNext(long record, long next) {
+		segments.get((int)(record >>> segmentShift)).putLong(((int)record & recordMask) * recordSize + nextOffset, next);
+	}
+
+	/**
+	 * Copies a state into a new record.
+	 * @return the index of the record.
+	 */
+	private long write(SymbolicState state, long next) {
+		long record = recordCount++;
+		if (record == (long)segments.size() << segmentShift) {
+			ByteBuffer segment = allocate(recordSize << segmentShift);
+			segments.add(segment);
+			zoneViews.add(segment.asIntBuffer());
+		}
+		ByteBuffer segment = segments.get((int)(record >>> segmentShift));
+		int offset = ((int)record & recordMask) * recordSize;
+		for (int j = 0; j < wordCount; j++) {
+			segment.putLong(offset + 8 * j, state.discrete[j]);
+		}
+		IntBuffer zones = zoneViews.get((int)(record >>> segmentShift));
+		zones.position((offset + zoneOffset) >> 2);
+		zones.put(state.zone);
+		segment.putLong(offset + nextOffset, next);
+		return record;
+	}
+
+	private void resize() {
+		if (slotCount == MAX_SLOTS) {
+			throw new IllegalStateException("Too many discrete parts for an off-heap passed list");
+		}
+		ByteBuffer oldTable = table;
+		int oldSlotCount = slotCount;
+		slotCount *= 2;
+		table = allocate(slotCount * SLOT_SIZE);
+		int mask = slotCount - 1;
+		for (int j = 0; j < oldSlotCount; j++) {
+			long first = oldTable.getLong(j * SLOT_SIZE);
+			if (first != 0) {
+				int hash = oldTable.getInt(j * SLOT_SIZE + 8);
+				int i = PassedList.mix(hash) & mask;
+				while (table.getLong(i * SLOT_SIZE) != 0) {
+					i = (i + 1) & mask;
+				}
+				table.putLong(i * SLOT_SIZE, first);
+				table.putInt(i * SLOT_SIZE + 8, hash);
+			}
+		}
+	}
+
+	/**
+	 * Allocates a zeroed buffer in direct memory or, once direct memory is exhausted, in a mapped file of the spill directory.
+	 */
+	private ByteBuffer allocate(int capacity) {
+		if (!spilling) {
+			try {
+				return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+			}
+			catch (OutOfMemoryError e) {
+				if (spillDirectory == null) {
+					throw e;
+				}
+				spilling = true;
+			}
+		}
+		try {
+			File file = File.createTempFile("states", ".bin", spillDirectory);
+			file.deleteOnExit();
+			spillFiles.add(file);
+			RandomAccessFile access = new RandomAccessFile(file, "rw");
+			try {
+				// The mapping stays valid after the file is closed
+				return access.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity).order(ByteOrder.nativeOrder());
+			}
+			finally {
+				access.close();
+			}
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Cannot spill states to " + spillDirectory, e);
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the bytes of the table and the records, including the records of removed states.
+	 */
+	@Override
+	public long getMemoryUsage() {
+		return (long)slotCount * SLOT_SIZE + recordCount * recordSize;
+	}
+
+	@Override
+	public double getLoadFactor() {
+		return (double)bucketCount / slotCount;
+	}
+
+	@Override
+	public double getOmissionProbability() {
+		return 0;
+	}
+
+	/**
+	 * Drops the buffers and deletes the spill files. Direct memory is freed once the buffers are collected.
+	 */
+	@Override
+	public void close() {
+		segments.clear();
+		table = null;
+		for (File file : spillFiles) {
+			file.delete();
+		}
+		spillFiles.clear();
+	}
+
+}
@@ -0,0 +1,389 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.uni_paderborn.uppaal.zones.MaxConstants;
+
+/**
+ * An exploration of the zone graph by several threads.
+ * <p>
+ * The passed list is partitioned by the hash codes of the discrete parts of the states, and each worker owns one partition.
+ * Successors are sent to their owners through bounded single-producer single-consumer queues, one for each pair of workers;
+ * successors that do not fit are kept by the sender and sent again later.
+ * The owner adds new states to its passed list and its waiting list.
+ * A worker explores the states of its own waiting list in the search order, and takes the oldest state
+ * of the waiting list of another worker when its own is empty.
+ * </p>
+ * <p>
+ * The exploration terminates when a single counter of the states being sent, waiting or explored drops to zero.
+ * A worker adds the number of successors of a state before sending them and removes the state itself at the same time,
+ * so the counter cannot drop to zero while a successor is on its way.
+ * </p>
+ */
+final class ParallelExploration {
+	/**
+	 * The capacity of the queue from one worker to another.
+	 */
+	private static final int QUEUE_CAPACITY = 256;
+
+	private final StatePredicate predicate;
+
+	private final boolean reachability;
+
+	private final MaxConstants constants;
+
+	private final boolean[][] ampleLocations;
+
+	private final boolean depthFirst;
+
+	private final Worker[] workers;
+
+	/**
+	 * The number of states being sent, waiting or explored.
+	 */
+	private final AtomicLong pending = new AtomicLong();
+
+	private final AtomicReference<SymbolicState> witness = new AtomicReference<SymbolicState>();
+
+	private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+	private volatile boolean stopped;
+
+	ParallelExploration(ReachabilityChecker checker, StatePredicate predicate, boolean reachability, MaxConstants constants, boolean[][] ampleLocations,
+			int threadCount) {
+		this.predicate = predicate;
+		this.reachability = reachability;
+		this.constants = constants;
+		this.ampleLocations = ampleLocations;
+		this.depthFirst = checker.getSearchOrder() == ReachabilityChecker.SearchOrder.DEPTH_FIRST;
+		this.workers = new Worker[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			workers[i] = new Worker(i, checker.createGenerator(), checker.createStore());
+		}
+	}
+
+	/**
+	 * Explores the states reachable from the initial state until a state decides the check.
+	 * @param initial the initial state, delayed and extrapolated.
+	 * @return the state deciding the check, or <code>null</code> if no reachable state does.
+	 * @throws CancellationException if the calling thread is interrupted.
+	 */
+	SymbolicState run(SymbolicState initial) {
+		pending.set(1);
+		workers[getOwner(initial)].insert(initial);
+		if (stopped) {
+			return witness.get();
+		}
+		Thread[] threads = new Thread[workers.length];
+		for (int i = 0; i < workers.length; i++) {
+			threads[i] = new Thread(workers[i], "ReachabilityChecker-" + i);
+			threads[i].setDaemon(true);
+			threads[i].start();
+		}
+		boolean interrupted = false;
+		for (Thread thread : threads) {
+			while (thread.isAlive()) {
+				try {
+					thread.join();
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+					stopped = true;
+				}
+			}
+		}
+		Throwable cause = failure.get();
+		if (cause instanceof RuntimeException) {
+			throw (RuntimeException)cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error)cause;
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("The exploration was interrupted");
+		}
+		return witness.get();
+	}
+
+	long getExploredStateCount() {
+		long count = 0;
+		for (Worker worker : workers) {
+			count += worker.exploredStates;
+		}
+		return count;
+	}
+
+	long getStoredStateCount() {
+		long count = 0;
+		for (Worker worker : workers) {
+			count += worker.passed.size();
+		}
+		return count;
+	}
+
+	long getSuccessorCount() {
+		long count = 0;
+		for (Worker worker : workers) {
+			count += worker.successorCount;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the largest number of states waiting or on their way to their owners.
+	 */
+	long getMaxWaitingStateCount() {
+		long count = 1;
+		for (Worker worker : workers) {
+			count = Math.max(count, worker.maxPending);
+		}
+		return count;
+	}
+
+	/**
+	 * Estimates the bytes taken by the partitions of the passed list.
+	 */
+	long getStoreMemoryUsage() {
+		long memory = 0;
+		for (Worker worker : workers) {
+			memory += worker.passed.getMemoryUsage();
+		}
+		return memory;
+	}
+
+	/**
+	 * Returns the average load factor of the partitions of the passed list.
+	 */
+	double getLoadFactor() {
+		double loadFactor = 0;
+		for (Worker worker : workers) {
+			loadFactor += worker.passed.getLoadFactor();
+		}
+		return loadFactor / workers.length;
+	}
+
+	long getPeakHeapMemory() {
+		long memory = 0;
+		for (Worker worker : workers) {
+			memory = Math.max(memory, worker.peakHeapMemory);
+		}
+		return memory;
+	}
+
+	/**
+	 * Estimates the probability that a partition of the passed list omitted a state.
+	 */
+	double getOmissionProbability() {
+		double none = 1;
+		for (Worker worker : workers) {
+			none *= 1 - worker.passed.getOmissionProbability();
+		}
+		return 1 - none;
+	}
+
+	/**
+	 * Releases the partitions of the passed list.
+	 */
+	void close() {
+		for (Worker worker : workers) {
+			worker.passed.close();
+		}
+	}
+
+	/**
+	 * Returns the worker owning the partition of a state, chosen by the high bits of its hash code
+	 * as the passed lists use the low bits.
+	 */
+	private int getOwner(SymbolicState state) {
+		return (int)(((PassedList.mix(state.hash) & 0xFFFFFFFFL) * workers.length) >>> 32);
+	}
+
+	private final class Worker implements Runnable {
+		private final int index;
+
+		private final SuccessorGenerator generator;
+
+		private final StateStore passed;
+
+		private final ConcurrentLinkedDeque<SymbolicState> waiting = new ConcurrentLinkedDeque<SymbolicState>();
+
+		/**
+		 * The queues from the other workers, by sender.
+		 */
+		private final StateQueue[] inbox = new StateQueue[workers.length];
+
+		/**
+		 * The states that did not fit into the queues to the other workers, by receiver.
+		 */
+		private final ArrayDeque<SymbolicState>[] outbox;
+
+		private final List<SymbolicState> successors = new ArrayList<SymbolicState>();
+
+		/**
+		 * The number of received states already in the passed list, not yet removed from the pending states.
+		 */
+		private int covered;
+
+		private int random;
+
+		private long exploredStates;
+
+		private long successorCount;
+
+		private long maxPending;
+
+		private long peakHeapMemory;
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		Worker(int index, SuccessorGenerator generator, StateStore passed) {
+			this.index = index;
+			this.generator = generator;
+			this.passed = passed;
+			this.outbox = new ArrayDeque[workers.length];
+			for (int i = 0; i < workers.length; i++) {
+				inbox[i] = new StateQueue(QUEUE_CAPACITY);
+				outbox[i] = new ArrayDeque<SymbolicState>();
+			}
+			this.random = index + 1;
+		}
+
+		@Override
+		public void run() {
+			try {
+				explore();
+			}
+			catch (Throwable e) {
+				failure.compareAndSet(null, e);
+				stopped = true;
+			}
+		}
+
+		private void explore() {
+			Runtime runtime = Runtime.getRuntime();
+			while (!stopped) {
+				boolean progress = receive();
+				progress |= resend();
+				SymbolicState current = depthFirst ? waiting.pollLast() : waiting.pollFirst();
+				if (current == null) {
+					current = steal();
+				}
+				if (current != null) {
+					exploredStates++;
+					successors.clear();
+					generator.computeSuccessors(current, constants, successors, ampleLocations);
+					int count = successors.size();
+					successorCount += count;
+					maxPending = Math.max(maxPending, pending.addAndGet(count - 1));
+					for (SymbolicState successor : successors) {
+						send(successor);
+					}
+					if ((exploredStates & 0xFFF) == 0) {
+						peakHeapMemory = Math.max(peakHeapMemory, runtime.totalMemory() - runtime.freeMemory());
+					}
+				}
+				else if (!progress) {
+					if (pending.get() == 0) {
+						break;
+					}
+					Thread.yield();
+				}
+			}
+			peakHeapMemory = Math.max(peakHeapMemory, runtime.totalMemory() - runtime.freeMemory());
+		}
+
+		/**
+		 * Adds the states sent by the other workers.
+		 * @return whether a state was received.
+		 */
+		private boolean receive() {
+			boolean received = false;
+			for (StateQueue queue : inbox) {
+				for (SymbolicState state = queue.poll(); state != null; state = queue.poll()) {
+					insert(state);
+					received = true;
+				}
+			}
+			if (covered > 0) {
+				pending.addAndGet(-covered);
+				covered = 0;
+			}
+			return received;
+		}
+
+		/**
+		 * Sends the states that did not fit into the queues before.
+		 * @return whether a state was sent.
+		 */
+		private boolean resend() {
+			boolean sent = false;
+			for (int receiver = 0; receiver < outbox.length; receiver++) {
+				ArrayDeque<SymbolicState> states = outbox[receiver];
+				StateQueue queue = workers[receiver].inbox[index];
+				while (!states.isEmpty() && queue.offer(states.peekFirst())) {
+					states.pollFirst();
+					sent = true;
+				}
+			}
+			return sent;
+		}
+
+		private void send(SymbolicState state) {
+			int owner = getOwner(state);
+			if (owner == index) {
+				insert(state);
+				if (covered > 0) {
+					pending.addAndGet(-covered);
+					covered = 0;
+				}
+			}
+			else if (!outbox[owner].isEmpty() || !workers[owner].inbox[index].offer(state)) {
+				outbox[owner].addLast(state);
+			}
+		}
+
+		/**
+		 * Adds a state of the partition of this worker to the passed list and, if it is new, to the waiting list.
+		 */
+		void insert(SymbolicState state) {
+			if (!passed.add(state)) {
+				covered++;
+				return;
+			}
+			waiting.addLast(state);
+			if (generator.decides(predicate, reachability, state)) {
+				witness.compareAndSet(null, state);
+				stopped = true;
+			}
+		}
+
+		/**
+		 * Takes the oldest waiting state of another worker, starting at a random one.
+		 */
+		private SymbolicState steal() {
+			random ^= random << 13;
+			random ^= random >>> 17;
+			random ^= random << 5;
+			int start = (random & Integer.MAX_VALUE) % workers.length;
+			for (int i = 0; i < workers.length; i++) {
+				int victim = (start + i) % workers.length;
+				if (victim != index) {
+					SymbolicState state = workers[victim].waiting.pollFirst();
+					if (state != null) {
+						return state;
+					}
+				}
+			}
+			return null;
+		}
+	}
+
+}
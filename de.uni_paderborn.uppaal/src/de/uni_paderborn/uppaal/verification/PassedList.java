@@ -0,0 +1,144 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+import java.util.Arrays;
+
+import de.uni_paderborn.uppaal.zones.DBM;
+
+/**
+ * The states explored so far on the heap, in an open addressing hash table over the locations and valuations.
+ * Each slot holds the bucket of the states with one discrete part, none of whose zones includes another,
+ * so the probe sequences are only as long as the number of discrete parts requires.
+ */
+final class PassedList implements StateStore {
+	private final int wordCount;
+
+	private final int dim;
+
+	private SymbolicState[][] table = new SymbolicState[1024][];
+
+	/**
+	 * The number of states in each bucket.
+	 */
+	private int[] lengths = new int[1024];
+
+	private int size;
+
+	private int bucketCount;
+
+	private long bucketSlots;
+
+	PassedList(int wordCount, int dim) {
+		this.wordCount = wordCount;
+		this.dim = dim;
+	}
+
+	@Override
+	public boolean add(SymbolicState state) {
+		int mask = table.length - 1;
+		int i = mix(state.hash) & mask;
+		for (SymbolicState[] bucket = table[i]; bucket != null; bucket = table[i]) {
+			if (bucket[0].hasDiscretePart(state)) {
+				return addToBucket(i, state);
+			}
+			i = (i + 1) & mask;
+		}
+		SymbolicState[] bucket = new SymbolicState[2];
+		bucket[0] = state;
+		table[i] = bucket;
+		lengths[i] = 1;
+		bucketSlots += bucket.length;
+		size++;
+		if (2 * ++bucketCount > table.length) {
+			resize();
+		}
+		return true;
+	}
+
+	private boolean addToBucket(int slot, SymbolicState state) {
+		SymbolicState[] bucket = table[slot];
+		int length = lengths[slot];
+		int retained = 0;
+		for (int j = 0; j < length; j++) {
+			SymbolicState stored = bucket[j];
+			// No state was removed before, as its zone would be included in the zone of another stored state
+			if (DBM.isSubset(state.zone, stored.zone, dim)) {
+				return false;
+			}
+			if (!DBM.isSubset(stored.zone, state.zone, dim)) {
+				bucket[retained++] = stored;
+			}
+		}
+		Arrays.fill(bucket, retained, length, null);
+		size -= length - retained;
+		if (retained == bucket.length) {
+			bucketSlots += bucket.length;
+			bucket = Arrays.copyOf(bucket, 2 * bucket.length);
+			table[slot] = bucket;
+		}
+		bucket[retained] = state;
+		lengths[slot] = retained + 1;
+		size++;
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Estimates the bytes taken by the table, the buckets and the states on a 64-bit virtual machine with compressed references.
+	 */
+	@Override
+	public long getMemoryUsage() {
+		return 32 + 8L * table.length + 16L * bucketCount + 4L * bucketSlots + size * SymbolicState.getMemoryUsage(wordCount, dim);
+	}
+
+	@Override
+	public double getLoadFactor() {
+		return (double)bucketCount / table.length;
+	}
+
+	@Override
+	public double getOmissionProbability() {
+		return 0;
+	}
+
+	@Override
+	public void close() {
+		// The garbage collector frees the table
+	}
+
+	private void resize() {
+		SymbolicState[][] oldTable = table;
+		int[] oldLengths = lengths;
+		table = new SymbolicState[2 * oldTable.length][];
+		lengths = new int[table.length];
+		int mask = table.length - 1;
+		for (int j = 0; j < oldTable.length; j++) {
+			SymbolicState[] bucket = oldTable[j];
+			if (bucket != null) {
+				int i = mix(bucket[0].hash) & mask;
+				while (table[i] != null) {
+					i = (i + 1) & mask;
+				}
+				table[i] = bucket;
+				lengths[i] = oldLengths[j];
+			}
+		}
+	}
+
+	/**
+	 * Spreads all bits of a hash code over the low bits used as index, as the hash codes of valuations cluster.
+	 */
+	static int mix(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85EBCA6B;
+		hash ^= hash >>> 13;
+		hash *= 0xC2B2AE35;
+		return hash ^ (hash >>> 16);
+	}
+
+}
@@ -0,0 +1,468 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.uni_paderborn.uppaal.evaluation.EvaluationException;
+import de.uni_paderborn.uppaal.evaluation.ExpressionCompiler;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.serialization.PathQuantifier;
+import de.uni_paderborn.uppaal.simulation.PackedStateLayout;
+import de.uni_paderborn.uppaal.simulation.ProcessEdge;
+import de.uni_paderborn.uppaal.simulation.SystemInstance;
+import de.uni_paderborn.uppaal.templates.Location;
+import de.uni_paderborn.uppaal.zones.ClockConstraintCompiler;
+import de.uni_paderborn.uppaal.zones.ClockGuard;
+import de.uni_paderborn.uppaal.zones.ClockUpdate;
+import de.uni_paderborn.uppaal.zones.MaxConstants;
+
+/**
+ * Checks <code>E&lt;&gt;</code> and <code>A[]</code> properties of the system of an NTA by exploring its zone graph.
+ * <p>
+ * A state of the zone graph consists of the location of each process, the valuation of the data variables
+ * and a zone of the clocks, closed under delay where time can pass and extrapolated with the maximal constants of the clocks
+ * in its locations, see {@link MaxConstants}.
+ * States are explored from a waiting list, successors are dropped if the passed list holds a state
+ * with the same discrete part and a larger zone.
+ * </p>
+ * <p>
+ * The transitions are those of the {@link de.uni_paderborn.uppaal.simulation.Simulator}: edges without synchronization,
+ * binary synchronizations and broadcasts, restricted to committed processes if any process is in a committed location.
+ * Guards and invariants must be conjunctions of clock constraints and conditions on data variables,
+ * updates may only reset clocks to values of expressions over data variables.
+ * Clock constraints must not compare differences of clocks, for which the extrapolation is unsound.
+ * Receiving edges of broadcast channels must not constrain clocks. Priorities are not supported.
+ * </p>
+ * <p>
+ * A checker keeps its buffers between the explorations and must be used by a single thread,
+ * which may start several threads for an exploration, see {@link #setThreadCount(int)}.
+ * </p>
+ */
+public class ReachabilityChecker {
+	/**
+	 * The orders in which waiting states are explored.
+	 */
+	public enum SearchOrder {
+		/**
+		 * The states are explored in the order they are found.
+		 */
+		BREADTH_FIRST,
+
+		/**
+		 * The most recently found state is explored first.
+		 */
+		DEPTH_FIRST
+	}
+
+	/**
+	 * The memories keeping the passed list.
+	 */
+	public enum StateStorage {
+		/**
+		 * The states are objects on the heap.
+		 */
+		HEAP,
+
+		/**
+		 * The states are copied into direct buffers outside the heap, which the garbage collector does not trace.
+		 * The waiting states remain on the heap.
+		 */
+		OFF_HEAP,
+
+		/**
+		 * Each state sets some bits of a bit array of a fixed size, see {@link ReachabilityChecker#setBitStateMemory(long)}.
+		 * A state whose bits are all set is taken as passed, so states may be omitted.
+		 */
+		BIT_STATE,
+
+		/**
+		 * A 64-bit hash of each state is kept instead of the state. A state with the hash of another state is taken as passed,
+		 * so states may be omitted.
+		 */
+		HASH_COMPACTION
+	}
+
+	private final SystemInstance system;
+
+	private final int processCount;
+
+	private final int dim;
+
+	private final MaxConstants maxConstants;
+
+	private final PackedStateLayout layout;
+
+	private final ClockConstraintCompiler globalCompiler;
+
+	/**
+	 * The guards of the outgoing edges of the locations of the processes.
+	 */
+	private final ClockGuard[][][] guards;
+
+	/**
+	 * The updates of the outgoing edges of the locations of the processes.
+	 */
+	private final ClockUpdate[][][] updates;
+
+	/**
+	 * The invariants of the locations of the processes.
+	 */
+	private final ClockGuard[][] invariants;
+
+	private final SuccessorGenerator generator;
+
+	private SearchOrder searchOrder = SearchOrder.BREADTH_FIRST;
+
+	private int threadCount = 1;
+
+	private StateStorage stateStorage = StateStorage.HEAP;
+
+	private File spillDirectory;
+
+	private long bitStateMemory = 1 << 26;
+
+	private int hashFunctionCount = 3;
+
+	private boolean partialOrderReduction;
+
+	/**
+	 * The analysis of the edges for the partial order reduction, computed when first needed.
+	 */
+	private EdgeIndependence independence;
+
+	/**
+	 * Creates a checker for a system.
+	 * @param system the system.
+	 * @throws EvaluationException if the system declares priorities, a guard, invariant or update does not have the supported form,
+	 * a clock constraint compares a difference of clocks, or the maximal constant of a clock cannot be determined.
+	 */
+	public ReachabilityChecker(SystemInstance system) {
+		this.system = system;
+		this.processCount = system.getProcessCount();
+		for (int process = 1; process < processCount; process++) {
+			if (system.getProcessPriority(process) != system.getProcessPriority(0)) {
+				throw new EvaluationException("Process priorities are not supported", system.getNTA().getSystemDeclarations());
+			}
+		}
+		if (system.hasChannelPriorities()) {
+			throw new EvaluationException("Channel priorities are not supported", system.getNTA().getGlobalDeclarations());
+		}
+		this.dim = ClockConstraintCompiler.getDimension(system);
+		this.maxConstants = MaxConstants.compute(system);
+		this.layout = new PackedStateLayout(system, false);
+		int[] clockIndices = ClockConstraintCompiler.createClockIndices(system);
+		this.globalCompiler = new ClockConstraintCompiler(system.getGlobalLayout(), new ExpressionCompiler(system.getGlobalLayout()), clockIndices);
+		this.guards = new ClockGuard[processCount][][];
+		this.updates = new ClockUpdate[processCount][][];
+		this.invariants = new ClockGuard[processCount][];
+		for (int process = 0; process < processCount; process++) {
+			ClockConstraintCompiler compiler = new ClockConstraintCompiler(system.getLayout(process), system.getCompiler(process), clockIndices);
+			List<Location> locations = system.getTemplate(process).getLocation();
+			guards[process] = new ClockGuard[locations.size()][];
+			updates[process] = new ClockUpdate[locations.size()][];
+			invariants[process] = new ClockGuard[locations.size()];
+			for (int location = 0; location < locations.size(); location++) {
+				invariants[process][location] = compiler.compile(locations.get(location).getInvariant());
+				ProcessEdge[] outgoing = system.getOutgoing(process, location);
+				guards[process][location] = new ClockGuard[outgoing.length];
+				updates[process][location] = new ClockUpdate[outgoing.length];
+				for (int i = 0; i < outgoing.length; i++) {
+					guards[process][location][i] = compiler.compile(outgoing[i].getEdge().getGuard());
+					updates[process][location][i] = compiler.compileUpdate(outgoing[i].getEdge().getUpdate());
+				}
+			}
+		}
+		this.generator = createGenerator();
+	}
+
+	/**
+	 * Returns the checked system.
+	 * @return the system.
+	 */
+	public SystemInstance getSystem() {
+		return system;
+	}
+
+	/**
+	 * Returns the order in which waiting states are explored.
+	 * @return the search order.
+	 */
+	public SearchOrder getSearchOrder() {
+		return searchOrder;
+	}
+
+	/**
+	 * Sets the order in which waiting states are explored, {@link SearchOrder#BREADTH_FIRST} by default.
+	 * @param searchOrder the search order.
+	 */
+	public void setSearchOrder(SearchOrder searchOrder) {
+		this.searchOrder = searchOrder;
+	}
+
+	/**
+	 * Returns the number of threads exploring the states.
+	 * @return the number of threads.
+	 */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Sets the number of threads exploring the states, <code>1</code> by default.
+	 * <p>
+	 * With several threads, the passed list is partitioned between the threads by the hash codes of the states,
+	 * each thread explores its own waiting states in the search order and takes waiting states of other threads when idle.
+	 * The number of states explored before a witness is found differs from run to run,
+	 * and the maximal number of waiting states includes the states passed between the threads.
+	 * </p>
+	 * @param threadCount the number of threads, e.g. {@link Runtime#availableProcessors()}.
+	 * @throws IllegalArgumentException if the number is not positive.
+	 */
+	public void setThreadCount(int threadCount) {
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("Thread count " + threadCount);
+		}
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Returns the memory keeping the passed list.
+	 * @return the state storage.
+	 */
+	public StateStorage getStateStorage() {
+		return stateStorage;
+	}
+
+	/**
+	 * Sets the memory keeping the passed list, {@link StateStorage#HEAP} by default.
+	 * <p>
+	 * With {@link StateStorage#BIT_STATE} and {@link StateStorage#HASH_COMPACTION}, the exploration is approximate:
+	 * a state is only taken as passed if an equal state was found, or another state with the same hash,
+	 * so states with included zones are explored and reachable states may be omitted.
+	 * A witness is still a reachable state, but a satisfied <code>A[]</code> property or unsatisfied <code>E&lt;&gt;</code> property
+	 * holds only with the probability of no omission, see {@link VerificationResult#getOmissionProbability()}.
+	 * </p>
+	 * @param stateStorage the state storage.
+	 */
+	public void setStateStorage(StateStorage stateStorage) {
+		this.stateStorage = stateStorage;
+	}
+
+	/**
+	 * Returns the directory the passed list spills to when direct memory is exhausted.
+	 * @return the directory, or <code>null</code> if the passed list does not spill.
+	 */
+	public File getSpillDirectory() {
+		return spillDirectory;
+	}
+
+	/**
+	 * Sets the directory the passed list spills to when direct memory is exhausted, <code>null</code> by default.
+	 * <p>
+	 * With {@link StateStorage#OFF_HEAP}, the states stored once direct memory (see <code>-XX:MaxDirectMemorySize</code>) is exhausted
+	 * are kept in memory-mapped temporary files of the directory, which the operating system writes to disk as needed.
+	 * The files are deleted after the check.
+	 * </p>
+	 * @param spillDirectory the directory, or <code>null</code> to fail when direct memory is exhausted.
+	 */
+	public void setSpillDirectory(File spillDirectory) {
+		this.spillDirectory = spillDirectory;
+	}
+
+	/**
+	 * Returns the bytes of the bit array of {@link StateStorage#BIT_STATE}.
+	 * @return the number of bytes.
+	 */
+	public long getBitStateMemory() {
+		return bitStateMemory;
+	}
+
+	/**
+	 * Sets the bytes of the bit array of {@link StateStorage#BIT_STATE}, 64 MiB by default.
+	 * The array is rounded down to a power of two and split between the threads.
+	 * @param bitStateMemory the number of bytes.
+	 * @throws IllegalArgumentException if the number is less than <code>8</code>.
+	 */
+	public void setBitStateMemory(long bitStateMemory) {
+		if (bitStateMemory < 8) {
+			throw new IllegalArgumentException("Bit state memory " + bitStateMemory);
+		}
+		this.bitStateMemory = bitStateMemory;
+	}
+
+	/**
+	 * Returns the number of bits set for each state by {@link StateStorage#BIT_STATE}.
+	 * @return the number of hash functions.
+	 */
+	public int getHashFunctionCount() {
+		return hashFunctionCount;
+	}
+
+	/**
+	 * Sets the number of bits set for each state by {@link StateStorage#BIT_STATE}, <code>3</code> by default.
+	 * More bits omit fewer states while the array is sparse, but fill it faster.
+	 * @param hashFunctionCount the number of hash functions.
+	 * @throws IllegalArgumentException if the number is not positive.
+	 */
+	public void setHashFunctionCount(int hashFunctionCount) {
+		if (hashFunctionCount < 1) {
+			throw new IllegalArgumentException("Hash function count " + hashFunctionCount);
+		}
+		this.hashFunctionCount = hashFunctionCount;
+	}
+
+	/**
+	 * Returns whether the exploration leaves out interleavings of independent edges.
+	 * @return whether the partial order reduction is enabled.
+	 */
+	public boolean isPartialOrderReduction() {
+		return partialOrderReduction;
+	}
+
+	/**
+	 * Sets whether the exploration leaves out interleavings of independent edges, <code>false</code> by default.
+	 * <p>
+	 * In a state where a process is in a location whose outgoing edges are independent of the other processes and of time,
+	 * and not observed by the property, only the enabled edges of the process are explored.
+	 * Locations with edges closing cycles are left out, so that no cycle of states postpones the other transitions forever.
+	 * </p>
+	 * @param partialOrderReduction whether to enable the partial order reduction.
+	 */
+	public void setPartialOrderReduction(boolean partialOrderReduction) {
+		this.partialOrderReduction = partialOrderReduction;
+	}
+
+	/**
+	 * Checks a property.
+	 * <p>
+	 * The state property is a conjunction of constraints on global clocks and a condition over locations and data variables.
+	 * Locations are referred to as <code>P.l</code> for a process <code>P</code>, e.g. <code>Train[1].Cross</code> for the process <code>Train(1)</code>,
+	 * or as <code>l</code> if the template of the location is instantiated once. Local variables of processes are referred to as <code>P.v</code>.
+	 * </p>
+	 * @param quantifier {@link PathQuantifier#EXISTS_EVENTUALLY} or {@link PathQuantifier#ALWAYS_GLOBALLY}.
+	 * @param property the state property.
+	 * @return the result.
+	 * @throws IllegalArgumentException if the quantifier is not supported.
+	 * @throws EvaluationException if the property does not have the supported form or an expression cannot be evaluated.
+	 */
+	public VerificationResult check(PathQuantifier quantifier, Expression property) {
+		if (quantifier != PathQuantifier.EXISTS_EVENTUALLY && quantifier != PathQuantifier.ALWAYS_GLOBALLY) {
+			throw new IllegalArgumentException("Unsupported quantifier " + quantifier);
+		}
+		boolean reachability = quantifier == PathQuantifier.EXISTS_EVENTUALLY;
+		StatePredicate predicate = new StatePredicate(system, globalCompiler, property);
+		// The clocks of the property keep their bounds in all locations
+		int[] propertyMaxConstants = new int[dim];
+		Arrays.fill(propertyMaxConstants, -1);
+		globalCompiler.addMaxConstants(property, system.createState(), propertyMaxConstants);
+		MaxConstants constants = maxConstants.share(propertyMaxConstants);
+		Runtime runtime = Runtime.getRuntime();
+		long peakHeapMemory = runtime.totalMemory() - runtime.freeMemory();
+		long start = System.nanoTime();
+
+		SymbolicState initial = generator.createInitialState(constants);
+		boolean[][] ampleLocations = null;
+		if (partialOrderReduction) {
+			if (independence == null) {
+				independence = new EdgeIndependence(system, guards, invariants);
+			}
+			ampleLocations = independence.getAmpleLocations(predicate.getVisibleLocations(), predicate.getVisibleSlots());
+		}
+		if (threadCount > 1) {
+			ParallelExploration exploration = new ParallelExploration(this, predicate, reachability, constants, ampleLocations, threadCount);
+			try {
+				SymbolicState witness = exploration.run(initial);
+				long time = System.nanoTime() - start;
+				peakHeapMemory = Math.max(peakHeapMemory, exploration.getPeakHeapMemory());
+				return createResult(quantifier, property, reachability, witness, exploration.getExploredStateCount(),
+						exploration.getStoredStateCount(), exploration.getSuccessorCount(), exploration.getMaxWaitingStateCount(), time,
+						exploration.getStoreMemoryUsage(), exploration.getLoadFactor(), exploration.getOmissionProbability(), peakHeapMemory);
+			}
+			finally {
+				exploration.close();
+			}
+		}
+
+		StateStore passed = createStore();
+		try {
+			ArrayDeque<SymbolicState> waiting = new ArrayDeque<SymbolicState>();
+			List<SymbolicState> successors = new ArrayList<SymbolicState>();
+			long exploredStates = 0;
+			long successorCount = 0;
+			long maxWaitingStates = 1;
+			passed.add(initial);
+			waiting.add(initial);
+			SymbolicState witness = generator.decides(predicate, reachability, initial) ? initial : null;
+			while (witness == null && !waiting.isEmpty()) {
+				SymbolicState current = searchOrder == SearchOrder.BREADTH_FIRST ? waiting.pollFirst() : waiting.pollLast();
+				exploredStates++;
+				successors.clear();
+				generator.computeSuccessors(current, constants, successors, ampleLocations);
+				for (SymbolicState successor : successors) {
+					successorCount++;
+					if (passed.add(successor)) {
+						waiting.add(successor);
+						if (generator.decides(predicate, reachability, successor)) {
+							witness = successor;
+							break;
+						}
+					}
+				}
+				maxWaitingStates = Math.max(maxWaitingStates, waiting.size());
+				if ((exploredStates & 0xFFF) == 0) {
+					peakHeapMemory = Math.max(peakHeapMemory, runtime.totalMemory() - runtime.freeMemory());
+				}
+			}
+			peakHeapMemory = Math.max(peakHeapMemory, runtime.totalMemory() - runtime.freeMemory());
+			long time = System.nanoTime() - start;
+			return createResult(quantifier, property, reachability, witness, exploredStates, passed.size(), successorCount, maxWaitingStates, time,
+					passed.getMemoryUsage(), passed.getLoadFactor(), passed.getOmissionProbability(), peakHeapMemory);
+		}
+		finally {
+			passed.close();
+		}
+	}
+
+	private VerificationResult createResult(PathQuantifier quantifier, Expression property, boolean reachability, SymbolicState witness,
+			long exploredStates, long storedStates, long successors, long maxWaitingStates, long time, long storeMemory, double loadFactor,
+			double omissionProbability, long peakHeapMemory) {
+		int[] locations = null;
+		int[] state = null;
+		if (witness != null) {
+			locations = new int[processCount];
+			state = new int[system.getStateSize()];
+			layout.unpack(witness.discrete, locations, state);
+		}
+		return new VerificationResult(quantifier, property, reachability == (witness != null), locations, state, witness == null ? null : witness.zone, dim,
+				exploredStates, storedStates, successors, maxWaitingStates, time, storeMemory, loadFactor, omissionProbability, peakHeapMemory);
+	}
+
+	/**
+	 * Creates an empty passed list in the memory of the state storage.
+	 */
+	StateStore createStore() {
+		switch (stateStorage) {
+		case OFF_HEAP:
+			return new OffHeapPassedList(layout.getWordCount(), dim, spillDirectory);
+		case BIT_STATE:
+			return new BitStateStore(bitStateMemory / threadCount, hashFunctionCount);
+		case HASH_COMPACTION:
+			return new HashCompactionStore();
+		default:
+			return new PassedList(layout.getWordCount(), dim);
+		}
+	}
+
+	/**
+	 * Creates a generator of successors sharing the compiled guards, updates and invariants of this checker.
+	 */
+	SuccessorGenerator createGenerator() {
+		return new SuccessorGenerator(system, layout, dim, guards, updates, invariants);
+	}
+
+}
@@ -0,0 +1,457 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+
+import de.uni_paderborn.uppaal.evaluation.CompiledExpression;
+import de.uni_paderborn.uppaal.evaluation.EvaluationException;
+import de.uni_paderborn.uppaal.evaluation.ExpressionCompiler;
+import de.uni_paderborn.uppaal.evaluation.ExpressionEvaluator;
+import de.uni_paderborn.uppaal.evaluation.SlotLayout;
+import de.uni_paderborn.uppaal.expressions.ArithmeticExpression;
+import de.uni_paderborn.uppaal.expressions.ArithmeticOperator;
+import de.uni_paderborn.uppaal.expressions.CompareExpression;
+import de.uni_paderborn.uppaal.expressions.CompareOperator;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalOperator;
+import de.uni_paderborn.uppaal.expressions.NegationExpression;
+import de.uni_paderborn.uppaal.expressions.QuantificationExpression;
+import de.uni_paderborn.uppaal.expressions.ScopedIdentifierExpression;
+import de.uni_paderborn.uppaal.simulation.SystemInstance;
+import de.uni_paderborn.uppaal.templates.AbstractTemplate;
+import de.uni_paderborn.uppaal.templates.Location;
+import de.uni_paderborn.uppaal.zones.ClockConstraintCompiler;
+import de.uni_paderborn.uppaal.zones.ClockGuard;
+
+/**
+ * A state property compiled for a system.
+ * <p>
+ * The property is a conjunction of clock constraints on global clocks and a condition on the discrete part of a state.
+ * The condition may refer to locations, either as <code>P.l</code> for a process <code>P</code>, e.g. <code>Train[1].Cross</code>
+ * for the process <code>Train(1)</code>, or as <code>l</code> if the template of the location is instantiated once,
+ * and to local variables of processes as <code>P.v</code>.
+ * The variables of quantifications are stored in a frame passed by the caller, so that threads can share the predicate.
+ * </p>
+ */
+final class StatePredicate {
+	private final SystemInstance system;
+
+	private final ExpressionCompiler globalCompiler;
+
+	private final Term condition;
+
+	private final ClockGuard[] clockConstraints;
+
+	/**
+	 * The number of slots of the frame holding the quantified variables of the property, at least one.
+	 */
+	private int frameSize = 1;
+
+	/**
+	 * The processes whose locations the property refers to.
+	 */
+	private final boolean[] visibleLocations;
+
+	/**
+	 * The slots of the state the property reads.
+	 */
+	private final boolean[] visibleSlots;
+
+	StatePredicate(SystemInstance system, ClockConstraintCompiler clockCompiler, Expression property) {
+		this.system = system;
+		this.globalCompiler = new ExpressionCompiler(system.getGlobalLayout());
+		this.visibleLocations = new boolean[system.getProcessCount()];
+		this.visibleSlots = new boolean[system.getStateSize()];
+		List<Expression> conditions = new ArrayList<Expression>();
+		List<Expression> constraints = new ArrayList<Expression>();
+		split(property, conditions, constraints);
+		Term term = null;
+		for (Expression expression : conditions) {
+			Term next = createTerm(expression, -1);
+			term = term == null ? next : new Logical(LogicalOperator.AND_VALUE, term, next);
+		}
+		this.condition = term;
+		this.clockConstraints = new ClockGuard[constraints.size()];
+		for (int i = 0; i < clockConstraints.length; i++) {
+			clockConstraints[i] = clockCompiler.compile(constraints.get(i));
+			addVisibleSlots(constraints.get(i), system.getGlobalLayout());
+		}
+	}
+
+	/**
+	 * Returns the size of the frame passed to the evaluation of the property.
+	 */
+	int getFrameSize() {
+		return frameSize;
+	}
+
+	/**
+	 * Returns the processes whose locations the property refers to.
+	 */
+	boolean[] getVisibleLocations() {
+		return visibleLocations;
+	}
+
+	/**
+	 * Returns the slots of the state the property reads.
+	 */
+	boolean[] getVisibleSlots() {
+		return visibleSlots;
+	}
+
+	private void addVisibleSlots(Expression expression, SlotLayout layout) {
+		if (!EdgeIndependence.collectAccesses(expression, layout, visibleSlots, visibleSlots)) {
+			Arrays.fill(visibleSlots, true);
+		}
+	}
+
+	/**
+	 * Returns whether a state decides a check: whether it satisfies the property of an <code>E&lt;&gt;</code> check
+	 * or violates the property of an <code>A[]</code> check.
+	 * The frame holds at least {@link #getFrameSize()} slots and is owned by the calling thread.
+	 */
+	boolean decides(int[] locations, int[] state, int[] zone, boolean reachability, int dim, int[] scratch, int[] frame) {
+		return reachability ? isSatisfiable(locations, state, zone, dim, scratch, frame) : !isValid(locations, state, zone, dim, frame);
+	}
+
+	/**
+	 * Returns whether some valuation of the clocks in the zone of a state satisfies the property.
+	 */
+	boolean isSatisfiable(int[] locations, int[] state, int[] zone, int dim, int[] scratch, int[] frame) {
+		if (!holds(locations, state, frame)) {
+			return false;
+		}
+		if (clockConstraints.length == 0) {
+			return true;
+		}
+		System.arraycopy(zone, 0, scratch, 0, dim * dim);
+		for (ClockGuard constraint : clockConstraints) {
+			if (!constraint.constrain(scratch, dim, state, frame)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether all valuations of the clocks in the zone of a state satisfy the property.
+	 */
+	boolean isValid(int[] locations, int[] state, int[] zone, int dim, int[] frame) {
+		if (!holds(locations, state, frame)) {
+			return false;
+		}
+		for (ClockGuard constraint : clockConstraints) {
+			if (!constraint.contains(zone, dim, state, frame)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean holds(int[] locations, int[] state, int[] frame) {
+		return condition == null || condition.evaluate(locations, state, frame) != 0;
+	}
+
+	/**
+	 * Splits a conjunction into conditions on the discrete part and clock constraints.
+	 */
+	private static void split(Expression expression, List<Expression> conditions, List<Expression> constraints) {
+		if (!ClockConstraintCompiler.containsClock(expression)) {
+			conditions.add(expression);
+		}
+		else if (expression instanceof LogicalExpression && ((LogicalExpression)expression).getOperator() == LogicalOperator.AND) {
+			split(((LogicalExpression)expression).getFirstExpr(), conditions, constraints);
+			split(((LogicalExpression)expression).getSecondExpr(), conditions, constraints);
+		}
+		else {
+			constraints.add(expression);
+		}
+	}
+
+	/**
+	 * Creates the term of a condition.
+	 * @param process the process whose local variables and locations are referred to, <code>-1</code> for the global scope.
+	 */
+	private Term createTerm(Expression expression, int process) {
+		if (!refersToProcesses(expression)) {
+			SlotLayout layout = process < 0 ? system.getGlobalLayout() : system.getLayout(process);
+			ExpressionCompiler compiler = process < 0 ? globalCompiler : system.getCompiler(process);
+			if (containsQuantification(expression)) {
+				// the quantified variables are stored in the frame of a layout extending the one of the scope
+				layout = new SlotLayout(layout, layout.getSize(), layout.getChannelCount());
+				layout.addLocals(expression);
+				frameSize = Math.max(frameSize, layout.getFrameSize());
+				compiler = new ExpressionCompiler(layout);
+			}
+			addVisibleSlots(expression, layout);
+			return new Compiled(compiler.compile(expression));
+		}
+		if (isProcessScope(expression)) {
+			ScopedIdentifierExpression scoped = (ScopedIdentifierExpression)expression;
+			return createTerm(scoped.getIdentifier(), getProcess(scoped.getScope()));
+		}
+		if (expression instanceof IdentifierExpression && ((IdentifierExpression)expression).getIdentifier() instanceof Location) {
+			Location location = (Location)((IdentifierExpression)expression).getIdentifier();
+			if (process < 0) {
+				process = getProcess(location);
+			}
+			if (!system.getTemplate(process).getLocation().contains(location)) {
+				throw new EvaluationException("Location '" + location.getName() + "' is not a location of process " + system.getProcessName(process), expression);
+			}
+			visibleLocations[process] = true;
+			return new InLocation(process, system.getLocationIndex(location));
+		}
+		if (expression instanceof NegationExpression) {
+			return new Negation(createTerm(((NegationExpression)expression).getNegatedExpression(), process));
+		}
+		if (expression instanceof LogicalExpression) {
+			LogicalExpression logical = (LogicalExpression)expression;
+			return new Logical(logical.getOperator().getValue(), createTerm(logical.getFirstExpr(), process), createTerm(logical.getSecondExpr(), process));
+		}
+		if (expression instanceof CompareExpression) {
+			CompareExpression compare = (CompareExpression)expression;
+			return new Compare(compare.getOperator().getValue(), createTerm(compare.getFirstExpr(), process), createTerm(compare.getSecondExpr(), process));
+		}
+		if (expression instanceof ArithmeticExpression) {
+			ArithmeticExpression arithmetic = (ArithmeticExpression)expression;
+			return new Arithmetic(arithmetic.getOperator().getValue(), createTerm(arithmetic.getFirstExpr(), process), createTerm(arithmetic.getSecondExpr(), process));
+		}
+		throw new EvaluationException("Unsupported expression in property", expression);
+	}
+
+	/**
+	 * Returns whether an expression contains a quantification.
+	 */
+	private static boolean containsQuantification(Expression expression) {
+		if (expression instanceof QuantificationExpression) {
+			return true;
+		}
+		for (Iterator<EObject> iterator = expression.eAllContents(); iterator.hasNext();) {
+			if (iterator.next() instanceof QuantificationExpression) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether an expression refers to locations or members of processes.
+	 */
+	private static boolean refersToProcesses(Expression expression) {
+		List<EObject> objects = new ArrayList<EObject>();
+		objects.add(expression);
+		for (Iterator<EObject> iterator = expression.eAllContents(); iterator.hasNext();) {
+			objects.add(iterator.next());
+		}
+		for (EObject object : objects) {
+			if (isProcessScope(object)
+					|| object instanceof IdentifierExpression && ((IdentifierExpression)object).getIdentifier() instanceof Location) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether an expression accesses a member of a process, as opposed to a field of a structure.
+	 */
+	private static boolean isProcessScope(EObject object) {
+		if (!(object instanceof ScopedIdentifierExpression)) {
+			return false;
+		}
+		Expression scope = ((ScopedIdentifierExpression)object).getScope();
+		return scope instanceof IdentifierExpression && ((IdentifierExpression)scope).getIdentifier() instanceof AbstractTemplate;
+	}
+
+	/**
+	 * Returns the process denoted by a template and the values of its parameters, e.g. <code>Train[1]</code>.
+	 */
+	private int getProcess(Expression scope) {
+		IdentifierExpression identifier = (IdentifierExpression)scope;
+		ExpressionEvaluator evaluator = new ExpressionEvaluator(system.getGlobalLayout());
+		int[] state = system.createState();
+		StringBuilder name = new StringBuilder(identifier.getIdentifier().getName());
+		for (int i = 0; i < identifier.getIndex().size(); i++) {
+			name.append(i == 0 ? "(" : ", ").append(evaluator.evaluate(identifier.getIndex().get(i), state));
+		}
+		if (!identifier.getIndex().isEmpty()) {
+			name.append(')');
+		}
+		for (int process = 0; process < system.getProcessCount(); process++) {
+			if (name.toString().equals(system.getProcessName(process))) {
+				return process;
+			}
+		}
+		throw new EvaluationException("Unknown process " + name, scope);
+	}
+
+	/**
+	 * Returns the only process instantiating the template of a location.
+	 */
+	private int getProcess(Location location) {
+		int found = -1;
+		for (int process = 0; process < system.getProcessCount(); process++) {
+			if (system.getTemplate(process).getLocation().contains(location)) {
+				if (found >= 0) {
+					throw new EvaluationException("Location '" + location.getName() + "' is ambiguous, its template is instantiated more than once", location);
+				}
+				found = process;
+			}
+		}
+		if (found < 0) {
+			throw new EvaluationException("Location '" + location.getName() + "' belongs to no process", location);
+		}
+		return found;
+	}
+
+	/**
+	 * A condition or value over the locations and the valuation of a state.
+	 */
+	private static abstract class Term {
+		abstract int evaluate(int[] locations, int[] state, int[] frame);
+	}
+
+	private static final class Compiled extends Term {
+		private final CompiledExpression expression;
+
+		Compiled(CompiledExpression expression) {
+			this.expression = expression;
+		}
+
+		@Override
+		int evaluate(int[] locations, int[] state, int[] frame) {
+			return expression.evaluate(state, frame);
+		}
+	}
+
+	private static final class InLocation extends Term {
+		private final int process;
+
+		private final int location;
+
+		InLocation(int process, int location) {
+			this.process = process;
+			this.location = location;
+		}
+
+		@Override
+		int evaluate(int[] locations, int[] state, int[] frame) {
+			return locations[process] == location ? 1 : 0;
+		}
+	}
+
+	private static final class Negation extends Term {
+		private final Term term;
+
+		Negation(Term term) {
+			this.term = term;
+		}
+
+		@Override
+		int evaluate(int[] locations, int[] state, int[] frame) {
+			return term.evaluate(locations, state, frame) == 0 ? 1 : 0;
+		}
+	}
+
+	private static final class Logical extends Term {
+		private final int operator;
+
+		private final Term first;
+
+		private final Term second;
+
+		Logical(int operator, Term first, Term second) {
+			this.operator = operator;
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		int evaluate(int[] locations, int[] state, int[] frame) {
+			boolean value = first.evaluate(locations, state, frame) != 0;
+			switch (operator) {
+			case LogicalOperator.AND_VALUE:
+				return value && second.evaluate(locations, state, frame) != 0 ? 1 : 0;
+			case LogicalOperator.OR_VALUE:
+				return value || second.evaluate(locations, state, frame) != 0 ? 1 : 0;
+			default:
+				return !value || second.evaluate(locations, state, frame) != 0 ? 1 : 0;
+			}
+		}
+	}
+
+	private static final class Compare extends Term {
+		private final int operator;
+
+		private final Term first;
+
+		private final Term second;
+
+		Compare(int operator, Term first, Term second) {
+			this.operator = operator;
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		int evaluate(int[] locations, int[] state, int[] frame) {
+			int left = first.evaluate(locations, state, frame);
+			int right = second.evaluate(locations, state, frame);
+			switch (operator) {
+			case CompareOperator.EQUAL_VALUE:
+				return left == right ? 1 : 0;
+			case CompareOperator.GREATER_VALUE:
+				return left > right ? 1 : 0;
+			case CompareOperator.GREATER_OR_EQUAL_VALUE:
+				return left >= right ? 1 : 0;
+			case CompareOperator.LESS_VALUE:
+				return left < right ? 1 : 0;
+			case CompareOperator.LESS_OR_EQUAL_VALUE:
+				return left <= right ? 1 : 0;
+			default:
+				return left != right ? 1 : 0;
+			}
+		}
+	}
+
+	private static final class Arithmetic extends Term {
+		private final int operator;
+
+		private final Term first;
+
+		private final Term second;
+
+		Arithmetic(int operator, Term first, Term second) {
+			this.operator = operator;
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		int evaluate(int[] locations, int[] state, int[] frame) {
+			int left = first.evaluate(locations, state, frame);
+			int right = second.evaluate(locations, state, frame);
+			switch (operator) {
+			case ArithmeticOperator.ADD_VALUE:
+				return left + right;
+			case ArithmeticOperator.SUBTRACT_VALUE:
+				return left - right;
+			case ArithmeticOperator.MULTIPLICATE_VALUE:
+				return left * right;
+			case ArithmeticOperator.DIVIDE_VALUE:
+				return ExpressionCompiler.divide(left, right);
+			default:
+				return ExpressionCompiler.modulo(left, right);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,82 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded queue passing states from one thread to another.
+ * With a single producer and a single consumer, offering and polling need no locks:
+ * each side writes its own index and publishes it with an ordered store.
+ */
+final class StateQueue {
+	private final SymbolicState[] buffer;
+
+	private final int mask;
+
+	/**
+	 * The index of the next state to poll, written by the consumer.
+	 */
+	private final AtomicLong head = new AtomicLong();
+
+	/**
+	 * The index of the next state to offer, written by the producer.
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * The head as last read by the producer.
+	 */
+	private long producerHead;
+
+	/**
+	 * The tail as last read by the consumer.
+	 */
+	private long consumerTail;
+
+	/**
+	 * Creates a queue.
+	 * @param capacity the number of states the queue holds, a power of two.
+	 */
+	StateQueue(int capacity) {
+		this.buffer = new SymbolicState[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Adds a state, called by the producer.
+	 * @return whether the state was added, <code>false</code> if the queue is full.
+	 */
+	boolean offer(SymbolicState state) {
+		long index = tail.get();
+		if (index - producerHead == buffer.length) {
+			producerHead = head.get();
+			if (index - producerHead == buffer.length) {
+				return false;
+			}
+		}
+		buffer[(int)index & mask] = state;
+		tail.lazySet(index + 1);
+		return true;
+	}
+
+	/**
+	 * Removes the oldest state, called by the consumer.
+	 * @return the state, or <code>null</code> if the queue is empty.
+	 */
+	SymbolicState poll() {
+		long index = head.get();
+		if (index == consumerTail) {
+			consumerTail = tail.get();
+			if (index == consumerTail) {
+				return null;
+			}
+		}
+		int slot = (int)index & mask;
+		SymbolicState state = buffer[slot];
+		buffer[slot] = null;
+		head.lazySet(index + 1);
+		return state;
+	}
+
+}
@@ -0,0 +1,43 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+/**
+ * The passed list of an exploration: the states found so far, each kept unless a state with the same discrete part
+ * and a larger zone is added.
+ * An approximate passed list may omit states, i.e. take a new state as passed.
+ */
+interface StateStore {
+	/**
+	 * Adds a state unless the zone of a stored state with the same discrete part includes its zone.
+	 * The stored states whose zones are included in the new zone are removed.
+	 * @return whether the state was added.
+	 */
+	boolean add(SymbolicState state);
+
+	/**
+	 * Returns the number of stored states.
+	 */
+	int size();
+
+	/**
+	 * Estimates the bytes taken by the store, including the states.
+	 */
+	long getMemoryUsage();
+
+	/**
+	 * Returns the number of discrete parts per slot of the hash table.
+	 */
+	double getLoadFactor();
+
+	/**
+	 * Estimates the probability that a state was omitted, <code>0</code> for an exact passed list.
+	 */
+	double getOmissionProbability();
+
+	/**
+	 * Releases the memory and files taken by the store.
+	 */
+	void close();
+
+}
@@ -0,0 +1,518 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.uni_paderborn.uppaal.evaluation.EvaluationException;
+import de.uni_paderborn.uppaal.simulation.PackedStateLayout;
+import de.uni_paderborn.uppaal.simulation.ProcessEdge;
+import de.uni_paderborn.uppaal.simulation.SystemInstance;
+import de.uni_paderborn.uppaal.templates.LocationKind;
+import de.uni_paderborn.uppaal.zones.ClockGuard;
+import de.uni_paderborn.uppaal.zones.ClockUpdate;
+import de.uni_paderborn.uppaal.zones.DBM;
+import de.uni_paderborn.uppaal.zones.MaxConstants;
+
+/**
+ * Computes the successors of the states of the zone graph.
+ * The compiled guards, updates and invariants are shared, the buffers belong to a single thread.
+ */
+final class SuccessorGenerator {
+	private static final int COMMITTED = LocationKind.COMMITED_VALUE;
+
+	private static final int URGENT = LocationKind.URGENT_VALUE;
+
+	private final SystemInstance system;
+
+	private final int processCount;
+
+	private final int dim;
+
+	/**
+	 * The guards of the outgoing edges of the locations of the processes.
+	 */
+	private final ClockGuard[][][] guards;
+
+	/**
+	 * The updates of the outgoing edges of the locations of the processes.
+	 */
+	private final ClockUpdate[][][] updates;
+
+	/**
+	 * The invariants of the locations of the processes.
+	 */
+	private final ClockGuard[][] invariants;
+
+	private final boolean urgentChannels;
+
+	private final int[][] frames;
+
+	/**
+	 * The frame of the checked property, grown to the size the property needs.
+	 */
+	private int[] propertyFrame = new int[1];
+
+	private final PackedStateLayout layout;
+
+	private final int[] scratch;
+
+	// The locations and valuations of the explored state and of the state being computed
+
+	private final int[] sourceLocations;
+
+	private final int[] sourceState;
+
+	private final int[] locations;
+
+	private final int[] state;
+
+	/**
+	 * The maximal constants of the clocks in the state being extrapolated.
+	 */
+	private final int[] stateMaxConstants;
+
+	// The enabled edges of the explored state, with their channels and the values of their selections
+
+	private ProcessEdge[] candidates = new ProcessEdge[16];
+
+	private int[] candidateIndices = new int[16];
+
+	private int[] candidateChannels = new int[16];
+
+	private int[] candidateSelections = new int[16];
+
+	private int candidateCount;
+
+	private int[] selectionValues = new int[16];
+
+	private int selectionCount;
+
+	// The enabled transitions, each a sequence of candidates
+
+	private int[] participants = new int[16];
+
+	private int participantCount;
+
+	private int[] transitionStarts = new int[16];
+
+	private int[] transitionLengths = new int[16];
+
+	private int transitionCount;
+
+	// The receivers of a broadcast grouped by process, and the receiver chosen in each group
+
+	private int[] receivers = new int[16];
+
+	private int[] receiverGroups = new int[16];
+
+	private int[] receiverChoices = new int[16];
+
+	private boolean urgentEnabled;
+
+	SuccessorGenerator(SystemInstance system, PackedStateLayout layout, int dim, ClockGuard[][][] guards, ClockUpdate[][][] updates, ClockGuard[][] invariants) {
+		this.system = system;
+		this.layout = layout;
+		this.processCount = system.getProcessCount();
+		this.dim = dim;
+		this.guards = guards;
+		this.updates = updates;
+		this.invariants = invariants;
+		boolean urgent = false;
+		for (int channel = 0; channel < system.getChannelCount(); channel++) {
+			urgent |= system.isUrgent(channel);
+		}
+		this.urgentChannels = urgent;
+		this.frames = new int[processCount][];
+		for (int process = 0; process < processCount; process++) {
+			frames[process] = new int[Math.max(1, system.getLayout(process).getFrameSize())];
+		}
+		this.scratch = new int[dim * dim];
+		this.stateMaxConstants = new int[dim];
+		this.sourceLocations = new int[processCount];
+		this.sourceState = new int[system.getStateSize()];
+		this.locations = new int[processCount];
+		this.state = new int[system.getStateSize()];
+	}
+
+	/**
+	 * Computes the successors of a state, delayed and extrapolated.
+	 * With ample locations, only the enabled transitions of the first process in an ample location are taken
+	 * if there is one and no process is in a committed location.
+	 * @param source the state.
+	 * @param constants the maximal constants of the clocks.
+	 * @param successors the list receiving the successors with non-empty zones.
+	 * @param ampleLocations the locations of the processes whose enabled edges are ample sets, see {@link EdgeIndependence},
+	 * or <code>null</code> to take all transitions.
+	 */
+	void computeSuccessors(SymbolicState source, MaxConstants constants, List<SymbolicState> successors, boolean[][] ampleLocations) {
+		layout.unpack(source.discrete, sourceLocations, sourceState);
+		computeTransitions(sourceLocations, sourceState, source.zone);
+		if (ampleLocations != null) {
+			retainAmple(ampleLocations);
+		}
+		int start = successors.size();
+		for (int transition = 0; transition < transitionCount; transition++) {
+			SymbolicState successor = fire(source, transition);
+			if (successor != null) {
+				successors.add(successor);
+			}
+		}
+		// Delaying may compute the transitions of the successors
+		for (int i = start; i < successors.size(); i++) {
+			delay(successors.get(i), constants);
+		}
+	}
+
+	/**
+	 * Removes the transitions of the processes other than the first one in an ample location with an enabled transition.
+	 */
+	private void retainAmple(boolean[][] ampleLocations) {
+		int ampleProcess = -1;
+		for (int process = 0; process < processCount; process++) {
+			if (system.getLocationKind(process, sourceLocations[process]) == COMMITTED) {
+				return;
+			}
+			if (ampleProcess < 0 && ampleLocations[process][sourceLocations[process]]) {
+				for (int transition = 0; transition < transitionCount && ampleProcess < 0; transition++) {
+					if (candidates[participants[transitionStarts[transition]]].getProcess() == process) {
+						ampleProcess = process;
+					}
+				}
+			}
+		}
+		if (ampleProcess < 0) {
+			return;
+		}
+		// The edges of an ample location do not synchronize, so each transition has a single participant
+		int retained = 0;
+		for (int transition = 0; transition < transitionCount; transition++) {
+			if (candidates[participants[transitionStarts[transition]]].getProcess() == ampleProcess) {
+				transitionStarts[retained] = transitionStarts[transition];
+				transitionLengths[retained] = transitionLengths[transition];
+				retained++;
+			}
+		}
+		transitionCount = retained;
+	}
+
+	/**
+	 * Creates the initial state, with all clocks zero and delayed if time can pass.
+	 */
+	SymbolicState createInitialState(MaxConstants constants) {
+		int[] zone = new int[dim * dim];
+		DBM.init(zone, dim);
+		if (!satisfiesInvariants(system.createLocations(), system.createState(), zone)) {
+			throw new EvaluationException("The initial state violates an invariant", system.getNTA().getSystemDeclarations());
+		}
+		SymbolicState initial = new SymbolicState(layout.pack(system.createLocations(), system.createState()), zone);
+		delay(initial, constants);
+		return initial;
+	}
+
+	/**
+	 * Returns whether a state decides a check, see {@link StatePredicate#decides(int[], int[], int[], boolean, int, int[], int[])}.
+	 */
+	boolean decides(StatePredicate predicate, boolean reachability, SymbolicState state) {
+		layout.unpack(state.discrete, locations, this.state);
+		if (propertyFrame.length < predicate.getFrameSize()) {
+			propertyFrame = new int[predicate.getFrameSize()];
+		}
+		return predicate.decides(locations, this.state, state.zone, reachability, dim, scratch, propertyFrame);
+	}
+
+	/**
+	 * Intersects a zone with the invariants of the locations.
+	 */
+	private boolean satisfiesInvariants(int[] locations, int[] state, int[] zone) {
+		for (int process = 0; process < processCount; process++) {
+			ClockGuard invariant = invariants[process][locations[process]];
+			if (!invariant.holds(state, frames[process]) || !invariant.constrain(zone, dim, state, frames[process])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Lets time pass in a state if possible and extrapolates its zone with the maximal constants of its locations.
+	 */
+	private void delay(SymbolicState successor, MaxConstants constants) {
+		layout.unpack(successor.discrete, locations, state);
+		if (canDelay(successor.zone)) {
+			DBM.up(successor.zone, dim);
+			satisfiesInvariants(locations, state, successor.zone);
+		}
+		constants.get(locations, stateMaxConstants);
+		DBM.extrapolate(successor.zone, dim, stateMaxConstants);
+	}
+
+	/**
+	 * Returns whether time can pass in the unpacked state.
+	 */
+	private boolean canDelay(int[] zone) {
+		for (int process = 0; process < processCount; process++) {
+			int kind = system.getLocationKind(process, locations[process]);
+			if (kind == COMMITTED || kind == URGENT) {
+				return false;
+			}
+		}
+		if (urgentChannels) {
+			computeTransitions(locations, state, zone);
+			return !urgentEnabled;
+		}
+		return true;
+	}
+
+	/**
+	 * Collects the transitions enabled in some valuation of the zone.
+	 */
+	private void computeTransitions(int[] locations, int[] state, int[] zone) {
+		candidateCount = 0;
+		selectionCount = 0;
+		boolean committed = false;
+		for (int process = 0; process < processCount; process++) {
+			int location = locations[process];
+			committed |= system.getLocationKind(process, location) == COMMITTED;
+			ProcessEdge[] outgoing = system.getOutgoing(process, location);
+			for (int i = 0; i < outgoing.length; i++) {
+				addCandidates(outgoing[i], i, guards[process][location][i], state, zone);
+			}
+		}
+
+		participantCount = 0;
+		transitionCount = 0;
+		for (int candidate = 0; candidate < candidateCount; candidate++) {
+			ProcessEdge edge = candidates[candidate];
+			if (edge.getSynchronization() == ProcessEdge.NONE) {
+				addTransition(candidate, -1);
+			}
+			else if (edge.getSynchronization() == ProcessEdge.SEND) {
+				int channel = candidateChannels[candidate];
+				if (system.isBroadcast(channel)) {
+					addBroadcastTransitions(candidate, channel);
+				}
+				else {
+					for (int receiver = 0; receiver < candidateCount; receiver++) {
+						ProcessEdge receiving = candidates[receiver];
+						if (receiving.getProcess() != edge.getProcess() && receiving.getSynchronization() == ProcessEdge.RECEIVE
+								&& candidateChannels[receiver] == channel) {
+							addTransition(candidate, receiver);
+						}
+					}
+				}
+			}
+		}
+
+		if (committed) {
+			retainCommitted(locations);
+		}
+		urgentEnabled = false;
+		for (int transition = 0; transition < transitionCount; transition++) {
+			int channel = candidateChannels[participants[transitionStarts[transition]]];
+			urgentEnabled |= channel >= 0 && system.isUrgent(channel);
+		}
+	}
+
+	/**
+	 * Adds a broadcast transition for each combination of one enabled receiving candidate of each process that can receive.
+	 * The candidates are ordered by process, so the receivers of a process are adjacent.
+	 */
+	private void addBroadcastTransitions(int sender, int channel) {
+		int senderProcess = candidates[sender].getProcess();
+		int receiverCount = 0;
+		int groupCount = 0;
+		int last = -1;
+		for (int receiver = 0; receiver < candidateCount; receiver++) {
+			ProcessEdge receiving = candidates[receiver];
+			if (receiving.getProcess() != senderProcess && receiving.getSynchronization() == ProcessEdge.RECEIVE
+					&& candidateChannels[receiver] == channel) {
+				if (guards[receiving.getProcess()][receiving.getSource()][candidateIndices[receiver]].hasClockConstraints()) {
+					throw new EvaluationException("Receiving edges of broadcast channels must not constrain clocks", receiving.getEdge());
+				}
+				if (receiverCount == receivers.length) {
+					receivers = Arrays.copyOf(receivers, 2 * receiverCount);
+				}
+				if (receiving.getProcess() != last) {
+					if (groupCount + 1 >= receiverGroups.length) {
+						receiverGroups = Arrays.copyOf(receiverGroups, 2 * receiverGroups.length);
+						receiverChoices = Arrays.copyOf(receiverChoices, 2 * receiverChoices.length);
+					}
+					receiverGroups[groupCount] = receiverCount;
+					receiverChoices[groupCount] = receiverCount;
+					groupCount++;
+					last = receiving.getProcess();
+				}
+				receivers[receiverCount++] = receiver;
+			}
+		}
+		receiverGroups[groupCount] = receiverCount;
+		while (true) {
+			addTransition(sender, -1);
+			for (int group = 0; group < groupCount; group++) {
+				addParticipant(receivers[receiverChoices[group]]);
+				transitionLengths[transitionCount - 1]++;
+			}
+			int group = groupCount - 1;
+			while (group >= 0 && receiverChoices[group] == receiverGroups[group + 1] - 1) {
+				receiverChoices[group] = receiverGroups[group];
+				group--;
+			}
+			if (group < 0) {
+				return;
+			}
+			receiverChoices[group]++;
+		}
+	}
+
+	/**
+	 * Adds an edge as a candidate for each combination of values of its selections for which its guard can be satisfied.
+	 */
+	private void addCandidates(ProcessEdge edge, int index, ClockGuard guard, int[] state, int[] zone) {
+		int[] frame = frames[edge.getProcess()];
+		int selections = edge.getSelectionCount();
+		if (selections == 0) {
+			if (isEnabled(guard, state, frame, zone)) {
+				addCandidate(edge, index, state, frame);
+			}
+			return;
+		}
+		for (int i = 0; i < selections; i++) {
+			frame[edge.getSelectionOffset(i)] = edge.getSelectionLowerBound(i);
+		}
+		while (true) {
+			if (isEnabled(guard, state, frame, zone)) {
+				addCandidate(edge, index, state, frame);
+			}
+			int i = selections - 1;
+			while (i >= 0 && frame[edge.getSelectionOffset(i)] == edge.getSelectionUpperBound(i)) {
+				frame[edge.getSelectionOffset(i)] = edge.getSelectionLowerBound(i);
+				i--;
+			}
+			if (i < 0) {
+				return;
+			}
+			frame[edge.getSelectionOffset(i)]++;
+		}
+	}
+
+	private boolean isEnabled(ClockGuard guard, int[] state, int[] frame, int[] zone) {
+		if (!guard.holds(state, frame)) {
+			return false;
+		}
+		if (!guard.hasClockConstraints()) {
+			return true;
+		}
+		System.arraycopy(zone, 0, scratch, 0, scratch.length);
+		return guard.constrain(scratch, dim, state, frame);
+	}
+
+	private void addCandidate(ProcessEdge edge, int index, int[] state, int[] frame) {
+		if (candidateCount == candidates.length) {
+			candidates = Arrays.copyOf(candidates, 2 * candidateCount);
+			candidateIndices = Arrays.copyOf(candidateIndices, 2 * candidateCount);
+			candidateChannels = Arrays.copyOf(candidateChannels, 2 * candidateCount);
+			candidateSelections = Arrays.copyOf(candidateSelections, 2 * candidateCount);
+		}
+		int selections = edge.getSelectionCount();
+		if (selectionCount + selections > selectionValues.length) {
+			selectionValues = Arrays.copyOf(selectionValues, Math.max(selectionCount + selections, 2 * selectionValues.length));
+		}
+		candidates[candidateCount] = edge;
+		candidateIndices[candidateCount] = index;
+		candidateChannels[candidateCount] = edge.getChannel(state, frame);
+		candidateSelections[candidateCount] = selectionCount;
+		for (int i = 0; i < selections; i++) {
+			selectionValues[selectionCount++] = frame[edge.getSelectionOffset(i)];
+		}
+		candidateCount++;
+	}
+
+	/**
+	 * Adds a transition of one or two candidates.
+	 */
+	private void addTransition(int first, int second) {
+		if (transitionCount == transitionStarts.length) {
+			transitionStarts = Arrays.copyOf(transitionStarts, 2 * transitionCount);
+			transitionLengths = Arrays.copyOf(transitionLengths, 2 * transitionCount);
+		}
+		transitionStarts[transitionCount] = participantCount;
+		transitionLengths[transitionCount] = 1;
+		addParticipant(first);
+		if (second >= 0) {
+			addParticipant(second);
+			transitionLengths[transitionCount]++;
+		}
+		transitionCount++;
+	}
+
+	private void addParticipant(int candidate) {
+		if (participantCount == participants.length) {
+			participants = Arrays.copyOf(participants, 2 * participantCount);
+		}
+		participants[participantCount++] = candidate;
+	}
+
+	/**
+	 * Removes the transitions in which no process in a committed location takes part.
+	 */
+	private void retainCommitted(int[] locations) {
+		int retained = 0;
+		for (int transition = 0; transition < transitionCount; transition++) {
+			boolean involved = false;
+			for (int i = 0; i < transitionLengths[transition]; i++) {
+				int process = candidates[participants[transitionStarts[transition] + i]].getProcess();
+				involved |= system.getLocationKind(process, locations[process]) == COMMITTED;
+			}
+			if (involved) {
+				transitionStarts[retained] = transitionStarts[transition];
+				transitionLengths[retained] = transitionLengths[transition];
+				retained++;
+			}
+		}
+		transitionCount = retained;
+	}
+
+	/**
+	 * Computes the successor of a state by a transition, before time passes.
+	 * @return the successor, or <code>null</code> if its zone is empty.
+	 */
+	private SymbolicState fire(SymbolicState source, int transition) {
+		int start = transitionStarts[transition];
+		int length = transitionLengths[transition];
+		int[] zone = source.zone.clone();
+		for (int i = 0; i < length; i++) {
+			int candidate = participants[start + i];
+			ProcessEdge edge = candidates[candidate];
+			int[] frame = loadSelections(candidate);
+			if (!guards[edge.getProcess()][edge.getSource()][candidateIndices[candidate]].constrain(zone, dim, sourceState, frame)) {
+				return null;
+			}
+		}
+		System.arraycopy(sourceLocations, 0, locations, 0, processCount);
+		System.arraycopy(sourceState, 0, state, 0, state.length);
+		for (int i = 0; i < length; i++) {
+			int candidate = participants[start + i];
+			ProcessEdge edge = candidates[candidate];
+			int[] frame = loadSelections(candidate);
+			updates[edge.getProcess()][edge.getSource()][candidateIndices[candidate]].apply(state, frame, zone, dim);
+			locations[edge.getProcess()] = edge.getTarget();
+		}
+		long[] discrete = layout.pack(locations, state);
+		return satisfiesInvariants(locations, state, zone) ? new SymbolicState(discrete, zone) : null;
+	}
+
+	/**
+	 * Restores the values of the selections of a candidate in the frame of its process.
+	 */
+	private int[] loadSelections(int candidate) {
+		ProcessEdge edge = candidates[candidate];
+		int[] frame = frames[edge.getProcess()];
+		for (int j = 0; j < edge.getSelectionCount(); j++) {
+			frame[edge.getSelectionOffset(j)] = selectionValues[candidateSelections[candidate] + j];
+		}
+		return frame;
+	}
+
+}
@@ -0,0 +1,44 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+import java.util.Arrays;
+
+/**
+ * A state of the zone graph: the packed locations of the processes and valuation of the data variables, and a zone of the clocks.
+ * The arrays are not modified once the state is created.
+ */
+final class SymbolicState {
+	/**
+	 * The locations and the valuation, packed by a {@link de.uni_paderborn.uppaal.simulation.PackedStateLayout}.
+	 */
+	final long[] discrete;
+
+	final int[] zone;
+
+	/**
+	 * The hash code of the discrete part.
+	 */
+	final int hash;
+
+	SymbolicState(long[] discrete, int[] zone) {
+		this.discrete = discrete;
+		this.zone = zone;
+		this.hash = Arrays.hashCode(discrete);
+	}
+
+	/**
+	 * Returns whether another state has the same locations and valuation.
+	 */
+	boolean hasDiscretePart(SymbolicState other) {
+		return hash == other.hash && Arrays.equals(discrete, other.discrete);
+	}
+
+	/**
+	 * Estimates the bytes taken by a state on a 64-bit virtual machine with compressed references.
+	 */
+	static long getMemoryUsage(int wordCount, int dim) {
+		return 24 + (16 + 8L * wordCount) + ((16 + 4L * dim * dim + 7) & ~7L);
+	}
+
+}
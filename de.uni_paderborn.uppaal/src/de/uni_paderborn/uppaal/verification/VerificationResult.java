@@ -0,0 +1,231 @@
+/**
+ */
+package de.uni_paderborn.uppaal.verification;
+
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.serialization.PathQuantifier;
+import de.uni_paderborn.uppaal.zones.DBM;
+
+/**
+ * The outcome of checking a property, together with statistics of the exploration.
+ */
+public final class VerificationResult {
+	private final PathQuantifier quantifier;
+
+	private final Expression property;
+
+	private final boolean satisfied;
+
+	// The state deciding the result, null if the whole state space was explored
+
+	private final int[] witnessLocations;
+
+	private final int[] witnessState;
+
+	private final int[] witnessZone;
+
+	private final int dim;
+
+	private final long exploredStates;
+
+	private final long storedStates;
+
+	private final long successors;
+
+	private final long maxWaitingStates;
+
+	private final long time;
+
+	private final long storeMemory;
+
+	private final double loadFactor;
+
+	private final double omissionProbability;
+
+	private final long peakHeapMemory;
+
+	VerificationResult(PathQuantifier quantifier, Expression property, boolean satisfied, int[] witnessLocations, int[] witnessState, int[] witnessZone, int dim,
+			long exploredStates, long storedStates, long successors, long maxWaitingStates, long time, long storeMemory, double loadFactor,
+			double omissionProbability, long peakHeapMemory) {
+		this.quantifier = quantifier;
+		this.property = property;
+		this.satisfied = satisfied;
+		this.witnessLocations = witnessLocations;
+		this.witnessState = witnessState;
+		this.witnessZone = witnessZone;
+		this.dim = dim;
+		this.exploredStates = exploredStates;
+		this.storedStates = storedStates;
+		this.successors = successors;
+		this.maxWaitingStates = maxWaitingStates;
+		this.time = time;
+		this.storeMemory = storeMemory;
+		this.loadFactor = loadFactor;
+		this.omissionProbability = omissionProbability;
+		this.peakHeapMemory = peakHeapMemory;
+	}
+
+	/**
+	 * Returns the path quantifier of the checked property.
+	 * @return the quantifier.
+	 */
+	public PathQuantifier getQuantifier() {
+		return quantifier;
+	}
+
+	/**
+	 * Returns the checked state property.
+	 * @return the property.
+	 */
+	public Expression getProperty() {
+		return property;
+	}
+
+	/**
+	 * Returns whether the system satisfies the property.
+	 * @return whether the property holds.
+	 */
+	public boolean isSatisfied() {
+		return satisfied;
+	}
+
+	/**
+	 * Returns whether a state decided the result, i.e. a state satisfying an <code>E&lt;&gt;</code> property
+	 * or a state violating an <code>A[]</code> property was found.
+	 * @return whether there is a witness.
+	 */
+	public boolean hasWitness() {
+		return witnessLocations != null;
+	}
+
+	/**
+	 * Returns the locations of the state deciding the result.
+	 * @return the indices of the locations of the processes, or <code>null</code> if there is no witness.
+	 */
+	public int[] getWitnessLocations() {
+		return witnessLocations == null ? null : witnessLocations.clone();
+	}
+
+	/**
+	 * Returns the valuation of the data variables of the state deciding the result.
+	 * @return the valuation, or <code>null</code> if there is no witness.
+	 */
+	public int[] getWitnessState() {
+		return witnessState == null ? null : witnessState.clone();
+	}
+
+	/**
+	 * Returns the zone of the state deciding the result.
+	 * @return the closed matrix, see {@link DBM}, or <code>null</code> if there is no witness.
+	 */
+	public int[] getWitnessZone() {
+		return witnessZone == null ? null : witnessZone.clone();
+	}
+
+	/**
+	 * Returns the dimension of the zones, i.e. the number of clocks plus the reference clock.
+	 * @return the dimension.
+	 */
+	public int getDimension() {
+		return dim;
+	}
+
+	/**
+	 * Returns the number of states whose successors were computed.
+	 * @return the number of explored states.
+	 */
+	public long getExploredStateCount() {
+		return exploredStates;
+	}
+
+	/**
+	 * Returns the number of states in the passed list at the end of the exploration.
+	 * @return the number of stored states.
+	 */
+	public long getStoredStateCount() {
+		return storedStates;
+	}
+
+	/**
+	 * Returns the number of successors computed, including those covered by stored states.
+	 * @return the number of successors.
+	 */
+	public long getSuccessorCount() {
+		return successors;
+	}
+
+	/**
+	 * Returns the largest number of states waiting to be explored.
+	 * @return the maximal length of the waiting list.
+	 */
+	public long getMaxWaitingStateCount() {
+		return maxWaitingStates;
+	}
+
+	/**
+	 * Returns the time spent exploring.
+	 * @return the time in nanoseconds.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Returns the number of states explored per second.
+	 * @return the throughput.
+	 */
+	public double getStatesPerSecond() {
+		return time == 0 ? 0 : exploredStates * 1e9 / time;
+	}
+
+	/**
+	 * Returns an estimate of the memory taken by the stored states.
+	 * @return the number of bytes.
+	 */
+	public long getStoreMemory() {
+		return storeMemory;
+	}
+
+	/**
+	 * Returns the memory taken per stored state.
+	 * @return the number of bytes of the store divided by the number of stored states.
+	 */
+	public double getBytesPerState() {
+		return storedStates == 0 ? 0 : (double)storeMemory / storedStates;
+	}
+
+	/**
+	 * Returns the load factor of the hash table of the passed list at the end of the exploration.
+	 * @return the number of discrete parts per slot, averaged over the partitions of a parallel exploration.
+	 */
+	public double getLoadFactor() {
+		return loadFactor;
+	}
+
+	/**
+	 * Returns an estimate of the probability that an approximate passed list omitted a reachable state,
+	 * see {@link ReachabilityChecker#setStateStorage(ReachabilityChecker.StateStorage)}.
+	 * @return the probability, <code>0</code> for an exact passed list.
+	 */
+	public double getOmissionProbability() {
+		return omissionProbability;
+	}
+
+	/**
+	 * Returns the largest heap usage sampled during the exploration.
+	 * @return the number of bytes, including garbage not yet collected.
+	 */
+	public long getPeakHeapMemory() {
+		return peakHeapMemory;
+	}
+
+	@Override
+	public String toString() {
+		return quantifier + " " + (satisfied ? "satisfied" : "not satisfied") + ": " + exploredStates + " states explored, "
+				+ storedStates + " stored, " + successors + " successors in " + time / 1000000 + " ms ("
+				+ Math.round(getStatesPerSecond()) + " states/s), store " + storeMemory / 1024 + " KiB ("
+				+ Math.round(getBytesPerState()) + " B/state, load " + Math.round(loadFactor * 100) / 100.0 + "), peak heap "
+				+ peakHeapMemory / (1024 * 1024) + " MiB" + (omissionProbability > 0 ? ", omission probability " + omissionProbability : "");
+	}
+
+}
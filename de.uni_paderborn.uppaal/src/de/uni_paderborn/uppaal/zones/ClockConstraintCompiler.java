@@ -0,0 +1,497 @@
+/**
+ */
+package de.uni_paderborn.uppaal.zones;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+
+import de.uni_paderborn.uppaal.declarations.ClockVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.DataVariableDeclaration;
+import de.uni_paderborn.uppaal.declarations.DataVariablePrefix;
+import de.uni_paderborn.uppaal.declarations.Variable;
+import de.uni_paderborn.uppaal.evaluation.CompiledExpression;
+import de.uni_paderborn.uppaal.evaluation.EvaluationException;
+import de.uni_paderborn.uppaal.evaluation.ExpressionCompiler;
+import de.uni_paderborn.uppaal.evaluation.ExpressionEvaluator;
+import de.uni_paderborn.uppaal.evaluation.SlotLayout;
+import de.uni_paderborn.uppaal.evaluation.VariableSlot;
+import de.uni_paderborn.uppaal.expressions.ArithmeticExpression;
+import de.uni_paderborn.uppaal.expressions.ArithmeticOperator;
+import de.uni_paderborn.uppaal.expressions.AssignmentExpression;
+import de.uni_paderborn.uppaal.expressions.AssignmentOperator;
+import de.uni_paderborn.uppaal.expressions.CompareExpression;
+import de.uni_paderborn.uppaal.expressions.CompareOperator;
+import de.uni_paderborn.uppaal.expressions.Expression;
+import de.uni_paderborn.uppaal.expressions.FunctionCallExpression;
+import de.uni_paderborn.uppaal.expressions.IdentifierExpression;
+import de.uni_paderborn.uppaal.expressions.LiteralExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalExpression;
+import de.uni_paderborn.uppaal.expressions.LogicalOperator;
+import de.uni_paderborn.uppaal.expressions.MinusExpression;
+import de.uni_paderborn.uppaal.expressions.ScopedIdentifierExpression;
+import de.uni_paderborn.uppaal.simulation.SystemInstance;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.Location;
+
+/**
+ * Splits guards and invariants of a process into conditions on data variables and clock constraints.
+ * <p>
+ * Clock constraints are comparisons of a clock or a difference of two clocks with an expression over data variables,
+ * combined with <code>&amp;&amp;</code>.
+ * Disjunctions of clock constraints and <code>!=</code> on clocks describe non-convex zones and are rejected.
+ * </p>
+ */
+public class ClockConstraintCompiler {
+	private final SlotLayout layout;
+
+	private final ExpressionCompiler compiler;
+
+	private final int[] clockIndices;
+
+	private static final CompiledExpression ZERO = new CompiledExpression() {
+		@Override
+		public int evaluate(int[] state, int[] frame) {
+			return 0;
+		}
+	};
+
+	/**
+	 * Creates a compiler.
+	 * @param layout the layout of the process.
+	 * @param compiler the compiler of the process, compiling the conditions and constants.
+	 * @param clockIndices the indices of the clocks in a DBM by their slots in the state, see {@link #createClockIndices(SystemInstance)}.
+	 */
+	public ClockConstraintCompiler(SlotLayout layout, ExpressionCompiler compiler, int[] clockIndices) {
+		this.layout = layout;
+		this.compiler = compiler;
+		this.clockIndices = clockIndices;
+	}
+
+	/**
+	 * Maps the clocks of a system to the indices of a DBM, starting at <code>1</code> after the reference clock.
+	 * @param system the system.
+	 * @return the indices of the clocks by their slots in the state, <code>0</code> for slots of data variables.
+	 */
+	public static int[] createClockIndices(SystemInstance system) {
+		int[] clockIndices = new int[system.getStateSize()];
+		int[] clocks = system.getClocks();
+		for (int i = 0; i < clocks.length; i++) {
+			clockIndices[clocks[i]] = i + 1;
+		}
+		return clockIndices;
+	}
+
+	/**
+	 * Returns the dimension of the DBMs of a system, i.e. the number of clocks plus the reference clock.
+	 * @param system the system.
+	 * @return the dimension.
+	 */
+	public static int getDimension(SystemInstance system) {
+		return system.getClocks().length + 1;
+	}
+
+	/**
+	 * Computes the maximal constants each clock is compared to in the guards and invariants of a system.
+	 * @param system the system.
+	 * @return the maximal constants by the indices of the DBM, <code>0</code> for the reference clock.
+	 * @throws EvaluationException if a constant of a clock constraint cannot be bounded.
+	 */
+	public static int[] computeMaxConstants(SystemInstance system) {
+		int[] clockIndices = createClockIndices(system);
+		int[] maxConstants = new int[getDimension(system)];
+		int[] state = system.createState();
+		for (int process = 0; process < system.getProcessCount(); process++) {
+			ClockConstraintCompiler compiler = new ClockConstraintCompiler(system.getLayout(process), system.getCompiler(process), clockIndices);
+			for (Location location : system.getTemplate(process).getLocation()) {
+				compiler.addMaxConstants(location.getInvariant(), state, maxConstants);
+			}
+			for (Edge edge : system.getTemplate(process).getEdge()) {
+				compiler.addMaxConstants(edge.getGuard(), state, maxConstants);
+			}
+		}
+		return maxConstants;
+	}
+
+	/**
+	 * Returns whether an expression refers to a clock.
+	 * @param expression the expression.
+	 * @return whether the expression contains an identifier of a clock.
+	 */
+	public static boolean containsClock(Expression expression) {
+		if (isClock(expression)) {
+			return true;
+		}
+		for (Iterator<EObject> iterator = expression.eAllContents(); iterator.hasNext();) {
+			if (isClock(iterator.next())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isClock(EObject object) {
+		if (!(object instanceof IdentifierExpression)) {
+			return false;
+		}
+		Object identifier = ((IdentifierExpression)object).getIdentifier();
+		return identifier instanceof Variable && ((Variable)identifier).getContainer() instanceof ClockVariableDeclaration;
+	}
+
+	/**
+	 * Compiles a guard or invariant.
+	 * @param condition the condition, may be <code>null</code>.
+	 * @return the guard, {@link ClockGuard#TRUE} for <code>null</code>.
+	 * @throws EvaluationException if the condition is not a conjunction of clock constraints and conditions on data variables.
+	 */
+	public ClockGuard compile(Expression condition) {
+		if (condition == null) {
+			return ClockGuard.TRUE;
+		}
+		List<Expression> conditions = new ArrayList<Expression>();
+		List<CompareExpression> constraints = new ArrayList<CompareExpression>();
+		split(condition, conditions, constraints);
+		CompiledExpression[] compiledConditions = new CompiledExpression[conditions.size()];
+		for (int i = 0; i < compiledConditions.length; i++) {
+			compiledConditions[i] = compiler.compile(conditions.get(i));
+		}
+		List<ClockTerm> firstClocks = new ArrayList<ClockTerm>();
+		List<ClockTerm> secondClocks = new ArrayList<ClockTerm>();
+		List<CompiledExpression> constants = new ArrayList<CompiledExpression>();
+		List<Boolean> strict = new ArrayList<Boolean>();
+		List<Boolean> lower = new ArrayList<Boolean>();
+		for (CompareExpression comparison : constraints) {
+			Constraint constraint = analyze(comparison);
+			ClockTerm first = createTerm(constraint.first);
+			ClockTerm second = constraint.second == null ? null : createTerm(constraint.second);
+			CompiledExpression constant = constraint.constant == null ? ZERO : compiler.compile(constraint.constant);
+			int operator = constraint.operator;
+			// x - y == c is x - y <= c && x - y >= c
+			if (operator != CompareOperator.GREATER_VALUE && operator != CompareOperator.GREATER_OR_EQUAL_VALUE) {
+				firstClocks.add(first);
+				secondClocks.add(second);
+				constants.add(constant);
+				strict.add(operator == CompareOperator.LESS_VALUE);
+				lower.add(false);
+			}
+			if (operator != CompareOperator.LESS_VALUE && operator != CompareOperator.LESS_OR_EQUAL_VALUE) {
+				firstClocks.add(first);
+				secondClocks.add(second);
+				constants.add(constant);
+				strict.add(operator == CompareOperator.GREATER_VALUE);
+				lower.add(true);
+			}
+		}
+		int count = firstClocks.size();
+		boolean[] strictFlags = new boolean[count];
+		boolean[] lowerFlags = new boolean[count];
+		for (int i = 0; i < count; i++) {
+			strictFlags[i] = strict.get(i);
+			lowerFlags[i] = lower.get(i);
+		}
+		return new ClockGuard(compiledConditions, firstClocks.toArray(new ClockTerm[count]), secondClocks.toArray(new ClockTerm[count]),
+				constants.toArray(new CompiledExpression[count]), strictFlags, lowerFlags);
+	}
+
+	/**
+	 * Compiles an update.
+	 * @param update the assignments, evaluated in order.
+	 * @return the update, {@link ClockUpdate#EMPTY} if there are no assignments.
+	 * @throws EvaluationException if a clock is modified other than by assigning an expression over data variables.
+	 */
+	public ClockUpdate compileUpdate(List<Expression> update) {
+		if (update.isEmpty()) {
+			return ClockUpdate.EMPTY;
+		}
+		List<CompiledExpression> steps = new ArrayList<CompiledExpression>();
+		List<ClockTerm> clocks = new ArrayList<ClockTerm>();
+		List<Expression> assignments = new ArrayList<Expression>();
+		for (Expression expression : update) {
+			if (!containsClock(expression)) {
+				assignments.add(expression);
+				continue;
+			}
+			if (!(expression instanceof AssignmentExpression)
+					|| ((AssignmentExpression)expression).getOperator() != AssignmentOperator.EQUAL
+					|| !isClock(((AssignmentExpression)expression).getFirstExpr())
+					|| containsClock(((AssignmentExpression)expression).getSecondExpr())) {
+				throw new EvaluationException("Unsupported clock update", expression);
+			}
+			if (!assignments.isEmpty()) {
+				steps.add(compiler.compile(new ArrayList<Expression>(assignments)));
+				clocks.add(null);
+				assignments.clear();
+			}
+			steps.add(compiler.compile(((AssignmentExpression)expression).getSecondExpr()));
+			clocks.add(createTerm((IdentifierExpression)((AssignmentExpression)expression).getFirstExpr()));
+		}
+		if (!assignments.isEmpty()) {
+			steps.add(compiler.compile(assignments));
+			clocks.add(null);
+		}
+		return new ClockUpdate(steps.toArray(new CompiledExpression[steps.size()]), clocks.toArray(new ClockTerm[clocks.size()]));
+	}
+
+	/**
+	 * Raises the maximal constants of the clocks compared in a guard or invariant.
+	 * Comparisons of clocks are considered wherever they occur in the condition.
+	 * The constants are used for extrapolation, which is unsound with constraints on differences of clocks,
+	 * see {@link DBM#extrapolate(int[], int, int[])}, so such constraints are rejected.
+	 * @param condition the condition, may be <code>null</code>.
+	 * @param state the initial state, giving the values of constants.
+	 * @param maxConstants the maximal constants by the indices of the DBM.
+	 * @throws EvaluationException if a constant of a clock constraint cannot be bounded or a constraint compares two clocks.
+	 */
+	public void addMaxConstants(Expression condition, int[] state, int[] maxConstants) {
+		if (condition == null) {
+			return;
+		}
+		List<CompareExpression> comparisons = new ArrayList<CompareExpression>();
+		if (condition instanceof CompareExpression) {
+			comparisons.add((CompareExpression)condition);
+		}
+		for (Iterator<EObject> iterator = condition.eAllContents(); iterator.hasNext();) {
+			EObject object = iterator.next();
+			if (object instanceof CompareExpression) {
+				comparisons.add((CompareExpression)object);
+			}
+		}
+		ExpressionEvaluator evaluator = new ExpressionEvaluator(layout);
+		for (CompareExpression comparison : comparisons) {
+			if (!containsClock(comparison)) {
+				continue;
+			}
+			Constraint constraint = analyze(comparison);
+			if (constraint.second != null) {
+				throw new EvaluationException("Constraints on differences of clocks are not supported by the extrapolation", comparison);
+			}
+			int max = constraint.constant == null ? 0 : getMaxValue(constraint.constant, evaluator, state);
+			raise(createTerm(constraint.first), max, maxConstants);
+		}
+	}
+
+	/**
+	 * Marks the clocks an expression or update refers to.
+	 * @param object the expression or the container of expressions.
+	 * @param clocks the flags by the indices of the DBM.
+	 */
+	public void addClocks(EObject object, boolean[] clocks) {
+		if (object == null) {
+			return;
+		}
+		List<EObject> objects = new ArrayList<EObject>();
+		objects.add(object);
+		for (Iterator<EObject> iterator = object.eAllContents(); iterator.hasNext();) {
+			objects.add(iterator.next());
+		}
+		for (EObject element : objects) {
+			if (isClock(element) && !(element.eContainer() instanceof ScopedIdentifierExpression)) {
+				ClockTerm term = createTerm((IdentifierExpression)element);
+				int first = term.getFirstIndex();
+				for (int i = first; i < first + term.getIndexCount(); i++) {
+					clocks[i] = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Marks the clocks an update resets whenever it is applied, i.e. clocks assigned without array subscripts.
+	 * @param update the assignments.
+	 * @param clocks the flags by the indices of the DBM.
+	 */
+	public void addResetClocks(List<Expression> update, boolean[] clocks) {
+		for (Expression expression : update) {
+			if (expression instanceof AssignmentExpression && isClock(((AssignmentExpression)expression).getFirstExpr())
+					&& ((IdentifierExpression)((AssignmentExpression)expression).getFirstExpr()).getIndex().isEmpty()) {
+				clocks[createTerm((IdentifierExpression)((AssignmentExpression)expression).getFirstExpr()).getFirstIndex()] = true;
+			}
+		}
+	}
+
+	private static void raise(ClockTerm term, int max, int[] maxConstants) {
+		int first = term.getFirstIndex();
+		for (int i = first; i < first + term.getIndexCount(); i++) {
+			maxConstants[i] = Math.max(maxConstants[i], max);
+		}
+	}
+
+	/**
+	 * Returns an upper bound of the absolute value of an expression.
+	 */
+	private int getMaxValue(Expression expression, ExpressionEvaluator evaluator, int[] state) {
+		if (isConstant(expression)) {
+			return Math.abs(evaluator.evaluate(expression, state));
+		}
+		if (expression instanceof IdentifierExpression) {
+			Object identifier = ((IdentifierExpression)expression).getIdentifier();
+			VariableSlot slot = identifier instanceof Variable ? layout.getSlot((Variable)identifier) : null;
+			if (slot != null && slot.getKind() != VariableSlot.Kind.CHANNEL) {
+				return Math.max(Math.abs(slot.getLowerBound()), Math.abs(slot.getUpperBound()));
+			}
+		}
+		if (expression instanceof MinusExpression) {
+			return getMaxValue(((MinusExpression)expression).getInvertedExpression(), evaluator, state);
+		}
+		if (expression instanceof ArithmeticExpression) {
+			ArithmeticExpression arithmetic = (ArithmeticExpression)expression;
+			long first = getMaxValue(arithmetic.getFirstExpr(), evaluator, state);
+			long second = getMaxValue(arithmetic.getSecondExpr(), evaluator, state);
+			switch (arithmetic.getOperator().getValue()) {
+			case ArithmeticOperator.ADD_VALUE:
+			case ArithmeticOperator.SUBTRACT_VALUE:
+				return (int)Math.min(first + second, DBM.MAX_CONSTANT);
+			case ArithmeticOperator.MULTIPLICATE_VALUE:
+				return (int)Math.min(first * second, DBM.MAX_CONSTANT);
+			case ArithmeticOperator.DIVIDE_VALUE:
+				return (int)first;
+			case ArithmeticOperator.MODULO_VALUE:
+				return (int)Math.min(first, second);
+			}
+		}
+		throw new EvaluationException("Cannot bound the constant of a clock constraint", expression);
+	}
+
+	/**
+	 * Returns whether an expression only refers to constants.
+	 */
+	private static boolean isConstant(Expression expression) {
+		if (expression instanceof LiteralExpression) {
+			return true;
+		}
+		List<EObject> objects = new ArrayList<EObject>();
+		objects.add(expression);
+		for (Iterator<EObject> iterator = expression.eAllContents(); iterator.hasNext();) {
+			objects.add(iterator.next());
+		}
+		for (EObject object : objects) {
+			if (object instanceof FunctionCallExpression) {
+				return false;
+			}
+			if (object instanceof IdentifierExpression) {
+				Object identifier = ((IdentifierExpression)object).getIdentifier();
+				if (!(identifier instanceof Variable)
+						|| !(((Variable)identifier).getContainer() instanceof DataVariableDeclaration)
+						|| ((DataVariableDeclaration)((Variable)identifier).getContainer()).getPrefix() != DataVariablePrefix.CONST) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Splits a conjunction into conditions on data variables and clock constraints.
+	 */
+	private static void split(Expression expression, List<Expression> conditions, List<CompareExpression> constraints) {
+		if (!containsClock(expression)) {
+			conditions.add(expression);
+		}
+		else if (expression instanceof LogicalExpression && ((LogicalExpression)expression).getOperator() == LogicalOperator.AND) {
+			split(((LogicalExpression)expression).getFirstExpr(), conditions, constraints);
+			split(((LogicalExpression)expression).getSecondExpr(), conditions, constraints);
+		}
+		else if (expression instanceof CompareExpression) {
+			constraints.add((CompareExpression)expression);
+		}
+		else {
+			throw new EvaluationException("Unsupported clock constraint", expression);
+		}
+	}
+
+	/**
+	 * A clock constraint normalized to <code>first - second operator constant</code>.
+	 */
+	private static final class Constraint {
+		IdentifierExpression first;
+
+		IdentifierExpression second;
+
+		int operator;
+
+		/**
+		 * The constant, <code>null</code> for zero.
+		 */
+		Expression constant;
+	}
+
+	private static Constraint analyze(CompareExpression comparison) {
+		Constraint constraint = new Constraint();
+		Expression left = comparison.getFirstExpr();
+		Expression right = comparison.getSecondExpr();
+		int operator = comparison.getOperator().getValue();
+		if (setDifference(constraint, left) && !containsClock(right)) {
+			constraint.operator = operator;
+			constraint.constant = right;
+		}
+		else if (setDifference(constraint, right) && !containsClock(left)) {
+			constraint.operator = flip(operator);
+			constraint.constant = left;
+		}
+		else if (isClock(left) && isClock(right)) {
+			constraint.first = (IdentifierExpression)left;
+			constraint.second = (IdentifierExpression)right;
+			constraint.operator = operator;
+		}
+		else {
+			throw new EvaluationException("Unsupported clock constraint", comparison);
+		}
+		if (operator == CompareOperator.UNEQUAL_VALUE) {
+			throw new EvaluationException("Clock constraint describes a non-convex zone", comparison);
+		}
+		return constraint;
+	}
+
+	/**
+	 * Matches a clock or a difference of two clocks.
+	 */
+	private static boolean setDifference(Constraint constraint, Expression expression) {
+		if (isClock(expression)) {
+			constraint.first = (IdentifierExpression)expression;
+			constraint.second = null;
+			return true;
+		}
+		if (expression instanceof ArithmeticExpression
+				&& ((ArithmeticExpression)expression).getOperator() == ArithmeticOperator.SUBTRACT
+				&& isClock(((ArithmeticExpression)expression).getFirstExpr())
+				&& isClock(((ArithmeticExpression)expression).getSecondExpr())) {
+			constraint.first = (IdentifierExpression)((ArithmeticExpression)expression).getFirstExpr();
+			constraint.second = (IdentifierExpression)((ArithmeticExpression)expression).getSecondExpr();
+			return true;
+		}
+		return false;
+	}
+
+	private static int flip(int operator) {
+		switch (operator) {
+		case CompareOperator.LESS_VALUE:
+			return CompareOperator.GREATER_VALUE;
+		case CompareOperator.LESS_OR_EQUAL_VALUE:
+			return CompareOperator.GREATER_OR_EQUAL_VALUE;
+		case CompareOperator.GREATER_VALUE:
+			return CompareOperator.LESS_VALUE;
+		case CompareOperator.GREATER_OR_EQUAL_VALUE:
+			return CompareOperator.LESS_OR_EQUAL_VALUE;
+		default:
+			return operator;
+		}
+	}
+
+	private ClockTerm createTerm(IdentifierExpression clock) {
+		if (clock instanceof ScopedIdentifierExpression) {
+			throw new EvaluationException("Scoped clocks are not supported", clock);
+		}
+		VariableSlot slot = layout.getSlot((Variable)clock.getIdentifier());
+		if (slot == null || clock.getIndex().size() != slot.getDimensionCount()) {
+			throw new EvaluationException("Unknown clock", clock);
+		}
+		CompiledExpression[] indices = new CompiledExpression[clock.getIndex().size()];
+		for (int i = 0; i < indices.length; i++) {
+			indices[i] = compiler.compile(clock.getIndex().get(i));
+		}
+		return new ClockTerm(slot, indices, clockIndices);
+	}
+
+}
@@ -0,0 +1,137 @@
+/**
+ */
+package de.uni_paderborn.uppaal.zones;
+
+import de.uni_paderborn.uppaal.evaluation.CompiledExpression;
+import de.uni_paderborn.uppaal.evaluation.EvaluationException;
+
+/**
+ * A guard or invariant split into a condition on the data variables and a conjunction of clock constraints,
+ * as created by a {@link ClockConstraintCompiler}.
+ * <p>
+ * Each clock constraint has the form <code>x - y &lt; c</code> or <code>x - y &lt;= c</code>,
+ * where <code>y</code> may be the reference clock and <code>c</code> is an expression over data variables.
+ * </p>
+ */
+public final class ClockGuard {
+	/**
+	 * The guard without conditions.
+	 */
+	public static final ClockGuard TRUE = new ClockGuard(new CompiledExpression[0], new ClockTerm[0], new ClockTerm[0], new CompiledExpression[0], new boolean[0], new boolean[0]);
+
+	private final CompiledExpression[] conditions;
+
+	private final ClockTerm[] firstClocks;
+
+	/**
+	 * The second clocks, <code>null</code> for the reference clock.
+	 */
+	private final ClockTerm[] secondClocks;
+
+	private final CompiledExpression[] constants;
+
+	private final boolean[] strict;
+
+	/**
+	 * Whether the constraints are negated, i.e. lower bounds <code>x - y &gt; c</code> or <code>x - y &gt;= c</code>.
+	 */
+	private final boolean[] lower;
+
+	ClockGuard(CompiledExpression[] conditions, ClockTerm[] firstClocks, ClockTerm[] secondClocks, CompiledExpression[] constants, boolean[] strict, boolean[] lower) {
+		this.conditions = conditions;
+		this.firstClocks = firstClocks;
+		this.secondClocks = secondClocks;
+		this.constants = constants;
+		this.strict = strict;
+		this.lower = lower;
+	}
+
+	/**
+	 * Returns whether the guard has clock constraints.
+	 * @return whether the guard constrains clocks.
+	 */
+	public boolean hasClockConstraints() {
+		return firstClocks.length > 0;
+	}
+
+	/**
+	 * Returns the number of clock constraints.
+	 * @return the number of constraints.
+	 */
+	public int getConstraintCount() {
+		return firstClocks.length;
+	}
+
+	/**
+	 * Evaluates the conditions on the data variables.
+	 * @param state the valuation of the data variables.
+	 * @param frame the top-level frame, holding the values of selections.
+	 * @return whether the conditions hold.
+	 * @throws EvaluationException if a condition cannot be evaluated.
+	 */
+	public boolean holds(int[] state, int[] frame) {
+		for (CompiledExpression condition : conditions) {
+			if (condition.evaluate(state, frame) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Intersects a zone with the clock constraints.
+	 * @param dbm the closed matrix.
+	 * @param dim the dimension.
+	 * @param state the valuation of the data variables, giving the constants of the constraints.
+	 * @param frame the top-level frame, holding the values of selections.
+	 * @return whether the zone is not empty.
+	 * @throws EvaluationException if a constant or an index of a clock array cannot be evaluated.
+	 */
+	public boolean constrain(int[] dbm, int dim, int[] state, int[] frame) {
+		for (int k = 0; k < firstClocks.length; k++) {
+			int first = firstClocks[k].getIndex(state, frame);
+			int second = secondClocks[k] == null ? 0 : secondClocks[k].getIndex(state, frame);
+			int constant = getConstant(k, state, frame);
+			boolean satisfiable = lower[k]
+					? DBM.constrain(dbm, dim, second, first, DBM.bound(-constant, strict[k]))
+					: DBM.constrain(dbm, dim, first, second, DBM.bound(constant, strict[k]));
+			if (!satisfiable) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether all valuations of a zone satisfy the clock constraints.
+	 * @param dbm the closed matrix.
+	 * @param dim the dimension.
+	 * @param state the valuation of the data variables, giving the constants of the constraints.
+	 * @param frame the top-level frame, holding the values of selections.
+	 * @return whether the zone is included in the constraints.
+	 * @throws EvaluationException if a constant or an index of a clock array cannot be evaluated.
+	 */
+	public boolean contains(int[] dbm, int dim, int[] state, int[] frame) {
+		for (int k = 0; k < firstClocks.length; k++) {
+			int first = firstClocks[k].getIndex(state, frame);
+			int second = secondClocks[k] == null ? 0 : secondClocks[k].getIndex(state, frame);
+			int constant = getConstant(k, state, frame);
+			boolean included = lower[k]
+					? dbm[second * dim + first] <= DBM.bound(-constant, strict[k])
+					: dbm[first * dim + second] <= DBM.bound(constant, strict[k]);
+			if (!included) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int getConstant(int constraint, int[] state, int[] frame) {
+		int constant = constants[constraint].evaluate(state, frame);
+		if (constant > DBM.MAX_CONSTANT || constant < -DBM.MAX_CONSTANT) {
+			throw new EvaluationException("Clock constraint constant out of range", null);
+		}
+		return constant;
+	}
+
+}
@@ -0,0 +1,55 @@
+/**
+ */
+package de.uni_paderborn.uppaal.zones;
+
+import de.uni_paderborn.uppaal.evaluation.CompiledExpression;
+import de.uni_paderborn.uppaal.evaluation.ExpressionCompiler;
+import de.uni_paderborn.uppaal.evaluation.VariableSlot;
+
+/**
+ * A clock of a clock constraint, possibly an element of a clock array, resolved to its index in a DBM.
+ */
+final class ClockTerm {
+	private final VariableSlot slot;
+
+	private final CompiledExpression[] indices;
+
+	/**
+	 * The indices of the clocks in a DBM by their slots in the state.
+	 */
+	private final int[] clockIndices;
+
+	ClockTerm(VariableSlot slot, CompiledExpression[] indices, int[] clockIndices) {
+		this.slot = slot;
+		this.indices = indices;
+		this.clockIndices = clockIndices;
+	}
+
+	/**
+	 * Returns the index of the clock in a DBM.
+	 */
+	int getIndex(int[] state, int[] frame) {
+		int offset = slot.getOffset();
+		int stride = slot.getSize();
+		for (int i = 0; i < indices.length; i++) {
+			stride /= slot.getDimension(i);
+			offset += ExpressionCompiler.checkIndex(indices[i].evaluate(state, frame), slot.getLowerIndex(i), slot.getDimension(i)) * stride;
+		}
+		return clockIndices[offset];
+	}
+
+	/**
+	 * Returns the smallest index of the clocks the term may denote.
+	 */
+	int getFirstIndex() {
+		return clockIndices[slot.getOffset()];
+	}
+
+	/**
+	 * Returns the number of clocks the term may denote, more than one for clock arrays with indices.
+	 */
+	int getIndexCount() {
+		return indices.length == 0 ? 1 : slot.getSize();
+	}
+
+}
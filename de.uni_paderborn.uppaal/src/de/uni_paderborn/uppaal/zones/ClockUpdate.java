@@ -0,0 +1,66 @@
+/**
+ */
+package de.uni_paderborn.uppaal.zones;
+
+import de.uni_paderborn.uppaal.evaluation.CompiledExpression;
+import de.uni_paderborn.uppaal.evaluation.EvaluationException;
+
+/**
+ * An update split into assignments of data variables and resets of clocks, applied in the order of the update,
+ * as created by a {@link ClockConstraintCompiler}.
+ */
+public final class ClockUpdate {
+	/**
+	 * The update without assignments.
+	 */
+	public static final ClockUpdate EMPTY = new ClockUpdate(new CompiledExpression[0], new ClockTerm[0]);
+
+	/**
+	 * The assignments, either of data variables or the values of clock resets.
+	 */
+	private final CompiledExpression[] steps;
+
+	/**
+	 * The reset clocks, <code>null</code> for assignments of data variables.
+	 */
+	private final ClockTerm[] clocks;
+
+	ClockUpdate(CompiledExpression[] steps, ClockTerm[] clocks) {
+		this.steps = steps;
+		this.clocks = clocks;
+	}
+
+	/**
+	 * Returns whether the update resets clocks.
+	 * @return whether a clock is reset.
+	 */
+	public boolean hasClockResets() {
+		for (ClockTerm clock : clocks) {
+			if (clock != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Applies the update.
+	 * @param state the valuation of the data variables, modified by the assignments.
+	 * @param frame the top-level frame, holding the values of selections.
+	 * @param dbm the closed matrix, modified by the resets.
+	 * @param dim the dimension.
+	 * @throws EvaluationException if an assignment cannot be evaluated or a clock is reset to a negative value.
+	 */
+	public void apply(int[] state, int[] frame, int[] dbm, int dim) {
+		for (int i = 0; i < steps.length; i++) {
+			int value = steps[i].evaluate(state, frame);
+			if (clocks[i] != null) {
+				if (value < 0 || value > DBM.MAX_CONSTANT) {
+					throw new EvaluationException("Clock reset to " + value, null);
+				}
+				DBM.reset(dbm, dim, clocks[i].getIndex(state, frame), value);
+			}
+		}
+	}
+
+}
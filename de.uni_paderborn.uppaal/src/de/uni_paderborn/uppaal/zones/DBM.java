@@ -0,0 +1,430 @@
+/**
+ */
+package de.uni_paderborn.uppaal.zones;
+
+/**
+ * Operations on difference bound matrices representing zones of clock valuations.
+ * <p>
+ * A matrix of dimension <code>dim</code> is stored row by row in an <code>int[]</code> of length <code>dim * dim</code>.
+ * The entry at <code>i * dim + j</code> bounds the difference of the clocks <code>i</code> and <code>j</code>,
+ * where clock <code>0</code> is the reference clock, which is always zero.
+ * A bound <code>x_i - x_j &lt; c</code> or <code>x_i - x_j &lt;= c</code> is encoded in a single <code>int</code>
+ * as <code>c &lt;&lt; 1</code> for strict and <code>(c &lt;&lt; 1) | 1</code> for non-strict bounds,
+ * so encoded bounds compare like the bounds they encode. {@link #INFINITY} encodes the absence of a bound.
+ * </p>
+ * <p>
+ * Most operations expect a closed matrix, i.e. one whose bounds are tightest, and keep it closed.
+ * An empty zone is represented by a negative diagonal entry; operations on empty zones are undefined.
+ * The operations work in place and allocate no memory.
+ * </p>
+ */
+public final class DBM {
+	/**
+	 * The encoding of the absence of a bound.
+	 */
+	public static final int INFINITY = Integer.MAX_VALUE;
+
+	/**
+	 * The encoding of <code>&lt;= 0</code>.
+	 */
+	public static final int LE_ZERO = 1;
+
+	/**
+	 * The encoding of <code>&lt; 0</code>.
+	 */
+	public static final int LT_ZERO = 0;
+
+	/**
+	 * The largest constant that can be encoded.
+	 */
+	public static final int MAX_CONSTANT = (Integer.MAX_VALUE >> 1) - 1;
+
+	private DBM() {
+		// Static operations only
+	}
+
+	/**
+	 * Encodes a bound.
+	 * @param constant the constant, at most {@link #MAX_CONSTANT} in magnitude.
+	 * @param strict whether the bound is strict.
+	 * @return the encoded bound.
+	 */
+	public static int bound(int constant, boolean strict) {
+		return strict ? constant << 1 : (constant << 1) | 1;
+	}
+
+	/**
+	 * Returns the constant of an encoded bound.
+	 * @param bound the encoded bound, not {@link #INFINITY}.
+	 * @return the constant.
+	 */
+	public static int getConstant(int bound) {
+		return bound >> 1;
+	}
+
+	/**
+	 * Returns whether an encoded bound is strict.
+	 * @param bound the encoded bound.
+	 * @return whether the bound is strict.
+	 */
+	public static boolean isStrict(int bound) {
+		return (bound & 1) == 0;
+	}
+
+	/**
+	 * Adds two encoded bounds: the sum is strict if one of the bounds is.
+	 * @param first the first bound.
+	 * @param second the second bound.
+	 * @return the encoded sum, {@link #INFINITY} if a bound is.
+	 */
+	public static int add(int first, int second) {
+		if (first == INFINITY || second == INFINITY) {
+			return INFINITY;
+		}
+		return first + second - ((first | second) & 1);
+	}
+
+	/**
+	 * Negates a bound, e.g. turning the bound of <code>x &lt;= c</code> into that of its complement <code>x &gt; c</code>,
+	 * i.e. <code>-x &lt; -c</code>.
+	 * @param bound the encoded bound, not {@link #INFINITY}.
+	 * @return the encoded bound of the complement.
+	 */
+	public static int negate(int bound) {
+		return 1 - bound;
+	}
+
+	/**
+	 * Sets a matrix to the zone holding only the valuation with all clocks zero.
+	 * @param dbm the matrix.
+	 * @param dim the dimension, the number of clocks plus one.
+	 */
+	public static void init(int[] dbm, int dim) {
+		for (int i = 0, size = dim * dim; i < size; i++) {
+			dbm[i] = LE_ZERO;
+		}
+	}
+
+	/**
+	 * Sets a matrix to the zone of all valuations with non-negative clocks.
+	 * @param dbm the matrix.
+	 * @param dim the dimension.
+	 */
+	public static void initUniversal(int[] dbm, int dim) {
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				dbm[i * dim + j] = i == j || i == 0 ? LE_ZERO : INFINITY;
+			}
+		}
+	}
+
+	/**
+	 * Closes a matrix by the Floyd-Warshall algorithm, tightening every bound to the shortest path.
+	 * @param dbm the matrix.
+	 * @param dim the dimension.
+	 * @return whether the zone is not empty.
+	 */
+	public static boolean close(int[] dbm, int dim) {
+		for (int k = 0; k < dim; k++) {
+			int rowK = k * dim;
+			for (int i = 0; i < dim; i++) {
+				int rowI = i * dim;
+				int ik = dbm[rowI + k];
+				if (i == k || ik == INFINITY) {
+					continue;
+				}
+				for (int j = 0; j < dim; j++) {
+					int kj = dbm[rowK + j];
+					if (kj != INFINITY) {
+						int sum = add(ik, kj);
+						if (sum < dbm[rowI + j]) {
+							dbm[rowI + j] = sum;
+						}
+					}
+				}
+				if (dbm[rowI + i] < LE_ZERO) {
+					dbm[0] = LT_ZERO;
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether a matrix represents the empty zone.
+	 * @param dbm the matrix.
+	 * @param dim the dimension.
+	 * @return whether the zone is empty.
+	 */
+	public static boolean isEmpty(int[] dbm, int dim) {
+		return dbm[0] < LE_ZERO;
+	}
+
+	/**
+	 * Lets time pass: removes the upper bounds of the clocks. The matrix stays closed.
+	 * @param dbm the closed matrix.
+	 * @param dim the dimension.
+	 */
+	public static void up(int[] dbm, int dim) {
+		for (int i = 1; i < dim; i++) {
+			dbm[i * dim] = INFINITY;
+		}
+	}
+
+	/**
+	 * Sets a clock to a value. The matrix stays closed.
+	 * @param dbm the closed matrix.
+	 * @param dim the dimension.
+	 * @param clock the clock, at least <code>1</code>.
+	 * @param value the non-negative value.
+	 */
+	public static void reset(int[] dbm, int dim, int clock, int value) {
+		int row = clock * dim;
+		int positive = bound(value, false);
+		int negative = bound(-value, false);
+		for (int j = 0; j < dim; j++) {
+			dbm[row + j] = add(positive, dbm[j]);
+			dbm[j * dim + clock] = add(dbm[j * dim], negative);
+		}
+		dbm[row + clock] = LE_ZERO;
+	}
+
+	/**
+	 * Sets a clock to the value of another clock. The matrix stays closed.
+	 * @param dbm the closed matrix.
+	 * @param dim the dimension.
+	 * @param clock the assigned clock, at least <code>1</code>.
+	 * @param source the clock whose value is assigned.
+	 */
+	public static void copy(int[] dbm, int dim, int clock, int source) {
+		if (clock == source) {
+			return;
+		}
+		int row = clock * dim;
+		int sourceRow = source * dim;
+		for (int j = 0; j < dim; j++) {
+			dbm[row + j] = dbm[sourceRow + j];
+			dbm[j * dim + clock] = dbm[j * dim + source];
+		}
+		dbm[row + clock] = LE_ZERO;
+		dbm[row + source] = LE_ZERO;
+		dbm[sourceRow + clock] = LE_ZERO;
+	}
+
+	/**
+	 * Removes all constraints on a clock but its non-negativity. The matrix stays closed.
+	 * @param dbm the closed matrix.
+	 * @param dim the dimension.
+	 * @param clock the clock, at least <code>1</code>.
+	 */
+	public static void free(int[] dbm, int dim, int clock) {
+		int row = clock * dim;
+		for (int j = 0; j < dim; j++) {
+			dbm[row + j] = INFINITY;
+			dbm[j * dim + clock] = dbm[j * dim];
+		}
+		dbm[row + clock] = LE_ZERO;
+		dbm[clock] = LE_ZERO;
+	}
+
+	/**
+	 * Intersects a zone with the constraint <code>x_i - x_j &lt; c</code> or <code>x_i - x_j &lt;= c</code>,
+	 * closing the matrix again in quadratic time.
+	 * @param dbm the closed matrix.
+	 * @param dim the dimension.
+	 * @param i the first clock.
+	 * @param j the second clock, different from the first.
+	 * @param bound the encoded bound.
+	 * @return whether the zone is not empty.
+	 */
+	public static boolean constrain(int[] dbm, int dim, int i, int j, int bound) {
+		if (bound >= dbm[i * dim + j]) {
+			return true;
+		}
+		if (add(bound, dbm[j * dim + i]) < LE_ZERO) {
+			dbm[0] = LT_ZERO;
+			return false;
+		}
+		dbm[i * dim + j] = bound;
+		for (int k = 0; k < dim; k++) {
+			int ki = dbm[k * dim + i];
+			if (ki == INFINITY) {
+				continue;
+			}
+			int kij = add(ki, bound);
+			int rowK = k * dim;
+			for (int l = 0; l < dim; l++) {
+				int jl = dbm[j * dim + l];
+				if (jl != INFINITY) {
+					int sum = add(kij, jl);
+					if (sum < dbm[rowK + l]) {
+						dbm[rowK + l] = sum;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether a zone contains a valuation satisfying the constraint <code>x_i - x_j &lt; c</code> or <code>x_i - x_j &lt;= c</code>.
+	 * @param dbm the closed matrix.
+	 * @param dim the dimension.
+	 * @param i the first clock.
+	 * @param j the second clock.
+	 * @param bound the encoded bound.
+	 * @return whether the constraint can be satisfied.
+	 */
+	public static boolean satisfies(int[] dbm, int dim, int i, int j, int bound) {
+		return add(bound, dbm[j * dim + i]) >= LE_ZERO;
+	}
+
+	/**
+	 * Intersects a zone with another zone.
+	 * @param dbm the closed matrix, receiving the intersection.
+	 * @param other the closed matrix of the other zone.
+	 * @param dim the dimension.
+	 * @return whether the intersection is not empty.
+	 */
+	public static boolean intersect(int[] dbm, int[] other, int dim) {
+		boolean changed = false;
+		for (int i = 0, size = dim * dim; i < size; i++) {
+			if (other[i] < dbm[i]) {
+				dbm[i] = other[i];
+				changed = true;
+			}
+		}
+		return !changed || close(dbm, dim);
+	}
+
+	/**
+	 * Returns whether a zone is included in another zone.
+	 * @param dbm the closed matrix.
+	 * @param other the closed matrix of the other zone.
+	 * @param dim the dimension.
+	 * @return whether every valuation of the zone is contained in the other zone.
+	 */
+	public static boolean isSubset(int[] dbm, int[] other, int dim) {
+		for (int i = 0, size = dim * dim; i < size; i++) {
+			if (dbm[i] > other[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether two zones are equal.
+	 * @param dbm the closed matrix.
+	 * @param other the closed matrix of the other zone.
+	 * @param dim the dimension.
+	 * @return whether the zones are equal.
+	 */
+	public static boolean equals(int[] dbm, int[] other, int dim) {
+		for (int i = 0, size = dim * dim; i < size; i++) {
+			if (dbm[i] != other[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Computes a hash code of a zone.
+	 * @param dbm the closed matrix.
+	 * @param dim the dimension.
+	 * @return the hash code.
+	 */
+	public static int hashCode(int[] dbm, int dim) {
+		int hash = 1;
+		for (int i = 0, size = dim * dim; i < size; i++) {
+			hash = 31 * hash + dbm[i];
+		}
+		return hash;
+	}
+
+	/**
+	 * Extrapolates a zone with the maximal constants the clocks are compared to,
+	 * so that the zone graph becomes finite while preserving reachability of locations (extrapolation <i>Extra<sub>M</sub><sup>+</sup></i>).
+	 * Bounds above the maximal constant of a clock are removed, as are all bounds on differences with a clock
+	 * exceeding its maximal constant. Lower bounds of such clocks become strict bounds at the maximal constant.
+	 * Clocks with a negative maximal constant are not compared before being reset, and are freed.
+	 * The extrapolation is only sound for models without constraints on differences of clocks.
+	 * @param dbm the closed matrix, closed again.
+	 * @param dim the dimension.
+	 * @param maxConstants the maximal constant of each clock, starting with an unused entry for the reference clock.
+	 */
+	public static void extrapolate(int[] dbm, int dim, int[] maxConstants) {
+		for (int i = 1; i < dim; i++) {
+			if (maxConstants[i] < 0) {
+				free(dbm, dim, i);
+			}
+		}
+		boolean changed = false;
+		// The rows of the clocks first, as they depend on the original lower bounds in the first row
+		for (int i = 1; i < dim; i++) {
+			if (maxConstants[i] < 0) {
+				continue;
+			}
+			boolean above = dbm[i] < bound(-maxConstants[i], false);
+			int upper = bound(maxConstants[i], false);
+			for (int j = 0; j < dim; j++) {
+				int index = i * dim + j;
+				int value = dbm[index];
+				if (i == j || value == INFINITY) {
+					continue;
+				}
+				if (above || value > upper || j > 0 && maxConstants[j] >= 0 && dbm[j] < bound(-maxConstants[j], false)) {
+					dbm[index] = INFINITY;
+					changed = true;
+				}
+			}
+		}
+		for (int j = 1; j < dim; j++) {
+			if (maxConstants[j] >= 0 && dbm[j] < bound(-maxConstants[j], false)) {
+				dbm[j] = bound(-maxConstants[j], true);
+				changed = true;
+			}
+		}
+		if (changed) {
+			close(dbm, dim);
+		}
+	}
+
+	/**
+	 * Returns a textual representation of a zone as a conjunction of its bounds, for debugging.
+	 * @param dbm the closed matrix.
+	 * @param dim the dimension.
+	 * @return the text.
+	 */
+	public static String toString(int[] dbm, int dim) {
+		if (isEmpty(dbm, dim)) {
+			return "false";
+		}
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j < dim; j++) {
+				int value = dbm[i * dim + j];
+				if (i == j || value == INFINITY || i == 0 && value == LE_ZERO) {
+					continue;
+				}
+				if (builder.length() > 0) {
+					builder.append(" && ");
+				}
+				if (i == 0) {
+					builder.append("-x").append(j);
+				}
+				else {
+					builder.append('x').append(i);
+					if (j > 0) {
+						builder.append(" - x").append(j);
+					}
+				}
+				builder.append(isStrict(value) ? " < " : " <= ").append(getConstant(value));
+			}
+		}
+		return builder.length() == 0 ? "true" : builder.toString();
+	}
+
+}
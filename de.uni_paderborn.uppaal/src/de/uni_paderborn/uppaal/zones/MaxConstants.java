@@ -0,0 +1,175 @@
+/**
+ */
+package de.uni_paderborn.uppaal.zones;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.uni_paderborn.uppaal.evaluation.EvaluationException;
+import de.uni_paderborn.uppaal.simulation.ProcessEdge;
+import de.uni_paderborn.uppaal.simulation.SystemInstance;
+import de.uni_paderborn.uppaal.templates.Edge;
+import de.uni_paderborn.uppaal.templates.Location;
+
+/**
+ * The maximal constants of the clocks of a system, depending on the locations of the processes.
+ * <p>
+ * A clock referred to by a single process gets the maximal constant it is compared to in the invariants and guards
+ * reachable from the location of the process without passing a reset of the clock.
+ * The constant is negative if the clock is reset before it is compared again, i.e. the clock is inactive
+ * and {@link DBM#extrapolate(int[], int, int[])} removes its bounds.
+ * Clocks referred to by several processes get the maximal constant of the whole system.
+ * </p>
+ */
+public final class MaxConstants {
+	private final int dim;
+
+	/**
+	 * The maximal constants of the whole system.
+	 */
+	private final int[] global;
+
+	/**
+	 * The process referring to each clock, <code>-1</code> for clocks of several processes.
+	 */
+	private final int[] owners;
+
+	/**
+	 * The maximal constants by process, location and clock.
+	 */
+	private final int[][][] local;
+
+	private MaxConstants(int dim, int[] global, int[] owners, int[][][] local) {
+		this.dim = dim;
+		this.global = global;
+		this.owners = owners;
+		this.local = local;
+	}
+
+	/**
+	 * Computes the maximal constants of a system.
+	 * @param system the system.
+	 * @return the maximal constants.
+	 * @throws EvaluationException if a guard or invariant does not have a supported form, a constant cannot be bounded
+	 * or a constraint compares a difference of clocks.
+	 */
+	public static MaxConstants compute(SystemInstance system) {
+		int dim = ClockConstraintCompiler.getDimension(system);
+		int[] clockIndices = ClockConstraintCompiler.createClockIndices(system);
+		int[] global = ClockConstraintCompiler.computeMaxConstants(system);
+		int processCount = system.getProcessCount();
+		int[] owners = new int[dim];
+		Arrays.fill(owners, -1);
+		boolean[] shared = new boolean[dim];
+		ClockConstraintCompiler[] compilers = new ClockConstraintCompiler[processCount];
+		for (int process = 0; process < processCount; process++) {
+			compilers[process] = new ClockConstraintCompiler(system.getLayout(process), system.getCompiler(process), clockIndices);
+			boolean[] clocks = new boolean[dim];
+			for (Location location : system.getTemplate(process).getLocation()) {
+				compilers[process].addClocks(location.getInvariant(), clocks);
+			}
+			for (Edge edge : system.getTemplate(process).getEdge()) {
+				compilers[process].addClocks(edge, clocks);
+			}
+			for (int clock = 1; clock < dim; clock++) {
+				if (clocks[clock]) {
+					shared[clock] |= owners[clock] >= 0;
+					owners[clock] = process;
+				}
+			}
+		}
+		for (int clock = 1; clock < dim; clock++) {
+			if (shared[clock]) {
+				owners[clock] = -1;
+			}
+		}
+
+		int[] state = system.createState();
+		int[][][] local = new int[processCount][][];
+		for (int process = 0; process < processCount; process++) {
+			List<Location> locations = system.getTemplate(process).getLocation();
+			int locationCount = locations.size();
+			local[process] = new int[locationCount][dim];
+			boolean[][][] resets = new boolean[locationCount][][];
+			for (int location = 0; location < locationCount; location++) {
+				int[] maxConstants = local[process][location];
+				Arrays.fill(maxConstants, -1);
+				maxConstants[0] = 0;
+				compilers[process].addMaxConstants(locations.get(location).getInvariant(), state, maxConstants);
+				ProcessEdge[] outgoing = system.getOutgoing(process, location);
+				resets[location] = new boolean[outgoing.length][dim];
+				for (int i = 0; i < outgoing.length; i++) {
+					compilers[process].addMaxConstants(outgoing[i].getEdge().getGuard(), state, maxConstants);
+					compilers[process].addResetClocks(outgoing[i].getEdge().getUpdate(), resets[location][i]);
+				}
+			}
+			// Propagates the constants backwards along the edges not resetting the clocks
+			boolean changed = true;
+			while (changed) {
+				changed = false;
+				for (int location = 0; location < locationCount; location++) {
+					int[] maxConstants = local[process][location];
+					ProcessEdge[] outgoing = system.getOutgoing(process, location);
+					for (int i = 0; i < outgoing.length; i++) {
+						int[] target = local[process][outgoing[i].getTarget()];
+						for (int clock = 1; clock < dim; clock++) {
+							if (!resets[location][i][clock] && target[clock] > maxConstants[clock]) {
+								maxConstants[clock] = target[clock];
+								changed = true;
+							}
+						}
+					}
+				}
+			}
+		}
+		return new MaxConstants(dim, global, owners, local);
+	}
+
+	/**
+	 * Returns the dimension of the DBMs, i.e. the number of clocks plus the reference clock.
+	 * @return the dimension.
+	 */
+	public int getDimension() {
+		return dim;
+	}
+
+	/**
+	 * Returns the maximal constants of the whole system.
+	 * @return the maximal constants by the indices of the DBM, which must not be modified.
+	 */
+	public int[] getGlobal() {
+		return global;
+	}
+
+	/**
+	 * Treats clocks as referred to by several processes, e.g. because a property compares them,
+	 * and raises their maximal constants.
+	 * @param maxConstants the maximal constants to raise to by the indices of the DBM, <code>-1</code> for clocks to keep.
+	 * @return the new maximal constants.
+	 */
+	public MaxConstants share(int[] maxConstants) {
+		int[] newGlobal = global.clone();
+		int[] newOwners = owners.clone();
+		for (int clock = 1; clock < dim; clock++) {
+			if (maxConstants[clock] >= 0) {
+				newGlobal[clock] = Math.max(newGlobal[clock], maxConstants[clock]);
+				newOwners[clock] = -1;
+			}
+		}
+		return new MaxConstants(dim, newGlobal, newOwners, local);
+	}
+
+	/**
+	 * Computes the maximal constants in a state.
+	 * @param locations the locations of the processes.
+	 * @param maxConstants the array receiving the maximal constants by the indices of the DBM.
+	 */
+	public void get(int[] locations, int[] maxConstants) {
+		maxConstants[0] = 0;
+		for (int clock = 1; clock < dim; clock++) {
+			int owner = owners[clock];
+			maxConstants[clock] = owner < 0 ? global[clock] : local[owner][locations[owner]][clock];
+		}
+	}
+
+}